@@ -25,20 +25,39 @@ import com.facebook.presto.spi.analyzer.AnalyzerOptions;
 import com.facebook.presto.spi.analyzer.QueryPreparer;
 import com.facebook.presto.spi.procedure.ProcedureRegistry;
 import com.facebook.presto.sql.analyzer.utils.StatementUtils;
+import com.facebook.presto.sql.parser.NormalizedQuery;
+import com.facebook.presto.sql.parser.ParsingException;
+import com.facebook.presto.sql.parser.ParsingOptions;
+import com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment;
+import com.facebook.presto.sql.parser.ParsingWarning;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.tree.Call;
+import com.facebook.presto.sql.tree.DefaultTraversalVisitor;
 import com.facebook.presto.sql.tree.Execute;
 import com.facebook.presto.sql.tree.Explain;
 import com.facebook.presto.sql.tree.ExplainType;
 import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.FunctionCall;
+import com.facebook.presto.sql.tree.GroupBy;
+import com.facebook.presto.sql.tree.GroupingElement;
+import com.facebook.presto.sql.tree.LambdaExpression;
+import com.facebook.presto.sql.tree.NodeLocation;
+import com.facebook.presto.sql.tree.Parameter;
 import com.facebook.presto.sql.tree.QualifiedName;
+import com.facebook.presto.sql.tree.Query;
+import com.facebook.presto.sql.tree.Select;
+import com.facebook.presto.sql.tree.SortItem;
 import com.facebook.presto.sql.tree.Statement;
+import com.facebook.presto.sql.tree.SubscriptExpression;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import jakarta.inject.Inject;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import static com.facebook.presto.common.WarningHandlingLevel.AS_ERROR;
@@ -52,8 +71,13 @@ import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_PARAMET
 import static com.facebook.presto.sql.analyzer.utils.AnalyzerUtil.createParsingOptions;
 import static com.facebook.presto.sql.analyzer.utils.MetadataUtils.createQualifiedObjectName;
 import static com.facebook.presto.sql.analyzer.utils.ParameterExtractor.getParameterCount;
+import static com.facebook.presto.sql.analyzer.utils.ParameterExtractor.getParameters;
+import static com.facebook.presto.sql.parser.NormalizedQuery.normalizeLiterals;
 import static com.facebook.presto.sql.tree.ExplainType.Type.VALIDATE;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.lang.String.format;
+import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 
@@ -65,30 +89,73 @@ public class BuiltInQueryPreparer
 {
     private final SqlParser sqlParser;
     private final ProcedureRegistry procedureRegistry;
+    private final Optional<Cache<StatementCacheKey, ParsedStatement>> statementCache;
 
     @Inject
     public BuiltInQueryPreparer(
             SqlParser sqlParser,
             ProcedureRegistry procedureRegistry)
+    {
+        this(sqlParser, procedureRegistry, 0);
+    }
+
+    /**
+     * @param statementCacheSize the number of parsed statements to keep, so that the statements of
+     * repeated queries and the prepared statements of repeated EXECUTEs are not parsed again,
+     * or 0 to parse every statement. Queries that only differ in the values of their literals
+     * share the statement parsed with parameters in place of the literals.
+     */
+    public BuiltInQueryPreparer(
+            SqlParser sqlParser,
+            ProcedureRegistry procedureRegistry,
+            long statementCacheSize)
     {
         this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
         this.procedureRegistry = requireNonNull(procedureRegistry, "procedureRegistry is null");
+        checkArgument(statementCacheSize >= 0, "statementCacheSize is negative");
+        if (statementCacheSize == 0) {
+            this.statementCache = Optional.empty();
+        }
+        else {
+            this.statementCache = Optional.of(CacheBuilder.newBuilder()
+                    .maximumSize(statementCacheSize)
+                    .build());
+        }
     }
 
     @Override
     public BuiltInPreparedQuery prepareQuery(AnalyzerOptions analyzerOptions, String query, Map<String, String> preparedStatements, WarningCollector warningCollector)
     {
-        Statement wrappedStatement = sqlParser.createStatement(query, createParsingOptions(analyzerOptions));
+        ParsingOptions parsingOptions = createParsingOptions(analyzerOptions);
+        Optional<NormalizedQuery> normalizedQuery = statementCache.flatMap(cache -> normalizeLiterals(query, parsingOptions.getDecimalLiteralTreatment()));
+        Optional<BoundStatement> boundStatement = normalizedQuery.flatMap(normalized -> createNormalizedStatement(normalized, parsingOptions));
+        Statement wrappedStatement;
+        List<Expression> literals = ImmutableList.of();
+        if (boundStatement.isPresent()) {
+            wrappedStatement = boundStatement.get().getStatement();
+            literals = boundStatement.get().getParameters();
+        }
+        else {
+            wrappedStatement = createStatement(query, parsingOptions);
+        }
         if (warningCollector.hasWarnings() && analyzerOptions.getWarningHandlingLevel() == AS_ERROR) {
             throw new PrestoException(WARNING_AS_ERROR, format("Warning handling level set to AS_ERROR. Warnings: %n %s",
                     warningCollector.getWarnings().stream()
                             .map(PrestoWarning::getMessage)
                             .collect(joining(System.lineSeparator()))));
         }
-        return prepareQuery(analyzerOptions, wrappedStatement, preparedStatements);
+        return prepareQuery(analyzerOptions, wrappedStatement, literals, preparedStatements);
     }
 
     public BuiltInPreparedQuery prepareQuery(AnalyzerOptions analyzerOptions, Statement wrappedStatement, Map<String, String> preparedStatements)
+    {
+        return prepareQuery(analyzerOptions, wrappedStatement, ImmutableList.of(), preparedStatements);
+    }
+
+    /**
+     * @param literals the literals bound to the parameters of a statement parsed from a normalized query
+     */
+    private BuiltInPreparedQuery prepareQuery(AnalyzerOptions analyzerOptions, Statement wrappedStatement, List<Expression> literals, Map<String, String> preparedStatements)
     {
         Statement statement = wrappedStatement;
         Optional<String> prepareSql = Optional.empty();
@@ -96,7 +163,7 @@ public class BuiltInQueryPreparer
             String preparedStatementName = ((Execute) statement).getName().getValue();
             prepareSql = Optional.ofNullable(preparedStatements.get(preparedStatementName));
             String query = prepareSql.orElseThrow(() -> new PrestoException(NOT_FOUND, "Prepared statement not found: " + preparedStatementName));
-            statement = sqlParser.createStatement(query, createParsingOptions(analyzerOptions));
+            statement = createStatement(query, createParsingOptions(analyzerOptions));
         }
 
         Optional<QualifiedObjectName> distributedProcedureName = Optional.empty();
@@ -118,7 +185,7 @@ public class BuiltInQueryPreparer
                 throw new PrestoException(NOT_SUPPORTED, "EXPLAIN ANALYZE doesn't support statement type: " + innerStatement.getClass().getSimpleName());
             }
         }
-        List<Expression> parameters = ImmutableList.of();
+        List<Expression> parameters = literals;
         if (wrappedStatement instanceof Execute) {
             parameters = ((Execute) wrappedStatement).getParameters();
         }
@@ -130,6 +197,84 @@ public class BuiltInQueryPreparer
         return new BuiltInPreparedQuery(wrappedStatement, statement, parameters, formattedQuery, prepareSql, distributedProcedureName);
     }
 
+    private Statement createStatement(String query, ParsingOptions parsingOptions)
+    {
+        if (!statementCache.isPresent()) {
+            return sqlParser.createStatement(query, parsingOptions);
+        }
+
+        // statements are immutable, so a cached statement can be shared by concurrent queries
+        StatementCacheKey key = new StatementCacheKey(query, parsingOptions.getDecimalLiteralTreatment(), false);
+        ParsedStatement parsedStatement = statementCache.get().getIfPresent(key);
+        if (parsedStatement == null) {
+            ImmutableList.Builder<ParsingWarning> warnings = ImmutableList.builder();
+            Statement statement = sqlParser.createStatement(query, ParsingOptions.builder()
+                    .setDecimalLiteralTreatment(parsingOptions.getDecimalLiteralTreatment())
+                    .setWarningConsumer(warnings::add)
+                    .build());
+            parsedStatement = new ParsedStatement(statement, warnings.build(), ImmutableList.of());
+            statementCache.get().put(key, parsedStatement);
+        }
+        // the warnings of the parse are reported to every query that uses the statement
+        parsedStatement.getWarnings().forEach(parsingOptions.getWarningConsumer());
+        return parsedStatement.getStatement();
+    }
+
+    /**
+     * Returns the statement parsed from the normalized query with its parameters bound to the literals
+     * of the query, or empty if the statement would not mean the same as the query.
+     */
+    private Optional<BoundStatement> createNormalizedStatement(NormalizedQuery normalizedQuery, ParsingOptions parsingOptions)
+    {
+        StatementCacheKey key = new StatementCacheKey(normalizedQuery.getSql(), parsingOptions.getDecimalLiteralTreatment(), true);
+        ParsedStatement parsedStatement = statementCache.get().getIfPresent(key);
+        if (parsedStatement == null) {
+            parsedStatement = parseNormalizedStatement(normalizedQuery, parsingOptions.getDecimalLiteralTreatment());
+            statementCache.get().put(key, parsedStatement);
+        }
+        if (!parsedStatement.isNormalized()) {
+            return Optional.empty();
+        }
+
+        parsedStatement.getWarnings().forEach(parsingOptions.getWarningConsumer());
+        // the normalized query has the same text for every query that uses the statement, so the literals are at the same locations
+        List<Expression> literals = parsedStatement.getParameterLocations().stream()
+                .map(location -> normalizedQuery.getLiteral(location)
+                        .orElseThrow(() -> new IllegalStateException("No literal at the location of a parameter")))
+                .collect(toImmutableList());
+        return Optional.of(new BoundStatement(parsedStatement.getStatement(), literals));
+    }
+
+    private ParsedStatement parseNormalizedStatement(NormalizedQuery normalizedQuery, DecimalLiteralTreatment decimalLiteralTreatment)
+    {
+        ImmutableList.Builder<ParsingWarning> warnings = ImmutableList.builder();
+        Statement statement;
+        try {
+            statement = sqlParser.createStatement(normalizedQuery.getSql(), ParsingOptions.builder()
+                    .setDecimalLiteralTreatment(decimalLiteralTreatment)
+                    .setWarningConsumer(warnings::add)
+                    .build());
+        }
+        catch (ParsingException e) {
+            // a literal was replaced where the grammar does not accept a parameter
+            return ParsedStatement.NOT_NORMALIZED;
+        }
+
+        // the analyzer resolves parameters like the literals they are bound to in queries only,
+        // and only outside of the expressions it tells literals apart or matches with each other
+        if (!(statement instanceof Query) || !LiteralParameterVerifier.isValid(statement)) {
+            return ParsedStatement.NOT_NORMALIZED;
+        }
+        List<NodeLocation> parameterLocations = getParameters(statement).stream()
+                .sorted(comparing(Parameter::getPosition))
+                .map(parameter -> parameter.getLocation().get())
+                .collect(toImmutableList());
+        if (parameterLocations.size() != normalizedQuery.getLiteralCount()) {
+            return ParsedStatement.NOT_NORMALIZED;
+        }
+        return new ParsedStatement(statement, warnings.build(), parameterLocations);
+    }
+
     private static String getFormattedQuery(Statement statement, List<Expression> parameters)
     {
         String formattedQuery = formatSql(
@@ -222,4 +367,195 @@ public class BuiltInQueryPreparer
                     .anyMatch(explainType -> explainType.getType() == VALIDATE);
         }
     }
+
+    private static class StatementCacheKey
+    {
+        private final String query;
+        private final DecimalLiteralTreatment decimalLiteralTreatment;
+        // a normalized query can have the same text as a query with parameters
+        private final boolean normalized;
+
+        public StatementCacheKey(String query, DecimalLiteralTreatment decimalLiteralTreatment, boolean normalized)
+        {
+            this.query = requireNonNull(query, "query is null");
+            this.decimalLiteralTreatment = requireNonNull(decimalLiteralTreatment, "decimalLiteralTreatment is null");
+            this.normalized = normalized;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            StatementCacheKey that = (StatementCacheKey) o;
+            return query.equals(that.query) &&
+                    decimalLiteralTreatment == that.decimalLiteralTreatment &&
+                    normalized == that.normalized;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(query, decimalLiteralTreatment, normalized);
+        }
+    }
+
+    private static class ParsedStatement
+    {
+        // cached for a normalized query whose statement cannot be used, so that it is not parsed again
+        public static final ParsedStatement NOT_NORMALIZED = new ParsedStatement(null, ImmutableList.of(), ImmutableList.of());
+
+        private final Statement statement;
+        private final List<ParsingWarning> warnings;
+        private final List<NodeLocation> parameterLocations;
+
+        public ParsedStatement(Statement statement, List<ParsingWarning> warnings, List<NodeLocation> parameterLocations)
+        {
+            this.statement = statement;
+            this.warnings = ImmutableList.copyOf(requireNonNull(warnings, "warnings is null"));
+            this.parameterLocations = ImmutableList.copyOf(requireNonNull(parameterLocations, "parameterLocations is null"));
+        }
+
+        public boolean isNormalized()
+        {
+            return this != NOT_NORMALIZED;
+        }
+
+        public Statement getStatement()
+        {
+            return requireNonNull(statement, "statement is null");
+        }
+
+        public List<ParsingWarning> getWarnings()
+        {
+            return warnings;
+        }
+
+        /**
+         * The locations of the parameters of a statement parsed from a normalized query, ordered by parameter position
+         */
+        public List<NodeLocation> getParameterLocations()
+        {
+            return parameterLocations;
+        }
+    }
+
+    private static class BoundStatement
+    {
+        private final Statement statement;
+        private final List<Expression> parameters;
+
+        public BoundStatement(Statement statement, List<Expression> parameters)
+        {
+            this.statement = requireNonNull(statement, "statement is null");
+            this.parameters = ImmutableList.copyOf(requireNonNull(parameters, "parameters is null"));
+        }
+
+        public Statement getStatement()
+        {
+            return statement;
+        }
+
+        public List<Expression> getParameters()
+        {
+            return parameters;
+        }
+    }
+
+    /**
+     * Finds parameters where the analyzer treats a literal differently from the parameter bound to it:
+     * <ul>
+     * <li>the expressions of GROUP BY, ORDER BY and SELECT DISTINCT, which the analyzer matches with other
+     * expressions of the query. Parameters are equal when they have the same position, so {@code a + ?}
+     * in the select list would not match {@code a + ?} in the GROUP BY, while {@code a + 1} matches {@code a + 1}.</li>
+     * <li>the index of a subscript, and the standard error of approx_distinct and approx_set, which it reads
+     * from a literal to warn about.</li>
+     * </ul>
+     */
+    private static class LiteralParameterVerifier
+            extends DefaultTraversalVisitor<Void, Void>
+    {
+        private boolean valid = true;
+        // the number of enclosing expressions that the analyzer matches with other expressions
+        private int matchedExpressionDepth;
+
+        public static boolean isValid(Statement statement)
+        {
+            LiteralParameterVerifier verifier = new LiteralParameterVerifier();
+            verifier.process(statement, null);
+            return verifier.valid;
+        }
+
+        @Override
+        protected Void visitGroupBy(GroupBy node, Void context)
+        {
+            matchedExpressionDepth++;
+            for (GroupingElement groupingElement : node.getGroupingElements()) {
+                groupingElement.getExpressions().forEach(expression -> process(expression, context));
+            }
+            matchedExpressionDepth--;
+            return null;
+        }
+
+        @Override
+        protected Void visitSortItem(SortItem node, Void context)
+        {
+            matchedExpressionDepth++;
+            super.visitSortItem(node, context);
+            matchedExpressionDepth--;
+            return null;
+        }
+
+        @Override
+        protected Void visitSelect(Select node, Void context)
+        {
+            if (!node.isDistinct()) {
+                return super.visitSelect(node, context);
+            }
+            matchedExpressionDepth++;
+            super.visitSelect(node, context);
+            matchedExpressionDepth--;
+            return null;
+        }
+
+        @Override
+        protected Void visitParameter(Parameter node, Void context)
+        {
+            if (matchedExpressionDepth > 0) {
+                valid = false;
+            }
+            return null;
+        }
+
+        @Override
+        protected Void visitSubscriptExpression(SubscriptExpression node, Void context)
+        {
+            if (node.getIndex() instanceof Parameter) {
+                valid = false;
+            }
+            return super.visitSubscriptExpression(node, context);
+        }
+
+        @Override
+        protected Void visitFunctionCall(FunctionCall node, Void context)
+        {
+            String functionName = node.getName().getSuffix();
+            if ((functionName.equalsIgnoreCase("approx_distinct") || functionName.equalsIgnoreCase("approx_set")) &&
+                    node.getArguments().stream().anyMatch(Parameter.class::isInstance)) {
+                valid = false;
+            }
+            return super.visitFunctionCall(node, context);
+        }
+
+        @Override
+        protected Void visitLambdaExpression(LambdaExpression node, Void context)
+        {
+            process(node.getBody(), context);
+            return null;
+        }
+    }
 }
@@ -16,6 +16,7 @@ package com.facebook.presto.sql.analyzer;
 import com.facebook.presto.common.resourceGroups.QueryType;
 import com.facebook.presto.spi.ConnectorId;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.PrestoWarning;
 import com.facebook.presto.spi.WarningCollector;
 import com.facebook.presto.spi.analyzer.AnalyzerOptions;
 import com.facebook.presto.spi.procedure.BaseProcedure;
@@ -29,8 +30,13 @@ import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.tree.AllColumns;
 import com.facebook.presto.sql.tree.Call;
 import com.facebook.presto.sql.tree.CallArgument;
+import com.facebook.presto.sql.tree.DecimalLiteral;
+import com.facebook.presto.sql.tree.DoubleLiteral;
+import com.facebook.presto.sql.tree.LongLiteral;
 import com.facebook.presto.sql.tree.QualifiedName;
+import com.facebook.presto.sql.tree.Statement;
 import com.facebook.presto.sql.tree.StringLiteral;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -49,6 +55,8 @@ import static com.facebook.presto.sql.QueryUtil.simpleQuery;
 import static com.facebook.presto.sql.QueryUtil.table;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_PARAMETER_USAGE;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -190,4 +198,117 @@ public class TestBuiltInQueryPreparer
                 "   FROM\n" +
                 "     foo\n"));
     }
+
+    @Test
+    public void testStatementCache()
+    {
+        BuiltInQueryPreparer cachingQueryPreparer = new BuiltInQueryPreparer(SQL_PARSER, procedureRegistry, 10);
+        String query = "SELECT * FROM foo WHERE a OR b AND c";
+
+        List<Statement> statements = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            TestingWarningCollector warningCollector = new TestingWarningCollector();
+            AnalyzerOptions analyzerOptions = AnalyzerOptions.builder().setWarningCollector(warningCollector).build();
+            statements.add(cachingQueryPreparer.prepareQuery(analyzerOptions, query, emptyPreparedStatements, warningCollector).getStatement());
+            // the parser warning is reported to the query that hits the cache as well
+            assertEquals(warningCollector.getWarnings().size(), 1);
+        }
+        assertSame(statements.get(1), statements.get(0));
+
+        // the prepared statement of an EXECUTE is cached as well
+        Map<String, String> preparedStatements = ImmutableMap.of("my_query", "SELECT * FROM foo where col1 = ?");
+        BuiltInPreparedQuery first = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, "EXECUTE my_query USING 1", preparedStatements, WarningCollector.NOOP);
+        BuiltInPreparedQuery second = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, "EXECUTE my_query USING 2", preparedStatements, WarningCollector.NOOP);
+        assertSame(second.getStatement(), first.getStatement());
+        assertEquals(second.getParameters(), ImmutableList.of(new LongLiteral("2")));
+
+        // the statement depends on how decimal literals are parsed
+        AnalyzerOptions decimalAsDouble = AnalyzerOptions.builder().setParseDecimalLiteralsAsDouble(true).build();
+        BuiltInPreparedQuery asDouble = cachingQueryPreparer.prepareQuery(decimalAsDouble, "SELECT 1.5", emptyPreparedStatements, WarningCollector.NOOP);
+        BuiltInPreparedQuery asDecimal = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, "SELECT 1.5", emptyPreparedStatements, WarningCollector.NOOP);
+        assertNotSame(asDouble.getStatement(), asDecimal.getStatement());
+        assertEquals(asDouble.getParameters(), ImmutableList.of(new DoubleLiteral("1.5")));
+        assertEquals(asDecimal.getParameters(), ImmutableList.of(new DecimalLiteral("1.5")));
+    }
+
+    @Test
+    public void testStatementCacheNormalizesLiterals()
+    {
+        BuiltInQueryPreparer cachingQueryPreparer = new BuiltInQueryPreparer(SQL_PARSER, procedureRegistry, 10);
+
+        // queries that only differ in literals share the statement, with the literals bound to its parameters
+        BuiltInPreparedQuery first = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, "SELECT * FROM foo WHERE col1 = 'abc' AND col2 > 10", emptyPreparedStatements, WarningCollector.NOOP);
+        BuiltInPreparedQuery second = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, "SELECT * FROM foo WHERE col1 = 'xyz' AND col2 > 42", emptyPreparedStatements, WarningCollector.NOOP);
+        assertSame(second.getStatement(), first.getStatement());
+        assertEquals(first.getParameters(), ImmutableList.of(new StringLiteral("abc"), new LongLiteral("10")));
+        assertEquals(second.getParameters(), ImmutableList.of(new StringLiteral("xyz"), new LongLiteral("42")));
+        // whatever the length of the literals
+        BuiltInPreparedQuery third = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, "SELECT * FROM foo WHERE col1 = '' AND col2 > 100000", emptyPreparedStatements, WarningCollector.NOOP);
+        assertSame(third.getStatement(), first.getStatement());
+        assertEquals(third.getParameters(), ImmutableList.of(new StringLiteral(""), new LongLiteral("100000")));
+        assertEquals(
+                queryPreparer.prepareQuery(testAnalyzerOptions, "SELECT * FROM foo WHERE col1 = ? AND col2 > ?", emptyPreparedStatements, WarningCollector.NOOP).getStatement(),
+                first.getStatement());
+
+        // ordinals stay literals
+        BuiltInPreparedQuery grouped = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, "SELECT col1, count(*) FROM foo WHERE col2 = 1 GROUP BY 1 ORDER BY 2", emptyPreparedStatements, WarningCollector.NOOP);
+        assertEquals(grouped.getParameters(), ImmutableList.of(new LongLiteral("1")));
+        assertEquals(
+                grouped.getStatement(),
+                queryPreparer.prepareQuery(testAnalyzerOptions, "SELECT col1, count(*) FROM foo WHERE col2 = ? GROUP BY 1 ORDER BY 2", emptyPreparedStatements, WarningCollector.NOOP).getStatement());
+
+        // the analyzer matches the expressions of GROUP BY, ORDER BY and SELECT DISTINCT with the select list
+        assertNotNormalized(cachingQueryPreparer, "SELECT col1 + 1, count(*) FROM foo GROUP BY col1 + 1");
+        assertNotNormalized(cachingQueryPreparer, "SELECT date_trunc('day', col1), count(*) FROM foo GROUP BY date_trunc('day', col1)");
+        assertNotNormalized(cachingQueryPreparer, "SELECT DISTINCT col1 + 1 FROM foo ORDER BY col1 + 1");
+        assertNotNormalized(cachingQueryPreparer, "SELECT DISTINCT col1 + 1 FROM foo");
+
+        // the analyzer reads the standard error of approx_distinct from a literal
+        String approxDistinct = "SELECT approx_distinct(col1, 1E-2) FROM foo";
+        BuiltInPreparedQuery notNormalized = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, approxDistinct, emptyPreparedStatements, WarningCollector.NOOP);
+        assertEquals(notNormalized.getParameters(), ImmutableList.of());
+        assertEquals(notNormalized.getStatement(), SQL_PARSER.createStatement(approxDistinct));
+        assertSame(cachingQueryPreparer.prepareQuery(testAnalyzerOptions, approxDistinct, emptyPreparedStatements, WarningCollector.NOOP).getStatement(), notNormalized.getStatement());
+
+        // the precision of CURRENT_TIMESTAMP cannot be a parameter
+        String currentTimestamp = "SELECT CURRENT_TIMESTAMP(3)";
+        notNormalized = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, currentTimestamp, emptyPreparedStatements, WarningCollector.NOOP);
+        assertEquals(notNormalized.getParameters(), ImmutableList.of());
+        assertEquals(notNormalized.getStatement(), SQL_PARSER.createStatement(currentTimestamp));
+
+        // only queries are normalized
+        BuiltInPreparedQuery explain = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, "EXPLAIN SELECT * FROM foo WHERE col1 = 1", emptyPreparedStatements, WarningCollector.NOOP);
+        assertEquals(explain.getParameters(), ImmutableList.of());
+    }
+
+    private static void assertNotNormalized(BuiltInQueryPreparer cachingQueryPreparer, String query)
+    {
+        BuiltInPreparedQuery preparedQuery = cachingQueryPreparer.prepareQuery(testAnalyzerOptions, query, emptyPreparedStatements, WarningCollector.NOOP);
+        assertEquals(preparedQuery.getParameters(), ImmutableList.of());
+        assertEquals(preparedQuery.getStatement(), SQL_PARSER.createStatement(query));
+    }
+
+    private static class TestingWarningCollector
+            implements WarningCollector
+    {
+        private final List<PrestoWarning> warnings = new ArrayList<>();
+
+        @Override
+        public void add(PrestoWarning warning)
+        {
+            warnings.add(warning);
+        }
+
+        @Override
+        public List<PrestoWarning> getWarnings()
+        {
+            return warnings;
+        }
+
+        @Override
+        public boolean hasWarnings()
+        {
+            return !warnings.isEmpty();
+        }
+    }
 }
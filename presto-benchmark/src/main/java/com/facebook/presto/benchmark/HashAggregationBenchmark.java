@@ -23,25 +23,38 @@ import com.facebook.presto.spi.plan.AggregationNode.Step;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.testing.LocalQueryRunner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.primitives.Ints;
 
 import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.SystemSessionProperties.HASH_AGGREGATION_RADIX_PARTITION_COUNT;
 import static com.facebook.presto.benchmark.BenchmarkQueryRunner.createLocalQueryRunner;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.operator.aggregation.GenericAccumulatorFactory.generateAccumulatorFactory;
 import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static java.util.Objects.requireNonNull;
 
 public class HashAggregationBenchmark
         extends AbstractSimpleOperatorBenchmark
 {
     private final JavaAggregationFunctionImplementation doubleSum;
+    private final String groupByColumn;
 
     public HashAggregationBenchmark(LocalQueryRunner localQueryRunner)
     {
-        super(localQueryRunner, "hash_agg", 5, 25);
+        this(localQueryRunner, "hash_agg", "orderstatus");
+    }
+
+    /**
+     * @param groupByColumn column of the orders table to group by; "orderkey" produces one group per row
+     */
+    public HashAggregationBenchmark(LocalQueryRunner localQueryRunner, String benchmarkName, String groupByColumn)
+    {
+        super(localQueryRunner, benchmarkName, 5, 25);
+        this.groupByColumn = requireNonNull(groupByColumn, "groupByColumn is null");
 
         FunctionAndTypeManager functionAndTypeManager = localQueryRunner.getMetadata().getFunctionAndTypeManager();
         doubleSum = functionAndTypeManager.getJavaAggregateFunctionImplementation(
@@ -51,8 +64,8 @@ public class HashAggregationBenchmark
     @Override
     protected List<? extends OperatorFactory> createOperatorFactories()
     {
-        List<Type> tableTypes = getColumnTypes("orders", "orderstatus", "totalprice");
-        OperatorFactory tableScanOperator = createTableScanOperator(0, new PlanNodeId("test"), "orders", "orderstatus", "totalprice");
+        List<Type> tableTypes = getColumnTypes("orders", groupByColumn, "totalprice");
+        OperatorFactory tableScanOperator = createTableScanOperator(0, new PlanNodeId("test"), "orders", groupByColumn, "totalprice");
         HashAggregationOperatorFactory aggregationOperator = new HashAggregationOperatorFactory(
                 1,
                 new PlanNodeId("test"),
@@ -74,5 +87,9 @@ public class HashAggregationBenchmark
     public static void main(String[] args)
     {
         new HashAggregationBenchmark(createLocalQueryRunner()).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+        new HashAggregationBenchmark(createLocalQueryRunner(), "hash_agg_high_cardinality", "orderkey")
+                .runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+        new HashAggregationBenchmark(createLocalQueryRunner(ImmutableMap.of(HASH_AGGREGATION_RADIX_PARTITION_COUNT, "16")), "hash_agg_high_cardinality_radix", "orderkey")
+                .runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
     }
 }
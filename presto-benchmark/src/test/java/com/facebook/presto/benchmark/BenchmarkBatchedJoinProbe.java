@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.benchmark;
+
+import com.facebook.presto.common.Page;
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.facebook.presto.SystemSessionProperties.JOIN_PROBE_BATCH_SIZE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+
+/**
+ * Compares probing a lookup join one row at a time with probing it in batches
+ * (see {@link com.facebook.presto.operator.LookupSource#getJoinPositions}).
+ * The probe side is much larger than the build side, so the probe loop dominates.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class BenchmarkBatchedJoinProbe
+{
+    @State(Thread)
+    public static class Context
+    {
+        private MemoryLocalQueryRunner queryRunner;
+
+        @Param({"0", "256", "1024"})
+        private String joinProbeBatchSize = "1024";
+
+        public MemoryLocalQueryRunner getQueryRunner()
+        {
+            return queryRunner;
+        }
+
+        @Setup
+        public void setUp()
+        {
+            queryRunner = new MemoryLocalQueryRunner(ImmutableMap.of(JOIN_PROBE_BATCH_SIZE, joinProbeBatchSize));
+
+            queryRunner.execute("CREATE TABLE memory.default.probe AS SELECT orderkey, partkey, suppkey FROM tpch.tiny.lineitem");
+            queryRunner.execute("CREATE TABLE memory.default.build_orders AS SELECT orderkey, custkey FROM tpch.tiny.orders");
+            queryRunner.execute("CREATE TABLE memory.default.build_parts AS SELECT partkey, size FROM tpch.tiny.part");
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            queryRunner.close();
+            queryRunner = null;
+        }
+    }
+
+    @Benchmark
+    public List<Page> benchmarkJoin(Context context)
+    {
+        return context.getQueryRunner()
+                .execute("SELECT count(*) FROM probe JOIN build_orders ON probe.orderkey = build_orders.orderkey");
+    }
+
+    @Benchmark
+    public List<Page> benchmarkSelectiveJoin(Context context)
+    {
+        // only a few probe rows find a match
+        return context.getQueryRunner()
+                .execute("SELECT count(*) FROM probe JOIN (SELECT * FROM build_parts WHERE size = 1) p ON probe.partkey = p.partkey");
+    }
+
+    @Benchmark
+    public List<Page> benchmarkStarJoin(Context context)
+    {
+        return context.getQueryRunner()
+                .execute("SELECT count(*) FROM probe " +
+                        "JOIN build_orders ON probe.orderkey = build_orders.orderkey " +
+                        "JOIN build_parts ON probe.partkey = build_parts.partkey");
+    }
+
+    @Test
+    public void verifyJoinBenchmark()
+    {
+        Context context = new Context();
+        try {
+            context.setUp();
+            benchmarkStarJoin(context);
+        }
+        finally {
+            context.tearDown();
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkBatchedJoinProbe.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
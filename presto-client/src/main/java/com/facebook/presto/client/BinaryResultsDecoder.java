@@ -0,0 +1,250 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.type.Decimals;
+import com.facebook.presto.common.type.NamedTypeSignature;
+import com.facebook.presto.common.type.ParameterKind;
+import com.facebook.presto.common.type.TypeSignature;
+import com.facebook.presto.common.type.TypeSignatureParameter;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.StandardTypes.ARRAY;
+import static com.facebook.presto.common.type.StandardTypes.BIGINT;
+import static com.facebook.presto.common.type.StandardTypes.BOOLEAN;
+import static com.facebook.presto.common.type.StandardTypes.DATE;
+import static com.facebook.presto.common.type.StandardTypes.DECIMAL;
+import static com.facebook.presto.common.type.StandardTypes.DOUBLE;
+import static com.facebook.presto.common.type.StandardTypes.INTEGER;
+import static com.facebook.presto.common.type.StandardTypes.JSON;
+import static com.facebook.presto.common.type.StandardTypes.MAP;
+import static com.facebook.presto.common.type.StandardTypes.REAL;
+import static com.facebook.presto.common.type.StandardTypes.ROW;
+import static com.facebook.presto.common.type.StandardTypes.SMALLINT;
+import static com.facebook.presto.common.type.StandardTypes.TINYINT;
+import static com.facebook.presto.common.type.StandardTypes.VARBINARY;
+import static com.facebook.presto.common.type.StandardTypes.VARCHAR;
+import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPage;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Decodes the {@code binaryData} of {@link QueryResults} into rows using the same
+ * Java representation as {@link FixJsonDataUtils}, so callers cannot tell which
+ * protocol produced the rows. Only types whose block layout is fixed by the type
+ * itself are supported; the server falls back to JSON for all other result sets.
+ * <p>
+ * The pages are not exposed as columns: every value is boxed into a row, as the
+ * JSON path does, and the pages are base64 encoded inside the JSON response.
+ * This avoids parsing JSON values, not the per-value cost of the row representation
+ * (see {@code BenchmarkQueryResultsDecoding}).
+ */
+public final class BinaryResultsDecoder
+{
+    private static final PagesSerde PAGES_SERDE = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+
+    private BinaryResultsDecoder() {}
+
+    public static boolean isSupported(List<Column> columns)
+    {
+        requireNonNull(columns, "columns is null");
+        return columns.stream()
+                .map(column -> parseTypeSignature(column.getType()))
+                .allMatch(BinaryResultsDecoder::isSupported);
+    }
+
+    public static Iterable<List<Object>> decode(List<Column> columns, Iterable<String> binaryData)
+    {
+        if (binaryData == null) {
+            return null;
+        }
+        requireNonNull(columns, "columns is null");
+        List<TypeSignature> signatures = columns.stream()
+                .map(column -> resolve(parseTypeSignature(column.getType())))
+                .collect(toList());
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (String encodedPage : binaryData) {
+            byte[] bytes = Base64.getDecoder().decode(encodedPage);
+            SerializedPage serializedPage = readSerializedPage(new BasicSliceInput(Slices.wrappedBuffer(bytes)));
+            Page page = PAGES_SERDE.deserialize(serializedPage);
+            checkArgument(page.getChannelCount() == columns.size(), "page/column size mismatch");
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                List<Object> row = new ArrayList<>(columns.size());
+                for (int channel = 0; channel < columns.size(); channel++) {
+                    row.add(getValue(signatures.get(channel), page.getBlock(channel), position));
+                }
+                rows.add(unmodifiableList(row)); // allow nulls in list
+            }
+        }
+        return rows.build();
+    }
+
+    private static boolean isSupported(TypeSignature signature)
+    {
+        signature = resolve(signature);
+        if (signature.isBigintEnum() || signature.isVarcharEnum()) {
+            return true;
+        }
+        switch (signature.getBase()) {
+            case BIGINT:
+            case INTEGER:
+            case SMALLINT:
+            case TINYINT:
+            case DOUBLE:
+            case REAL:
+            case BOOLEAN:
+            case VARCHAR:
+            case JSON:
+            case DATE:
+            case VARBINARY:
+                return true;
+            case DECIMAL:
+                return signature.getParameters().size() == 2;
+            case ARRAY:
+            case MAP:
+            case ROW:
+                return signature.getTypeOrNamedTypeParametersAsTypeSignatures().stream()
+                        .allMatch(BinaryResultsDecoder::isSupported);
+            default:
+                return false;
+        }
+    }
+
+    private static TypeSignature resolve(TypeSignature signature)
+    {
+        if (signature.isDistinctType()) {
+            return resolve(signature.getDistinctTypeInfo().getBaseType());
+        }
+        if (signature.getTypeSignatureBase().hasTypeName() && signature.getTypeSignatureBase().hasStandardType()) {
+            return resolve(signature.getStandardTypeSignature());
+        }
+        return signature;
+    }
+
+    private static Object getValue(TypeSignature signature, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return null;
+        }
+        signature = resolve(signature);
+        if (signature.isBigintEnum()) {
+            return block.getLong(position);
+        }
+        if (signature.isVarcharEnum()) {
+            return block.getSlice(position, 0, block.getSliceLength(position)).toStringUtf8();
+        }
+        switch (signature.getBase()) {
+            case BIGINT:
+                return block.getLong(position);
+            case INTEGER:
+                return block.getInt(position);
+            case SMALLINT:
+                return block.getShort(position);
+            case TINYINT:
+                return block.getByte(position);
+            case DOUBLE:
+                return Double.longBitsToDouble(block.getLong(position));
+            case REAL:
+                return Float.intBitsToFloat(block.getInt(position));
+            case BOOLEAN:
+                return block.getByte(position) != 0;
+            case VARCHAR:
+            case JSON:
+                return block.getSlice(position, 0, block.getSliceLength(position)).toStringUtf8();
+            case VARBINARY:
+                return block.getSlice(position, 0, block.getSliceLength(position)).getBytes();
+            case DATE:
+                return LocalDate.ofEpochDay(block.getInt(position)).toString();
+            case DECIMAL:
+                return getDecimal(signature, block, position);
+            case ARRAY:
+                return getArray(signature, block.getBlock(position));
+            case MAP:
+                return getMap(signature, block.getBlock(position));
+            case ROW:
+                return getRow(signature, block.getBlock(position));
+            default:
+                throw new IllegalArgumentException("Unsupported type for binary results: " + signature);
+        }
+    }
+
+    private static String getDecimal(TypeSignature signature, Block block, int position)
+    {
+        int precision = signature.getParameters().get(0).getLongLiteral().intValue();
+        int scale = signature.getParameters().get(1).getLongLiteral().intValue();
+        if (precision <= Decimals.MAX_SHORT_PRECISION) {
+            return Decimals.toString(block.getLong(position), scale);
+        }
+        Slice unscaledValue = Slices.wrappedLongArray(block.getLong(position, 0), block.getLong(position, Long.BYTES));
+        return Decimals.toString(unscaledValue, scale);
+    }
+
+    private static List<Object> getArray(TypeSignature signature, Block elements)
+    {
+        TypeSignature elementSignature = signature.getTypeOrNamedTypeParametersAsTypeSignatures().get(0);
+        List<Object> array = new ArrayList<>(elements.getPositionCount());
+        for (int i = 0; i < elements.getPositionCount(); i++) {
+            array.add(getValue(elementSignature, elements, i));
+        }
+        return array;
+    }
+
+    private static Map<Object, Object> getMap(TypeSignature signature, Block entries)
+    {
+        TypeSignature keySignature = signature.getTypeOrNamedTypeParametersAsTypeSignatures().get(0);
+        TypeSignature valueSignature = signature.getTypeOrNamedTypeParametersAsTypeSignatures().get(1);
+        Map<Object, Object> map = new HashMap<>();
+        for (int i = 0; i < entries.getPositionCount(); i += 2) {
+            map.put(getValue(keySignature, entries, i), getValue(valueSignature, entries, i + 1));
+        }
+        return map;
+    }
+
+    private static Map<String, Object> getRow(TypeSignature signature, Block fields)
+    {
+        checkArgument(fields.getPositionCount() == signature.getParameters().size(), "Mismatched data values and row type");
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < fields.getPositionCount(); i++) {
+            TypeSignatureParameter parameter = signature.getParameters().get(i);
+            checkArgument(
+                    parameter.getKind() == ParameterKind.NAMED_TYPE,
+                    "Unexpected parameter [%s] for row type",
+                    parameter);
+            NamedTypeSignature namedTypeSignature = parameter.getNamedTypeSignature();
+            String key = namedTypeSignature.getName().orElse("field" + i);
+            row.put(key, getValue(namedTypeSignature.getTypeSignature(), fields, i));
+        }
+        return row;
+    }
+}
@@ -43,6 +43,7 @@ public final class PrestoHeaders
     public static final String PRESTO_ADDED_SESSION_FUNCTION = "X-Presto-Added-Session-Functions";
     public static final String PRESTO_REMOVED_SESSION_FUNCTION = "X-Presto-Removed-Session-Function";
     public static final String PRESTO_RETRY_QUERY = "X-Presto-Retry-Query";
+    public static final String PRESTO_ACCEPT_BINARY_RESULTS = "X-Presto-Accept-Binary-Results";
 
     public static final String PRESTO_CURRENT_STATE = "X-Presto-Current-State";
     public static final String PRESTO_MAX_WAIT = "X-Presto-Max-Wait";
@@ -46,6 +46,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_ACCEPT_BINARY_RESULTS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_PREPARE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_SESSION_FUNCTION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CATALOG;
@@ -112,6 +113,7 @@ class StatementClientV1
     private final Duration requestTimeoutNanos;
     private final String user;
     private final boolean compressionDisabled;
+    private final boolean binaryResults;
     private final Map<String, String> addedSessionFunctions = new ConcurrentHashMap<>();
     private final Set<String> removedSessionFunctions = newConcurrentHashSet();
     private final boolean validateNextUriSource;
@@ -130,6 +132,7 @@ class StatementClientV1
         this.requestTimeoutNanos = session.getClientRequestTimeout();
         this.user = session.getUser();
         this.compressionDisabled = session.isCompressionDisabled();
+        this.binaryResults = session.isBinaryResults();
         this.validateNextUriSource = session.validateNextUriSource();
 
         Request request = buildQueryRequest(session, query);
@@ -358,6 +361,10 @@ class StatementClientV1
         if (compressionDisabled) {
             builder.header(ACCEPT_ENCODING, "identity");
         }
+        if (binaryResults) {
+            // the server decides per request whether the results can be sent as pages the client can decode
+            builder.addHeader(PRESTO_ACCEPT_BINARY_RESULTS, "true");
+        }
         return builder;
     }
 
@@ -506,7 +513,28 @@ class StatementClientV1
             removedSessionFunctions.add(urlDecode(signature));
         }
 
-        currentResults.set(results);
+        currentResults.set(decodeBinaryData(results));
+    }
+
+    // the rows are decoded eagerly into the row representation of the JSON path, which is what PrestoResultSet reads
+    private static QueryResults decodeBinaryData(QueryResults results)
+    {
+        if (results.getBinaryData() == null) {
+            return results;
+        }
+        return new QueryResults(
+                results.getId(),
+                results.getInfoUri(),
+                results.getPartialCancelUri(),
+                results.getNextUri(),
+                results.getColumns(),
+                BinaryResultsDecoder.decode(results.getColumns(), results.getBinaryData()),
+                null,
+                results.getStats(),
+                results.getError(),
+                results.getWarnings(),
+                results.getUpdateType(),
+                results.getUpdateCount());
     }
 
     private RuntimeException requestFailedException(String task, Request request, JsonResponse<QueryResults> response)
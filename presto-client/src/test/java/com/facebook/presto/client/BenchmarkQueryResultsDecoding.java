@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Compares decoding one batch of query results sent as JSON rows with decoding the same
+ * rows sent as binary pages, including the JSON response that carries them.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OperationsPerInvocation(BenchmarkQueryResultsDecoding.ROWS)
+public class BenchmarkQueryResultsDecoding
+{
+    static final int ROWS = 10_000;
+
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+    private static final PagesSerde PAGES_SERDE = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+    private static final List<Column> COLUMNS = ImmutableList.of(
+            new Column("orderkey", BIGINT),
+            new Column("totalprice", DOUBLE),
+            new Column("comment", VARCHAR),
+            new Column("orderdate", DATE));
+
+    @Param({"1", "100"})
+    private int pageCount = 1;
+
+    private String jsonResults;
+    private String binaryResults;
+
+    @Setup
+    public void setup()
+    {
+        BlockBuilder orderkeys = BIGINT.createBlockBuilder(null, ROWS);
+        BlockBuilder totalprices = DOUBLE.createBlockBuilder(null, ROWS);
+        BlockBuilder comments = VARCHAR.createBlockBuilder(null, ROWS);
+        BlockBuilder orderdates = DATE.createBlockBuilder(null, ROWS);
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (int i = 0; i < ROWS; i++) {
+            String comment = "comment of order " + i;
+            BIGINT.writeLong(orderkeys, i);
+            DOUBLE.writeDouble(totalprices, i * 1.5);
+            VARCHAR.writeSlice(comments, utf8Slice(comment));
+            DATE.writeLong(orderdates, i % 10_000);
+            rows.add(Arrays.asList((long) i, i * 1.5, comment, LocalDate.ofEpochDay(i % 10_000).toString()));
+        }
+        Page page = new Page(orderkeys.build(), totalprices.build(), comments.build(), orderdates.build());
+
+        ImmutableList.Builder<String> encodedPages = ImmutableList.builder();
+        int positionsPerPage = ROWS / pageCount;
+        for (int offset = 0; offset < ROWS; offset += positionsPerPage) {
+            DynamicSliceOutput output = new DynamicSliceOutput(1024);
+            writeSerializedPage(output, PAGES_SERDE.serialize(page.getRegion(offset, Math.min(positionsPerPage, ROWS - offset))));
+            encodedPages.add(Base64.getEncoder().encodeToString(output.slice().getBytes()));
+        }
+
+        jsonResults = QUERY_RESULTS_CODEC.toJson(createQueryResults(rows.build(), null));
+        binaryResults = QUERY_RESULTS_CODEC.toJson(createQueryResults(null, encodedPages.build()));
+    }
+
+    @Benchmark
+    public Iterable<List<Object>> decodeJson()
+    {
+        return QUERY_RESULTS_CODEC.fromJson(jsonResults).getData();
+    }
+
+    @Benchmark
+    public Iterable<List<Object>> decodeBinary()
+    {
+        QueryResults results = QUERY_RESULTS_CODEC.fromJson(binaryResults);
+        return BinaryResultsDecoder.decode(results.getColumns(), results.getBinaryData());
+    }
+
+    private static QueryResults createQueryResults(List<List<Object>> data, List<String> binaryData)
+    {
+        return new QueryResults(
+                "20240101_000000_00000_aaaaa",
+                URI.create("http://localhost:8080/query.html?20240101_000000_00000_aaaaa"),
+                null,
+                null,
+                COLUMNS,
+                data,
+                binaryData,
+                StatementStats.builder().setState("FINISHED").build(),
+                null,
+                ImmutableList.of(),
+                null,
+                null);
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkQueryResultsDecoding.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
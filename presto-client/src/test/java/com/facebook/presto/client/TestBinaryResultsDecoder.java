@@ -0,0 +1,169 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.type.ArrayType;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.RowType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.DynamicSliceOutput;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DecimalType.createDecimalType;
+import static com.facebook.presto.common.type.Decimals.writeBigDecimal;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.RowType.field;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Float.floatToRawIntBits;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestBinaryResultsDecoder
+{
+    private static final PagesSerde PAGES_SERDE = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+
+    @Test
+    public void testIsSupported()
+    {
+        assertTrue(BinaryResultsDecoder.isSupported(columns(BIGINT, VARCHAR, createDecimalType(30, 2), new ArrayType(DATE))));
+        assertTrue(BinaryResultsDecoder.isSupported(columns(RowType.from(ImmutableList.of(field("foo", BIGINT), field("bar", VARBINARY))))));
+        assertFalse(BinaryResultsDecoder.isSupported(columns(BIGINT, TIMESTAMP)));
+        assertFalse(BinaryResultsDecoder.isSupported(columns(new ArrayType(TIMESTAMP))));
+    }
+
+    @Test
+    public void testPrimitiveTypes()
+    {
+        DecimalType shortDecimal = createDecimalType(10, 2);
+        DecimalType longDecimal = createDecimalType(30, 2);
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, DOUBLE, REAL, BOOLEAN, VARCHAR, VARBINARY, DATE, shortDecimal, longDecimal);
+        List<BlockBuilder> builders = createBlockBuilders(types, 2);
+
+        BIGINT.writeLong(builders.get(0), 1000);
+        INTEGER.writeLong(builders.get(1), 100);
+        DOUBLE.writeDouble(builders.get(2), 100.23456);
+        REAL.writeLong(builders.get(3), floatToRawIntBits(1.5f));
+        BOOLEAN.writeBoolean(builders.get(4), true);
+        VARCHAR.writeSlice(builders.get(5), utf8Slice("test string"));
+        VARBINARY.writeSlice(builders.get(6), wrappedBuffer(new byte[] {1, 2, 3}));
+        DATE.writeLong(builders.get(7), 17348);
+        writeBigDecimal(shortDecimal, builders.get(8), new BigDecimal("2.15"));
+        writeBigDecimal(longDecimal, builders.get(9), new BigDecimal("12345678901234567890.15"));
+        for (BlockBuilder builder : builders) {
+            builder.appendNull();
+        }
+
+        List<List<Object>> rows = decode(types, builders);
+        assertEquals(rows.size(), 2);
+
+        List<Object> row = rows.get(0);
+        assertEquals(row.get(0), 1000L);
+        assertEquals(row.get(1), 100);
+        assertEquals(row.get(2), 100.23456);
+        assertEquals(row.get(3), 1.5f);
+        assertEquals(row.get(4), true);
+        assertEquals(row.get(5), "test string");
+        assertEquals((byte[]) row.get(6), new byte[] {1, 2, 3});
+        assertEquals(row.get(7), "2017-07-01");
+        assertEquals(row.get(8), "2.15");
+        assertEquals(row.get(9), "12345678901234567890.15");
+
+        assertEquals(rows.get(1), Arrays.asList(new Object[types.size()]));
+    }
+
+    @Test
+    public void testStructuralTypes()
+    {
+        ArrayType arrayType = new ArrayType(BIGINT);
+        RowType rowType = RowType.from(ImmutableList.of(field("foo", BIGINT), field("bar", DOUBLE)));
+        List<Type> types = ImmutableList.of(arrayType, rowType);
+        List<BlockBuilder> builders = createBlockBuilders(types, 1);
+
+        BlockBuilder elements = builders.get(0).beginBlockEntry();
+        BIGINT.writeLong(elements, 1);
+        elements.appendNull();
+        BIGINT.writeLong(elements, 4);
+        builders.get(0).closeEntry();
+
+        BlockBuilder fields = builders.get(1).beginBlockEntry();
+        BIGINT.writeLong(fields, 1);
+        DOUBLE.writeDouble(fields, 2.0);
+        builders.get(1).closeEntry();
+
+        List<List<Object>> rows = decode(types, builders);
+        assertEquals(rows.size(), 1);
+        assertEquals(rows.get(0).get(0), Arrays.asList(1L, null, 4L));
+        assertEquals(rows.get(0).get(1), ImmutableMap.of("foo", 1L, "bar", 2.0));
+    }
+
+    @Test
+    public void testNullBinaryData()
+    {
+        assertNull(BinaryResultsDecoder.decode(columns(BIGINT), null));
+    }
+
+    private static List<BlockBuilder> createBlockBuilders(List<Type> types, int expectedEntries)
+    {
+        ImmutableList.Builder<BlockBuilder> builders = ImmutableList.builder();
+        for (Type type : types) {
+            builders.add(type.createBlockBuilder(null, expectedEntries));
+        }
+        return builders.build();
+    }
+
+    private static List<List<Object>> decode(List<Type> types, List<BlockBuilder> builders)
+    {
+        Page page = new Page(builders.stream()
+                .map(BlockBuilder::build)
+                .toArray(Block[]::new));
+        DynamicSliceOutput output = new DynamicSliceOutput(1024);
+        writeSerializedPage(output, PAGES_SERDE.serialize(page));
+        String encodedPage = Base64.getEncoder().encodeToString(output.slice().getBytes());
+        return ImmutableList.copyOf(BinaryResultsDecoder.decode(columns(types.toArray(new Type[0])), ImmutableList.of(encodedPage)));
+    }
+
+    private static List<Column> columns(Type... types)
+    {
+        ImmutableList.Builder<Column> columns = ImmutableList.builder();
+        for (int i = 0; i < types.length; i++) {
+            columns.add(new Column("column" + i, types[i]));
+        }
+        return columns.build();
+    }
+}
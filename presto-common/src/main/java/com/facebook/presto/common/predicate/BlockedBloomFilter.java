@@ -0,0 +1,225 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.predicate;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.Type;
+import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.facebook.presto.common.array.ByteArrayUtils.hash;
+import static com.facebook.presto.common.predicate.TupleDomainFilterUtils.checkArgument;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.Varchars.isVarcharType;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Long.bitCount;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A Bloom filter over the values of a single column, used to carry the values of large
+ * build sides to the probe-side scan. Each value sets one bit in each of the 8 longs of
+ * a single 512 bit block, so that inserting or testing a value touches one cache line.
+ * <p>
+ * Values are hashed in the representation used by the selective readers, i.e. the long
+ * value for integer and date types and the raw bytes for varchar types, so the filter
+ * can be tested with {@link #mightContainLong} and {@link #mightContainBytes} without
+ * materializing a value.
+ * <p>
+ * Filters are only ever used to remove rows that cannot match, so dropping a filter
+ * is always safe.
+ */
+public final class BlockedBloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BlockedBloomFilter.class).instanceSize();
+
+    private static final int LONGS_PER_BLOCK = 8;
+    private static final int BLOCK_SIZE_IN_BYTES = LONGS_PER_BLOCK * Long.BYTES;
+
+    private final long[] bits;
+    private final int blockMask;
+
+    private BlockedBloomFilter(long[] bits)
+    {
+        this.bits = requireNonNull(bits, "bits is null");
+        this.blockMask = (bits.length / LONGS_PER_BLOCK) - 1;
+    }
+
+    /**
+     * Creates an empty filter of at most {@code maxSizeInBytes}, rounded down to a power of 2 number of blocks.
+     * The filter has at least one block.
+     */
+    public static BlockedBloomFilter create(long maxSizeInBytes)
+    {
+        checkArgument(maxSizeInBytes > 0, "maxSizeInBytes must be positive");
+        long blockCount = Long.highestOneBit(Math.max(1, Math.min(maxSizeInBytes / BLOCK_SIZE_IN_BYTES, Integer.MAX_VALUE / LONGS_PER_BLOCK)));
+        return new BlockedBloomFilter(new long[(int) blockCount * LONGS_PER_BLOCK]);
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        return type.equals(BIGINT) ||
+                type.equals(INTEGER) ||
+                type.equals(SMALLINT) ||
+                type.equals(TINYINT) ||
+                type.equals(DATE) ||
+                isVarcharType(type);
+    }
+
+    public void add(Type type, Block block, int position)
+    {
+        if (type.getJavaType() == long.class) {
+            insertHash(hashLong(type.getLong(block, position)));
+        }
+        else {
+            insertHash(hashSlice(type.getSlice(block, position)));
+        }
+    }
+
+    /**
+     * @param value a non-null native value of a supported type
+     */
+    public boolean mightContain(Object value)
+    {
+        if (value instanceof Long) {
+            return mightContainLong((Long) value);
+        }
+        return testHash(hashSlice((Slice) value));
+    }
+
+    public boolean mightContainLong(long value)
+    {
+        return testHash(hashLong(value));
+    }
+
+    public boolean mightContainBytes(byte[] buffer, int offset, int length)
+    {
+        return testHash(mix(hash(buffer, offset, length)));
+    }
+
+    /**
+     * Returns true if filters have the same size and hence can be merged with {@link #union}.
+     */
+    public boolean isCompatible(BlockedBloomFilter other)
+    {
+        return bits.length == other.bits.length;
+    }
+
+    public BlockedBloomFilter union(BlockedBloomFilter other)
+    {
+        checkArgument(isCompatible(other), "filters have different sizes");
+        long[] result = new long[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            result[i] = bits[i] | other.bits[i];
+        }
+        return new BlockedBloomFilter(result);
+    }
+
+    /**
+     * Returns a filter that passes every value passed by both filters.
+     */
+    public BlockedBloomFilter intersect(BlockedBloomFilter other)
+    {
+        checkArgument(isCompatible(other), "filters have different sizes");
+        long[] result = new long[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            result[i] = bits[i] & other.bits[i];
+        }
+        return new BlockedBloomFilter(result);
+    }
+
+    /**
+     * Estimated probability that a value not added to the filter passes it.
+     */
+    public double getFalsePositiveProbability()
+    {
+        long setBits = 0;
+        for (long word : bits) {
+            setBits += bitCount(word);
+        }
+        double fillRatio = (double) setBits / (bits.length * (long) Long.SIZE);
+        return Math.pow(fillRatio, LONGS_PER_BLOCK);
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(bits);
+    }
+
+    private void insertHash(long hash)
+    {
+        int offset = blockOffset(hash);
+        for (int i = 0; i < LONGS_PER_BLOCK; i++) {
+            bits[offset + i] |= bitMask(hash, i);
+        }
+    }
+
+    private boolean testHash(long hash)
+    {
+        int offset = blockOffset(hash);
+        for (int i = 0; i < LONGS_PER_BLOCK; i++) {
+            long mask = bitMask(hash, i);
+            if ((bits[offset + i] & mask) != mask) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int blockOffset(long hash)
+    {
+        // the low 48 bits of the hash select the bits within the block, so remix it to select the block
+        return (int) (mix(hash) & blockMask) * LONGS_PER_BLOCK;
+    }
+
+    private static long bitMask(long hash, int word)
+    {
+        return 1L << ((hash >>> (word * 6)) & 63);
+    }
+
+    private static long hashLong(long value)
+    {
+        return mix(value);
+    }
+
+    private static long hashSlice(Slice slice)
+    {
+        if (slice.hasByteArray()) {
+            return mix(hash(slice.byteArray(), slice.byteArrayOffset(), slice.length()));
+        }
+        byte[] bytes = slice.getBytes();
+        return mix(hash(bytes, 0, bytes.length));
+    }
+
+    // finalization step of Murmur3
+    private static long mix(long value)
+    {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("BlockedBloomFilter{sizeInBytes=%s}", bits.length * Long.BYTES);
+    }
+}
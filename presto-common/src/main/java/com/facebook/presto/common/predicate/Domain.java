@@ -37,16 +37,27 @@ import static java.util.Objects.requireNonNull;
  * <li>Domain.notNull() => all scalar values allowed, NULL not allowed
  * </ul>
  * <p>
+ * A Domain collected from the build side of a join may additionally carry a {@link BlockedBloomFilter},
+ * which further restricts the scalar values to the ones that pass the filter. The filter is never
+ * serialized and is dropped by operations that cannot preserve it, which only makes the Domain
+ * less selective.
  */
 public final class Domain
 {
     private final ValueSet values;
     private final boolean nullAllowed;
+    private final Optional<BlockedBloomFilter> bloomFilter;
 
     private Domain(ValueSet values, boolean nullAllowed)
+    {
+        this(values, nullAllowed, Optional.empty());
+    }
+
+    private Domain(ValueSet values, boolean nullAllowed, Optional<BlockedBloomFilter> bloomFilter)
     {
         this.values = requireNonNull(values, "values is null");
         this.nullAllowed = nullAllowed;
+        this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
     }
 
     @JsonCreator
@@ -57,6 +68,14 @@ public final class Domain
         return new Domain(values, nullAllowed);
     }
 
+    public static Domain create(ValueSet values, boolean nullAllowed, Optional<BlockedBloomFilter> bloomFilter)
+    {
+        if (bloomFilter.isPresent() && values.isSingleValue() && !bloomFilter.get().mightContain(values.getSingleValue())) {
+            return new Domain(ValueSet.none(values.getType()), nullAllowed);
+        }
+        return new Domain(values, nullAllowed, bloomFilter);
+    }
+
     public static Domain none(Type type)
     {
         return new Domain(ValueSet.none(type), false);
@@ -110,6 +129,11 @@ public final class Domain
         return nullAllowed;
     }
 
+    public Optional<BlockedBloomFilter> getBloomFilter()
+    {
+        return bloomFilter;
+    }
+
     public boolean isNone()
     {
         return values.isNone() && !nullAllowed;
@@ -117,7 +141,7 @@ public final class Domain
 
     public boolean isAll()
     {
-        return values.isAll() && nullAllowed;
+        return values.isAll() && nullAllowed && !bloomFilter.isPresent();
     }
 
     public boolean isSingleValue()
@@ -164,7 +188,10 @@ public final class Domain
 
     public boolean includesNullableValue(Object value)
     {
-        return value == null ? nullAllowed : values.containsValue(value);
+        if (value == null) {
+            return nullAllowed;
+        }
+        return values.containsValue(value) && bloomFilter.map(filter -> filter.mightContain(value)).orElse(true);
     }
 
     public boolean overlaps(Domain other)
@@ -182,13 +209,13 @@ public final class Domain
     public Domain intersect(Domain other)
     {
         checkCompatibility(other);
-        return new Domain(values.intersect(other.getValues()), this.isNullAllowed() && other.isNullAllowed());
+        return create(values.intersect(other.getValues()), this.isNullAllowed() && other.isNullAllowed(), intersectBloomFilters(bloomFilter, other.bloomFilter));
     }
 
     public Domain union(Domain other)
     {
         checkCompatibility(other);
-        return new Domain(values.union(other.getValues()), this.isNullAllowed() || other.isNullAllowed());
+        return new Domain(values.union(other.getValues()), this.isNullAllowed() || other.isNullAllowed(), unionBloomFilters(bloomFilter, other.bloomFilter));
     }
 
     public static Domain union(List<Domain> domains)
@@ -201,26 +228,57 @@ public final class Domain
         }
 
         boolean nullAllowed = false;
+        Optional<BlockedBloomFilter> bloomFilter = domains.get(0).bloomFilter;
         List<ValueSet> valueSets = new ArrayList<>(domains.size());
         for (Domain domain : domains) {
             valueSets.add(domain.getValues());
             nullAllowed = nullAllowed || domain.nullAllowed;
+            bloomFilter = unionBloomFilters(bloomFilter, domain.bloomFilter);
         }
 
         ValueSet unionedValues = valueSets.get(0).union(valueSets.subList(1, valueSets.size()));
 
-        return new Domain(unionedValues, nullAllowed);
+        return new Domain(unionedValues, nullAllowed, bloomFilter);
     }
 
     public Domain complement()
     {
+        if (bloomFilter.isPresent()) {
+            // the values rejected by a Bloom filter cannot be enumerated
+            return new Domain(ValueSet.all(getType()), !nullAllowed);
+        }
         return new Domain(values.complement(), !nullAllowed);
     }
 
     public Domain subtract(Domain other)
     {
         checkCompatibility(other);
-        return new Domain(values.subtract(other.getValues()), this.isNullAllowed() && !other.isNullAllowed());
+        if (other.bloomFilter.isPresent()) {
+            return new Domain(values, this.isNullAllowed() && !other.isNullAllowed(), bloomFilter);
+        }
+        return new Domain(values.subtract(other.getValues()), this.isNullAllowed() && !other.isNullAllowed(), bloomFilter);
+    }
+
+    private static Optional<BlockedBloomFilter> intersectBloomFilters(Optional<BlockedBloomFilter> first, Optional<BlockedBloomFilter> second)
+    {
+        if (!first.isPresent()) {
+            return second;
+        }
+        if (!second.isPresent() || !first.get().isCompatible(second.get())) {
+            return first;
+        }
+        return Optional.of(first.get().intersect(second.get()));
+    }
+
+    private static Optional<BlockedBloomFilter> unionBloomFilters(Optional<BlockedBloomFilter> first, Optional<BlockedBloomFilter> second)
+    {
+        if (!first.isPresent() || !second.isPresent() || !first.get().isCompatible(second.get())) {
+            return Optional.empty();
+        }
+        if (first.get() == second.get()) {
+            return first;
+        }
+        return Optional.of(first.get().union(second.get()));
     }
 
     private void checkCompatibility(Domain domain)
@@ -236,7 +294,7 @@ public final class Domain
     @Override
     public int hashCode()
     {
-        return Objects.hash(values, nullAllowed);
+        return Objects.hash(values, nullAllowed, bloomFilter);
     }
 
     @Override
@@ -250,7 +308,8 @@ public final class Domain
         }
         Domain other = (Domain) obj;
         return Objects.equals(this.values, other.values) &&
-                this.nullAllowed == other.nullAllowed;
+                this.nullAllowed == other.nullAllowed &&
+                Objects.equals(this.bloomFilter, other.bloomFilter);
     }
 
     /**
@@ -273,7 +332,7 @@ public final class Domain
                 },
                 allOrNone -> Optional.empty())
                 .orElse(values);
-        return Domain.create(simplifiedValueSet, nullAllowed);
+        return new Domain(simplifiedValueSet, nullAllowed, bloomFilter);
     }
 
     /**
@@ -289,11 +348,11 @@ public final class Domain
      */
     public Domain canonicalize(boolean removeConstants)
     {
-        return new Domain(values.canonicalize(removeConstants), nullAllowed);
+        return new Domain(values.canonicalize(removeConstants), nullAllowed, bloomFilter);
     }
 
     public String toString(SqlFunctionProperties properties)
     {
-        return "[ " + (nullAllowed ? "NULL, " : "") + values.toString(properties) + " ]";
+        return "[ " + (nullAllowed ? "NULL, " : "") + values.toString(properties) + bloomFilter.map(filter -> ", " + filter).orElse("") + " ]";
     }
 }
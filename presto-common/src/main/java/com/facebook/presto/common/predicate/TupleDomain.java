@@ -479,7 +479,7 @@ public final class TupleDomain<T>
                         discreteValues -> discreteValues.getValues().size() > threshold ? Optional.of(ValueSet.all(values.getType())) : Optional.empty(),
                         allOrNone -> Optional.empty())
                         .orElse(values);
-                compactedDomains.put(hiveColumnHandle, Domain.create(compactValueSet, domain.isNullAllowed()));
+                compactedDomains.put(hiveColumnHandle, Domain.create(compactValueSet, domain.isNullAllowed(), domain.getBloomFilter()));
             }
         });
         return TupleDomain.withColumnDomains(unmodifiableMap(compactedDomains));
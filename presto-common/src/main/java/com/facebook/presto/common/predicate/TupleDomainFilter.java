@@ -1515,6 +1515,82 @@ public interface TupleDomainFilter
         }
     }
 
+    /**
+     * Applies a filter on the values and additionally requires the values to pass a Bloom filter.
+     * Used for dynamic filters collected from large join build sides.
+     */
+    class BloomFilterValues
+            extends AbstractTupleDomainFilter
+    {
+        private final TupleDomainFilter valuesFilter;
+        private final BlockedBloomFilter bloomFilter;
+
+        private BloomFilterValues(TupleDomainFilter valuesFilter, BlockedBloomFilter bloomFilter, boolean nullAllowed)
+        {
+            super(valuesFilter.isDeterministic(), nullAllowed);
+            this.valuesFilter = requireNonNull(valuesFilter, "valuesFilter is null");
+            this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
+        }
+
+        public static BloomFilterValues of(TupleDomainFilter valuesFilter, BlockedBloomFilter bloomFilter, boolean nullAllowed)
+        {
+            return new BloomFilterValues(valuesFilter, bloomFilter, nullAllowed);
+        }
+
+        @Override
+        public boolean testLong(long value)
+        {
+            return valuesFilter.testLong(value) && bloomFilter.mightContainLong(value);
+        }
+
+        @Override
+        public boolean testBytes(byte[] buffer, int offset, int length)
+        {
+            return valuesFilter.testBytes(buffer, offset, length) && bloomFilter.mightContainBytes(buffer, offset, length);
+        }
+
+        @Override
+        public boolean testLength(int length)
+        {
+            return valuesFilter.testLength(length);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            BloomFilterValues that = (BloomFilterValues) o;
+            return valuesFilter.equals(that.valuesFilter) &&
+                    bloomFilter == that.bloomFilter &&
+                    nullAllowed == that.nullAllowed;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(valuesFilter, System.identityHashCode(bloomFilter), nullAllowed);
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder(this.getClass().getName());
+            sb.append("{valuesFilter=").append(valuesFilter);
+            sb.append(", bloomFilter=").append(bloomFilter);
+            sb.append(", nullAllowed=").append(nullAllowed);
+            sb.append("}");
+
+            return sb.toString();
+        }
+    }
+
     class BigintMultiRange
             extends AbstractTupleDomainFilter
     {
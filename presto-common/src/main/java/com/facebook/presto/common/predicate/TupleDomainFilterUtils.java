@@ -17,6 +17,7 @@ import com.facebook.presto.common.predicate.TupleDomainFilter.BigintMultiRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingBitmask;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingHashTable;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BloomFilterValues;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BooleanValue;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BytesRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BytesValues;
@@ -59,6 +60,23 @@ public class TupleDomainFilterUtils
     private TupleDomainFilterUtils() {}
 
     public static TupleDomainFilter toFilter(Domain domain)
+    {
+        if (!domain.getBloomFilter().isPresent()) {
+            return toValuesFilter(domain);
+        }
+
+        BlockedBloomFilter bloomFilter = domain.getBloomFilter().get();
+        if (domain.getValues().isAll()) {
+            return BloomFilterValues.of(IS_NOT_NULL, bloomFilter, domain.isNullAllowed());
+        }
+        TupleDomainFilter valuesFilter = toValuesFilter(domain);
+        if (valuesFilter == IS_NULL || valuesFilter == ALWAYS_FALSE) {
+            return valuesFilter;
+        }
+        return BloomFilterValues.of(valuesFilter, bloomFilter, domain.isNullAllowed());
+    }
+
+    private static TupleDomainFilter toValuesFilter(Domain domain)
     {
         ValueSet values = domain.getValues();
         boolean nullAllowed = domain.isNullAllowed();
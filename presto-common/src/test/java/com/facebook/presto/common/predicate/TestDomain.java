@@ -15,6 +15,7 @@ package com.facebook.presto.common.predicate;
 
 import com.facebook.airlift.json.JsonObjectMapperProvider;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.block.TestingBlockEncodingSerde;
 import com.facebook.presto.common.block.TestingBlockJsonSerde;
 import com.facebook.presto.common.type.TestingTypeDeserializer;
@@ -26,6 +27,8 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slices;
 import org.testng.annotations.Test;
 
+import java.util.Optional;
+
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
@@ -588,6 +591,51 @@ public class TestDomain
                 true);
     }
 
+    @Test
+    public void testBloomFilter()
+    {
+        BlockedBloomFilter first = bloomFilter(1L, 2L, 3L);
+        BlockedBloomFilter second = bloomFilter(3L, 4L);
+        Domain firstDomain = Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 1L, true, 3L, true)), false, Optional.of(first));
+        Domain secondDomain = Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 3L, true, 4L, true)), false, Optional.of(second));
+
+        assertTrue(firstDomain.includesNullableValue(2L));
+        assertFalse(firstDomain.includesNullableValue(4L));
+        assertFalse(firstDomain.isAll());
+        assertFalse(Domain.create(ValueSet.all(BIGINT), true, Optional.of(first)).isAll());
+
+        Domain intersection = firstDomain.intersect(secondDomain);
+        assertTrue(intersection.isSingleValue());
+        assertTrue(intersection.includesNullableValue(3L));
+
+        // a single value rejected by the Bloom filter is removed from the domain
+        assertTrue(Domain.create(ValueSet.of(BIGINT, 10L), false, Optional.of(first)).isNone());
+        assertTrue(Domain.singleValue(BIGINT, 10L).intersect(firstDomain).isNone());
+
+        Domain union = firstDomain.union(secondDomain);
+        assertTrue(union.getBloomFilter().isPresent());
+        for (long value = 1; value <= 4; value++) {
+            assertTrue(union.includesNullableValue(value));
+        }
+
+        // the union with a domain without a Bloom filter is not restricted by the filter
+        assertEquals(firstDomain.union(Domain.singleValue(BIGINT, 0L)), Domain.create(ValueSet.ofRanges(Range.equal(BIGINT, 0L), Range.range(BIGINT, 1L, true, 3L, true)), false));
+    }
+
+    private static BlockedBloomFilter bloomFilter(long... values)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, values.length);
+        for (long value : values) {
+            BIGINT.writeLong(blockBuilder, value);
+        }
+        Block block = blockBuilder.build();
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(1024);
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            bloomFilter.add(BIGINT, block, position);
+        }
+        return bloomFilter;
+    }
+
     private void assertSameDomain(Domain domain1, Domain domain2, boolean removeConstants)
             throws Exception
     {
@@ -13,10 +13,13 @@
  */
 package com.facebook.presto.common.predicate;
 
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintMultiRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingBitmask;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingHashTable;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BloomFilterValues;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BooleanValue;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BytesRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BytesValues;
@@ -33,8 +36,11 @@ import io.airlift.slice.Slices;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.Decimals.encodeScaledValue;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -570,4 +576,45 @@ public class TestTupleDomainFilter
         assertFalse(filter.testDouble(1.2d));
         assertTrue(filter.testDouble(1.3d));
     }
+
+    @Test
+    public void testBloomFilterValues()
+    {
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(1024);
+        BlockBuilder bigints = BIGINT.createBlockBuilder(null, 100);
+        for (long value = 0; value < 1000; value += 10) {
+            BIGINT.writeLong(bigints, value);
+        }
+        Block block = bigints.build();
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            bloomFilter.add(BIGINT, block, position);
+        }
+
+        TupleDomainFilter filter = TupleDomainFilterUtils.toFilter(Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 0L, true, 990L, true)), false, Optional.of(bloomFilter)));
+        assertTrue(filter instanceof BloomFilterValues);
+        for (long value = 0; value < 1000; value += 10) {
+            assertTrue(filter.testLong(value));
+        }
+        assertFalse(filter.testNull());
+        assertFalse(filter.testLong(-10));
+        assertFalse(filter.testLong(1000));
+
+        bloomFilter = BlockedBloomFilter.create(1024);
+        BlockBuilder varchars = VARCHAR.createBlockBuilder(null, 3);
+        for (String value : ImmutableList.of("abc", "x", "a much longer value")) {
+            VARCHAR.writeSlice(varchars, Slices.utf8Slice(value));
+        }
+        block = varchars.build();
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            bloomFilter.add(VARCHAR, block, position);
+        }
+
+        filter = TupleDomainFilterUtils.toFilter(Domain.create(ValueSet.all(VARCHAR), true, Optional.of(bloomFilter)));
+        assertTrue(filter.testNull());
+        for (String value : ImmutableList.of("abc", "x", "a much longer value")) {
+            byte[] bytes = toBytes("  " + value);
+            assertTrue(filter.testLength(value.length()));
+            assertTrue(filter.testBytes(bytes, 2, bytes.length - 2));
+        }
+    }
 }
@@ -61,6 +61,8 @@ public class MetastoreClientConfig
     private long metastoreCacheMaximumSize = 10000;
     private long perTransactionMetastoreCacheMaximumSize = 1000;
     private int maxMetastoreRefreshThreads = 100;
+    private String metastoreCacheEventFile;
+    private Duration metastoreCacheEventPollInterval = new Duration(1, TimeUnit.SECONDS);
 
     private String recordingPath;
     private boolean replay;
@@ -282,6 +284,34 @@ public class MetastoreClientConfig
         return this;
     }
 
+    public String getMetastoreCacheEventFile()
+    {
+        return metastoreCacheEventFile;
+    }
+
+    @Config("hive.metastore.cache.event-file")
+    @ConfigDescription("File of metastore change events, one JSON object per line, used to invalidate the affected metastore cache entries")
+    public MetastoreClientConfig setMetastoreCacheEventFile(String metastoreCacheEventFile)
+    {
+        this.metastoreCacheEventFile = metastoreCacheEventFile;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1ms")
+    public Duration getMetastoreCacheEventPollInterval()
+    {
+        return metastoreCacheEventPollInterval;
+    }
+
+    @Config("hive.metastore.cache.event-poll-interval")
+    @ConfigDescription("Interval at which metastore change events are polled")
+    public MetastoreClientConfig setMetastoreCacheEventPollInterval(Duration metastoreCacheEventPollInterval)
+    {
+        this.metastoreCacheEventPollInterval = metastoreCacheEventPollInterval;
+        return this;
+    }
+
     public String getRecordingPath()
     {
         return recordingPath;
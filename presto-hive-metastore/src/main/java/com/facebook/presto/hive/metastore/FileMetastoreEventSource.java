@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the events appended to a file, one JSON {@link MetastoreEvent} per line, for example by
+ * a metastore listener. A line is only read once it is terminated.
+ */
+@ThreadSafe
+public class FileMetastoreEventSource
+        implements MetastoreEventSource
+{
+    private static final JsonCodec<MetastoreEvent> EVENT_CODEC = jsonCodec(MetastoreEvent.class);
+
+    private final Path path;
+
+    @GuardedBy("this")
+    private long position;
+
+    public FileMetastoreEventSource(Path path)
+    {
+        this.path = requireNonNull(path, "path is null");
+    }
+
+    @Override
+    public synchronized List<MetastoreEvent> poll()
+    {
+        byte[] bytes;
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            if (channel.size() < position) {
+                // the file was truncated or replaced, so events written before may not have been read
+                position = 0;
+                throw new IllegalStateException("Metastore event file was truncated: " + path);
+            }
+            channel.position(position);
+            InputStream input = Channels.newInputStream(channel);
+            bytes = input.readAllBytes();
+        }
+        catch (NoSuchFileException e) {
+            return ImmutableList.of();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to read metastore event file: " + path, e);
+        }
+
+        ImmutableList.Builder<MetastoreEvent> events = ImmutableList.builder();
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                String line = new String(bytes, lineStart, i - lineStart, UTF_8).trim();
+                // consume the line before parsing it, so that a malformed line is not read again
+                position += i + 1 - lineStart;
+                lineStart = i + 1;
+                if (!line.isEmpty()) {
+                    events.add(EVENT_CODEC.fromJson(line));
+                }
+            }
+        }
+        return events.build();
+    }
+}
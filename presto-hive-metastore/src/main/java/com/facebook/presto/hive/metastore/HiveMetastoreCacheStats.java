@@ -22,6 +22,9 @@ public class HiveMetastoreCacheStats
         implements MetastoreCacheStats
 {
     private final CounterStat partitionsWithColumnCountGreaterThanThreshold = new CounterStat();
+    private final CounterStat metastoreEvents = new CounterStat();
+    private final CounterStat metastoreEventFailures = new CounterStat();
+    private final CounterStat eventInvalidations = new CounterStat();
     private LoadingCache<?, ?> tableCache;
     private LoadingCache<?, ?> partitionNamesCache;
     private LoadingCache<?, ?> partitionCache;
@@ -50,6 +53,24 @@ public class HiveMetastoreCacheStats
         partitionsWithColumnCountGreaterThanThreshold.update(1);
     }
 
+    @Override
+    public void incrementMetastoreEvents(long count)
+    {
+        metastoreEvents.update(count);
+    }
+
+    @Override
+    public void incrementMetastoreEventFailures()
+    {
+        metastoreEventFailures.update(1);
+    }
+
+    @Override
+    public void incrementEventInvalidations(long count)
+    {
+        eventInvalidations.update(count);
+    }
+
     @Managed
     @Override
     public long getTableCacheHit()
@@ -78,6 +99,13 @@ public class HiveMetastoreCacheStats
         return tableCache.size();
     }
 
+    @Managed
+    @Override
+    public long getTableCacheLoad()
+    {
+        return tableCache.stats().loadCount();
+    }
+
     @Managed
     @Override
     public long getPartitionNamesCacheHit()
@@ -106,6 +134,13 @@ public class HiveMetastoreCacheStats
         return partitionNamesCache.size();
     }
 
+    @Managed
+    @Override
+    public long getPartitionNamesCacheLoad()
+    {
+        return partitionNamesCache.stats().loadCount();
+    }
+
     @Managed
     @Override
     public long getPartitionCacheHit()
@@ -134,6 +169,13 @@ public class HiveMetastoreCacheStats
         return partitionCache.size();
     }
 
+    @Managed
+    @Override
+    public long getPartitionCacheLoad()
+    {
+        return partitionCache.stats().loadCount();
+    }
+
     @Managed
     @Nested
     @Override
@@ -141,4 +183,28 @@ public class HiveMetastoreCacheStats
     {
         return partitionsWithColumnCountGreaterThanThreshold;
     }
+
+    @Managed
+    @Nested
+    @Override
+    public CounterStat getMetastoreEvents()
+    {
+        return metastoreEvents;
+    }
+
+    @Managed
+    @Nested
+    @Override
+    public CounterStat getMetastoreEventFailures()
+    {
+        return metastoreEventFailures;
+    }
+
+    @Managed
+    @Nested
+    @Override
+    public CounterStat getEventInvalidations()
+    {
+        return eventInvalidations;
+    }
 }
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.hive.metastore;
 
+import com.facebook.airlift.log.Logger;
+import com.facebook.airlift.units.Duration;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.hive.ForCachingHiveMetastore;
 import com.facebook.presto.hive.HiveTableHandle;
@@ -22,20 +24,26 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.constraints.TableConstraint;
 import com.facebook.presto.spi.security.PrestoPrincipal;
 import com.facebook.presto.spi.security.RoleGrant;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.errorprone.annotations.ThreadSafe;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import org.weakref.jmx.Managed;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -45,11 +53,13 @@ import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CORRUPTED_PARTITION_CACHE;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_DROPPED_DURING_QUERY;
 import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.MetastoreCacheType.DATABASE;
@@ -68,10 +78,12 @@ import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.Me
 import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.MetastoreCacheType.VIEW_NAMES;
 import static com.facebook.presto.hive.metastore.HivePartitionName.hivePartitionName;
 import static com.facebook.presto.hive.metastore.HiveTableName.hiveTableName;
+import static com.facebook.presto.hive.metastore.MetastoreUtil.toPartitionValues;
 import static com.facebook.presto.hive.metastore.NoopMetastoreCacheStats.NOOP_METASTORE_CACHE_STATS;
 import static com.facebook.presto.hive.metastore.PartitionFilter.partitionFilter;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.cache.CacheLoader.asyncReloading;
@@ -84,6 +96,7 @@ import static com.google.common.collect.Streams.stream;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.apache.hadoop.hive.common.FileUtils.makePartName;
 
@@ -91,6 +104,8 @@ import static org.apache.hadoop.hive.common.FileUtils.makePartName;
 public class InMemoryCachingHiveMetastore
         extends AbstractCachingHiveMetastore
 {
+    private static final Logger log = Logger.get(InMemoryCachingHiveMetastore.class);
+
     private final ExtendedHiveMetastore delegate;
     private final LoadingCache<KeyAndContext<String>, Optional<Database>> databaseCache;
     private final LoadingCache<KeyAndContext<String>, List<String>> databaseNamesCache;
@@ -114,6 +129,10 @@ public class InMemoryCachingHiveMetastore
     private final double partitionCacheValidationPercentage;
     private final int partitionCacheColumnCountLimit;
 
+    private final Optional<MetastoreEventSource> eventSource;
+    private final Duration eventPollInterval;
+    private final ScheduledExecutorService eventPollExecutor;
+
     @Inject
     public InMemoryCachingHiveMetastore(
             @ForCachingHiveMetastore ExtendedHiveMetastore delegate,
@@ -131,7 +150,10 @@ public class InMemoryCachingHiveMetastore
                 metastoreClientConfig.getPartitionCacheValidationPercentage(),
                 metastoreClientConfig.getPartitionCacheColumnCountLimit(),
                 metastoreCacheStats,
-                metastoreCacheSpecProvider);
+                metastoreCacheSpecProvider,
+                Optional.ofNullable(metastoreClientConfig.getMetastoreCacheEventFile())
+                        .map(eventFile -> new FileMetastoreEventSource(Paths.get(eventFile))),
+                metastoreClientConfig.getMetastoreCacheEventPollInterval());
     }
 
     public InMemoryCachingHiveMetastore(
@@ -144,6 +166,33 @@ public class InMemoryCachingHiveMetastore
             int partitionCacheColumnCountLimit,
             MetastoreCacheStats metastoreCacheStats,
             MetastoreCacheSpecProvider metastoreCacheSpecProvider)
+    {
+        this(
+                delegate,
+                executor,
+                metastoreImpersonationEnabled,
+                maximumSize,
+                partitionVersioningEnabled,
+                partitionCacheValidationPercentage,
+                partitionCacheColumnCountLimit,
+                metastoreCacheStats,
+                metastoreCacheSpecProvider,
+                Optional.empty(),
+                new MetastoreClientConfig().getMetastoreCacheEventPollInterval());
+    }
+
+    public InMemoryCachingHiveMetastore(
+            ExtendedHiveMetastore delegate,
+            ExecutorService executor,
+            boolean metastoreImpersonationEnabled,
+            long maximumSize,
+            boolean partitionVersioningEnabled,
+            double partitionCacheValidationPercentage,
+            int partitionCacheColumnCountLimit,
+            MetastoreCacheStats metastoreCacheStats,
+            MetastoreCacheSpecProvider metastoreCacheSpecProvider,
+            Optional<MetastoreEventSource> eventSource,
+            Duration eventPollInterval)
     {
         this(
                 delegate,
@@ -155,7 +204,9 @@ public class InMemoryCachingHiveMetastore
                 partitionCacheColumnCountLimit,
                 metastoreCacheStats,
                 Optional.of(metastoreCacheSpecProvider),
-                false);
+                false,
+                eventSource,
+                eventPollInterval);
     }
 
     public static InMemoryCachingHiveMetastore memoizeMetastore(ExtendedHiveMetastore delegate, boolean isMetastoreImpersonationEnabled, long maximumSize, int partitionCacheMaxColumnCount)
@@ -170,7 +221,9 @@ public class InMemoryCachingHiveMetastore
                 partitionCacheMaxColumnCount,
                 NOOP_METASTORE_CACHE_STATS,
                 Optional.empty(),
-                true);
+                true,
+                Optional.empty(),
+                new MetastoreClientConfig().getMetastoreCacheEventPollInterval());
     }
 
     private InMemoryCachingHiveMetastore(
@@ -183,7 +236,9 @@ public class InMemoryCachingHiveMetastore
             int partitionCacheColumnCountLimit,
             MetastoreCacheStats metastoreCacheStats,
             Optional<MetastoreCacheSpecProvider> metastoreCacheSpecProvider,
-            boolean perTransactionCache)
+            boolean perTransactionCache,
+            Optional<MetastoreEventSource> eventSource,
+            Duration eventPollInterval)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
         requireNonNull(executor, "executor is null");
@@ -193,6 +248,9 @@ public class InMemoryCachingHiveMetastore
         this.partitionCacheColumnCountLimit = partitionCacheColumnCountLimit;
         this.metastoreCacheStats = metastoreCacheStats;
         this.metastoreCacheSpecProvider = metastoreCacheSpecProvider.orElse(null);
+        this.eventSource = requireNonNull(eventSource, "eventSource is null");
+        this.eventPollInterval = requireNonNull(eventPollInterval, "eventPollInterval is null");
+        this.eventPollExecutor = eventSource.isPresent() ? newSingleThreadScheduledExecutor(daemonThreadsNamed("hive-metastore-events-%s")) : null;
 
         databaseNamesCache = buildCache(
                 executor,
@@ -322,6 +380,23 @@ public class InMemoryCachingHiveMetastore
                 maximumSize);
     }
 
+    @PostConstruct
+    public void start()
+    {
+        if (eventPollExecutor != null) {
+            long intervalMillis = eventPollInterval.toMillis();
+            eventPollExecutor.scheduleWithFixedDelay(this::processMetastoreEvents, intervalMillis, intervalMillis, MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (eventPollExecutor != null) {
+            eventPollExecutor.shutdownNow();
+        }
+    }
+
     @Override
     public ExtendedHiveMetastore getDelegate()
     {
@@ -988,6 +1063,113 @@ public class InMemoryCachingHiveMetastore
         invalidateCacheForKey(partitionStatisticsCache, newMetastoreContext, hivePartitionNamePredicate);
     }
 
+    /**
+     * Invalidates the entries affected by the events of the event source. If the events cannot be
+     * read or applied, all the entries are invalidated, since it is no longer known which are stale.
+     */
+    @VisibleForTesting
+    synchronized void processMetastoreEvents()
+    {
+        checkState(eventSource.isPresent(), "Metastore event source is not configured");
+
+        try {
+            List<MetastoreEvent> events = eventSource.get().poll();
+            if (!events.isEmpty()) {
+                long invalidations = invalidate(events);
+                metastoreCacheStats.incrementMetastoreEvents(events.size());
+                metastoreCacheStats.incrementEventInvalidations(invalidations);
+            }
+        }
+        catch (RuntimeException e) {
+            log.error(e, "Failed to process metastore events, invalidating all metastore cache entries");
+            metastoreCacheStats.incrementMetastoreEventFailures();
+            invalidateAll();
+        }
+    }
+
+    private long invalidate(List<MetastoreEvent> events)
+    {
+        Set<String> changedDatabases = new HashSet<>();
+        Set<String> droppedDatabases = new HashSet<>();
+        boolean databaseListChanged = false;
+        Set<String> tableListChangedDatabases = new HashSet<>();
+        // tables whose table level entries are stale
+        Set<HiveTableName> changedTables = new HashSet<>();
+        // tables that were created or dropped, all of whose entries are stale
+        Set<HiveTableName> recreatedTables = new HashSet<>();
+        Set<HiveTableName> partitionListChangedTables = new HashSet<>();
+        SetMultimap<HiveTableName, List<String>> changedPartitions = HashMultimap.create();
+
+        for (MetastoreEvent event : events) {
+            String databaseName = event.getDatabaseName();
+            switch (event.getType()) {
+                case DROP_DATABASE:
+                    droppedDatabases.add(databaseName);
+                    databaseListChanged = true;
+                    changedDatabases.add(databaseName);
+                    break;
+                case CREATE_DATABASE:
+                    databaseListChanged = true;
+                    changedDatabases.add(databaseName);
+                    break;
+                case ALTER_DATABASE:
+                    changedDatabases.add(databaseName);
+                    break;
+                case CREATE_TABLE:
+                case DROP_TABLE:
+                    HiveTableName recreatedTable = hiveTableName(databaseName, event.getTableName().get());
+                    tableListChangedDatabases.add(databaseName);
+                    changedTables.add(recreatedTable);
+                    recreatedTables.add(recreatedTable);
+                    partitionListChangedTables.add(recreatedTable);
+                    break;
+                case ALTER_TABLE:
+                    changedTables.add(hiveTableName(databaseName, event.getTableName().get()));
+                    break;
+                case ADD_PARTITION:
+                case DROP_PARTITION:
+                    HiveTableName partitionedTable = hiveTableName(databaseName, event.getTableName().get());
+                    partitionListChangedTables.add(partitionedTable);
+                    changedPartitions.put(partitionedTable, toPartitionValues(event.getPartitionName().get()));
+                    break;
+                case ALTER_PARTITION:
+                    changedPartitions.put(hiveTableName(databaseName, event.getTableName().get()), toPartitionValues(event.getPartitionName().get()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected metastore event type: " + event.getType());
+            }
+        }
+
+        boolean allDatabases = databaseListChanged;
+        Predicate<HiveTableName> isChangedTable = table -> droppedDatabases.contains(table.getDatabaseName()) || changedTables.contains(table);
+        Predicate<HiveTableName> isPartitionListChanged = table -> droppedDatabases.contains(table.getDatabaseName()) || partitionListChangedTables.contains(table);
+        Predicate<HivePartitionName> isChangedPartition = partition -> droppedDatabases.contains(partition.getHiveTableName().getDatabaseName()) ||
+                recreatedTables.contains(partition.getHiveTableName()) ||
+                changedPartitions.containsEntry(partition.getHiveTableName(), partition.getPartitionValues());
+
+        return invalidate(databaseNamesCache, databaseNamesKey -> allDatabases) +
+                invalidate(databaseCache, changedDatabases::contains) +
+                invalidate(tableNamesCache, databaseName -> droppedDatabases.contains(databaseName) || tableListChangedDatabases.contains(databaseName)) +
+                invalidate(viewNamesCache, databaseName -> droppedDatabases.contains(databaseName) || tableListChangedDatabases.contains(databaseName)) +
+                invalidate(tableCache, hiveTableHandle -> isChangedTable.test(hiveTableName(hiveTableHandle.getSchemaName(), hiveTableHandle.getTableName()))) +
+                invalidate(tableConstraintsCache, isChangedTable) +
+                invalidate(tablePrivilegesCache, userTableKey -> isChangedTable.test(hiveTableName(userTableKey.getDatabase(), userTableKey.getTable()))) +
+                invalidate(tableStatisticsCache, isChangedTable) +
+                invalidate(partitionNamesCache, isPartitionListChanged) +
+                invalidate(partitionFilterCache, partitionFilter -> isPartitionListChanged.test(partitionFilter.getHiveTableName())) +
+                invalidate(partitionCache, isChangedPartition) +
+                invalidate(partitionStatisticsCache, isChangedPartition);
+    }
+
+    private static <K> long invalidate(LoadingCache<KeyAndContext<K>, ?> cache, Predicate<K> keyPredicate)
+    {
+        List<KeyAndContext<K>> keys = cache.asMap().keySet().stream()
+                .filter(key -> keyPredicate.test(key.getKey()))
+                .collect(toImmutableList());
+        cache.invalidateAll(keys);
+        return keys.size();
+    }
+
     private <K> void invalidateCacheForKey(LoadingCache<KeyAndContext<K>, ?> cache, MetastoreContext newMetastoreContext, Predicate<KeyAndContext<K>> keyPredicate)
     {
         cache.asMap().keySet().stream()
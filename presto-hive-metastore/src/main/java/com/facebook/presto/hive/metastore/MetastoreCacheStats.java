@@ -26,6 +26,12 @@ public interface MetastoreCacheStats
 
     void incrementPartitionsWithColumnCountGreaterThanThreshold();
 
+    void incrementMetastoreEvents(long count);
+
+    void incrementMetastoreEventFailures();
+
+    void incrementEventInvalidations(long count);
+
     long getTableCacheHit();
 
     long getTableCacheMiss();
@@ -34,6 +40,8 @@ public interface MetastoreCacheStats
 
     long getTableCacheSize();
 
+    long getTableCacheLoad();
+
     long getPartitionNamesCacheHit();
 
     long getPartitionNamesCacheMiss();
@@ -42,6 +50,8 @@ public interface MetastoreCacheStats
 
     long getPartitionNamesCacheSize();
 
+    long getPartitionNamesCacheLoad();
+
     long getPartitionCacheHit();
 
     long getPartitionCacheMiss();
@@ -50,5 +60,13 @@ public interface MetastoreCacheStats
 
     long getPartitionCacheSize();
 
+    long getPartitionCacheLoad();
+
     CounterStat getPartitionsWithColumnCountGreaterThanThreshold();
+
+    CounterStat getMetastoreEvents();
+
+    CounterStat getMetastoreEventFailures();
+
+    CounterStat getEventInvalidations();
 }
@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.errorprone.annotations.Immutable;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A change made to the metastore, as reported by a {@link MetastoreEventSource}. A table rename
+ * is reported as the drop of the old table and the creation of the new one.
+ */
+@Immutable
+public class MetastoreEvent
+{
+    public enum Type
+    {
+        CREATE_DATABASE,
+        ALTER_DATABASE,
+        DROP_DATABASE,
+        CREATE_TABLE,
+        ALTER_TABLE,
+        DROP_TABLE,
+        ADD_PARTITION,
+        ALTER_PARTITION,
+        DROP_PARTITION;
+
+        public boolean isTableEvent()
+        {
+            return this == CREATE_TABLE || this == ALTER_TABLE || this == DROP_TABLE;
+        }
+
+        public boolean isPartitionEvent()
+        {
+            return this == ADD_PARTITION || this == ALTER_PARTITION || this == DROP_PARTITION;
+        }
+    }
+
+    private final Type type;
+    private final String databaseName;
+    private final Optional<String> tableName;
+    private final Optional<String> partitionName;
+
+    @JsonCreator
+    public MetastoreEvent(
+            @JsonProperty("type") Type type,
+            @JsonProperty("databaseName") String databaseName,
+            @JsonProperty("tableName") Optional<String> tableName,
+            @JsonProperty("partitionName") Optional<String> partitionName)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.databaseName = requireNonNull(databaseName, "databaseName is null");
+        this.tableName = requireNonNull(tableName, "tableName is null");
+        this.partitionName = requireNonNull(partitionName, "partitionName is null");
+        checkArgument(tableName.isPresent() == (type.isTableEvent() || type.isPartitionEvent()), "tableName must be present only for table and partition events");
+        checkArgument(partitionName.isPresent() == type.isPartitionEvent(), "partitionName must be present only for partition events");
+    }
+
+    public static MetastoreEvent databaseEvent(Type type, String databaseName)
+    {
+        return new MetastoreEvent(type, databaseName, Optional.empty(), Optional.empty());
+    }
+
+    public static MetastoreEvent tableEvent(Type type, String databaseName, String tableName)
+    {
+        return new MetastoreEvent(type, databaseName, Optional.of(tableName), Optional.empty());
+    }
+
+    public static MetastoreEvent partitionEvent(Type type, String databaseName, String tableName, String partitionName)
+    {
+        return new MetastoreEvent(type, databaseName, Optional.of(tableName), Optional.of(partitionName));
+    }
+
+    @JsonProperty
+    public Type getType()
+    {
+        return type;
+    }
+
+    @JsonProperty
+    public String getDatabaseName()
+    {
+        return databaseName;
+    }
+
+    @JsonProperty
+    public Optional<String> getTableName()
+    {
+        return tableName;
+    }
+
+    @JsonProperty
+    public Optional<String> getPartitionName()
+    {
+        return partitionName;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MetastoreEvent other = (MetastoreEvent) o;
+        return type == other.type &&
+                Objects.equals(databaseName, other.databaseName) &&
+                Objects.equals(tableName, other.tableName) &&
+                Objects.equals(partitionName, other.partitionName);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(type, databaseName, tableName, partitionName);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("type", type)
+                .add("databaseName", databaseName)
+                .add("tableName", tableName.orElse(null))
+                .add("partitionName", partitionName.orElse(null))
+                .toString();
+    }
+}
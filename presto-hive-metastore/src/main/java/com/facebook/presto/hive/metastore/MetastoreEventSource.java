@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import java.util.List;
+
+/**
+ * Source of the changes made to the metastore, for example a feed of the metastore notification
+ * events, used by {@link InMemoryCachingHiveMetastore} to invalidate only the cache entries
+ * affected by a change.
+ */
+public interface MetastoreEventSource
+{
+    /**
+     * Returns the events that happened since the previous call, in the order they happened.
+     * Throws if the events cannot be read or some of them may have been lost, in which case
+     * the caller can no longer tell which entries are stale.
+     */
+    List<MetastoreEvent> poll();
+}
@@ -41,6 +41,21 @@ public class NoopMetastoreCacheStats
     {
     }
 
+    @Override
+    public void incrementMetastoreEvents(long count)
+    {
+    }
+
+    @Override
+    public void incrementMetastoreEventFailures()
+    {
+    }
+
+    @Override
+    public void incrementEventInvalidations(long count)
+    {
+    }
+
     public long getTableCacheHit()
     {
         return 0;
@@ -61,6 +76,11 @@ public class NoopMetastoreCacheStats
         return 0;
     }
 
+    public long getTableCacheLoad()
+    {
+        return 0;
+    }
+
     public long getPartitionNamesCacheHit()
     {
         return 0;
@@ -81,6 +101,11 @@ public class NoopMetastoreCacheStats
         return 0;
     }
 
+    public long getPartitionNamesCacheLoad()
+    {
+        return 0;
+    }
+
     public long getPartitionCacheHit()
     {
         return 0;
@@ -101,9 +126,32 @@ public class NoopMetastoreCacheStats
         return 0;
     }
 
+    public long getPartitionCacheLoad()
+    {
+        return 0;
+    }
+
     @Override
     public CounterStat getPartitionsWithColumnCountGreaterThanThreshold()
     {
         return null;
     }
+
+    @Override
+    public CounterStat getMetastoreEvents()
+    {
+        return null;
+    }
+
+    @Override
+    public CounterStat getMetastoreEventFailures()
+    {
+        return null;
+    }
+
+    @Override
+    public CounterStat getEventInvalidations()
+    {
+        return null;
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.facebook.presto.hive.metastore.MetastoreEvent.Type.ADD_PARTITION;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.Type.ALTER_TABLE;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.Type.DROP_DATABASE;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.databaseEvent;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.partitionEvent;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.tableEvent;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestFileMetastoreEventSource
+{
+    private Path tempDirectory;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        tempDirectory = Files.createTempDirectory("metastore-events");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testPoll()
+            throws IOException
+    {
+        Path file = tempDirectory.resolve("poll");
+        FileMetastoreEventSource eventSource = new FileMetastoreEventSource(file);
+        assertEquals(eventSource.poll(), ImmutableList.of());
+
+        append(file, "{\"type\":\"ALTER_TABLE\",\"databaseName\":\"db\",\"tableName\":\"t\"}\n\n");
+        assertEquals(eventSource.poll(), ImmutableList.of(tableEvent(ALTER_TABLE, "db", "t")));
+        assertEquals(eventSource.poll(), ImmutableList.of());
+
+        // an unterminated line is only read once it is terminated
+        append(file, "{\"type\":\"DROP_DATABASE\",\"databaseName\":\"db\"}\n{\"type\":\"ADD_PARTITION\",\"databaseName\":\"db\",");
+        assertEquals(eventSource.poll(), ImmutableList.of(databaseEvent(DROP_DATABASE, "db")));
+        append(file, "\"tableName\":\"t\",\"partitionName\":\"ds=2024-01-01\"}\n");
+        assertEquals(eventSource.poll(), ImmutableList.of(partitionEvent(ADD_PARTITION, "db", "t", "ds=2024-01-01")));
+    }
+
+    @Test
+    public void testMalformedEvent()
+            throws IOException
+    {
+        Path file = tempDirectory.resolve("malformed");
+        FileMetastoreEventSource eventSource = new FileMetastoreEventSource(file);
+
+        append(file, "not an event\n");
+        assertThatThrownBy(eventSource::poll).isInstanceOf(IllegalArgumentException.class);
+
+        // the malformed line is skipped
+        append(file, "{\"type\":\"ALTER_TABLE\",\"databaseName\":\"db\",\"tableName\":\"t\"}\n");
+        assertEquals(eventSource.poll(), ImmutableList.of(tableEvent(ALTER_TABLE, "db", "t")));
+    }
+
+    @Test
+    public void testTruncatedFile()
+            throws IOException
+    {
+        Path file = tempDirectory.resolve("truncated");
+        FileMetastoreEventSource eventSource = new FileMetastoreEventSource(file);
+
+        append(file, "{\"type\":\"ALTER_TABLE\",\"databaseName\":\"db\",\"tableName\":\"t\"}\n");
+        assertEquals(eventSource.poll().size(), 1);
+
+        Files.write(file, "{\"type\":\"DROP_DATABASE\",\"databaseName\":\"db\"}\n".getBytes(UTF_8));
+        assertThatThrownBy(eventSource::poll)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("truncated");
+
+        // the file is read again from the start
+        assertEquals(eventSource.poll(), ImmutableList.of(databaseEvent(DROP_DATABASE, "db")));
+    }
+
+    private static void append(Path file, String data)
+            throws IOException
+    {
+        Files.write(file, data.getBytes(UTF_8), CREATE, APPEND);
+    }
+}
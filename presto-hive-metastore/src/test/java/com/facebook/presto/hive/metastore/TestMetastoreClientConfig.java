@@ -48,6 +48,8 @@ public class TestMetastoreClientConfig
                 .setMetastoreCacheMaximumSize(10000)
                 .setPerTransactionMetastoreCacheMaximumSize(1000)
                 .setMaxMetastoreRefreshThreads(100)
+                .setMetastoreCacheEventFile(null)
+                .setMetastoreCacheEventPollInterval(new Duration(1, TimeUnit.SECONDS))
                 .setRecordingPath(null)
                 .setRecordingDuration(new Duration(0, TimeUnit.MINUTES))
                 .setReplay(false)
@@ -78,6 +80,8 @@ public class TestMetastoreClientConfig
                 .put("hive.metastore-cache-maximum-size", "5000")
                 .put("hive.per-transaction-metastore-cache-maximum-size", "500")
                 .put("hive.metastore-refresh-max-threads", "2500")
+                .put("hive.metastore.cache.event-file", "/tmp/metastore-events")
+                .put("hive.metastore.cache.event-poll-interval", "10s")
                 .put("hive.metastore-recording-path", "/foo/bar")
                 .put("hive.metastore-recoding-duration", "42s")
                 .put("hive.replay-metastore-recording", "true")
@@ -105,6 +109,8 @@ public class TestMetastoreClientConfig
                 .setMetastoreCacheMaximumSize(5000)
                 .setPerTransactionMetastoreCacheMaximumSize(500)
                 .setMaxMetastoreRefreshThreads(2500)
+                .setMetastoreCacheEventFile("/tmp/metastore-events")
+                .setMetastoreCacheEventPollInterval(new Duration(10, TimeUnit.SECONDS))
                 .setRecordingPath("/foo/bar")
                 .setRecordingDuration(new Duration(42, TimeUnit.SECONDS))
                 .setReplay(true)
@@ -97,6 +97,7 @@ import static com.facebook.airlift.json.JsonCodecBinder.jsonCodecBinder;
 import static com.facebook.airlift.json.smile.SmileCodecBinder.smileCodecBinder;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableRowGroupIndices;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableSlice;
+import static com.facebook.presto.orc.StripeMetadataSource.CacheableStripeFooter;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static java.lang.Math.toIntExact;
@@ -330,7 +331,19 @@ public class HiveClientModule
                 CacheStatsMBean rowGroupIndexCacheStatsMBean = new CacheStatsMBean(rowGroupIndexCache.get());
                 exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeStreamRowGroupIndex"), rowGroupIndexCacheStatsMBean);
             }
-            stripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerCache, streamCache, rowGroupIndexCache);
+
+            Optional<Cache<StripeId, CacheableStripeFooter>> decodedFooterCache = Optional.empty();
+            if (orcCacheConfig.isDecodedStripeFooterCacheEnabled()) {
+                decodedFooterCache = Optional.of(CacheBuilder.newBuilder()
+                        .maximumWeight(orcCacheConfig.getDecodedStripeFooterCacheSize().toBytes())
+                        .weigher((id, footer) -> toIntExact(((CacheableStripeFooter) footer).getStripeFooter().getRetainedSizeInBytes()))
+                        .expireAfterAccess(orcCacheConfig.getDecodedStripeFooterCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                        .recordStats()
+                        .build());
+                CacheStatsMBean decodedFooterCacheStatsMBean = new CacheStatsMBean(decodedFooterCache.get());
+                exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_DecodedStripeFooter"), decodedFooterCacheStatsMBean);
+            }
+            stripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerCache, streamCache, rowGroupIndexCache, decodedFooterCache);
         }
         StripeMetadataSourceFactory factory = StripeMetadataSourceFactory.of(stripeMetadataSource);
         if (orcCacheConfig.isDwrfStripeCacheEnabled()) {
@@ -34,6 +34,7 @@ import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
+import static com.facebook.presto.common.RuntimeUnit.NONE;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -197,6 +198,8 @@ public class ParquetPageSource
         }
         closed = true;
 
+        runtimeStats.addMetricValue("parquet.pagesRead", NONE, parquetReader.getReadPageCount());
+        runtimeStats.addMetricValue("parquet.pagesSkipped", NONE, parquetReader.getSkippedPageCount());
         try {
             parquetReader.close();
         }
@@ -0,0 +1,239 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LazyBlock;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.predicate.FilterFunction;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.hive.HiveCoercer;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.hive.FilteringPageSource.filterBlock;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Applies the pushed down filters while reading a Parquet file. The delegate returns a lazy block per
+ * column and batch, so the columns the filters depend on are decoded first, and the other columns are
+ * decoded only if some positions of the batch pass the filters. Columns that are not decoded for a batch
+ * are skipped by the column readers on their next read.
+ */
+public class ParquetSelectivePageSource
+        implements ConnectorPageSource
+{
+    private final ConnectorPageSource delegate;
+    private final List<Type> types;
+    private final int[] delegateChannels;          // -1 for the columns with a constant value
+    private final Object[] constantValues;
+    private final HiveCoercer[] coercers;
+    private final int[] filterColumns;             // columns with a domain filter, in evaluation order
+    private final TupleDomainFilter[] domainFilters;
+    private final Optional<FilterFunction> filterFunction;
+    private final int[] outputColumns;
+
+    /**
+     * @param delegate page source reading the columns that do not have a constant value, in the order of {@code types}
+     * @param types types of all columns, after coercion
+     * @param constantValues values of the prefilled columns, keyed by column; values may be null
+     * @param coercers coercers, keyed by column
+     * @param domainFilters filters on entire columns, keyed by column
+     * @param filterFunction filter on the remaining predicate, with the columns as input channels
+     * @param outputColumns the columns to return
+     */
+    public ParquetSelectivePageSource(
+            ConnectorPageSource delegate,
+            List<Type> types,
+            Map<Integer, Object> constantValues,
+            Map<Integer, HiveCoercer> coercers,
+            Map<Integer, TupleDomainFilter> domainFilters,
+            Optional<FilterFunction> filterFunction,
+            List<Integer> outputColumns)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        requireNonNull(constantValues, "constantValues is null");
+        requireNonNull(coercers, "coercers is null");
+        requireNonNull(domainFilters, "domainFilters is null");
+        this.filterFunction = requireNonNull(filterFunction, "filterFunction is null");
+        this.outputColumns = requireNonNull(outputColumns, "outputColumns is null").stream().mapToInt(Integer::intValue).toArray();
+
+        int columnCount = types.size();
+        this.delegateChannels = new int[columnCount];
+        this.constantValues = new Object[columnCount];
+        this.coercers = new HiveCoercer[columnCount];
+        this.domainFilters = new TupleDomainFilter[columnCount];
+        int delegateChannel = 0;
+        for (int column = 0; column < columnCount; column++) {
+            if (constantValues.containsKey(column)) {
+                this.delegateChannels[column] = -1;
+                this.constantValues[column] = constantValues.get(column);
+            }
+            else {
+                this.delegateChannels[column] = delegateChannel++;
+                this.coercers[column] = coercers.get(column);
+            }
+            this.domainFilters[column] = domainFilters.get(column);
+        }
+        this.filterColumns = domainFilters.keySet().stream()
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        Page page = delegate.getNextPage();
+        if (page == null) {
+            return null;
+        }
+
+        int batchSize = page.getPositionCount();
+        int[] positions = new int[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            positions[i] = i;
+        }
+        int positionCount = batchSize;
+
+        // loaded blocks of the columns the filters have been evaluated on
+        Block[] loadedBlocks = new Block[types.size()];
+        for (int column : filterColumns) {
+            Block block = loadBlock(page, loadedBlocks, column);
+            positionCount = filterBlock(block, types.get(column), domainFilters[column], positions, positionCount);
+            if (positionCount == 0) {
+                return new Page(0);
+            }
+        }
+
+        if (filterFunction.isPresent()) {
+            int[] inputChannels = filterFunction.get().getInputChannels();
+            Block[] inputBlocks = new Block[inputChannels.length];
+            for (int i = 0; i < inputChannels.length; i++) {
+                inputBlocks[i] = loadBlock(page, loadedBlocks, inputChannels[i]);
+            }
+
+            RuntimeException[] errors = new RuntimeException[positionCount];
+            positionCount = filterFunction.get().filter(new Page(batchSize, inputBlocks), positions, positionCount, errors);
+            for (int i = 0; i < positionCount; i++) {
+                if (errors[i] != null) {
+                    throw errors[i];
+                }
+            }
+            if (positionCount == 0) {
+                return new Page(0);
+            }
+        }
+
+        Block[] blocks = new Block[outputColumns.length];
+        for (int i = 0; i < outputColumns.length; i++) {
+            blocks[i] = getOutputBlock(page, loadedBlocks, outputColumns[i], positions, positionCount);
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    private Block loadBlock(Page page, Block[] loadedBlocks, int column)
+    {
+        if (loadedBlocks[column] == null) {
+            if (delegateChannels[column] < 0) {
+                loadedBlocks[column] = RunLengthEncodedBlock.create(types.get(column), constantValues[column], page.getPositionCount());
+            }
+            else {
+                loadedBlocks[column] = coerce(column, page.getBlock(delegateChannels[column]).getLoadedBlock());
+            }
+        }
+        return loadedBlocks[column];
+    }
+
+    private Block getOutputBlock(Page page, Block[] loadedBlocks, int column, int[] positions, int positionCount)
+    {
+        boolean allPositions = positionCount == page.getPositionCount();
+        if (delegateChannels[column] < 0) {
+            return RunLengthEncodedBlock.create(types.get(column), constantValues[column], positionCount);
+        }
+        if (loadedBlocks[column] != null) {
+            return allPositions ? loadedBlocks[column] : loadedBlocks[column].getPositions(positions, 0, positionCount);
+        }
+
+        Block block = page.getBlock(delegateChannels[column]);
+        if (allPositions && coercers[column] == null) {
+            return block;
+        }
+        // the column is decoded only if it is accessed
+        return new LazyBlock(positionCount, lazyBlock -> {
+            Block loadedBlock = coerce(column, block.getLoadedBlock());
+            lazyBlock.setBlock(allPositions ? loadedBlock : loadedBlock.getPositions(positions, 0, positionCount));
+        });
+    }
+
+    private Block coerce(int column, Block block)
+    {
+        if (coercers[column] == null) {
+            return block;
+        }
+        return coercers[column].apply(block);
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return delegate.getCompletedPositions();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return delegate.isFinished();
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return delegate.getSystemMemoryUsage();
+    }
+
+    @Override
+    public RuntimeStats getRuntimeStats()
+    {
+        return delegate.getRuntimeStats();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+}
@@ -14,31 +14,59 @@
 package com.facebook.presto.hive.parquet;
 
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.FilterFunction;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveCoercer;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.HiveFileSplit;
 import com.facebook.presto.hive.HiveSelectivePageSourceFactory;
+import com.facebook.presto.hive.MetadataUtils;
 import com.facebook.presto.hive.metastore.Storage;
+import com.facebook.presto.hive.orc.TupleDomainFilterCache;
+import com.facebook.presto.parquet.cache.ParquetMetadataSource;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.function.StandardFunctionResolution;
+import com.facebook.presto.spi.relation.InputReferenceExpression;
 import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.relation.RowExpressionService;
+import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.google.common.collect.ImmutableSet;
 import jakarta.inject.Inject;
 import org.apache.hadoop.conf.Configuration;
 import org.joda.time.DateTimeZone;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
+import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
+import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
+import static com.facebook.presto.expressions.LogicalRowExpressions.and;
+import static com.facebook.presto.expressions.RowExpressionNodeInliner.replaceExpression;
+import static com.facebook.presto.hive.HiveUtil.typedPartitionKey;
+import static com.facebook.presto.hive.parquet.ParquetPageSourceFactory.createParquetPageSource;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.Maps.uniqueIndex;
+import static java.util.Objects.requireNonNull;
 
 public class ParquetSelectivePageSourceFactory
         implements HiveSelectivePageSourceFactory
@@ -48,9 +76,31 @@ public class ParquetSelectivePageSourceFactory
             .add("parquet.hive.serde.ParquetHiveSerDe")
             .build();
 
+    private final TypeManager typeManager;
+    private final StandardFunctionResolution functionResolution;
+    private final RowExpressionService rowExpressionService;
+    private final HdfsEnvironment hdfsEnvironment;
+    private final FileFormatDataSourceStats stats;
+    private final ParquetMetadataSource parquetMetadataSource;
+    private final TupleDomainFilterCache tupleDomainFilterCache;
+
     @Inject
-    public ParquetSelectivePageSourceFactory()
+    public ParquetSelectivePageSourceFactory(
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            RowExpressionService rowExpressionService,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            ParquetMetadataSource parquetMetadataSource,
+            TupleDomainFilterCache tupleDomainFilterCache)
     {
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
+        this.rowExpressionService = requireNonNull(rowExpressionService, "rowExpressionService is null");
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.parquetMetadataSource = requireNonNull(parquetMetadataSource, "parquetMetadataSource is null");
+        this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
     }
 
     @Override
@@ -59,6 +109,7 @@ public class ParquetSelectivePageSourceFactory
             ConnectorSession session,
             HiveFileSplit fileSplit,
             Storage storage,
+            SchemaTableName tableName,
             List<HiveColumnHandle> columns,
             Map<Integer, String> prefilledValues,
             Map<Integer, HiveCoercer> coercers,
@@ -76,6 +127,95 @@ public class ParquetSelectivePageSourceFactory
             return Optional.empty();
         }
         checkState(!appendRowNumberEnabled, "append row number is not supported for Parquet Reader");
-        throw new PrestoException(NOT_SUPPORTED, "Parquet reader doesn't support filter pushdown yet");
+        checkArgument(!domainPredicate.isNone(), "Unexpected NONE domain");
+        if (bucketAdaptation.isPresent()) {
+            throw new PrestoException(NOT_SUPPORTED, "Parquet reader doesn't support filter pushdown with bucket adaptation yet");
+        }
+        if (columns.stream().anyMatch(HiveColumnHandle::isRowIdColumnHandle)) {
+            throw new PrestoException(NOT_SUPPORTED, "Parquet reader doesn't support filter pushdown with row IDs yet");
+        }
+        if (!domainPredicate.getDomains().get().keySet().stream().allMatch(MetadataUtils::isEntireColumn)) {
+            throw new PrestoException(NOT_SUPPORTED, "Parquet reader doesn't support filter pushdown on subfields yet");
+        }
+
+        Map<Integer, Integer> channels = IntStream.range(0, columns.size())
+                .boxed()
+                .collect(toImmutableMap(i -> columns.get(i).getHiveColumnIndex(), Function.identity()));
+        Map<String, Integer> channelsByName = IntStream.range(0, columns.size())
+                .boxed()
+                .collect(toImmutableMap(i -> columns.get(i).getName(), Function.identity()));
+
+        // types of the columns in the current table schema; these might be different from this partition's schema
+        List<Type> types = columns.stream()
+                .map(column -> coercers.containsKey(column.getHiveColumnIndex()) ?
+                        coercers.get(column.getHiveColumnIndex()).getToType() :
+                        typeManager.getType(column.getTypeSignature()))
+                .collect(toImmutableList());
+
+        // may contain null values
+        Map<Integer, Object> constantValues = new HashMap<>();
+        prefilledValues.forEach((hiveColumnIndex, value) -> {
+            int channel = channels.get(hiveColumnIndex);
+            constantValues.put(channel, typedPartitionKey(value, types.get(channel), columns.get(channel).getName(), hiveStorageTimeZone));
+        });
+
+        Map<Integer, HiveCoercer> channelCoercers = coercers.entrySet().stream()
+                .collect(toImmutableMap(entry -> channels.get(entry.getKey()), Map.Entry::getValue));
+
+        Map<Integer, TupleDomainFilter> domainFilters = domainPredicate.getDomains().get().entrySet().stream()
+                .collect(toImmutableMap(entry -> channelsByName.get(entry.getKey().getRootName()), entry -> tupleDomainFilterCache.getFilter(entry.getValue())));
+
+        Map<VariableReferenceExpression, InputReferenceExpression> variableToInput = IntStream.range(0, columns.size())
+                .boxed()
+                .collect(toImmutableMap(
+                        i -> new VariableReferenceExpression(Optional.empty(), columns.get(i).getName(), types.get(i)),
+                        i -> new InputReferenceExpression(Optional.empty(), i, types.get(i))));
+        Optional<FilterFunction> filterFunction = toFilterFunction(replaceExpression(remainingPredicate, variableToInput), session);
+
+        List<HiveColumnHandle> physicalColumns = columns.stream()
+                .filter(column -> !prefilledValues.containsKey(column.getHiveColumnIndex()))
+                .collect(toImmutableList());
+
+        // prune row groups and pages with the domains of the columns that are read as they are stored in the file
+        Map<String, HiveColumnHandle> physicalColumnsByName = uniqueIndex(physicalColumns, HiveColumnHandle::getName);
+        TupleDomain<HiveColumnHandle> effectivePredicate = domainPredicate
+                .transform(subfield -> physicalColumnsByName.get(subfield.getRootName()))
+                .transform(column -> coercers.containsKey(column.getHiveColumnIndex()) ? null : column);
+
+        ConnectorPageSource parquetPageSource = createParquetPageSource(
+                hdfsEnvironment,
+                session,
+                configuration,
+                fileSplit,
+                physicalColumns,
+                tableName,
+                typeManager,
+                functionResolution,
+                effectivePredicate,
+                stats,
+                hiveFileContext,
+                parquetMetadataSource);
+
+        return Optional.of(new ParquetSelectivePageSource(
+                parquetPageSource,
+                types,
+                constantValues,
+                channelCoercers,
+                domainFilters,
+                filterFunction,
+                outputColumns.stream().map(channels::get).collect(toImmutableList())));
+    }
+
+    private Optional<FilterFunction> toFilterFunction(RowExpression filter, ConnectorSession session)
+    {
+        // dynamic filters are added through subfield pushdown
+        filter = and(extractDynamicFilters(filter).getStaticConjuncts());
+        if (TRUE_CONSTANT.equals(filter)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FilterFunction(
+                session.getSqlFunctionProperties(),
+                rowExpressionService.getDeterminismEvaluator().isDeterministic(filter),
+                rowExpressionService.getPredicateCompiler().compilePredicate(session.getSqlFunctionProperties(), session.getSessionFunctions(), filter).get()));
     }
 }
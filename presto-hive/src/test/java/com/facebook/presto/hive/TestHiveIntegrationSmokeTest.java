@@ -5722,7 +5722,7 @@ public class TestHiveIntegrationSmokeTest
     }
 
     @Test
-    public void testParquetSelectivePageSourceFails()
+    public void testParquetSelectivePageSource()
     {
         assertUpdate("CREATE TABLE test_parquet_filter_pushdoown (a BIGINT, b BOOLEAN) WITH (format = 'parquet')");
         assertUpdate(getSession(), "INSERT INTO test_parquet_filter_pushdoown VALUES (1, true)", 1);
@@ -5747,9 +5747,27 @@ public class TestHiveIntegrationSmokeTest
                 .setCatalogSessionProperty("hive", "pushdown_filter_enabled", "true")
                 .setCatalogSessionProperty("hive", "parquet_pushdown_filter_enabled", "true")
                 .build();
-        assertQueryFails(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown", "Parquet reader doesn't support filter pushdown yet");
-        assertQueryFails(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = true", "Parquet reader doesn't support filter pushdown yet");
-        assertQueryFails(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = false", "Parquet reader doesn't support filter pushdown yet");
+        assertQuery(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown", "select 1");
+        assertQuery(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = true", "select 1");
+        assertQueryReturnsEmptyResult(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = false");
+
+        assertUpdate("DROP TABLE test_parquet_filter_pushdoown");
+
+        assertUpdate("CREATE TABLE test_parquet_selective_page_source (a BIGINT, b VARCHAR, c DOUBLE, ds VARCHAR) WITH (format = 'parquet', partitioned_by = ARRAY['ds'])");
+        assertUpdate(
+                getSession(),
+                "INSERT INTO test_parquet_selective_page_source " +
+                        "SELECT orderkey, orderstatus, totalprice, if(orderkey % 2 = 0, 'even', 'odd') FROM orders",
+                "SELECT count(*) FROM orders");
+
+        // filters on a column that is not projected, on a partition key, on an expression and on a predicate that no rows pass
+        assertQuery(parquetFilterPushdownSession, "SELECT a, c FROM test_parquet_selective_page_source WHERE b = 'F'", "SELECT orderkey, totalprice FROM orders WHERE orderstatus = 'F'");
+        assertQuery(parquetFilterPushdownSession, "SELECT a, b, ds FROM test_parquet_selective_page_source WHERE ds = 'odd' AND a < 1000", "SELECT orderkey, orderstatus, 'odd' FROM orders WHERE orderkey % 2 = 1 AND orderkey < 1000");
+        assertQuery(parquetFilterPushdownSession, "SELECT a FROM test_parquet_selective_page_source WHERE a % 7 = 0 OR c > 400000", "SELECT orderkey FROM orders WHERE orderkey % 7 = 0 OR totalprice > 400000");
+        assertQuery(parquetFilterPushdownSession, "SELECT count(*) FROM test_parquet_selective_page_source WHERE b IS NULL OR a < 0", "SELECT 0");
+        assertQuery(parquetFilterPushdownSession, "SELECT count(*), max(c) FROM test_parquet_selective_page_source WHERE b <> 'O' AND ds = 'even'", "SELECT count(*), max(totalprice) FROM orders WHERE orderstatus <> 'O' AND orderkey % 2 = 0");
+
+        assertUpdate("DROP TABLE test_parquet_selective_page_source");
     }
 
     @DataProvider(name = "testFormatAndCompressionCodecs")
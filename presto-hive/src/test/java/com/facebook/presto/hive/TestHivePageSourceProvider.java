@@ -716,6 +716,7 @@ public class TestHivePageSourceProvider
                 ConnectorSession session,
                 HiveFileSplit fileSplit,
                 Storage storage,
+                SchemaTableName tableName,
                 List<HiveColumnHandle> columns,
                 Map<Integer,
                         String> prefilledValues,
@@ -35,11 +35,13 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
@@ -48,6 +50,10 @@ import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.Me
 import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.MetastoreCacheType.PARTITION;
 import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.MetastoreCacheType.PARTITION_STATISTICS;
 import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.MetastoreCacheType.TABLE;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.Type.ADD_PARTITION;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.Type.ALTER_PARTITION;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.Type.ALTER_TABLE;
+import static com.facebook.presto.hive.metastore.MetastoreEvent.Type.DROP_TABLE;
 import static com.facebook.presto.hive.metastore.NoopMetastoreCacheStats.NOOP_METASTORE_CACHE_STATS;
 import static com.facebook.presto.hive.metastore.Partition.Builder;
 import static com.facebook.presto.hive.metastore.thrift.MockHiveMetastoreClient.BAD_DATABASE;
@@ -657,6 +663,103 @@ public class TestInMemoryCachingHiveMetastore
         assertEquals(mockClient.getAccessCount(), 9);
     }
 
+    @Test
+    public void testMetastoreEvents()
+    {
+        MetastoreClientConfig metastoreClientConfig = new MetastoreClientConfig();
+        metastoreClientConfig.setDefaultMetastoreCacheTtl(new Duration(5, TimeUnit.MINUTES));
+        metastoreClientConfig.setDefaultMetastoreCacheRefreshInterval(new Duration(1, TimeUnit.MINUTES));
+        metastoreClientConfig.setMetastoreCacheMaximumSize(1000);
+        metastoreClientConfig.setEnabledCaches(ALL.name());
+
+        List<MetastoreEvent> events = new ArrayList<>();
+        AtomicBoolean eventsLost = new AtomicBoolean();
+        MetastoreEventSource eventSource = () -> {
+            if (eventsLost.get()) {
+                throw new IllegalStateException("Metastore events were lost");
+            }
+            List<MetastoreEvent> polled = ImmutableList.copyOf(events);
+            events.clear();
+            return polled;
+        };
+        HiveMetastoreCacheStats cacheStats = new HiveMetastoreCacheStats();
+        InMemoryCachingHiveMetastore metastore = new InMemoryCachingHiveMetastore(
+                new BridgingHiveMetastore(new ThriftHiveMetastore(new MockHiveCluster(mockClient), metastoreClientConfig, HDFS_ENVIRONMENT), new HivePartitionMutator()),
+                listeningDecorator(newCachedThreadPool(daemonThreadsNamed("test-%s"))),
+                false,
+                1000,
+                false,
+                0.0,
+                metastoreClientConfig.getPartitionCacheColumnCountLimit(),
+                cacheStats,
+                new MetastoreCacheSpecProvider(metastoreClientConfig),
+                Optional.of(eventSource),
+                new Duration(1, TimeUnit.HOURS));
+
+        assertEquals(mockClient.getAccessCount(), 0);
+        assertNotNull(metastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE));
+        assertEquals(metastore.getPartitionNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).get().size(), 2);
+        assertEquals(metastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, EXPECTED_PARTITIONS).size(), 2);
+        assertEquals(mockClient.getAccessCount(), 3);
+
+        // Altering a partition only invalidates that partition
+        events.add(MetastoreEvent.partitionEvent(ALTER_PARTITION, TEST_DATABASE, TEST_TABLE, TEST_PARTITION1));
+        metastore.processMetastoreEvents();
+        assertEquals(metastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION_NAME_WITH_VERSION2)).size(), 1);
+        assertEquals(mockClient.getAccessCount(), 3);
+        assertEquals(metastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION_NAME_WITH_VERSION1)).size(), 1);
+        assertEquals(mockClient.getAccessCount(), 4);
+        metastore.getPartitionNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE);
+        metastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 4);
+
+        // Adding a partition also invalidates the partition names of the table
+        events.add(MetastoreEvent.partitionEvent(ADD_PARTITION, TEST_DATABASE, TEST_TABLE, TEST_PARTITION2));
+        metastore.processMetastoreEvents();
+        metastore.getPartitionNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 5);
+        metastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION_NAME_WITH_VERSION1));
+        metastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 5);
+        metastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION_NAME_WITH_VERSION2));
+        assertEquals(mockClient.getAccessCount(), 6);
+
+        // Altering a table does not invalidate its partitions
+        events.add(MetastoreEvent.tableEvent(ALTER_TABLE, TEST_DATABASE, TEST_TABLE));
+        metastore.processMetastoreEvents();
+        metastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 7);
+        metastore.getPartitionNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, EXPECTED_PARTITIONS);
+        assertEquals(mockClient.getAccessCount(), 7);
+
+        // Dropping a table invalidates the table and all of its partitions
+        events.add(MetastoreEvent.tableEvent(DROP_TABLE, TEST_DATABASE, TEST_TABLE));
+        metastore.processMetastoreEvents();
+        metastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 8);
+        metastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, EXPECTED_PARTITIONS);
+        assertEquals(mockClient.getAccessCount(), 9);
+
+        // Events of other tables do not invalidate anything
+        events.add(MetastoreEvent.tableEvent(DROP_TABLE, TEST_DATABASE, "othertable"));
+        metastore.processMetastoreEvents();
+        metastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE);
+        metastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, EXPECTED_PARTITIONS);
+        assertEquals(mockClient.getAccessCount(), 9);
+
+        assertEquals(cacheStats.getMetastoreEvents().getTotalCount(), 5);
+        assertEquals(cacheStats.getEventInvalidations().getTotalCount(), 8);
+        assertEquals(cacheStats.getMetastoreEventFailures().getTotalCount(), 0);
+
+        // Everything is invalidated when events may have been lost
+        eventsLost.set(true);
+        metastore.processMetastoreEvents();
+        metastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 10);
+        assertEquals(cacheStats.getMetastoreEventFailures().getTotalCount(), 1);
+    }
+
     public static class MockHiveCluster
             implements HiveCluster
     {
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -46,7 +47,7 @@ public class HdfsCachedInputFile
     @Override
     public long getLength()
     {
-        ManifestFileCachedContent cachedContent = cache.getIfPresent(cacheKey);
+        ManifestFileCachedContent cachedContent = getCachedContent();
         if (cachedContent != null) {
             return cachedContent.getLength();
         }
@@ -56,7 +57,7 @@ public class HdfsCachedInputFile
     @Override
     public SeekableInputStream newStream()
     {
-        ManifestFileCachedContent cachedContent = cache.getIfPresent(cacheKey);
+        ManifestFileCachedContent cachedContent = getCachedContent();
         if (cachedContent != null) {
             return ByteBufferInputStream.wrap(cachedContent.getData());
         }
@@ -67,6 +68,7 @@ public class HdfsCachedInputFile
                 ManifestFileCachedContent content = readFully(delegate, fileLength, cache.getBufferChunkSize());
                 cache.put(cacheKey, content);
                 cache.recordFileSize(content.getLength());
+                cache.getLocalCache().ifPresent(localCache -> localCache.put(cacheKey, content));
                 return ByteBufferInputStream.wrap(content.getData());
             }
             catch (IOException e) {
@@ -86,7 +88,19 @@ public class HdfsCachedInputFile
     @Override
     public boolean exists()
     {
-        return cache.getIfPresent(cacheKey) != null || delegate.exists();
+        return getCachedContent() != null || delegate.exists();
+    }
+
+    private ManifestFileCachedContent getCachedContent()
+    {
+        ManifestFileCachedContent cachedContent = cache.getIfPresent(cacheKey);
+        if (cachedContent != null || !cache.getLocalCache().isPresent()) {
+            return cachedContent;
+        }
+        // manifests persisted by an earlier process are promoted back into memory
+        Optional<ManifestFileCachedContent> localContent = cache.getLocalCache().get().get(cacheKey, cache.getBufferChunkSize());
+        localContent.ifPresent(content -> cache.put(cacheKey, content));
+        return localContent.orElse(null);
     }
 
     private static ManifestFileCachedContent readFully(InputFile input, long fileLength, long chunkSize)
@@ -41,6 +41,11 @@ import com.facebook.presto.hive.datasink.OutputStreamDataSinkFactory;
 import com.facebook.presto.hive.gcs.GcsConfigurationInitializer;
 import com.facebook.presto.hive.gcs.HiveGcsConfig;
 import com.facebook.presto.hive.gcs.HiveGcsConfigurationInitializer;
+import com.facebook.presto.iceberg.delete.EqualityDeleteCache;
+import com.facebook.presto.iceberg.delete.EqualityDeleteCacheKey;
+import com.facebook.presto.iceberg.delete.EqualityDeleteSet;
+import com.facebook.presto.iceberg.delete.PositionDeleteCache;
+import com.facebook.presto.iceberg.delete.PositionDeleteCacheKey;
 import com.facebook.presto.iceberg.nessie.IcebergNessieConfig;
 import com.facebook.presto.iceberg.optimizer.IcebergPlanOptimizerProvider;
 import com.facebook.presto.iceberg.procedure.ExpireSnapshotsProcedure;
@@ -97,9 +102,11 @@ import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
 import jakarta.inject.Singleton;
+import org.roaringbitmap.longlong.ImmutableLongBitmapDataProvider;
 import org.weakref.jmx.MBeanExporter;
 
 import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
@@ -111,9 +118,11 @@ import static com.facebook.presto.common.Utils.checkArgument;
 import static com.facebook.presto.iceberg.CatalogType.HADOOP;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableRowGroupIndices;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableSlice;
+import static com.facebook.presto.orc.StripeMetadataSource.CacheableStripeFooter;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static com.google.inject.multibindings.OptionalBinder.newOptionalBinder;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -224,6 +233,36 @@ public class IcebergCommonModule
         return statisticsFileCache;
     }
 
+    @Singleton
+    @Provides
+    public EqualityDeleteCache createEqualityDeleteCache(IcebergConfig config, MBeanExporter exporter)
+    {
+        long maxSize = config.getMaxEqualityDeleteCacheSize().toBytes();
+        Cache<EqualityDeleteCacheKey, EqualityDeleteSet> delegate = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .<EqualityDeleteCacheKey, EqualityDeleteSet>weigher((key, entry) -> (int) min(entry.getEstimatedSizeInBytes(), Integer.MAX_VALUE))
+                .recordStats()
+                .build();
+        EqualityDeleteCache equalityDeleteCache = new EqualityDeleteCache(delegate, maxSize > 0);
+        exporter.export(generatedNameOf(EqualityDeleteCache.class, connectorId), equalityDeleteCache);
+        return equalityDeleteCache;
+    }
+
+    @Singleton
+    @Provides
+    public PositionDeleteCache createPositionDeleteCache(IcebergConfig config, MBeanExporter exporter)
+    {
+        long maxSize = config.getMaxPositionDeleteCacheSize().toBytes();
+        Cache<PositionDeleteCacheKey, ImmutableLongBitmapDataProvider> delegate = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .<PositionDeleteCacheKey, ImmutableLongBitmapDataProvider>weigher((key, entry) -> (int) min(entry.getLongSizeInBytes(), Integer.MAX_VALUE))
+                .recordStats()
+                .build();
+        PositionDeleteCache positionDeleteCache = new PositionDeleteCache(delegate, maxSize > 0);
+        exporter.export(generatedNameOf(PositionDeleteCache.class, connectorId), positionDeleteCache);
+        return positionDeleteCache;
+    }
+
     @Singleton
     @Provides
     public ManifestFileCache createManifestFileCache(IcebergConfig config, MBeanExporter exporter)
@@ -235,12 +274,17 @@ public class IcebergCommonModule
         if (config.getManifestCacheExpireDuration() > 0) {
             delegate.expireAfterWrite(Duration.ofMillis(config.getManifestCacheExpireDuration()));
         }
+        Optional<ManifestFileLocalCache> localCache = Optional.ofNullable(config.getManifestCacheLocalDirectory())
+                .filter(directory -> config.getManifestCachingEnabled())
+                .map(directory -> new ManifestFileLocalCache(Paths.get(directory, connectorId), config.getManifestCacheLocalMaxTotalSize().toBytes()));
         ManifestFileCache manifestFileCache = new ManifestFileCache(
                 delegate.build(),
                 config.getManifestCachingEnabled(),
                 config.getManifestCacheMaxContentLength(),
-                config.getManifestCacheMaxChunkSize().toBytes());
+                config.getManifestCacheMaxChunkSize().toBytes(),
+                localCache);
         exporter.export(generatedNameOf(ManifestFileCache.class, connectorId), manifestFileCache);
+        localCache.ifPresent(cache -> exporter.export(generatedNameOf(ManifestFileLocalCache.class, connectorId), cache));
         return manifestFileCache;
     }
 
@@ -322,7 +366,19 @@ public class IcebergCommonModule
                 CacheStatsMBean rowGroupIndexCacheStatsMBean = new CacheStatsMBean(rowGroupIndexCache.get());
                 exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeStreamRowGroupIndex"), rowGroupIndexCacheStatsMBean);
             }
-            stripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerCache, streamCache, rowGroupIndexCache);
+
+            Optional<Cache<StripeReader.StripeId, CacheableStripeFooter>> decodedFooterCache = Optional.empty();
+            if (orcCacheConfig.isDecodedStripeFooterCacheEnabled()) {
+                decodedFooterCache = Optional.of(CacheBuilder.newBuilder()
+                        .maximumWeight(orcCacheConfig.getDecodedStripeFooterCacheSize().toBytes())
+                        .weigher((id, footer) -> toIntExact(((CacheableStripeFooter) footer).getStripeFooter().getRetainedSizeInBytes()))
+                        .expireAfterAccess(orcCacheConfig.getDecodedStripeFooterCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                        .recordStats()
+                        .build());
+                CacheStatsMBean decodedFooterCacheStatsMBean = new CacheStatsMBean(decodedFooterCache.get());
+                exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_DecodedStripeFooter"), decodedFooterCacheStatsMBean);
+            }
+            stripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerCache, streamCache, rowGroupIndexCache, decodedFooterCache);
         }
         StripeMetadataSourceFactory factory = StripeMetadataSourceFactory.of(stripeMetadataSource);
         if (orcCacheConfig.isDwrfStripeCacheEnabled()) {
@@ -31,6 +31,7 @@ import org.apache.iceberg.hadoop.HadoopFileIO;
 import java.util.EnumSet;
 import java.util.List;
 
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.airlift.units.DataSize.succinctDataSize;
 import static com.facebook.presto.hive.HiveCompressionCodec.ZSTD;
@@ -74,8 +75,12 @@ public class IcebergConfig
     private long manifestCacheExpireDuration = IO_MANIFEST_CACHE_EXPIRATION_INTERVAL_MS_DEFAULT;
     private long manifestCacheMaxContentLength = IO_MANIFEST_CACHE_MAX_CONTENT_LENGTH_DEFAULT;
     private DataSize manifestCacheMaxChunkSize = succinctDataSize(2, MEGABYTE);
+    private String manifestCacheLocalDirectory;
+    private DataSize manifestCacheLocalMaxTotalSize = succinctDataSize(10, GIGABYTE);
     private int splitManagerThreads = Runtime.getRuntime().availableProcessors();
     private DataSize maxStatisticsFileCacheSize = succinctDataSize(256, MEGABYTE);
+    private DataSize maxEqualityDeleteCacheSize = succinctDataSize(0, MEGABYTE);
+    private DataSize maxPositionDeleteCacheSize = succinctDataSize(0, MEGABYTE);
     private String materializedViewStoragePrefix = "__mv_storage__";
     private int materializedViewMaxChangedPartitions = 100;
 
@@ -400,6 +405,33 @@ public class IcebergConfig
         return this;
     }
 
+    public String getManifestCacheLocalDirectory()
+    {
+        return manifestCacheLocalDirectory;
+    }
+
+    @Config("iceberg.io.manifest.cache.local-directory")
+    @ConfigDescription("Local directory in which cached manifest files are persisted so they survive restarts. Only applicable to HIVE catalog.")
+    public IcebergConfig setManifestCacheLocalDirectory(String manifestCacheLocalDirectory)
+    {
+        this.manifestCacheLocalDirectory = manifestCacheLocalDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getManifestCacheLocalMaxTotalSize()
+    {
+        return manifestCacheLocalMaxTotalSize;
+    }
+
+    @Config("iceberg.io.manifest.cache.local-max-total-size")
+    @ConfigDescription("Maximum total size of the manifest files persisted in the local manifest cache directory")
+    public IcebergConfig setManifestCacheLocalMaxTotalSize(DataSize manifestCacheLocalMaxTotalSize)
+    {
+        this.manifestCacheLocalMaxTotalSize = manifestCacheLocalMaxTotalSize;
+        return this;
+    }
+
     @Min(0)
     public int getSplitManagerThreads()
     {
@@ -467,6 +499,34 @@ public class IcebergConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getMaxEqualityDeleteCacheSize()
+    {
+        return maxEqualityDeleteCacheSize;
+    }
+
+    @Config("iceberg.max-equality-delete-cache-size")
+    @ConfigDescription("The maximum size in bytes of equality delete sets cached on each worker. 0 disables the cache")
+    public IcebergConfig setMaxEqualityDeleteCacheSize(DataSize maxEqualityDeleteCacheSize)
+    {
+        this.maxEqualityDeleteCacheSize = maxEqualityDeleteCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxPositionDeleteCacheSize()
+    {
+        return maxPositionDeleteCacheSize;
+    }
+
+    @Config("iceberg.max-position-delete-cache-size")
+    @ConfigDescription("The maximum size in bytes of position delete bitmaps cached on each worker. 0 disables the cache")
+    public IcebergConfig setMaxPositionDeleteCacheSize(DataSize maxPositionDeleteCacheSize)
+    {
+        this.maxPositionDeleteCacheSize = maxPositionDeleteCacheSize;
+        return this;
+    }
+
     public int getStatisticsKllSketchKParameter()
     {
         return this.statisticsKllSketchKParameter;
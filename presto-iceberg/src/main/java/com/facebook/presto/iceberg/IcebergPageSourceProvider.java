@@ -44,7 +44,13 @@ import com.facebook.presto.hive.parquet.ParquetPageSource;
 import com.facebook.presto.iceberg.changelog.ChangelogPageSource;
 import com.facebook.presto.iceberg.delete.DeleteFile;
 import com.facebook.presto.iceberg.delete.DeleteFilter;
+import com.facebook.presto.iceberg.delete.EqualityDeleteCache;
+import com.facebook.presto.iceberg.delete.EqualityDeleteCacheKey;
+import com.facebook.presto.iceberg.delete.EqualityDeleteFilter;
+import com.facebook.presto.iceberg.delete.EqualityDeleteSet;
 import com.facebook.presto.iceberg.delete.IcebergDeletePageSink;
+import com.facebook.presto.iceberg.delete.PositionDeleteCache;
+import com.facebook.presto.iceberg.delete.PositionDeleteCacheKey;
 import com.facebook.presto.iceberg.delete.PositionDeleteFilter;
 import com.facebook.presto.iceberg.delete.RowPredicate;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
@@ -83,6 +89,7 @@ import com.google.common.base.VerifyException;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.airlift.slice.Slice;
 import jakarta.inject.Inject;
 import org.apache.hadoop.conf.Configuration;
@@ -108,6 +115,7 @@ import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
 import org.apache.parquet.io.ColumnIO;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.schema.MessageType;
+import org.roaringbitmap.longlong.ImmutableLongBitmapDataProvider;
 import org.roaringbitmap.longlong.LongBitmapDataProvider;
 import org.roaringbitmap.longlong.Roaring64Bitmap;
 
@@ -120,6 +128,7 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -158,7 +167,7 @@ import static com.facebook.presto.iceberg.IcebergUtil.getLocationProvider;
 import static com.facebook.presto.iceberg.IcebergUtil.getShallowWrappedIcebergTable;
 import static com.facebook.presto.iceberg.TypeConverter.ORC_ICEBERG_ID_KEY;
 import static com.facebook.presto.iceberg.TypeConverter.toHiveType;
-import static com.facebook.presto.iceberg.delete.EqualityDeleteFilter.readEqualityDeletes;
+import static com.facebook.presto.iceberg.delete.EqualityDeleteSet.readEqualityDeleteSet;
 import static com.facebook.presto.iceberg.delete.PositionDeleteFilter.readPositionDeletes;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
@@ -178,6 +187,7 @@ import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Predicates.not;
 import static com.google.common.base.Suppliers.memoize;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
@@ -213,6 +223,8 @@ public class IcebergPageSourceProvider
     private final PageIndexerFactory pageIndexerFactory;
     private final int maxOpenPartitions;
     private final SortParameters sortParameters;
+    private final EqualityDeleteCache equalityDeleteCache;
+    private final PositionDeleteCache positionDeleteCache;
 
     @Inject
     public IcebergPageSourceProvider(
@@ -228,7 +240,9 @@ public class IcebergPageSourceProvider
             JsonCodec<CommitTaskData> jsonCodec,
             PageIndexerFactory pageIndexerFactory,
             IcebergConfig icebergConfig,
-            SortParameters sortParameters)
+            SortParameters sortParameters,
+            EqualityDeleteCache equalityDeleteCache,
+            PositionDeleteCache positionDeleteCache)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.fileFormatDataSourceStats = requireNonNull(fileFormatDataSourceStats, "fileFormatDataSourceStats is null");
@@ -244,6 +258,8 @@ public class IcebergPageSourceProvider
         requireNonNull(icebergConfig, "icebergConfig is null");
         this.maxOpenPartitions = icebergConfig.getMaxPartitionsPerWriter();
         this.sortParameters = requireNonNull(sortParameters, "sortParameters is null");
+        this.equalityDeleteCache = requireNonNull(equalityDeleteCache, "equalityDeleteCache is null");
+        this.positionDeleteCache = requireNonNull(positionDeleteCache, "positionDeleteCache is null");
     }
 
     private static ConnectorPageSourceWithRowPositions createParquetPageSource(
@@ -992,8 +1008,15 @@ public class IcebergPageSourceProvider
             deleteDomain = deleteDomain.intersect(positionDomain);
         }
 
+        // Cached position deletes cover the whole data file and are merged into a single
+        // bitmap, so they are only used when filters do not need to report their delete file.
+        boolean cachePositionDeletes = positionDeleteCache.isEnabled() && !storeDeleteFilePath;
+
         for (DeleteFile delete : deleteFiles) {
             if (delete.content() == POSITION_DELETES) {
+                if (cachePositionDeletes) {
+                    continue;
+                }
                 if (startRowPosition.isPresent()) {
                     byte[] lowerBoundBytes = delete.getLowerBounds().get(DELETE_FILE_POS.fieldId());
                     Optional<Long> positionLowerBound = Optional.ofNullable(lowerBoundBytes)
@@ -1027,25 +1050,97 @@ public class IcebergPageSourceProvider
                         .map(id -> IcebergColumnHandle.create(schema.findField(id), typeManager, IcebergColumnHandle.ColumnType.REGULAR))
                         .collect(toImmutableList());
 
-                try (ConnectorPageSource pageSource = openDeletes(session, delete, columns, TupleDomain.all())) {
-                    filters.add(readEqualityDeletes(pageSource, columns, storeDeleteFilePath ? delete.path() : null));
-                }
-                catch (IOException e) {
-                    throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot open Iceberg delete file: %s", delete.path()), e);
-                }
+                filters.add(new EqualityDeleteFilter(getEqualityDeleteSet(session, delete, columns), storeDeleteFilePath ? delete.path() : null));
             }
             else {
                 throw new VerifyException("Unknown delete content: " + delete.content());
             }
         }
 
-        if (!deletedRows.isEmpty() && !storeDeleteFilePath) {
+        if (cachePositionDeletes) {
+            List<DeleteFile> positionDeletes = deleteFiles.stream()
+                    .filter(delete -> delete.content() == POSITION_DELETES)
+                    .collect(toImmutableList());
+            if (!positionDeletes.isEmpty()) {
+                ImmutableLongBitmapDataProvider cachedDeletedRows = getPositionDeletes(session, dataFilePath, positionDeletes);
+                if (!cachedDeletedRows.isEmpty()) {
+                    filters.add(new PositionDeleteFilter(cachedDeletedRows, null));
+                }
+            }
+        }
+        else if (!deletedRows.isEmpty() && !storeDeleteFilePath) {
             filters.add(new PositionDeleteFilter(deletedRows, null));
         }
 
         return filters;
     }
 
+    private ImmutableLongBitmapDataProvider getPositionDeletes(ConnectorSession session, String dataFilePath, List<DeleteFile> deleteFiles)
+    {
+        PositionDeleteCacheKey key = new PositionDeleteCacheKey(
+                dataFilePath,
+                deleteFiles.stream()
+                        .map(DeleteFile::path)
+                        .collect(toImmutableSet()));
+        try {
+            return positionDeleteCache.get(key, () -> loadPositionDeletes(session, dataFilePath, deleteFiles));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), PrestoException.class);
+            throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot read Iceberg position deletes for data file: %s", dataFilePath), e.getCause());
+        }
+    }
+
+    private ImmutableLongBitmapDataProvider loadPositionDeletes(ConnectorSession session, String dataFilePath, List<DeleteFile> deleteFiles)
+    {
+        long start = System.nanoTime();
+        Slice targetPath = utf8Slice(dataFilePath);
+        Roaring64Bitmap deletedRows = new Roaring64Bitmap();
+
+        IcebergColumnHandle deleteFilePath = IcebergColumnHandle.create(DELETE_FILE_PATH, typeManager, IcebergColumnHandle.ColumnType.REGULAR);
+        IcebergColumnHandle deleteFilePos = IcebergColumnHandle.create(DELETE_FILE_POS, typeManager, IcebergColumnHandle.ColumnType.REGULAR);
+        List<IcebergColumnHandle> deleteColumns = ImmutableList.of(deleteFilePath, deleteFilePos);
+        TupleDomain<IcebergColumnHandle> deleteDomain = TupleDomain.fromFixedValues(ImmutableMap.of(deleteFilePath, NullableValue.of(VARCHAR, targetPath)));
+
+        for (DeleteFile delete : deleteFiles) {
+            try (ConnectorPageSource pageSource = openDeletes(session, delete, deleteColumns, deleteDomain)) {
+                readPositionDeletes(pageSource, targetPath, deletedRows);
+            }
+            catch (IOException e) {
+                throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot open Iceberg delete file: %s", delete.path()), e);
+            }
+        }
+        deletedRows.runOptimize();
+        positionDeleteCache.recordDecode(deletedRows.getLongCardinality(), System.nanoTime() - start);
+        return deletedRows;
+    }
+
+    private EqualityDeleteSet getEqualityDeleteSet(ConnectorSession session, DeleteFile delete, List<IcebergColumnHandle> columns)
+    {
+        if (!equalityDeleteCache.isEnabled()) {
+            return loadEqualityDeleteSet(session, delete, columns);
+        }
+        try {
+            return equalityDeleteCache.get(new EqualityDeleteCacheKey(delete.path(), columns), () -> loadEqualityDeleteSet(session, delete, columns));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), PrestoException.class);
+            throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot read Iceberg delete file: %s", delete.path()), e.getCause());
+        }
+    }
+
+    private EqualityDeleteSet loadEqualityDeleteSet(ConnectorSession session, DeleteFile delete, List<IcebergColumnHandle> columns)
+    {
+        try (ConnectorPageSource pageSource = openDeletes(session, delete, columns, TupleDomain.all())) {
+            EqualityDeleteSet deleteSet = readEqualityDeleteSet(pageSource, columns);
+            equalityDeleteCache.recordSetSize(deleteSet.getEstimatedSizeInBytes());
+            return deleteSet;
+        }
+        catch (IOException e) {
+            throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot open Iceberg delete file: %s", delete.path()), e);
+        }
+    }
+
     private ConnectorPageSource openDeletes(
             ConnectorSession session,
             DeleteFile delete,
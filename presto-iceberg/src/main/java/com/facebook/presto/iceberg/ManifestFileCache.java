@@ -20,6 +20,10 @@ import com.google.common.cache.ForwardingCache;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
 public class ManifestFileCache
         extends ForwardingCache.SimpleForwardingCache<ManifestFileCacheKey, ManifestFileCachedContent>
 {
@@ -28,14 +32,26 @@ public class ManifestFileCache
     private final boolean enabled;
     private final long bufferChunkSize;
     private final CacheStatsMBean statsMBean;
+    private final Optional<ManifestFileLocalCache> localCache;
 
     public ManifestFileCache(Cache<ManifestFileCacheKey, ManifestFileCachedContent> delegate, boolean enabled, long maxFileLength, long bufferChunkSize)
+    {
+        this(delegate, enabled, maxFileLength, bufferChunkSize, Optional.empty());
+    }
+
+    public ManifestFileCache(
+            Cache<ManifestFileCacheKey, ManifestFileCachedContent> delegate,
+            boolean enabled,
+            long maxFileLength,
+            long bufferChunkSize,
+            Optional<ManifestFileLocalCache> localCache)
     {
         super(delegate);
         this.maxFileLength = maxFileLength;
         this.enabled = enabled;
         this.bufferChunkSize = bufferChunkSize;
         this.statsMBean = new CacheStatsMBean(delegate);
+        this.localCache = requireNonNull(localCache, "localCache is null");
     }
 
     @Managed
@@ -71,4 +87,16 @@ public class ManifestFileCache
     {
         return enabled;
     }
+
+    public Optional<ManifestFileLocalCache> getLocalCache()
+    {
+        return localCache;
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        super.invalidateAll();
+        localCache.ifPresent(ManifestFileLocalCache::invalidateAll);
+    }
 }
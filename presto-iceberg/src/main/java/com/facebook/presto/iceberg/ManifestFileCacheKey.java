@@ -26,6 +26,11 @@ public class ManifestFileCacheKey
         this.path = requireNonNull(path, "path is null");
     }
 
+    public String getPath()
+    {
+        return path;
+    }
+
     @Override
     public int hashCode()
     {
@@ -0,0 +1,301 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.airlift.stats.CounterStat;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Striped;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.hash.Hashing.sha256;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.Objects.requireNonNull;
+import static org.apache.iceberg.io.IOUtil.readRemaining;
+
+/**
+ * Persists manifest file content in a local directory so that the {@link ManifestFileCache}
+ * can be repopulated without reading manifests from remote storage after a restart.
+ * Manifest files are immutable, so the content is keyed by the manifest path only.
+ * When the directory grows beyond its limit, the least recently used files are removed.
+ */
+public class ManifestFileLocalCache
+{
+    private static final Logger log = Logger.get(ManifestFileLocalCache.class);
+
+    private static final String FILE_SUFFIX = ".avro";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxTotalBytes;
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Striped<Lock> writeLocks = Striped.lock(64);
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat writes = new CounterStat();
+    private final CounterStat evictions = new CounterStat();
+
+    @GuardedBy("this")
+    private boolean evicting;
+
+    public ManifestFileLocalCache(Path directory, long maxTotalBytes)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        checkArgument(maxTotalBytes > 0, "maxTotalBytes must be positive");
+        this.maxTotalBytes = maxTotalBytes;
+
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    if (file.getFileName().toString().endsWith(TEMPORARY_FILE_SUFFIX)) {
+                        // left behind by a write that did not complete
+                        Files.deleteIfExists(file);
+                    }
+                    else if (file.getFileName().toString().endsWith(FILE_SUFFIX)) {
+                        totalBytes.addAndGet(Files.size(file));
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize manifest cache directory " + directory, e);
+        }
+        evictIfNecessary();
+    }
+
+    public Optional<ManifestFileCachedContent> get(ManifestFileCacheKey key, long chunkSize)
+    {
+        Path file = getFile(key);
+        try (InputStream input = Files.newInputStream(file)) {
+            long length = Files.size(file);
+            List<ByteBuffer> buffers = new ArrayList<>((int) ((length + chunkSize - 1) / chunkSize));
+            long remaining = length;
+            while (remaining > 0) {
+                int bytesToRead = (int) Math.min(chunkSize, remaining);
+                byte[] buffer = new byte[bytesToRead];
+                if (readRemaining(input, buffer, 0, bytesToRead) < bytesToRead) {
+                    // the file was evicted while it was being read
+                    misses.update(1);
+                    return Optional.empty();
+                }
+                buffers.add(ByteBuffer.wrap(buffer));
+                remaining -= bytesToRead;
+            }
+            // keep recently used manifests from being evicted
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.update(1);
+            return Optional.of(new ManifestFileCachedContent(buffers, length));
+        }
+        catch (NoSuchFileException e) {
+            misses.update(1);
+            return Optional.empty();
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to read cached manifest file %s", file);
+            misses.update(1);
+            return Optional.empty();
+        }
+    }
+
+    public void put(ManifestFileCacheKey key, ManifestFileCachedContent content)
+    {
+        if (content.getLength() > maxTotalBytes) {
+            return;
+        }
+        Path file = getFile(key);
+        if (Files.exists(file)) {
+            return;
+        }
+
+        Path temporaryFile = directory.resolve(UUID.randomUUID() + TEMPORARY_FILE_SUFFIX);
+        try {
+            try (OutputStream output = Files.newOutputStream(temporaryFile)) {
+                for (ByteBuffer buffer : content.getData()) {
+                    output.write(buffer.array(), buffer.arrayOffset(), buffer.capacity());
+                }
+            }
+            // an atomic move replaces an existing file, so concurrent writers of the same manifest
+            // must check and move under a lock for only one of them to count the file
+            boolean created = false;
+            Lock lock = writeLocks.get(file);
+            lock.lock();
+            try {
+                if (!Files.exists(file)) {
+                    // readers must never observe a partially written manifest
+                    Files.move(temporaryFile, file, ATOMIC_MOVE);
+                    totalBytes.addAndGet(content.getLength());
+                    writes.update(1);
+                    created = true;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+            if (!created) {
+                Files.deleteIfExists(temporaryFile);
+                return;
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to persist manifest file %s in local cache", key.getPath());
+            try {
+                Files.deleteIfExists(temporaryFile);
+            }
+            catch (IOException ignored) {
+            }
+            return;
+        }
+        evictIfNecessary();
+    }
+
+    public void invalidateAll()
+    {
+        for (Path file : listFiles()) {
+            delete(file);
+        }
+    }
+
+    @Managed
+    public long getTotalBytes()
+    {
+        return totalBytes.get();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getWrites()
+    {
+        return writes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictions()
+    {
+        return evictions;
+    }
+
+    private Path getFile(ManifestFileCacheKey key)
+    {
+        return directory.resolve(sha256().hashString(key.getPath(), UTF_8) + FILE_SUFFIX);
+    }
+
+    private void evictIfNecessary()
+    {
+        if (totalBytes.get() <= maxTotalBytes) {
+            return;
+        }
+        synchronized (this) {
+            // a single thread evicts at a time, concurrent writers just add to the total
+            if (evicting) {
+                return;
+            }
+            evicting = true;
+        }
+        try {
+            List<Path> files = new ArrayList<>(listFiles());
+            files.sort(Comparator.comparing(ManifestFileLocalCache::lastModifiedTime));
+            for (Path file : files) {
+                if (totalBytes.get() <= maxTotalBytes) {
+                    break;
+                }
+                if (delete(file)) {
+                    evictions.update(1);
+                }
+            }
+        }
+        finally {
+            synchronized (this) {
+                evicting = false;
+            }
+        }
+    }
+
+    private boolean delete(Path file)
+    {
+        try {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                totalBytes.addAndGet(-size);
+                return true;
+            }
+        }
+        catch (NoSuchFileException ignored) {
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete cached manifest file %s", file);
+        }
+        return false;
+    }
+
+    private List<Path> listFiles()
+    {
+        ImmutableList.Builder<Path> result = ImmutableList.builder();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            files.forEach(result::add);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to list manifest cache directory %s", directory);
+        }
+        return result.build();
+    }
+
+    private static long lastModifiedTime(Path file)
+    {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        }
+        catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.airlift.stats.DistributionStat;
+import com.facebook.presto.hive.CacheStatsMBean;
+import com.google.common.cache.Cache;
+import com.google.common.cache.ForwardingCache.SimpleForwardingCache;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+/**
+ * Node-wide cache of equality delete sets keyed by delete file. Delete files are
+ * immutable, so a set read once can be shared by every split and query that applies it.
+ */
+public class EqualityDeleteCache
+        extends SimpleForwardingCache<EqualityDeleteCacheKey, EqualityDeleteSet>
+{
+    private final DistributionStat setSizes = new DistributionStat();
+    private final CacheStatsMBean cacheStats;
+    private final boolean enabled;
+
+    public EqualityDeleteCache(Cache<EqualityDeleteCacheKey, EqualityDeleteSet> delegate, boolean enabled)
+    {
+        super(delegate);
+        this.cacheStats = new CacheStatsMBean(delegate);
+        this.enabled = enabled;
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getCacheStats()
+    {
+        return cacheStats;
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return stats().evictionCount();
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getSetSizeDistribution()
+    {
+        return setSizes;
+    }
+
+    public void recordSetSize(long size)
+    {
+        setSizes.add(size);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.iceberg.IcebergColumnHandle;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public class EqualityDeleteCacheKey
+{
+    private final String path;
+    private final List<IcebergColumnHandle> columns;
+
+    public EqualityDeleteCacheKey(String path, List<IcebergColumnHandle> columns)
+    {
+        this.path = requireNonNull(path, "path is null");
+        this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+    }
+
+    public String getPath()
+    {
+        return path;
+    }
+
+    public List<IcebergColumnHandle> getColumns()
+    {
+        return columns;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EqualityDeleteCacheKey that = (EqualityDeleteCacheKey) o;
+        return path.equals(that.path) && columns.equals(that.columns);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(path, columns);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("path", path)
+                .add("columns", columns)
+                .toString();
+    }
+}
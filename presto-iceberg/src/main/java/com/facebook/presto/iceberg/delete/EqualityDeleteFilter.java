@@ -13,33 +13,23 @@
  */
 package com.facebook.presto.iceberg.delete;
 
-import com.facebook.presto.common.Page;
-import com.facebook.presto.common.type.Type;
 import com.facebook.presto.iceberg.IcebergColumnHandle;
-import com.facebook.presto.spi.ConnectorPageSource;
 import jakarta.annotation.Nullable;
-import org.apache.iceberg.Schema;
-import org.apache.iceberg.StructLike;
-import org.apache.iceberg.util.StructLikeSet;
-import org.apache.iceberg.util.StructProjection;
 
 import java.util.List;
 import java.util.Optional;
 
-import static com.facebook.presto.iceberg.IcebergUtil.schemaFromHandles;
 import static java.util.Objects.requireNonNull;
 
 public final class EqualityDeleteFilter
         implements DeleteFilter
 {
-    private final Schema schema;
-    private final StructLikeSet deleteSet;
+    private final EqualityDeleteSet deleteSet;
     @Nullable
     private final String deleteFilePath;
 
-    private EqualityDeleteFilter(Schema schema, StructLikeSet deleteSet, @Nullable String deleteFilePath)
+    public EqualityDeleteFilter(EqualityDeleteSet deleteSet, @Nullable String deleteFilePath)
     {
-        this.schema = requireNonNull(schema, "schema is null");
         this.deleteSet = requireNonNull(deleteSet, "deleteSet is null");
         this.deleteFilePath = deleteFilePath;
     }
@@ -47,17 +37,7 @@ public final class EqualityDeleteFilter
     @Override
     public RowPredicate createPredicate(List<IcebergColumnHandle> columns)
     {
-        Type[] types = columns.stream()
-                .map(IcebergColumnHandle::getType)
-                .toArray(Type[]::new);
-
-        Schema fileSchema = schemaFromHandles(columns);
-        StructProjection projection = StructProjection.create(fileSchema, schema);
-
-        return (page, position) -> {
-            StructLike row = new LazyStructLikeRow(types, page, position);
-            return !deleteSet.contains(projection.wrap(row));
-        };
+        return deleteSet.createPredicate(columns);
     }
 
     @Override
@@ -65,27 +45,4 @@ public final class EqualityDeleteFilter
     {
         return Optional.ofNullable(deleteFilePath);
     }
-
-    public static DeleteFilter readEqualityDeletes(ConnectorPageSource pageSource, List<IcebergColumnHandle> columns, String deleteFilePath)
-    {
-        Type[] types = columns.stream()
-                .map(IcebergColumnHandle::getType)
-                .toArray(Type[]::new);
-
-        Schema deleteSchema = schemaFromHandles(columns);
-        StructLikeSet deleteSet = StructLikeSet.create(deleteSchema.asStruct());
-
-        while (!pageSource.isFinished()) {
-            Page page = pageSource.getNextPage();
-            if (page == null) {
-                continue;
-            }
-
-            for (int position = 0; position < page.getPositionCount(); position++) {
-                deleteSet.add(new StructLikeRow(types, page, position));
-            }
-        }
-
-        return new EqualityDeleteFilter(deleteSchema, deleteSet, deleteFilePath);
-    }
 }
@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.BigintType;
+import com.facebook.presto.common.type.DateType;
+import com.facebook.presto.common.type.IntegerType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.iceberg.IcebergColumnHandle;
+import com.facebook.presto.spi.ConnectorPageSource;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.util.StructLikeSet;
+import org.apache.iceberg.util.StructProjection;
+
+import java.util.List;
+
+import static com.facebook.presto.iceberg.IcebergUtil.schemaFromHandles;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The rows of an equality delete file, in a form that can be probed by data rows.
+ * A delete set is immutable once read, so it can be shared by all splits that apply
+ * the same delete file.
+ */
+public abstract class EqualityDeleteSet
+{
+    // rough per-row footprint of a StructLikeRow held by a StructLikeSet, excluding the values
+    private static final long STRUCT_ROW_OVERHEAD_BYTES = 96;
+    private static final long STRUCT_VALUE_BYTES = 32;
+    // fastutil open hash sets keep the load factor at or below 0.75
+    private static final long LONG_ENTRY_BYTES = 2 * Long.BYTES;
+
+    private EqualityDeleteSet() {}
+
+    /**
+     * Returns a predicate that is true for the rows of a page with the given columns that are not deleted.
+     */
+    public abstract RowPredicate createPredicate(List<IcebergColumnHandle> columns);
+
+    public abstract long getEstimatedSizeInBytes();
+
+    public static EqualityDeleteSet readEqualityDeleteSet(ConnectorPageSource pageSource, List<IcebergColumnHandle> columns)
+    {
+        if (columns.size() == 1 && isLongBacked(columns.get(0).getType())) {
+            return readLongDeleteSet(pageSource, columns.get(0));
+        }
+        return readStructLikeDeleteSet(pageSource, columns);
+    }
+
+    private static boolean isLongBacked(Type type)
+    {
+        // types whose values are stored as longs in blocks and compared by value in Iceberg
+        return type instanceof BigintType || type instanceof IntegerType || type instanceof DateType;
+    }
+
+    private static EqualityDeleteSet readLongDeleteSet(ConnectorPageSource pageSource, IcebergColumnHandle column)
+    {
+        Type type = column.getType();
+        LongOpenHashSet values = new LongOpenHashSet();
+        boolean containsNull = false;
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page == null) {
+                continue;
+            }
+
+            Block block = page.getBlock(0);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                if (block.isNull(position)) {
+                    containsNull = true;
+                }
+                else {
+                    values.add(type.getLong(block, position));
+                }
+            }
+        }
+        values.trim();
+        return new LongDeleteSet(column.getId(), values, containsNull);
+    }
+
+    private static EqualityDeleteSet readStructLikeDeleteSet(ConnectorPageSource pageSource, List<IcebergColumnHandle> columns)
+    {
+        Type[] types = columns.stream()
+                .map(IcebergColumnHandle::getType)
+                .toArray(Type[]::new);
+
+        Schema deleteSchema = schemaFromHandles(columns);
+        StructLikeSet deleteSet = StructLikeSet.create(deleteSchema.asStruct());
+
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page == null) {
+                continue;
+            }
+
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                deleteSet.add(new StructLikeRow(types, page, position));
+            }
+        }
+
+        long estimatedSize = deleteSet.size() * (STRUCT_ROW_OVERHEAD_BYTES + types.length * STRUCT_VALUE_BYTES);
+        return new StructLikeDeleteSet(deleteSchema, deleteSet, estimatedSize);
+    }
+
+    private static final class StructLikeDeleteSet
+            extends EqualityDeleteSet
+    {
+        private final Schema schema;
+        private final StructLikeSet deleteSet;
+        private final long estimatedSizeInBytes;
+
+        private StructLikeDeleteSet(Schema schema, StructLikeSet deleteSet, long estimatedSizeInBytes)
+        {
+            this.schema = requireNonNull(schema, "schema is null");
+            this.deleteSet = requireNonNull(deleteSet, "deleteSet is null");
+            this.estimatedSizeInBytes = estimatedSizeInBytes;
+        }
+
+        @Override
+        public RowPredicate createPredicate(List<IcebergColumnHandle> columns)
+        {
+            Type[] types = columns.stream()
+                    .map(IcebergColumnHandle::getType)
+                    .toArray(Type[]::new);
+
+            Schema fileSchema = schemaFromHandles(columns);
+            StructProjection projection = StructProjection.create(fileSchema, schema);
+
+            return (page, position) -> {
+                StructLike row = new LazyStructLikeRow(types, page, position);
+                return !deleteSet.contains(projection.wrap(row));
+            };
+        }
+
+        @Override
+        public long getEstimatedSizeInBytes()
+        {
+            return estimatedSizeInBytes;
+        }
+    }
+
+    private static final class LongDeleteSet
+            extends EqualityDeleteSet
+    {
+        private final int fieldId;
+        private final LongOpenHashSet values;
+        private final boolean containsNull;
+
+        private LongDeleteSet(int fieldId, LongOpenHashSet values, boolean containsNull)
+        {
+            this.fieldId = fieldId;
+            this.values = requireNonNull(values, "values is null");
+            this.containsNull = containsNull;
+        }
+
+        @Override
+        public RowPredicate createPredicate(List<IcebergColumnHandle> columns)
+        {
+            int channel = -1;
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).getId() == fieldId) {
+                    channel = i;
+                    break;
+                }
+            }
+            checkArgument(channel >= 0, "equality delete column %s is missing", fieldId);
+            int deleteChannel = channel;
+            Type type = columns.get(deleteChannel).getType();
+
+            return (page, position) -> {
+                Block block = page.getBlock(deleteChannel);
+                if (block.isNull(position)) {
+                    return !containsNull;
+                }
+                return !values.contains(type.getLong(block, position));
+            };
+        }
+
+        @Override
+        public long getEstimatedSizeInBytes()
+        {
+            return values.size() * LONG_ENTRY_BYTES;
+        }
+    }
+}
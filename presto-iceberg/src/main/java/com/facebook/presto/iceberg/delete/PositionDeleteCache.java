@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.airlift.stats.DistributionStat;
+import com.facebook.airlift.stats.TimeStat;
+import com.facebook.presto.hive.CacheStatsMBean;
+import com.google.common.cache.Cache;
+import com.google.common.cache.ForwardingCache.SimpleForwardingCache;
+import org.roaringbitmap.longlong.ImmutableLongBitmapDataProvider;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Node-wide cache of the deleted row positions of a data file, keyed by the data file
+ * and the set of position delete files applied to it. Each entry covers the whole data
+ * file, so it is shared by all splits of the file as well as by later queries.
+ */
+public class PositionDeleteCache
+        extends SimpleForwardingCache<PositionDeleteCacheKey, ImmutableLongBitmapDataProvider>
+{
+    private final DistributionStat deletedRowCounts = new DistributionStat();
+    private final TimeStat decodeTime = new TimeStat(MILLISECONDS);
+    private final CacheStatsMBean cacheStats;
+    private final boolean enabled;
+
+    public PositionDeleteCache(Cache<PositionDeleteCacheKey, ImmutableLongBitmapDataProvider> delegate, boolean enabled)
+    {
+        super(delegate);
+        this.cacheStats = new CacheStatsMBean(delegate);
+        this.enabled = enabled;
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getCacheStats()
+    {
+        return cacheStats;
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return stats().evictionCount();
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getDeletedRowCountDistribution()
+    {
+        return deletedRowCounts;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getDecodeTime()
+    {
+        return decodeTime;
+    }
+
+    public void recordDecode(long deletedRowCount, long decodeNanos)
+    {
+        deletedRowCounts.add(deletedRowCount);
+        decodeTime.add(decodeNanos, NANOSECONDS);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+}
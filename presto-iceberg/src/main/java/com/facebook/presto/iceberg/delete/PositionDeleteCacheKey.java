@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Objects;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public class PositionDeleteCacheKey
+{
+    private final String dataFilePath;
+    private final Set<String> deleteFilePaths;
+
+    public PositionDeleteCacheKey(String dataFilePath, Set<String> deleteFilePaths)
+    {
+        this.dataFilePath = requireNonNull(dataFilePath, "dataFilePath is null");
+        this.deleteFilePaths = ImmutableSet.copyOf(requireNonNull(deleteFilePaths, "deleteFilePaths is null"));
+    }
+
+    public String getDataFilePath()
+    {
+        return dataFilePath;
+    }
+
+    public Set<String> getDeleteFilePaths()
+    {
+        return deleteFilePaths;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PositionDeleteCacheKey that = (PositionDeleteCacheKey) o;
+        return dataFilePath.equals(that.dataFilePath) && deleteFilePaths.equals(that.deleteFilePaths);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(dataFilePath, deleteFilePaths);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("dataFilePath", dataFilePath)
+                .add("deleteFilePaths", deleteFilePaths)
+                .toString();
+    }
+}
@@ -28,6 +28,8 @@ import java.util.Optional;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 public final class PositionDeleteFilter
@@ -46,11 +48,7 @@ public final class PositionDeleteFilter
     @Override
     public RowPredicate createPredicate(List<IcebergColumnHandle> columns)
     {
-        int filePosChannel = rowPositionChannel(columns);
-        return (page, position) -> {
-            long filePos = BIGINT.getLong(page.getBlock(filePosChannel), position);
-            return !deletedRows.contains(filePos);
-        };
+        return new PositionDeletePredicate(deletedRows, rowPositionChannel(columns));
     }
 
     public Optional<String> getDeleteFilePath()
@@ -97,6 +95,64 @@ public final class PositionDeleteFilter
         }
     }
 
+    private static final class PositionDeletePredicate
+            implements RowPredicate
+    {
+        private final ImmutableLongBitmapDataProvider deletedRows;
+        private final int filePosChannel;
+
+        private PositionDeletePredicate(ImmutableLongBitmapDataProvider deletedRows, int filePosChannel)
+        {
+            this.deletedRows = requireNonNull(deletedRows, "deletedRows is null");
+            this.filePosChannel = filePosChannel;
+        }
+
+        @Override
+        public boolean test(Page page, int position)
+        {
+            long filePos = BIGINT.getLong(page.getBlock(filePosChannel), position);
+            return !deletedRows.contains(filePos);
+        }
+
+        @Override
+        public Page filterPage(Page page)
+        {
+            int positionCount = page.getPositionCount();
+            if (positionCount == 0) {
+                return page;
+            }
+
+            Block filePosBlock = page.getBlock(filePosChannel);
+            long minFilePos = Long.MAX_VALUE;
+            long maxFilePos = Long.MIN_VALUE;
+            for (int position = 0; position < positionCount; position++) {
+                long filePos = BIGINT.getLong(filePosBlock, position);
+                minFilePos = min(minFilePos, filePos);
+                maxFilePos = max(maxFilePos, filePos);
+            }
+
+            // Most pages of a data file have no deleted rows. The rank difference counts the deletes
+            // in the position range of the page, which lets those pages skip the per-row lookups.
+            long deletesInRange = deletedRows.rankLong(maxFilePos) - (minFilePos == 0 ? 0 : deletedRows.rankLong(minFilePos - 1));
+            if (deletesInRange == 0) {
+                return page;
+            }
+
+            int[] retained = new int[positionCount];
+            int retainedCount = 0;
+            for (int position = 0; position < positionCount; position++) {
+                if (!deletedRows.contains(BIGINT.getLong(filePosBlock, position))) {
+                    retained[retainedCount] = position;
+                    retainedCount++;
+                }
+            }
+            if (retainedCount == positionCount) {
+                return page;
+            }
+            return page.getPositions(retained, 0, retainedCount);
+        }
+    }
+
     private static final class CachingVarcharComparator
     {
         private final Slice reference;
@@ -28,7 +28,22 @@ public interface RowPredicate
     default RowPredicate and(RowPredicate other)
     {
         requireNonNull(other, "other is null");
-        return (page, position) -> test(page, position) && other.test(page, position);
+        RowPredicate first = this;
+        return new RowPredicate()
+        {
+            @Override
+            public boolean test(Page page, int position)
+            {
+                return first.test(page, position) && other.test(page, position);
+            }
+
+            @Override
+            public Page filterPage(Page page)
+            {
+                // let each predicate apply its own page-level filtering
+                return other.filterPage(first.filterPage(page));
+            }
+        };
     }
 
     default Page filterPage(Page page)
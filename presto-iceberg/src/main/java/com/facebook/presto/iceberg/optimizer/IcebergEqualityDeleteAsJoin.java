@@ -122,14 +122,17 @@ public class IcebergEqualityDeleteAsJoin
     private final StandardFunctionResolution functionResolution;
     private final IcebergTransactionManager transactionManager;
     private final TypeManager typeManager;
+    private final boolean equalityDeleteCacheEnabled;
 
     IcebergEqualityDeleteAsJoin(StandardFunctionResolution functionResolution,
             IcebergTransactionManager transactionManager,
-            TypeManager typeManager)
+            TypeManager typeManager,
+            boolean equalityDeleteCacheEnabled)
     {
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
         this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.equalityDeleteCacheEnabled = equalityDeleteCacheEnabled;
     }
 
     @Override
@@ -140,6 +143,10 @@ public class IcebergEqualityDeleteAsJoin
         if (!isDeleteToJoinPushdownEnabled(session) || maxDeleteColumns == 0) {
             return maxSubplan;
         }
+        if (equalityDeleteCacheEnabled) {
+            // the workers cache equality delete sets when they apply them as a row filter, which the join cannot reuse
+            return maxSubplan;
+        }
         return rewriteWith(new DeleteAsJoinRewriter(functionResolution,
                 transactionManager, idAllocator, session, typeManager, variableAllocator), maxSubplan);
     }
@@ -14,6 +14,7 @@
 package com.facebook.presto.iceberg.optimizer;
 
 import com.facebook.presto.common.type.TypeManager;
+import com.facebook.presto.iceberg.IcebergConfig;
 import com.facebook.presto.iceberg.IcebergTableProperties;
 import com.facebook.presto.iceberg.transaction.IcebergTransactionManager;
 import com.facebook.presto.spi.ConnectorPlanOptimizer;
@@ -41,13 +42,15 @@ public class IcebergPlanOptimizerProvider
             StandardFunctionResolution functionResolution,
             FunctionMetadataManager functionMetadataManager,
             IcebergTableProperties tableProperties,
-            TypeManager typeManager)
+            TypeManager typeManager,
+            IcebergConfig icebergConfig)
     {
         requireNonNull(transactionManager, "transactionManager is null");
         requireNonNull(rowExpressionService, "rowExpressionService is null");
         requireNonNull(functionResolution, "functionResolution is null");
         requireNonNull(functionMetadataManager, "functionMetadataManager is null");
         requireNonNull(typeManager, "typeManager is null");
+        requireNonNull(icebergConfig, "icebergConfig is null");
         this.planOptimizers = ImmutableSet.of(
                 new IcebergPlanOptimizer(functionResolution, rowExpressionService, functionMetadataManager, transactionManager),
                 new IcebergFilterPushdown(rowExpressionService, functionResolution, functionMetadataManager, transactionManager, typeManager),
@@ -57,7 +60,7 @@ public class IcebergPlanOptimizerProvider
                 new IcebergFilterPushdown(rowExpressionService, functionResolution, functionMetadataManager, transactionManager, typeManager),
                 new IcebergMetadataOptimizer(functionMetadataManager, typeManager, transactionManager, rowExpressionService, functionResolution),
                 new IcebergParquetDereferencePushDown(transactionManager, rowExpressionService, typeManager, tableProperties),
-                new IcebergEqualityDeleteAsJoin(functionResolution, transactionManager, typeManager));
+                new IcebergEqualityDeleteAsJoin(functionResolution, transactionManager, typeManager, icebergConfig.getMaxEqualityDeleteCacheSize().toBytes() > 0));
     }
 
     @Override
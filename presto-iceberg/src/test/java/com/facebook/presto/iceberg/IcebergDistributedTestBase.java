@@ -164,6 +164,7 @@ import static com.facebook.presto.iceberg.IcebergSessionProperties.DELETE_AS_JOI
 import static com.facebook.presto.iceberg.IcebergSessionProperties.DELETE_AS_JOIN_REWRITE_MAX_DELETE_COLUMNS;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.PUSHDOWN_FILTER_ENABLED;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.STATISTIC_SNAPSHOT_RECORD_DIFFERENCE_WEIGHT;
+import static com.facebook.presto.iceberg.IcebergSessionProperties.TARGET_SPLIT_SIZE_BYTES;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.anyNot;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.anyTree;
@@ -1391,6 +1392,61 @@ public abstract class IcebergDistributedTestBase
         assertQuery("SELECT nationkey FROM " + tableName, "SELECT nationkey FROM nation WHERE nationkey not in (0 ,8)");
     }
 
+    @Test
+    public void testPositionDeleteCache()
+            throws Exception
+    {
+        String catalogName = "iceberg_position_delete_cache";
+        Map<String, String> catalogProperties = new HashMap<>(icebergQueryRunner.getIcebergCatalogs().get(ICEBERG_CATALOG));
+        catalogProperties.put("iceberg.max-position-delete-cache-size", "10MB");
+        getQueryRunner().createCatalog(catalogName, "iceberg", catalogProperties);
+        // small row groups and splits, so that a single data file is read by several splits with row position bounds
+        Session session = Session.builder(getSession())
+                .setCatalog(catalogName)
+                .setCatalogSessionProperty(catalogName, "parquet_writer_block_size", "16kB")
+                .setCatalogSessionProperty(catalogName, TARGET_SPLIT_SIZE_BYTES, "16384")
+                .build();
+
+        String tableName = "test_position_delete_cache_" + randomTableSuffix();
+        try {
+            assertUpdate(session, "CREATE TABLE " + tableName + " WITH (\"write.format.default\" = 'PARQUET') AS SELECT orderkey, comment FROM tpch.tiny.orders ORDER BY orderkey", 15000);
+            assertQuery(session, "SELECT count(*) FROM \"" + tableName + "$files\"", "VALUES 1");
+            Table icebergTable = updateTable(tableName);
+            String dataFilePath = (String) computeActual(session, "SELECT file_path FROM \"" + tableName + "$files\"").getOnlyValue();
+            // the data file is written in orderkey order, so the n-th smallest key is at row position n
+            List<Object> orderKeys = computeActual(session, "SELECT orderkey FROM " + tableName + " ORDER BY orderkey").getOnlyColumn().collect(Collectors.toList());
+
+            // separate delete files for the same data file are merged into a single cached bitmap, including
+            // positions outside the row position bounds of most splits
+            writePositionDeleteToNationTable(icebergTable, dataFilePath, 0);
+            writePositionDeleteToNationTable(icebergTable, dataFilePath, 7500);
+            writePositionDeleteToNationTable(icebergTable, dataFilePath, 14999);
+            testCheckDeleteFiles(icebergTable, 3, ImmutableList.of(POSITION_DELETES, POSITION_DELETES, POSITION_DELETES));
+
+            String expected = format("SELECT orderkey FROM orders WHERE orderkey NOT IN (%s, %s, %s)", orderKeys.get(0), orderKeys.get(7500), orderKeys.get(14999));
+            for (int i = 0; i < 3; i++) {
+                assertQuery(session, "SELECT orderkey FROM " + tableName, expected);
+            }
+            assertQuery(session, "SELECT count(*) FROM " + tableName + " WHERE orderkey > 30000", "SELECT count(*) FROM (" + expected + ") WHERE orderkey > 30000");
+
+            MaterializedRow cacheStats = getDeleteCacheStats(catalogName, "positiondeletecache");
+            long hitCount = (long) cacheStats.getField(0);
+            long missCount = (long) cacheStats.getField(2);
+            assertTrue(hitCount > 0);
+            assertTrue((long) cacheStats.getField(1) > 0);
+            assertTrue(missCount <= getQueryRunner().getNodeCount());
+
+            // reporting the delete file of each row needs a filter per delete file, which bypasses the cache
+            assertQuery(session, "SELECT count(*), count(\"$delete_file_path\") FROM " + tableName, "VALUES (15000, 3)");
+            cacheStats = getDeleteCacheStats(catalogName, "positiondeletecache");
+            assertEquals((long) cacheStats.getField(0), hitCount);
+            assertEquals((long) cacheStats.getField(2), missCount);
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS " + tableName);
+        }
+    }
+
     @DataProvider(name = "equalityDeleteOptions")
     public Object[][] equalityDeleteDataProvider()
     {
@@ -1463,6 +1519,45 @@ public abstract class IcebergDistributedTestBase
         assertQuery(session, "SELECT nationkey FROM " + tableName, "SELECT nationkey FROM nation WHERE regionkey != 1");
     }
 
+    @Test
+    public void testEqualityDeleteCache()
+            throws Exception
+    {
+        String catalogName = "iceberg_equality_delete_cache";
+        Map<String, String> catalogProperties = new HashMap<>(icebergQueryRunner.getIcebergCatalogs().get(ICEBERG_CATALOG));
+        catalogProperties.put("iceberg.max-equality-delete-cache-size", "10MB");
+        getQueryRunner().createCatalog(catalogName, "iceberg", catalogProperties);
+        // the join rewrite is left enabled, the cache makes the connector apply the deletes as a row filter instead
+        Session session = Session.builder(getSession())
+                .setCatalog(catalogName)
+                .build();
+
+        String tableName = "test_equality_delete_cache_" + randomTableSuffix();
+        try {
+            assertUpdate("CREATE TABLE " + tableName + " AS SELECT * FROM tpch.tiny.nation WITH NO DATA", 0);
+            // one data file per insert, so that the workers read several splits sharing the same delete file
+            for (int i = 0; i < 5; i++) {
+                assertUpdate(format("INSERT INTO %s SELECT * FROM tpch.tiny.nation WHERE nationkey %% 5 = %s", tableName, i), 5);
+            }
+            Table icebergTable = updateTable(tableName);
+            writeEqualityDeleteToNationTable(icebergTable, ImmutableMap.of("regionkey", 1L));
+
+            for (int i = 0; i < 3; i++) {
+                assertQuery(session, "SELECT * FROM " + tableName, "SELECT * FROM nation WHERE regionkey != 1");
+            }
+            assertQuery(session, "SELECT nationkey FROM " + tableName + " WHERE nationkey < 10", "SELECT nationkey FROM nation WHERE regionkey != 1 AND nationkey < 10");
+
+            // each worker decodes the delete file at most once, every other split reuses the cached set
+            MaterializedRow cacheStats = getDeleteCacheStats(catalogName, "equalitydeletecache");
+            assertTrue((long) cacheStats.getField(0) > 0);
+            assertTrue((long) cacheStats.getField(1) > 0);
+            assertTrue((long) cacheStats.getField(2) <= getQueryRunner().getNodeCount());
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS " + tableName);
+        }
+    }
+
     @Test(dataProvider = "equalityDeleteOptions")
     public void testTableWithEqualityDeleteDifferentColumnOrder(String fileFormat, boolean joinRewriteEnabled)
             throws Exception
@@ -4432,6 +4527,12 @@ public abstract class IcebergDistributedTestBase
         assertEquals(fileContents, expectedFileContent);
     }
 
+    private MaterializedRow getDeleteCacheStats(String catalogName, String cacheType)
+    {
+        return computeActual(format("SELECT sum(\"cachestats.hitcount\"), sum(\"cachestats.size\"), sum(\"cachestats.misscount\") " +
+                "FROM jmx.current.\"com.facebook.presto.iceberg.delete:name=%s,type=%s\"", catalogName, cacheType)).getMaterializedRows().get(0);
+    }
+
     private void writePositionDeleteToNationTable(Table icebergTable, String dataFilePath, long deletePos)
             throws IOException
     {
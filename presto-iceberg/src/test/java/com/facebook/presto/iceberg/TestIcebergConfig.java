@@ -22,6 +22,7 @@ import java.util.Map;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.airlift.units.DataSize.succinctDataSize;
 import static com.facebook.presto.hive.HiveCompressionCodec.NONE;
@@ -72,7 +73,11 @@ public class TestIcebergConfig
                 .setMetadataDeleteAfterCommit(METADATA_DELETE_AFTER_COMMIT_ENABLED_DEFAULT)
                 .setMetricsMaxInferredColumn(METRICS_MAX_INFERRED_COLUMN_DEFAULTS_DEFAULT)
                 .setManifestCacheMaxChunkSize(succinctDataSize(2, MEGABYTE))
+                .setManifestCacheLocalDirectory(null)
+                .setManifestCacheLocalMaxTotalSize(succinctDataSize(10, GIGABYTE))
                 .setMaxStatisticsFileCacheSize(succinctDataSize(256, MEGABYTE))
+                .setMaxEqualityDeleteCacheSize(succinctDataSize(0, MEGABYTE))
+                .setMaxPositionDeleteCacheSize(succinctDataSize(0, MEGABYTE))
                 .setStatisticsKllSketchKParameter(1024)
                 .setMaterializedViewStoragePrefix("__mv_storage__")
                 .setMaterializedViewMaxChangedPartitions(100));
@@ -105,11 +110,15 @@ public class TestIcebergConfig
                 .put("iceberg.io.manifest.cache.expiration-interval-ms", "600000")
                 .put("iceberg.io.manifest.cache.max-content-length", "10485760")
                 .put("iceberg.io.manifest.cache.max-chunk-size", "1MB")
+                .put("iceberg.io.manifest.cache.local-directory", "/tmp/manifests")
+                .put("iceberg.io.manifest.cache.local-max-total-size", "1GB")
                 .put("iceberg.split-manager-threads", "42")
                 .put("iceberg.metadata-previous-versions-max", "1")
                 .put("iceberg.metadata-delete-after-commit", "true")
                 .put("iceberg.metrics-max-inferred-column", "16")
                 .put("iceberg.max-statistics-file-cache-size", "512MB")
+                .put("iceberg.max-equality-delete-cache-size", "64MB")
+                .put("iceberg.max-position-delete-cache-size", "128MB")
                 .put("iceberg.statistics-kll-sketch-k-parameter", "4096")
                 .put("iceberg.materialized-view-storage-prefix", "custom_mv_prefix")
                 .put("iceberg.materialized-view-max-changed-partitions", "2000")
@@ -139,11 +148,15 @@ public class TestIcebergConfig
                 .setManifestCacheExpireDuration(600000)
                 .setManifestCacheMaxContentLength(10485760)
                 .setManifestCacheMaxChunkSize(succinctDataSize(1, MEGABYTE))
+                .setManifestCacheLocalDirectory("/tmp/manifests")
+                .setManifestCacheLocalMaxTotalSize(succinctDataSize(1, GIGABYTE))
                 .setSplitManagerThreads(42)
                 .setMetadataPreviousVersionsMax(1)
                 .setMetadataDeleteAfterCommit(true)
                 .setMetricsMaxInferredColumn(16)
                 .setMaxStatisticsFileCacheSize(succinctDataSize(512, MEGABYTE))
+                .setMaxEqualityDeleteCacheSize(succinctDataSize(64, MEGABYTE))
+                .setMaxPositionDeleteCacheSize(succinctDataSize(128, MEGABYTE))
                 .setStatisticsKllSketchKParameter(4096)
                 .setMaterializedViewStoragePrefix("custom_mv_prefix")
                 .setMaterializedViewMaxChangedPartitions(2000);
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestManifestFileLocalCache
+{
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = Files.createTempDirectory("manifest-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testSurvivesRestart()
+    {
+        ManifestFileCacheKey key = new ManifestFileCacheKey("s3://bucket/table/metadata/snap-1-m0.avro");
+        ManifestFileLocalCache cache = new ManifestFileLocalCache(directory, 1024);
+        assertFalse(cache.get(key, 4).isPresent());
+
+        cache.put(key, content(10));
+        assertEquals(cache.getTotalBytes(), 10);
+
+        ManifestFileLocalCache restarted = new ManifestFileLocalCache(directory, 1024);
+        assertEquals(restarted.getTotalBytes(), 10);
+        Optional<ManifestFileCachedContent> cached = restarted.get(key, 4);
+        assertTrue(cached.isPresent());
+        assertEquals(cached.get().getLength(), 10);
+        // content is split into chunks of the requested size
+        assertEquals(cached.get().getData().size(), 3);
+        assertEquals(toBytes(cached.get()), toBytes(content(10)));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed()
+            throws IOException
+    {
+        ManifestFileLocalCache cache = new ManifestFileLocalCache(directory, 25);
+        ManifestFileCacheKey first = new ManifestFileCacheKey("first.avro");
+        ManifestFileCacheKey second = new ManifestFileCacheKey("second.avro");
+        ManifestFileCacheKey third = new ManifestFileCacheKey("third.avro");
+
+        cache.put(first, content(10));
+        cache.put(second, content(10));
+        makeOlder(directory, 2);
+        // reading the first manifest makes the second one the eviction candidate
+        assertTrue(cache.get(first, 1024).isPresent());
+
+        cache.put(third, content(10));
+        assertEquals(cache.getTotalBytes(), 20);
+        assertTrue(cache.get(first, 1024).isPresent());
+        assertFalse(cache.get(second, 1024).isPresent());
+        assertTrue(cache.get(third, 1024).isPresent());
+        assertEquals(cache.getEvictions().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testInvalidateAll()
+    {
+        ManifestFileLocalCache cache = new ManifestFileLocalCache(directory, 1024);
+        ManifestFileCacheKey key = new ManifestFileCacheKey("manifest.avro");
+        cache.put(key, content(10));
+
+        cache.invalidateAll();
+        assertEquals(cache.getTotalBytes(), 0);
+        assertFalse(cache.get(key, 1024).isPresent());
+    }
+
+    @Test
+    public void testConcurrentPutsOfSameManifest()
+            throws Exception
+    {
+        ManifestFileLocalCache cache = new ManifestFileLocalCache(directory, 1024 * 1024);
+        int threads = 8;
+        int manifests = 50;
+        ExecutorService executor = newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < manifests; i++) {
+                ManifestFileCacheKey key = new ManifestFileCacheKey("manifest-" + i + ".avro");
+                CyclicBarrier barrier = new CyclicBarrier(threads);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < threads; thread++) {
+                    futures.add(executor.submit(() -> {
+                        barrier.await();
+                        cache.put(key, content(10));
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // every manifest is counted once, however many writers raced to persist it
+        assertEquals(cache.getWrites().getTotalCount(), manifests);
+        assertEquals(cache.getTotalBytes(), manifests * 10);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(files.count(), manifests);
+        }
+        assertEquals(new ManifestFileLocalCache(directory, 1024 * 1024).getTotalBytes(), cache.getTotalBytes());
+    }
+
+    private static void makeOlder(Path directory, int hours)
+            throws IOException
+    {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - hours * 3_600_000L));
+            }
+        }
+    }
+
+    private static ManifestFileCachedContent content(int length)
+    {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return new ManifestFileCachedContent(ImmutableList.of(ByteBuffer.wrap(bytes)), length);
+    }
+
+    private static byte[] toBytes(ManifestFileCachedContent content)
+    {
+        ByteBuffer result = ByteBuffer.allocate((int) content.getLength());
+        for (ByteBuffer buffer : content.getData()) {
+            result.put(buffer.duplicate());
+        }
+        return result.array();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.iceberg.IcebergColumnHandle;
+import com.facebook.presto.spi.FixedPageSource;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.iceberg.IcebergColumnHandle.primitiveIcebergColumnHandle;
+import static com.facebook.presto.iceberg.delete.EqualityDeleteSet.readEqualityDeleteSet;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestEqualityDeleteSet
+{
+    private static final IcebergColumnHandle ID = primitiveIcebergColumnHandle(1, "id", BIGINT, Optional.empty());
+    private static final IcebergColumnHandle NAME = primitiveIcebergColumnHandle(2, "name", VARCHAR, Optional.empty());
+    private static final IcebergColumnHandle VALUE = primitiveIcebergColumnHandle(3, "value", BIGINT, Optional.empty());
+
+    @Test
+    public void testSingleBigintColumn()
+    {
+        EqualityDeleteSet deleteSet = readEqualityDeleteSet(
+                new FixedPageSource(ImmutableList.of(new Page(bigintBlock(1L, 3L, null)))),
+                ImmutableList.of(ID));
+        assertTrue(deleteSet.getEstimatedSizeInBytes() > 0);
+
+        // the delete column is not the first channel of the data page
+        RowPredicate predicate = deleteSet.createPredicate(ImmutableList.of(VALUE, ID));
+        Page page = new Page(bigintBlock(10L, 20L, 30L, 40L), bigintBlock(1L, 2L, 3L, null));
+        assertFalse(predicate.test(page, 0));
+        assertTrue(predicate.test(page, 1));
+        assertFalse(predicate.test(page, 2));
+        assertFalse(predicate.test(page, 3));
+    }
+
+    @Test
+    public void testSingleBigintColumnWithoutNulls()
+    {
+        EqualityDeleteSet deleteSet = readEqualityDeleteSet(
+                new FixedPageSource(ImmutableList.of(new Page(bigintBlock(1L)))),
+                ImmutableList.of(ID));
+
+        RowPredicate predicate = deleteSet.createPredicate(ImmutableList.of(ID));
+        Page page = new Page(bigintBlock(1L, null));
+        assertFalse(predicate.test(page, 0));
+        assertTrue(predicate.test(page, 1));
+    }
+
+    @Test
+    public void testMultipleColumns()
+    {
+        EqualityDeleteSet deleteSet = readEqualityDeleteSet(
+                new FixedPageSource(ImmutableList.of(
+                        new Page(bigintBlock(1L), varcharBlock("a")),
+                        new Page(bigintBlock(2L), varcharBlock("b")))),
+                ImmutableList.of(ID, NAME));
+        assertTrue(deleteSet.getEstimatedSizeInBytes() > 0);
+
+        RowPredicate predicate = deleteSet.createPredicate(ImmutableList.of(NAME, VALUE, ID));
+        Page page = new Page(
+                varcharBlock("a", "a", "b"),
+                bigintBlock(10L, 20L, 30L),
+                bigintBlock(1L, 2L, 2L));
+        assertFalse(predicate.test(page, 0));
+        assertTrue(predicate.test(page, 1));
+        assertFalse(predicate.test(page, 2));
+    }
+
+    private static Block bigintBlock(Long... values)
+    {
+        BlockBuilder builder = BIGINT.createBlockBuilder(null, values.length);
+        for (Long value : values) {
+            if (value == null) {
+                builder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(builder, value);
+            }
+        }
+        return builder.build();
+    }
+
+    private static Block varcharBlock(String... values)
+    {
+        BlockBuilder builder = VARCHAR.createBlockBuilder(null, values.length);
+        for (String value : values) {
+            VARCHAR.writeSlice(builder, utf8Slice(value));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.iceberg.IcebergColumnHandle;
+import com.google.common.collect.ImmutableList;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.iceberg.IcebergColumnHandle.primitiveIcebergColumnHandle;
+import static org.apache.iceberg.MetadataColumns.ROW_POSITION;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestPositionDeleteFilter
+{
+    private static final List<IcebergColumnHandle> COLUMNS = ImmutableList.of(
+            primitiveIcebergColumnHandle(1, "value", BIGINT, Optional.empty()),
+            primitiveIcebergColumnHandle(ROW_POSITION.fieldId(), ROW_POSITION.name(), BIGINT, Optional.empty()));
+
+    @Test
+    public void testFilterPageWithoutDeletesInRange()
+    {
+        RowPredicate predicate = new PositionDeleteFilter(bitmap(0, 2, 100), null).createPredicate(COLUMNS);
+        Page page = page(10, 11, 12, 13);
+        assertSame(predicate.filterPage(page), page);
+    }
+
+    @Test
+    public void testFilterPage()
+    {
+        RowPredicate predicate = new PositionDeleteFilter(bitmap(0, 2, 100), null).createPredicate(COLUMNS);
+        assertPositions(predicate.filterPage(page(0, 1, 2, 3)), 1, 3);
+        assertPositions(predicate.filterPage(page(100, 99, 101)), 99, 101);
+    }
+
+    @Test
+    public void testCombinedPredicates()
+    {
+        RowPredicate predicate = new PositionDeleteFilter(bitmap(1), null).createPredicate(COLUMNS)
+                .and(new PositionDeleteFilter(bitmap(3), null).createPredicate(COLUMNS));
+        assertPositions(predicate.filterPage(page(0, 1, 2, 3, 4)), 0, 2, 4);
+    }
+
+    private static Roaring64Bitmap bitmap(long... positions)
+    {
+        Roaring64Bitmap bitmap = new Roaring64Bitmap();
+        for (long position : positions) {
+            bitmap.addLong(position);
+        }
+        return bitmap;
+    }
+
+    private static Page page(long... rowPositions)
+    {
+        BlockBuilder values = BIGINT.createBlockBuilder(null, rowPositions.length);
+        BlockBuilder positions = BIGINT.createBlockBuilder(null, rowPositions.length);
+        for (long rowPosition : rowPositions) {
+            BIGINT.writeLong(values, rowPosition * 10);
+            BIGINT.writeLong(positions, rowPosition);
+        }
+        return new Page(values.build(), positions.build());
+    }
+
+    private static void assertPositions(Page page, long... expected)
+    {
+        Block positions = page.getBlock(1);
+        assertEquals(page.getPositionCount(), expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(BIGINT.getLong(positions, i), expected[i]);
+            assertEquals(BIGINT.getLong(page.getBlock(0), i), expected[i] * 10);
+        }
+    }
+}
@@ -163,6 +163,12 @@ abstract class AbstractConnectionProperty<T>
         throw new IllegalArgumentException("value must be 'true' or 'false'");
     };
 
+    protected static final Converter<Integer> NON_NEGATIVE_INTEGER_CONVERTER = value -> {
+        int result = Integer.parseInt(value);
+        checkArgument(result >= 0, "value is negative");
+        return result;
+    };
+
     protected static final class StringMapConverter
             implements Converter<Map<String, String>>
     {
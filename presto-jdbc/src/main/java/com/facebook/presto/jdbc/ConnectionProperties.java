@@ -71,6 +71,8 @@ final class ConnectionProperties
     public static final ConnectionProperty<List<QueryInterceptor>> QUERY_INTERCEPTORS = new QueryInterceptors();
     public static final ConnectionProperty<Boolean> VALIDATE_NEXTURI_SOURCE = new ValidateNextUriSource();
     public static final ConnectionProperty<Boolean> FOLLOW_REDIRECTS = new FollowRedirects();
+    public static final ConnectionProperty<Boolean> BINARY_RESULTS = new BinaryResults();
+    public static final ConnectionProperty<Integer> PREFETCH_RESULT_PAGES = new PrefetchResultPages();
     public static final ConnectionProperty<String> SSL_KEY_STORE_TYPE = new SSLKeyStoreType();
     public static final ConnectionProperty<String> SSL_TRUST_STORE_TYPE = new SSLTrustStoreType();
     public static final ConnectionProperty<Boolean> EXTERNAL_AUTHENTICATION = new ExternalAuthentication();
@@ -108,6 +110,8 @@ final class ConnectionProperties
             .add(QUERY_INTERCEPTORS)
             .add(VALIDATE_NEXTURI_SOURCE)
             .add(FOLLOW_REDIRECTS)
+            .add(BINARY_RESULTS)
+            .add(PREFETCH_RESULT_PAGES)
             .add(EXTERNAL_AUTHENTICATION)
             .add(EXTERNAL_AUTHENTICATION_TIMEOUT)
             .add(EXTERNAL_AUTHENTICATION_TOKEN_CACHE)
@@ -408,6 +412,24 @@ final class ConnectionProperties
             super("followRedirects", Optional.of("true"), NOT_REQUIRED, ALLOWED, BOOLEAN_CONVERTER);
         }
     }
+
+    private static class BinaryResults
+            extends AbstractConnectionProperty<Boolean>
+    {
+        public BinaryResults()
+        {
+            super("binaryResults", Optional.of("false"), NOT_REQUIRED, ALLOWED, BOOLEAN_CONVERTER);
+        }
+    }
+
+    private static class PrefetchResultPages
+            extends AbstractConnectionProperty<Integer>
+    {
+        public PrefetchResultPages()
+        {
+            super("prefetchResultPages", Optional.of("0"), NOT_REQUIRED, ALLOWED, NON_NEGATIVE_INTEGER_CONVERTER);
+        }
+    }
     private static class SSLTrustStoreType
             extends AbstractConnectionProperty<String>
     {
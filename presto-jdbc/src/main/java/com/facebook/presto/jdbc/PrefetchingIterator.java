@@ -0,0 +1,242 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.jdbc;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * This {@code Iterator} drains another iterator on a background thread into a bounded queue,
+ * so that fetching the next elements overlaps with the caller consuming the current ones.
+ * Elements are returned in the order of the underlying iterator. The background task is only
+ * started on the first call to {@code hasNext()} or {@code next()}.
+ * <p>
+ * The underlying iterator is advanced on the background thread, so any side effects of
+ * advancing it happen on that thread. If the queue stays full for longer than the park
+ * timeout, for example because the caller abandoned the iterator without closing it, the
+ * background task parks and releases its thread. It is resumed by the next call that finds
+ * the queue empty. {@link #close()} stops the background task.
+ */
+final class PrefetchingIterator<T>
+        extends AbstractIterator<T>
+        implements AutoCloseable
+{
+    private static final long DEFAULT_PARK_TIMEOUT_MILLIS = SECONDS.toMillis(10);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final Iterator<T> iterator;
+    private final BlockingQueue<Element<T>> queue;
+    private final ExecutorService executor;
+    private final long parkTimeoutMillis;
+
+    private volatile boolean closed;
+
+    @GuardedBy("this")
+    private boolean running;
+    @GuardedBy("this")
+    private boolean finished;
+    // element the background task could not queue before it parked
+    @GuardedBy("this")
+    private Element<T> pending;
+    @GuardedBy("this")
+    private Future<?> future;
+
+    public PrefetchingIterator(Iterator<T> iterator, int maxQueuedElements, ExecutorService executor)
+    {
+        this(iterator, maxQueuedElements, executor, DEFAULT_PARK_TIMEOUT_MILLIS);
+    }
+
+    PrefetchingIterator(Iterator<T> iterator, int maxQueuedElements, ExecutorService executor, long parkTimeoutMillis)
+    {
+        checkArgument(maxQueuedElements > 0, "maxQueuedElements must be positive");
+        checkArgument(parkTimeoutMillis > 0, "parkTimeoutMillis must be positive");
+        this.iterator = requireNonNull(iterator, "iterator is null");
+        this.queue = new ArrayBlockingQueue<>(maxQueuedElements);
+        this.executor = requireNonNull(executor, "executor is null");
+        this.parkTimeoutMillis = parkTimeoutMillis;
+    }
+
+    @Override
+    protected T computeNext()
+    {
+        Element<T> element;
+        try {
+            do {
+                checkState(!closed, "iterator is closed");
+                // a parked task must be resumed before the queue can fill again
+                startIfNotRunning();
+                element = queue.poll(POLL_INTERVAL_MILLIS, MILLISECONDS);
+            }
+            while (element == null);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new RuntimeException(new SQLException("ResultSet thread was interrupted", e));
+        }
+
+        if (element.failure != null) {
+            throw element.failure;
+        }
+        if (element.endOfData) {
+            return endOfData();
+        }
+        return element.value;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        Future<?> future;
+        synchronized (this) {
+            future = this.future;
+        }
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+
+    synchronized boolean isRunning()
+    {
+        return running;
+    }
+
+    private synchronized void startIfNotRunning()
+    {
+        if (running || finished || closed) {
+            return;
+        }
+        running = true;
+        future = executor.submit(this::prefetch);
+    }
+
+    private void prefetch()
+    {
+        try {
+            while (!closed) {
+                Element<T> element = nextElement();
+                if (!offer(element)) {
+                    synchronized (this) {
+                        pending = element;
+                        running = false;
+                    }
+                    return;
+                }
+                if (element.isTerminal()) {
+                    synchronized (this) {
+                        finished = true;
+                        running = false;
+                    }
+                    return;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            // cancelled by close()
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            running = false;
+        }
+    }
+
+    /**
+     * Queues the element, unless the queue stays full for the park timeout or the iterator is closed.
+     */
+    private boolean offer(Element<T> element)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + MILLISECONDS.toNanos(parkTimeoutMillis);
+        while (!closed) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (queue.offer(element, min(remaining, MILLISECONDS.toNanos(POLL_INTERVAL_MILLIS)), NANOSECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Element<T> nextElement()
+    {
+        synchronized (this) {
+            if (pending != null) {
+                Element<T> element = pending;
+                pending = null;
+                return element;
+            }
+        }
+        try {
+            if (!iterator.hasNext()) {
+                return Element.endOfData();
+            }
+            return Element.of(iterator.next());
+        }
+        catch (RuntimeException e) {
+            return Element.failed(e);
+        }
+    }
+
+    private static final class Element<T>
+    {
+        private final T value;
+        private final RuntimeException failure;
+        private final boolean endOfData;
+
+        private Element(T value, RuntimeException failure, boolean endOfData)
+        {
+            this.value = value;
+            this.failure = failure;
+            this.endOfData = endOfData;
+        }
+
+        static <T> Element<T> of(T value)
+        {
+            return new Element<>(value, null, false);
+        }
+
+        static <T> Element<T> failed(RuntimeException failure)
+        {
+            return new Element<>(null, failure, false);
+        }
+
+        static <T> Element<T> endOfData()
+        {
+            return new Element<>(null, null, true);
+        }
+
+        boolean isTerminal()
+        {
+            return failure != null || endOfData;
+        }
+    }
+}
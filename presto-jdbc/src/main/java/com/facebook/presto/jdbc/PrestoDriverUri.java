@@ -56,6 +56,7 @@ import static com.facebook.presto.client.OkHttpUtil.setupSsl;
 import static com.facebook.presto.client.OkHttpUtil.tokenAuth;
 import static com.facebook.presto.jdbc.ConnectionProperties.ACCESS_TOKEN;
 import static com.facebook.presto.jdbc.ConnectionProperties.APPLICATION_NAME_PREFIX;
+import static com.facebook.presto.jdbc.ConnectionProperties.BINARY_RESULTS;
 import static com.facebook.presto.jdbc.ConnectionProperties.CLIENT_TAGS;
 import static com.facebook.presto.jdbc.ConnectionProperties.CUSTOM_HEADERS;
 import static com.facebook.presto.jdbc.ConnectionProperties.DISABLE_COMPRESSION;
@@ -74,6 +75,7 @@ import static com.facebook.presto.jdbc.ConnectionProperties.KERBEROS_PRINCIPAL;
 import static com.facebook.presto.jdbc.ConnectionProperties.KERBEROS_REMOTE_SERVICE_NAME;
 import static com.facebook.presto.jdbc.ConnectionProperties.KERBEROS_USE_CANONICAL_HOSTNAME;
 import static com.facebook.presto.jdbc.ConnectionProperties.PASSWORD;
+import static com.facebook.presto.jdbc.ConnectionProperties.PREFETCH_RESULT_PAGES;
 import static com.facebook.presto.jdbc.ConnectionProperties.QUERY_INTERCEPTORS;
 import static com.facebook.presto.jdbc.ConnectionProperties.SESSION_PROPERTIES;
 import static com.facebook.presto.jdbc.ConnectionProperties.SOCKS_PROXY;
@@ -238,6 +240,18 @@ final class PrestoDriverUri
         return FOLLOW_REDIRECTS.getValue(properties).orElse(true);
     }
 
+    public boolean isBinaryResults()
+            throws SQLException
+    {
+        return BINARY_RESULTS.getValue(properties).orElse(false);
+    }
+
+    public int getPrefetchResultPages()
+            throws SQLException
+    {
+        return PREFETCH_RESULT_PAGES.getValue(properties).orElse(0);
+    }
+
     public void setupClient(OkHttpClient.Builder builder)
             throws SQLException
     {
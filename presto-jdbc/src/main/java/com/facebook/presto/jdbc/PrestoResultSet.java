@@ -20,9 +20,11 @@ import com.facebook.presto.client.QueryError;
 import com.facebook.presto.client.QueryStatusInfo;
 import com.facebook.presto.client.StatementClient;
 import com.facebook.presto.jdbc.ColumnInfo.Nullable;
+import com.facebook.presto.spi.PrestoWarning;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
@@ -56,6 +58,10 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -70,6 +76,7 @@ import static java.lang.String.format;
 import static java.math.RoundingMode.HALF_UP;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 
 public class PrestoResultSet
         implements ResultSet
@@ -95,11 +102,17 @@ public class PrestoResultSet
             .toFormatter()
             .withOffsetParsed();
 
+    private static final ExecutorService PREFETCH_EXECUTOR = newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("presto-jdbc-result-prefetch-%s")
+            .setDaemon(true)
+            .build());
+
     private final Statement statement;
     private final StatementClient client;
     private final DateTimeZone sessionTimeZone;
     private final String queryId;
     private final Iterator<List<Object>> results;
+    private final Optional<PrefetchingIterator<PrefetchedPage>> prefetchingPages;
     private final Map<String, Integer> fieldMap;
     private final List<ColumnInfo> columnInfoList;
     private final ResultSetMetaData resultSetMetaData;
@@ -108,7 +121,7 @@ public class PrestoResultSet
     private final AtomicBoolean closed = new AtomicBoolean();
     private final WarningsManager warningsManager;
 
-    PrestoResultSet(Statement statement, StatementClient client, long maxRows, Consumer<QueryStats> progressCallback, WarningsManager warningsManager)
+    PrestoResultSet(Statement statement, StatementClient client, long maxRows, int prefetchResultPages, Consumer<QueryStats> progressCallback, WarningsManager warningsManager)
             throws SQLException
     {
         this.statement = requireNonNull(statement, "statement is null");
@@ -124,7 +137,23 @@ public class PrestoResultSet
         this.resultSetMetaData = new PrestoResultSetMetaData(columnInfoList);
         this.warningsManager = requireNonNull(warningsManager, "warningsManager is null");
 
-        this.results = flatten(new ResultsPageIterator(client, progressCallback, warningsManager), maxRows);
+        Iterator<Iterable<List<Object>>> pages;
+        if (prefetchResultPages > 0) {
+            // Pages are fetched on a background thread. The progress and warnings reported while fetching
+            // a page are attached to it, and delivered on the thread that consumes the page.
+            Queue<Runnable> callbacks = new ConcurrentLinkedQueue<>();
+            Iterator<PrefetchedPage> fetchedPages = transform(
+                    new ResultsPageIterator(client, progressCallback, warningsManager, callbacks::add),
+                    data -> new PrefetchedPage(data, drain(callbacks)));
+            PrefetchingIterator<PrefetchedPage> prefetchingIterator = new PrefetchingIterator<>(fetchedPages, prefetchResultPages, PREFETCH_EXECUTOR);
+            this.prefetchingPages = Optional.of(prefetchingIterator);
+            pages = new PrefetchedPageIterator(prefetchingIterator, callbacks);
+        }
+        else {
+            this.prefetchingPages = Optional.empty();
+            pages = new ResultsPageIterator(client, progressCallback, warningsManager, Runnable::run);
+        }
+        this.results = flatten(pages, maxRows);
     }
 
     public String getQueryId()
@@ -163,6 +192,7 @@ public class PrestoResultSet
             throws SQLException
     {
         closed.set(true);
+        prefetchingPages.ifPresent(PrefetchingIterator::close);
         client.close();
     }
 
@@ -1763,13 +1793,15 @@ public class PrestoResultSet
         private final StatementClient client;
         private final Consumer<QueryStats> progressCallback;
         private final WarningsManager warningsManager;
+        private final Consumer<Runnable> callbackRunner;
         private final boolean isQuery;
 
-        private ResultsPageIterator(StatementClient client, Consumer<QueryStats> progressCallback, WarningsManager warningsManager)
+        private ResultsPageIterator(StatementClient client, Consumer<QueryStats> progressCallback, WarningsManager warningsManager, Consumer<Runnable> callbackRunner)
         {
             this.client = requireNonNull(client, "client is null");
             this.progressCallback = requireNonNull(progressCallback, "progressCallback is null");
             this.warningsManager = requireNonNull(warningsManager, "warningsManager is null");
+            this.callbackRunner = requireNonNull(callbackRunner, "callbackRunner is null");
             this.isQuery = isQuery(client);
         }
 
@@ -1790,14 +1822,13 @@ public class PrestoResultSet
         {
             if (isQuery) {
                 // Clear the warnings if this is a query, per ResultSet javadoc
-                warningsManager.clearWarnings();
+                callbackRunner.accept(warningsManager::clearWarnings);
             }
             while (client.isRunning()) {
                 checkInterruption(null);
 
                 QueryStatusInfo results = client.currentStatusInfo();
-                progressCallback.accept(QueryStats.create(results.getId(), results.getStats()));
-                warningsManager.addWarnings(results.getWarnings());
+                reportProgress(results);
                 Iterable<List<Object>> data = client.currentData().getData();
 
                 try {
@@ -1815,8 +1846,7 @@ public class PrestoResultSet
 
             verify(client.isFinished());
             QueryStatusInfo results = client.finalStatusInfo();
-            progressCallback.accept(QueryStats.create(results.getId(), results.getStats()));
-            warningsManager.addWarnings(results.getWarnings());
+            reportProgress(results);
             if (results.getError() != null) {
                 throw new RuntimeException(resultsException(results));
             }
@@ -1824,6 +1854,16 @@ public class PrestoResultSet
             return endOfData();
         }
 
+        private void reportProgress(QueryStatusInfo results)
+        {
+            QueryStats stats = QueryStats.create(results.getId(), results.getStats());
+            List<PrestoWarning> warnings = results.getWarnings();
+            callbackRunner.accept(() -> {
+                progressCallback.accept(stats);
+                warningsManager.addWarnings(warnings);
+            });
+        }
+
         private void checkInterruption(Throwable t)
         {
             if (Thread.currentThread().isInterrupted()) {
@@ -1833,6 +1873,65 @@ public class PrestoResultSet
         }
     }
 
+    private static List<Runnable> drain(Queue<Runnable> callbacks)
+    {
+        ImmutableList.Builder<Runnable> drained = ImmutableList.builder();
+        for (Runnable callback = callbacks.poll(); callback != null; callback = callbacks.poll()) {
+            drained.add(callback);
+        }
+        return drained.build();
+    }
+
+    private static class PrefetchedPage
+    {
+        private final Iterable<List<Object>> data;
+        private final List<Runnable> callbacks;
+
+        private PrefetchedPage(Iterable<List<Object>> data, List<Runnable> callbacks)
+        {
+            this.data = requireNonNull(data, "data is null");
+            this.callbacks = requireNonNull(callbacks, "callbacks is null");
+        }
+    }
+
+    /**
+     * Returns prefetched pages, and runs the callbacks of each page when it is returned.
+     * Callbacks reported after the last page are run when the end of the results, or a
+     * failure, is reached.
+     */
+    private static class PrefetchedPageIterator
+            extends AbstractIterator<Iterable<List<Object>>>
+    {
+        private final Iterator<PrefetchedPage> pages;
+        private final Queue<Runnable> callbacks;
+
+        private PrefetchedPageIterator(Iterator<PrefetchedPage> pages, Queue<Runnable> callbacks)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+            this.callbacks = requireNonNull(callbacks, "callbacks is null");
+        }
+
+        @Override
+        protected Iterable<List<Object>> computeNext()
+        {
+            boolean hasNext;
+            try {
+                hasNext = pages.hasNext();
+            }
+            catch (RuntimeException e) {
+                drain(callbacks).forEach(Runnable::run);
+                throw e;
+            }
+            if (!hasNext) {
+                drain(callbacks).forEach(Runnable::run);
+                return endOfData();
+            }
+            PrefetchedPage page = pages.next();
+            page.callbacks.forEach(Runnable::run);
+            return page.data;
+        }
+    }
+
     static SQLException resultsException(QueryStatusInfo results)
     {
         QueryError error = requireNonNull(results.getError());
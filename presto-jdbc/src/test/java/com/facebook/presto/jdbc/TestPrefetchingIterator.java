@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.jdbc;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.IntStream.range;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestPrefetchingIterator
+{
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPreservesOrder()
+    {
+        List<Integer> values = range(0, 1000).boxed().collect(toImmutableList());
+        PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(values.iterator(), 3, executor);
+        assertEquals(ImmutableList.copyOf(iterator), values);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testPropagatesFailure()
+    {
+        Iterator<Integer> failing = new AbstractIterator<Integer>()
+        {
+            private int next;
+
+            @Override
+            protected Integer computeNext()
+            {
+                if (next == 2) {
+                    throw new IllegalStateException("fetch failed");
+                }
+                return next++;
+            }
+        };
+        PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(failing, 10, executor);
+        assertEquals(iterator.next(), (Integer) 0);
+        assertEquals(iterator.next(), (Integer) 1);
+        try {
+            iterator.hasNext();
+            fail("expected exception");
+        }
+        catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "fetch failed");
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void testCloseStopsPrefetching()
+            throws Exception
+    {
+        ExecutorService singleThreadExecutor = newSingleThreadExecutor();
+        try {
+            Iterator<Integer> infinite = new AbstractIterator<Integer>()
+            {
+                @Override
+                protected Integer computeNext()
+                {
+                    return 1;
+                }
+            };
+            PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(infinite, 1, singleThreadExecutor);
+            assertTrue(iterator.hasNext());
+            iterator.close();
+
+            // the prefetch task blocked on the full queue must release the only thread
+            assertTrue(singleThreadExecutor.submit(() -> true).get(10, SECONDS));
+        }
+        finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+    @Test(timeOut = 10_000)
+    public void testCloseWhileProducerBlocked()
+            throws Exception
+    {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        AtomicInteger fetched = new AtomicInteger();
+        Iterator<Integer> blocking = new AbstractIterator<Integer>()
+        {
+            @Override
+            protected Integer computeNext()
+            {
+                int next = fetched.incrementAndGet();
+                if (next == 3) {
+                    // the queue is full and the producer is blocked in a fetch that ignores interruption
+                    fetching.countDown();
+                    awaitUninterruptibly(releaseFetch);
+                }
+                return next;
+            }
+        };
+        ExecutorService singleThreadExecutor = newSingleThreadExecutor();
+        try {
+            PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(blocking, 1, singleThreadExecutor);
+            assertEquals(iterator.next(), (Integer) 1);
+            fetching.await();
+
+            iterator.close();
+            releaseFetch.countDown();
+
+            // the producer stops without waiting for queue space, and does not fetch again
+            assertTrue(singleThreadExecutor.submit(() -> true).get(10, SECONDS));
+            assertFalse(iterator.isRunning());
+            assertEquals(fetched.get(), 3);
+        }
+        finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void testAbandonedIteratorParks()
+            throws Exception
+    {
+        ExecutorService singleThreadExecutor = newSingleThreadExecutor();
+        try {
+            Iterator<Integer> counter = new AbstractIterator<Integer>()
+            {
+                private int next;
+
+                @Override
+                protected Integer computeNext()
+                {
+                    return next++;
+                }
+            };
+            PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(counter, 1, singleThreadExecutor, 50);
+            assertEquals(iterator.next(), (Integer) 0);
+
+            // nobody consumes the queue, so the producer parks and releases the only thread
+            while (iterator.isRunning()) {
+                MILLISECONDS.sleep(10);
+            }
+            assertTrue(singleThreadExecutor.submit(() -> true).get(10, SECONDS));
+
+            // consuming again resumes the producer without losing or reordering elements
+            for (int i = 1; i < 100; i++) {
+                assertEquals(iterator.next(), (Integer) i);
+            }
+            iterator.close();
+        }
+        finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+}
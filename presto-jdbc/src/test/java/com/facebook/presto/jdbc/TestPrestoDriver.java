@@ -43,6 +43,7 @@ import com.facebook.presto.type.ColorType;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Bytes;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.testng.annotations.AfterClass;
@@ -50,6 +51,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Date;
@@ -1106,6 +1108,66 @@ public class TestPrestoDriver
         }
     }
 
+    @Test
+    public void testBinaryResults()
+            throws Exception
+    {
+        List<String> queries = ImmutableList.of(
+                // types the driver decodes from pages
+                "SELECT * FROM (VALUES " +
+                        "(BIGINT '1', 2, SMALLINT '3', TINYINT '4', REAL '5.5', DOUBLE '6.5', true, DECIMAL '1.23', DECIMAL '12345678901234567890.123', " +
+                        "DATE '2020-01-02', X'0102', ARRAY[1, NULL], MAP(ARRAY['a'], ARRAY[1.5E0]), CAST(ROW(1, 'x') AS ROW(a integer, b varchar)), JSON '{\"a\":1}'), " +
+                        "(NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL))",
+                // results of multiple pages
+                "SELECT orderkey, totalprice, orderdate, orderpriority FROM test_catalog.tiny.orders ORDER BY orderkey",
+                // types the driver cannot decode from pages, which are returned as JSON
+                "SELECT BIGINT '1', TIMESTAMP '2020-01-02 03:04:05.678', INTERVAL '3' DAY");
+
+        try (Connection jsonConnection = createConnection();
+                Connection binaryConnection = createConnectionWithParameter("binaryResults=true");
+                Statement jsonStatement = jsonConnection.createStatement();
+                Statement binaryStatement = binaryConnection.createStatement()) {
+            for (String query : queries) {
+                List<List<Object>> expected;
+                try (ResultSet rs = jsonStatement.executeQuery(query)) {
+                    expected = readComparableRows(rs);
+                }
+                try (ResultSet rs = binaryStatement.executeQuery(query)) {
+                    assertEquals(readComparableRows(rs), expected, query);
+                }
+            }
+        }
+
+        // the update count is read from binary results
+        try (Connection connection = createConnectionWithParameter("binaryResults=true");
+                Statement statement = connection.createStatement()) {
+            assertEquals(statement.executeUpdate("INSERT INTO blackhole.blackhole.test_table VALUES (1), (2)"), 2);
+            assertEquals(statement.getLargeUpdateCount(), 2);
+        }
+    }
+
+    private static List<List<Object>> readComparableRows(ResultSet rs)
+            throws SQLException
+    {
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        int columnCount = rs.getMetaData().getColumnCount();
+        while (rs.next()) {
+            List<Object> row = new ArrayList<>();
+            for (int i = 1; i <= columnCount; i++) {
+                Object value = rs.getObject(i);
+                if (value instanceof Array) {
+                    value = asList((Object[]) ((Array) value).getArray());
+                }
+                else if (value instanceof byte[]) {
+                    value = Bytes.asList((byte[]) value);
+                }
+                row.add(value);
+            }
+            rows.add(row);
+        }
+        return rows.build();
+    }
+
     @Test
     public void testExecuteUpdateWithCreateTable()
             throws Exception
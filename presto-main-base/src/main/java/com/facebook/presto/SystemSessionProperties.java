@@ -149,6 +149,7 @@ public final class SystemSessionProperties
     public static final String JOIN_REORDERING_STRATEGY = "join_reordering_strategy";
     public static final String PARTIAL_MERGE_PUSHDOWN_STRATEGY = "partial_merge_pushdown_strategy";
     public static final String MAX_REORDERED_JOINS = "max_reordered_joins";
+    public static final String JOIN_REORDERING_TIME_BUDGET = "join_reordering_time_budget";
     public static final String INITIAL_SPLITS_PER_NODE = "initial_splits_per_node";
     public static final String SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL = "split_concurrency_adjustment_interval";
     public static final String OPTIMIZE_METADATA_QUERIES = "optimize_metadata_queries";
@@ -233,6 +234,7 @@ public final class SystemSessionProperties
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_ROW_COUNT = "dynamic_filtering_max_per_driver_row_count";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
     public static final String DYNAMIC_FILTERING_RANGE_ROW_LIMIT_PER_DRIVER = "dynamic_filtering_range_row_limit_per_driver";
+    public static final String DYNAMIC_FILTERING_BLOOM_FILTER_SIZE = "dynamic_filtering_bloom_filter_size";
     public static final String FRAGMENT_RESULT_CACHING_ENABLED = "fragment_result_caching_enabled";
     public static final String INLINE_SQL_FUNCTIONS = "inline_sql_functions";
     public static final String REMOTE_FUNCTIONS_ENABLED = "remote_functions_enabled";
@@ -398,6 +400,11 @@ public final class SystemSessionProperties
     public static final String TRY_FUNCTION_CATCHABLE_ERRORS = "try_function_catchable_errors";
     public static final String REWRITE_ROW_CONSTRUCTOR_IN_TO_DISJUNCTION = "rewrite_row_constructor_in_to_disjunction";
     public static final String ALWAYS_ANALYZE_CREATE_TABLE_QUERY_ENABLED = "always_analyze_create_table_query_enabled";
+    public static final String PAGES_INDEX_SEGMENTED_STORAGE_ENABLED = "pages_index_segmented_storage_enabled";
+    public static final String JOIN_PROBE_BATCH_SIZE = "join_probe_batch_size";
+    public static final String HASH_AGGREGATION_RADIX_PARTITION_COUNT = "hash_aggregation_radix_partition_count";
+    public static final String STREAMING_WINDOW_ENABLED = "streaming_window_enabled";
+    public static final String PARALLEL_HASH_BUILD_ENABLED = "parallel_hash_build_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -811,6 +818,15 @@ public final class SystemSessionProperties
                             return intValue;
                         },
                         value -> value),
+                new PropertyMetadata<>(
+                        JOIN_REORDERING_TIME_BUDGET,
+                        "Time after which cost-based join reordering keeps the best join order found so far for each group of joins, 0 for no limit. With a limit, the chosen join order can vary between runs",
+                        VARCHAR,
+                        Duration.class,
+                        featuresConfig.getJoinReorderingTimeBudget(),
+                        false,
+                        value -> Duration.valueOf((String) value),
+                        Duration::toString),
                 booleanProperty(
                         FAST_INEQUALITY_JOINS,
                         "Use faster handling of inequality join if it is possible",
@@ -1312,6 +1328,15 @@ public final class SystemSessionProperties
                         "Maximum number of build-side rows per driver up to which min and max values will be collected for dynamic filtering",
                         featuresConfig.getDynamicFilteringRangeRowLimitPerDriver(),
                         false),
+                new PropertyMetadata<>(
+                        DYNAMIC_FILTERING_BLOOM_FILTER_SIZE,
+                        "Size of the Bloom filter collected per build-side column for dynamic filtering when there are too many rows to collect all values. 0 disables Bloom filters",
+                        VARCHAR,
+                        DataSize.class,
+                        featuresConfig.getDynamicFilteringBloomFilterSize(),
+                        false,
+                        value -> DataSize.valueOf((String) value),
+                        DataSize::toString),
                 booleanProperty(
                         FRAGMENT_RESULT_CACHING_ENABLED,
                         "Enable fragment result caching and read/write leaf fragment result pages from/to cache when applicable",
@@ -2244,6 +2269,39 @@ public final class SystemSessionProperties
                         ALWAYS_ANALYZE_CREATE_TABLE_QUERY_ENABLED,
                         "When enabled, analyze inner query on CTAS IF NOT EXISTS to populate view definitions for access control checks",
                         featuresConfig.isAlwaysAnalyzeCreateTableQueryEnabled(),
+                        false),
+                booleanProperty(
+                        PAGES_INDEX_SEGMENTED_STORAGE_ENABLED,
+                        "Store rows of sort, window and hash build indexes in large per-channel segments instead of the input pages",
+                        featuresConfig.isPagesIndexSegmentedStorageEnabled(),
+                        false),
+                new PropertyMetadata<>(
+                        JOIN_PROBE_BATCH_SIZE,
+                        "Number of probe rows hashed and looked up together by a lookup join, or 0 to probe one row at a time",
+                        INTEGER,
+                        Integer.class,
+                        featuresConfig.getJoinProbeBatchSize(),
+                        false,
+                        value -> validateIntegerValue(value, JOIN_PROBE_BATCH_SIZE, 0, false),
+                        object -> object),
+                new PropertyMetadata<>(
+                        HASH_AGGREGATION_RADIX_PARTITION_COUNT,
+                        "Number of radix partitions (a power of 2) used by final hash aggregations, or 0 to aggregate into a single hash table",
+                        BIGINT,
+                        Integer.class,
+                        featuresConfig.getHashAggregationRadixPartitionCount(),
+                        false,
+                        value -> ((Number) value).intValue() == 0 ? 0 : validateValueIsPowerOfTwo(value, HASH_AGGREGATION_RADIX_PARTITION_COUNT),
+                        value -> value),
+                booleanProperty(
+                        STREAMING_WINDOW_ENABLED,
+                        "Evaluate running window functions over pre-sorted input row by row instead of buffering whole partitions",
+                        featuresConfig.isStreamingWindowEnabled(),
+                        false),
+                booleanProperty(
+                        PARALLEL_HASH_BUILD_ENABLED,
+                        "Build the hash tables of large join build sides using multiple threads",
+                        featuresConfig.isParallelHashBuildEnabled(),
                         false));
     }
 
@@ -2551,6 +2609,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(MAX_REORDERED_JOINS, Integer.class);
     }
 
+    public static Duration getJoinReorderingTimeBudget(Session session)
+    {
+        return session.getSystemProperty(JOIN_REORDERING_TIME_BUDGET, Duration.class);
+    }
+
     public static boolean isColocatedJoinEnabled(Session session)
     {
         return session.getSystemProperty(COLOCATED_JOIN, Boolean.class);
@@ -3086,6 +3149,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_RANGE_ROW_LIMIT_PER_DRIVER, Integer.class);
     }
 
+    public static DataSize getDynamicFilteringBloomFilterSize(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_SIZE, DataSize.class);
+    }
+
     public static boolean isFragmentResultCachingEnabled(Session session)
     {
         return session.getSystemProperty(FRAGMENT_RESULT_CACHING_ENABLED, Boolean.class);
@@ -3828,4 +3896,29 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(ALWAYS_ANALYZE_CREATE_TABLE_QUERY_ENABLED, Boolean.class);
     }
+
+    public static boolean isPagesIndexSegmentedStorageEnabled(Session session)
+    {
+        return session.getSystemProperty(PAGES_INDEX_SEGMENTED_STORAGE_ENABLED, Boolean.class);
+    }
+
+    public static int getJoinProbeBatchSize(Session session)
+    {
+        return session.getSystemProperty(JOIN_PROBE_BATCH_SIZE, Integer.class);
+    }
+
+    public static int getHashAggregationRadixPartitionCount(Session session)
+    {
+        return session.getSystemProperty(HASH_AGGREGATION_RADIX_PARTITION_COUNT, Integer.class);
+    }
+
+    public static boolean isStreamingWindowEnabled(Session session)
+    {
+        return session.getSystemProperty(STREAMING_WINDOW_ENABLED, Boolean.class);
+    }
+
+    public static boolean isParallelHashBuildEnabled(Session session)
+    {
+        return session.getSystemProperty(PARALLEL_HASH_BUILD_ENABLED, Boolean.class);
+    }
 }
@@ -85,6 +85,7 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private int splitQueueCount = 1;
 
     private boolean legacyLifespanCompletionCondition;
     private TaskPriorityTracking taskPriorityTracking = TaskPriorityTracking.TASK_FAIR;
@@ -286,6 +287,20 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getSplitQueueCount()
+    {
+        return splitQueueCount;
+    }
+
+    @Config("task.split-queue-count")
+    @ConfigDescription("Number of queues the waiting splits are spread over. Each runner thread takes splits from its own queue and steals from the others when it is empty")
+    public TaskManagerConfig setSplitQueueCount(int splitQueueCount)
+    {
+        this.splitQueueCount = splitQueueCount;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
@@ -86,6 +86,7 @@ public class SpoolingOutputBuffer
     private final long thresholdInBytes;
     private final FinalizerService finalizerService;
     private final ListeningExecutorService executor;
+    private final SpoolingOutputBufferStats stats;
 
     private final AtomicLong totalBufferedBytes = new AtomicLong();
     private final AtomicLong totalBufferedPages = new AtomicLong();
@@ -107,6 +108,10 @@ public class SpoolingOutputBuffer
     private final AtomicLong totalStorageBytesAdded = new AtomicLong();
     private final AtomicLong totalStoragePagesAdded = new AtomicLong();
 
+    // buffered bytes and time when the last page was added, to measure how fast the client drains the buffer
+    private final AtomicLong noMorePagesBufferedBytes = new AtomicLong();
+    private final AtomicLong noMorePagesNanos = new AtomicLong();
+
     @GuardedBy("this")
     private final Deque<HandleInfo> handleInfoQueue = new LinkedList<>();
 
@@ -124,7 +129,8 @@ public class SpoolingOutputBuffer
             TempStorage tempStorage,
             long thresholdInBytes,
             ListeningExecutorService executor,
-            FinalizerService finalizerService)
+            FinalizerService finalizerService,
+            SpoolingOutputBufferStats stats)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.taskInstanceId = requireNonNull(taskInstanceId, "taskInstanceIs is null");
@@ -135,6 +141,7 @@ public class SpoolingOutputBuffer
         this.thresholdInBytes = thresholdInBytes;
         this.executor = requireNonNull(executor, "executor is null");
         this.finalizerService = requireNonNull(finalizerService, "finalizerService is null");
+        this.stats = requireNonNull(stats, "stats is null");
         this.finalizerService.addFinalizer(this, this::close);
 
         tempDataOperationContext = new TempDataOperationContext(Optional.empty(), taskId.getQueryId().toString(), Optional.empty(), Optional.empty(), new Identity("spooling-buffer", Optional.empty()));
@@ -284,6 +291,7 @@ public class SpoolingOutputBuffer
         totalStorageBytesAdded.addAndGet(bytes);
         totalStoragePagesAdded.addAndGet(pageCount);
         totalInMemoryBytes.set(0);
+        stats.recordSpooled(bytes, pageCount);
     }
 
     @Override
@@ -405,6 +413,7 @@ public class SpoolingOutputBuffer
                 }
                 resultBuilder.add(page);
                 pageCount++;
+                stats.recordStorageRead(page.getRetainedSizeInBytes());
             }
 
             getTracker.update(bytes, pageCount);
@@ -538,6 +547,14 @@ public class SpoolingOutputBuffer
             state.compareAndSet(NO_MORE_BUFFERS, FLUSHING);
             noMorePages.set(true);
 
+            // Once some pages are spooled, the result is large enough that the client is not expected to drain it
+            // shortly, so spool the rest of it as well instead of holding it in memory until the client reads it.
+            if (!pages.isEmpty() && totalStoragePagesAdded.get() > 0) {
+                flush();
+            }
+            noMorePagesBufferedBytes.set(totalBufferedBytes.get());
+            noMorePagesNanos.set(System.nanoTime());
+
             pendingRead = this.pendingRead;
             this.pendingRead = null;
 
@@ -568,6 +585,9 @@ public class SpoolingOutputBuffer
         PendingRead pendingRead;
         synchronized (this) {
             if (state.setIf(FINISHED, oldState -> !oldState.isTerminal())) {
+                if (noMorePagesNanos.get() != 0) {
+                    stats.recordDrained(noMorePagesBufferedBytes.get() - totalBufferedBytes.get(), System.nanoTime() - noMorePagesNanos.get());
+                }
                 close();
             }
             pendingRead = this.pendingRead;
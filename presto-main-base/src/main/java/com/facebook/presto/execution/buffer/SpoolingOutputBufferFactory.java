@@ -15,7 +15,6 @@ package com.facebook.presto.execution.buffer;
 
 import com.facebook.presto.execution.StateMachine;
 import com.facebook.presto.execution.TaskId;
-import com.facebook.presto.spiller.LocalTempStorage;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.storage.TempStorageManager;
 import com.facebook.presto.testing.TestingTempStorageManager;
@@ -26,6 +25,8 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import org.weakref.jmx.Flatten;
+import org.weakref.jmx.Managed;
 
 import java.io.IOException;
 import java.util.concurrent.ExecutorService;
@@ -42,6 +43,7 @@ public class SpoolingOutputBufferFactory
     private final FeaturesConfig featuresConfig;
     private final TempStorageManager tempStorageManager;
     private final FinalizerService finalizerService;
+    private final SpoolingOutputBufferStats stats = new SpoolingOutputBufferStats();
 
     private final Closer closer = Closer.create();
 
@@ -90,9 +92,17 @@ public class SpoolingOutputBufferFactory
                 taskInstanceId,
                 outputBuffers,
                 state,
-                tempStorageManager.getTempStorage(LocalTempStorage.NAME),
+                tempStorageManager.getTempStorage(featuresConfig.getSpoolingOutputBufferTempStorage()),
                 featuresConfig.getSpoolingOutputBufferThreshold().toBytes(),
                 executor,
-                finalizerService);
+                finalizerService,
+                stats);
+    }
+
+    @Managed
+    @Flatten
+    public SpoolingOutputBufferStats getStats()
+    {
+        return stats;
     }
 }
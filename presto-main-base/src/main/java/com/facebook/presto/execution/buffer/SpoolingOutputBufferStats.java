@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.airlift.stats.DistributionStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+public class SpoolingOutputBufferStats
+{
+    private final CounterStat spooledBytes = new CounterStat();
+    private final CounterStat spooledPages = new CounterStat();
+    private final CounterStat storageReadBytes = new CounterStat();
+    private final DistributionStat drainBytesPerSecond = new DistributionStat();
+
+    public void recordSpooled(long bytes, long pages)
+    {
+        spooledBytes.update(bytes);
+        spooledPages.update(pages);
+    }
+
+    public void recordStorageRead(long bytes)
+    {
+        storageReadBytes.update(bytes);
+    }
+
+    public void recordDrained(long bytes, long nanos)
+    {
+        if (bytes > 0 && nanos > 0) {
+            drainBytesPerSecond.add((long) (bytes * 1_000_000_000.0 / nanos));
+        }
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSpooledBytes()
+    {
+        return spooledBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSpooledPages()
+    {
+        return spooledPages;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStorageReadBytes()
+    {
+        return storageReadBytes;
+    }
+
+    /**
+     * Rate at which clients drain the buffers once all pages have been added, that is once the task finished executing.
+     */
+    @Managed
+    @Nested
+    public DistributionStat getDrainBytesPerSecond()
+    {
+        return drainBytesPerSecond;
+    }
+}
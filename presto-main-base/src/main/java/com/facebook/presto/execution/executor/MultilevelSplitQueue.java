@@ -27,55 +27,78 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.floorMod;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * Queue of the splits waiting for a runner thread. The waiting splits can be spread over several
+ * queues, each with its own lock, to reduce the contention between runner threads. Every runner
+ * thread is assigned one of the queues, takes splits from it and puts the splits it has run back
+ * into it, so a split tends to stay on the same threads. A runner thread whose queue is empty
+ * steals splits from the other queues. The scheduled time of the levels and the minimum priority
+ * within a level are shared by all the queues, so that the fair share of the levels and of the
+ * tasks is maintained across queues.
+ */
 @ThreadSafe
 public class MultilevelSplitQueue
 {
     static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
 
-    @GuardedBy("lock")
-    private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+    private final SplitQueue[] queues;
+    // queue of each runner thread, assigned when the thread first takes a split
+    private final ThreadLocal<SplitQueue> runnerQueue = new ThreadLocal<>();
+    private final AtomicInteger nextRunnerQueue = new AtomicInteger();
+    private final AtomicInteger nextOfferQueue = new AtomicInteger();
 
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
+    private final AtomicIntegerArray levelWaitingSplitCount = new AtomicIntegerArray(LEVEL_THRESHOLD_SECONDS.length);
 
     private final AtomicLong[] levelMinPriority;
     private final List<CounterStat> selectedLevelCounters;
-
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notEmpty = lock.newCondition();
+    private final CounterStat stolenSplits = new CounterStat();
 
     private final double levelTimeMultiplier;
 
     @Inject
     public MultilevelSplitQueue(TaskManagerConfig taskManagerConfig)
     {
-        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue());
+        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue(), taskManagerConfig.getSplitQueueCount());
     }
 
     public MultilevelSplitQueue(double levelTimeMultiplier)
     {
+        this(levelTimeMultiplier, 1);
+    }
+
+    public MultilevelSplitQueue(double levelTimeMultiplier, int queueCount)
+    {
+        checkArgument(queueCount > 0, "queueCount must be at least 1");
         this.levelMinPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
-        this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
         ImmutableList.Builder<CounterStat> counters = ImmutableList.builder();
 
         for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
             levelScheduledTime[i] = new AtomicLong();
             levelMinPriority[i] = new AtomicLong(-1);
-            levelWaitingSplits.add(new PriorityQueue<>());
             counters.add(new CounterStat());
         }
 
         this.selectedLevelCounters = counters.build();
 
+        this.queues = new SplitQueue[queueCount];
+        for (int i = 0; i < queueCount; i++) {
+            queues[i] = new SplitQueue(i);
+        }
+
         this.levelTimeMultiplier = levelTimeMultiplier;
     }
 
@@ -84,6 +107,25 @@ public class MultilevelSplitQueue
         levelScheduledTime[level].addAndGet(nanos);
     }
 
+    /**
+     * Adds the split to the queue of the current thread if it is a runner thread, and to the
+     * queues in turn otherwise. If no runner thread of that queue is waiting for a split, a runner
+     * thread waiting on another queue is woken up to steal it.
+     */
+    public void offer(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+
+        SplitQueue queue = runnerQueue.get();
+        if (queue == null) {
+            queue = queues[floorMod(nextOfferQueue.getAndIncrement(), queues.length)];
+        }
+
+        if (!offer(queue, split)) {
+            signalThief(queue);
+        }
+    }
+
     /**
      * During periods of time when a level has no waiting splits, it will not accumulate
      * scheduled time and will fall behind relative to other levels.
@@ -93,16 +135,16 @@ public class MultilevelSplitQueue
      * <p>
      * To prevent this we set the scheduled time for levels which were empty to the expected
      * scheduled time.
+     *
+     * @return true if a runner thread of the queue is waiting for a split
      */
-    public void offer(PrioritizedSplitRunner split)
+    private boolean offer(SplitQueue queue, PrioritizedSplitRunner split)
     {
-        checkArgument(split != null, "split is null");
-
         split.setReady();
         int level = split.getPriority().getLevel();
-        lock.lock();
+        queue.lock.lock();
         try {
-            if (levelWaitingSplits.get(level).isEmpty()) {
+            if (levelWaitingSplitCount.get(level) == 0) {
                 // Accesses to levelScheduledTime are not synchronized, so we have a data race
                 // here - our level time math will be off. However, the staleness is bounded by
                 // the fact that only running splits that complete during this computation
@@ -113,40 +155,126 @@ public class MultilevelSplitQueue
                 levelScheduledTime[level].addAndGet(delta);
             }
 
-            levelWaitingSplits.get(level).offer(split);
-            notEmpty.signal();
+            queue.levelWaitingSplits.get(level).offer(split);
+            levelWaitingSplitCount.incrementAndGet(level);
+            queue.splitCount.incrementAndGet();
+            queue.notEmpty.signal();
+            return queue.waitingRunners.get() > 0;
         }
         finally {
-            lock.unlock();
+            queue.lock.unlock();
+        }
+    }
+
+    private void signalThief(SplitQueue queue)
+    {
+        for (int i = 1; i < queues.length; i++) {
+            SplitQueue thiefQueue = queues[(queue.index + i) % queues.length];
+            if (thiefQueue.waitingRunners.get() > 0) {
+                thiefQueue.lock.lock();
+                try {
+                    thiefQueue.stealSignals++;
+                    thiefQueue.notEmpty.signal();
+                }
+                finally {
+                    thiefQueue.lock.unlock();
+                }
+                return;
+            }
         }
     }
 
     public PrioritizedSplitRunner take()
             throws InterruptedException
     {
+        SplitQueue queue = runnerQueue.get();
+        if (queue == null) {
+            queue = queues[floorMod(nextRunnerQueue.getAndIncrement(), queues.length)];
+            runnerQueue.set(queue);
+        }
+
         while (true) {
-            lock.lockInterruptibly();
+            queue.lock.lockInterruptibly();
             try {
-                PrioritizedSplitRunner result;
-                while ((result = pollSplit()) == null) {
-                    notEmpty.await();
+                PrioritizedSplitRunner result = pollSplit(queue);
+                if (result != null) {
+                    return result;
                 }
+            }
+            finally {
+                queue.lock.unlock();
+            }
 
-                if (result.updateLevelPriority()) {
-                    offer(result);
-                    continue;
+            // Register as waiting before looking at the other queues, so that a split offered
+            // to a queue that has already been looked at signals this thread.
+            queue.waitingRunners.incrementAndGet();
+            try {
+                long stealSignals = queue.stealSignals;
+                PrioritizedSplitRunner result = steal(queue);
+                if (result != null) {
+                    stolenSplits.update(1);
+                    return result;
+                }
+
+                queue.lock.lockInterruptibly();
+                try {
+                    result = pollSplit(queue);
+                    if (result != null) {
+                        return result;
+                    }
+                    if (queue.stealSignals == stealSignals) {
+                        queue.notEmpty.await();
+                    }
+                }
+                finally {
+                    queue.lock.unlock();
                 }
+            }
+            finally {
+                queue.waitingRunners.decrementAndGet();
+            }
+        }
+    }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
+    private PrioritizedSplitRunner steal(SplitQueue thiefQueue)
+    {
+        for (int i = 1; i < queues.length; i++) {
+            SplitQueue queue = queues[(thiefQueue.index + i) % queues.length];
+            if (queue.splitCount.get() == 0) {
+                continue;
+            }
 
-                return result;
+            queue.lock.lock();
+            try {
+                PrioritizedSplitRunner result = pollSplit(queue);
+                if (result != null) {
+                    return result;
+                }
             }
             finally {
-                lock.unlock();
+                queue.lock.unlock();
             }
         }
+        return null;
+    }
+
+    @GuardedBy("queue.lock")
+    private PrioritizedSplitRunner pollSplit(SplitQueue queue)
+    {
+        PrioritizedSplitRunner result;
+        while ((result = pollSplitFromLevel(queue)) != null) {
+            if (result.updateLevelPriority()) {
+                offer(queue, result);
+                continue;
+            }
+
+            int selectedLevel = result.getPriority().getLevel();
+            levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
+            selectedLevelCounters.get(selectedLevel).update(1);
+
+            return result;
+        }
+        return null;
     }
 
     /**
@@ -157,14 +285,14 @@ public class MultilevelSplitQueue
      * with the objective of minimizing deviation from the target scheduled time. From this level,
      * we pick the split with the lowest priority.
      */
-    @GuardedBy("lock")
-    private PrioritizedSplitRunner pollSplit()
+    @GuardedBy("queue.lock")
+    private PrioritizedSplitRunner pollSplitFromLevel(SplitQueue queue)
     {
         long targetScheduledTime = getLevel0TargetTime();
         double worstRatio = 1;
         int selectedLevel = -1;
         for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
+            if (!queue.levelWaitingSplits.get(level).isEmpty()) {
                 long levelTime = levelScheduledTime[level].get();
                 double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
                 if (selectedLevel == -1 || ratio > worstRatio) {
@@ -180,13 +308,14 @@ public class MultilevelSplitQueue
             return null;
         }
 
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
+        PrioritizedSplitRunner result = queue.levelWaitingSplits.get(selectedLevel).poll();
         checkState(result != null, "pollSplit cannot return null");
+        levelWaitingSplitCount.decrementAndGet(selectedLevel);
+        queue.splitCount.decrementAndGet();
 
         return result;
     }
 
-    @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -246,27 +375,39 @@ public class MultilevelSplitQueue
     public void remove(PrioritizedSplitRunner split)
     {
         checkArgument(split != null, "split is null");
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
+        for (SplitQueue queue : queues) {
+            queue.lock.lock();
+            try {
+                for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                    if (queue.levelWaitingSplits.get(level).remove(split)) {
+                        levelWaitingSplitCount.decrementAndGet(level);
+                        queue.splitCount.decrementAndGet();
+                    }
+                }
+            }
+            finally {
+                queue.lock.unlock();
             }
-        }
-        finally {
-            lock.unlock();
         }
     }
 
     public void removeAll(Collection<PrioritizedSplitRunner> splits)
     {
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
+        for (SplitQueue queue : queues) {
+            queue.lock.lock();
+            try {
+                for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                    PriorityQueue<PrioritizedSplitRunner> levelSplits = queue.levelWaitingSplits.get(level);
+                    int removed = levelSplits.size();
+                    levelSplits.removeAll(splits);
+                    removed -= levelSplits.size();
+                    levelWaitingSplitCount.addAndGet(level, -removed);
+                    queue.splitCount.addAndGet(-removed);
+                }
+            }
+            finally {
+                queue.lock.unlock();
             }
-        }
-        finally {
-            lock.unlock();
         }
     }
 
@@ -278,17 +419,11 @@ public class MultilevelSplitQueue
 
     public int size()
     {
-        lock.lock();
-        try {
-            int total = 0;
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                total += level.size();
-            }
-            return total;
-        }
-        finally {
-            lock.unlock();
+        int total = 0;
+        for (SplitQueue queue : queues) {
+            total += queue.splitCount.get();
         }
+        return total;
     }
 
     public static int computeLevel(long threadUsageNanos)
@@ -339,6 +474,19 @@ public class MultilevelSplitQueue
         return getLevelScheduledTime(4);
     }
 
+    @Managed
+    public int getQueueCount()
+    {
+        return queues.length;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStolenSplits()
+    {
+        return stolenSplits;
+    }
+
     @Managed
     @Nested
     public CounterStat getSelectedCountLevel0()
@@ -373,4 +521,30 @@ public class MultilevelSplitQueue
     {
         return selectedLevelCounters.get(4);
     }
+
+    private static class SplitQueue
+    {
+        private final int index;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+
+        @GuardedBy("lock")
+        private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+        private final AtomicInteger splitCount = new AtomicInteger();
+
+        // runner threads of this queue that found no split and are looking for one or waiting
+        private final AtomicInteger waitingRunners = new AtomicInteger();
+        // incremented when a split is offered to another queue for a waiting runner thread of this queue to steal
+        @GuardedBy("lock")
+        private volatile long stealSignals;
+
+        public SplitQueue(int index)
+        {
+            this.index = index;
+            this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+            for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
+                levelWaitingSplits.add(new PriorityQueue<>());
+            }
+        }
+    }
 }
@@ -20,6 +20,7 @@ import com.facebook.presto.spi.memory.MemoryAllocation;
 import com.facebook.presto.spi.memory.MemoryPoolId;
 import com.facebook.presto.spi.memory.MemoryPoolInfo;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
@@ -31,7 +32,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.memory.context.AbstractAggregatedMemoryContext.FORCE_FREE_TAG;
 import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
@@ -40,34 +43,30 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static java.util.Objects.requireNonNull;
-import static java.util.function.Function.identity;
 
+/**
+ * Tracks the memory reserved by the queries running on this node. The reservations of a query are
+ * updated under a lock of their own, and the totals of the pool are updated atomically, so that
+ * queries do not contend with each other when they update their reservations. The pool lock is
+ * only taken to block and unblock the queries when the pool runs out of memory.
+ */
 public class MemoryPool
 {
-    private static final String MOVE_QUERY_TAG = "MOVE_QUERY_OPERATION";
-
     private final MemoryPoolId id;
     private final long maxBytes;
 
-    @GuardedBy("this")
-    private long reservedBytes;
-    @GuardedBy("this")
-    private long reservedRevocableBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong reservedRevocableBytes = new AtomicLong();
 
+    // Written under the pool lock, and read without it by the reservations that free memory.
+    // A reservation that may block publishes the future before checking the free bytes again,
+    // and a reservation that frees memory updates the free bytes before reading the future,
+    // so a future is never left blocked while the pool has free bytes.
     @Nullable
-    @GuardedBy("this")
-    private NonCancellableMemoryFuture<?> future;
+    private volatile NonCancellableMemoryFuture<?> future;
 
-    @GuardedBy("this")
     // TODO: It would be better if we just tracked QueryContexts, but their lifecycle is managed by a weak reference, so we can't do that
-    private final Map<QueryId, Long> queryMemoryReservations = new HashMap<>();
-
-    // This map keeps track of all the tagged allocations, e.g., query-1 -> ['TableScanOperator': 10MB, 'LazyOutputBuffer': 5MB, ...]
-    @GuardedBy("this")
-    private final Map<QueryId, Map<String, Long>> taggedMemoryAllocations = new HashMap<>();
-
-    @GuardedBy("this")
-    private final Map<QueryId, Long> queryMemoryRevocableReservations = new HashMap<>();
+    private final Map<QueryId, QueryReservation> queryReservations = new ConcurrentHashMap<>();
 
     private final List<MemoryPoolListener> listeners = new CopyOnWriteArrayList<>();
 
@@ -85,17 +84,28 @@ public class MemoryPool
         return id;
     }
 
-    public synchronized MemoryPoolInfo getInfo()
+    public MemoryPoolInfo getInfo()
     {
+        Map<QueryId, Long> queryMemoryReservations = new HashMap<>();
         Map<QueryId, List<MemoryAllocation>> memoryAllocations = new HashMap<>();
-        for (Entry<QueryId, Map<String, Long>> entry : taggedMemoryAllocations.entrySet()) {
-            List<MemoryAllocation> allocations = new ArrayList<>();
-            if (entry.getValue() != null) {
-                entry.getValue().forEach((tag, allocation) -> allocations.add(new MemoryAllocation(tag, allocation)));
+        Map<QueryId, Long> queryMemoryRevocableReservations = new HashMap<>();
+        for (Entry<QueryId, QueryReservation> entry : queryReservations.entrySet()) {
+            QueryReservation reservation = entry.getValue();
+            synchronized (reservation) {
+                if (reservation.getBytes() != 0) {
+                    queryMemoryReservations.put(entry.getKey(), reservation.getBytes());
+                }
+                if (reservation.getRevocableBytes() != 0) {
+                    queryMemoryRevocableReservations.put(entry.getKey(), reservation.getRevocableBytes());
+                }
+                if (reservation.getTaggedAllocations() != null) {
+                    List<MemoryAllocation> allocations = new ArrayList<>();
+                    reservation.getTaggedAllocations().forEach((tag, allocation) -> allocations.add(new MemoryAllocation(tag, allocation)));
+                    memoryAllocations.put(entry.getKey(), allocations);
+                }
             }
-            memoryAllocations.put(entry.getKey(), allocations);
         }
-        return new MemoryPoolInfo(maxBytes, reservedBytes, reservedRevocableBytes, queryMemoryReservations, memoryAllocations, queryMemoryRevocableReservations);
+        return new MemoryPoolInfo(maxBytes, reservedBytes.get(), reservedRevocableBytes.get(), queryMemoryReservations, memoryAllocations, queryMemoryRevocableReservations);
     }
 
     public void addListener(MemoryPoolListener listener)
@@ -125,24 +135,17 @@ public class MemoryPool
     {
         checkArgument(bytes >= 0, "bytes is negative");
 
-        ListenableFuture<?> result;
-        synchronized (this) {
-            if (bytes != 0) {
-                queryMemoryReservations.merge(queryId, bytes, Long::sum);
-                updateTaggedMemoryAllocations(queryId, allocationTag, bytes);
-            }
-            reservedBytes += bytes;
-            if (getFreeBytes() <= 0) {
-                if (future == null) {
-                    future = NonCancellableMemoryFuture.create();
+        if (bytes != 0) {
+            queryReservations.compute(queryId, (ignored, reservation) -> {
+                if (reservation == null) {
+                    reservation = new QueryReservation();
                 }
-                checkState(!future.isDone(), "future is already completed");
-                result = future;
-            }
-            else {
-                result = NOT_BLOCKED;
-            }
+                reservation.reserve(allocationTag, bytes);
+                return reservation;
+            });
+            reservedBytes.addAndGet(bytes);
         }
+        ListenableFuture<?> result = getBlockedFuture();
 
         onMemoryReserved(queryId);
         return result;
@@ -150,7 +153,7 @@ public class MemoryPool
 
     private void onMemoryReserved(QueryId queryId)
     {
-        long totalMemoryReservation = queryMemoryReservations.getOrDefault(queryId, 0L) + queryMemoryRevocableReservations.getOrDefault(queryId, 0L);
+        long totalMemoryReservation = getQueryMemoryReservation(queryId) + getQueryRevocableMemoryReservation(queryId);
         listeners.forEach(listener -> listener.onMemoryReserved(this, queryId, totalMemoryReservation));
     }
 
@@ -163,23 +166,17 @@ public class MemoryPool
     {
         checkArgument(bytes >= 0, "bytes is negative");
 
-        ListenableFuture<?> result;
-        synchronized (this) {
-            if (bytes != 0) {
-                queryMemoryRevocableReservations.merge(queryId, bytes, Long::sum);
-            }
-            reservedRevocableBytes += bytes;
-            if (getFreeBytes() <= 0) {
-                if (future == null) {
-                    future = NonCancellableMemoryFuture.create();
+        if (bytes != 0) {
+            queryReservations.compute(queryId, (ignored, reservation) -> {
+                if (reservation == null) {
+                    reservation = new QueryReservation();
                 }
-                checkState(!future.isDone(), "future is already completed");
-                result = future;
-            }
-            else {
-                result = NOT_BLOCKED;
-            }
+                reservation.reserveRevocable(bytes);
+                return reservation;
+            });
+            reservedRevocableBytes.addAndGet(bytes);
         }
+        ListenableFuture<?> result = getBlockedFuture();
 
         onMemoryReserved(queryId);
         return result;
@@ -191,100 +188,142 @@ public class MemoryPool
     public boolean tryReserve(QueryId queryId, String allocationTag, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        synchronized (this) {
-            if (getFreeBytes() - bytes < 0) {
+        while (true) {
+            long reserved = reservedBytes.get();
+            if (maxBytes - reserved - reservedRevocableBytes.get() - bytes < 0) {
                 return false;
             }
-            reservedBytes += bytes;
-            if (bytes != 0) {
-                queryMemoryReservations.merge(queryId, bytes, Long::sum);
-                updateTaggedMemoryAllocations(queryId, allocationTag, bytes);
+            if (reservedBytes.compareAndSet(reserved, reserved + bytes)) {
+                break;
             }
         }
+        if (bytes != 0) {
+            queryReservations.compute(queryId, (ignored, reservation) -> {
+                if (reservation == null) {
+                    reservation = new QueryReservation();
+                }
+                reservation.reserve(allocationTag, bytes);
+                return reservation;
+            });
+        }
 
         onMemoryReserved(queryId);
         return true;
     }
 
-    public synchronized void free(QueryId queryId, String allocationTag, long bytes)
+    public void free(QueryId queryId, String allocationTag, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        checkArgument(reservedBytes >= bytes, "tried to free more memory than is reserved");
+        checkArgument(reservedBytes.get() >= bytes, "tried to free more memory than is reserved");
         if (bytes == 0) {
             // Freeing zero bytes is a no-op
             return;
         }
 
-        Long queryReservation = queryMemoryReservations.get(queryId);
-        requireNonNull(queryReservation, "queryReservation is null");
-        checkArgument(queryReservation - bytes >= 0, "tried to free more memory than is reserved by query");
-        queryReservation -= bytes;
-        if (queryReservation == 0) {
-            queryMemoryReservations.remove(queryId);
-            taggedMemoryAllocations.remove(queryId);
-        }
-        else {
-            queryMemoryReservations.put(queryId, queryReservation);
-            updateTaggedMemoryAllocations(queryId, allocationTag, -bytes);
-        }
-        reservedBytes -= bytes;
-        if (getFreeBytes() > 0 && future != null) {
-            future.set(null);
-            future = null;
-        }
+        queryReservations.compute(queryId, (ignored, reservation) -> {
+            requireNonNull(reservation, "queryReservation is null");
+            reservation.free(allocationTag, bytes);
+            return reservation.isEmpty() ? null : reservation;
+        });
+        reservedBytes.addAndGet(-bytes);
+        onMemoryFreed();
     }
 
-    public synchronized void freeRevocable(QueryId queryId, long bytes)
+    public void freeRevocable(QueryId queryId, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        checkArgument(reservedRevocableBytes >= bytes, "tried to free more revocable memory than is reserved");
+        checkArgument(reservedRevocableBytes.get() >= bytes, "tried to free more revocable memory than is reserved");
         if (bytes == 0) {
             // Freeing zero bytes is a no-op
             return;
         }
 
-        Long queryReservation = queryMemoryRevocableReservations.get(queryId);
-        requireNonNull(queryReservation, "queryReservation is null");
-        checkArgument(queryReservation - bytes >= 0, "tried to free more revocable memory than is reserved by query");
-        queryReservation -= bytes;
-        if (queryReservation == 0) {
-            queryMemoryRevocableReservations.remove(queryId);
+        queryReservations.compute(queryId, (ignored, reservation) -> {
+            requireNonNull(reservation, "queryReservation is null");
+            reservation.freeRevocable(bytes);
+            return reservation.isEmpty() ? null : reservation;
+        });
+        reservedRevocableBytes.addAndGet(-bytes);
+        onMemoryFreed();
+    }
+
+    /**
+     * Moves the reservations of the query, including its tagged allocations, to the target pool.
+     * The reservations are added to the target pool before they are released from this pool, so
+     * the memory of the query is accounted for in at least one pool at any time.
+     * The caller must not update the reservations of the query while it is moved.
+     */
+    ListenableFuture<?> moveQuery(QueryId queryId, MemoryPool targetMemoryPool)
+    {
+        QueryReservation reservation = queryReservations.get(queryId);
+        if (reservation == null) {
+            return targetMemoryPool.getBlockedFuture();
         }
-        else {
-            queryMemoryRevocableReservations.put(queryId, queryReservation);
+
+        QueryReservation movedReservation = reservation.copy();
+        ListenableFuture<?> future = targetMemoryPool.addQueryReservation(queryId, movedReservation);
+
+        queryReservations.remove(queryId, reservation);
+        reservedBytes.addAndGet(-movedReservation.getBytes());
+        reservedRevocableBytes.addAndGet(-movedReservation.getRevocableBytes());
+        onMemoryFreed();
+        return future;
+    }
+
+    private ListenableFuture<?> addQueryReservation(QueryId queryId, QueryReservation movedReservation)
+    {
+        queryReservations.merge(queryId, movedReservation, (reservation, ignored) -> {
+            reservation.add(movedReservation);
+            return reservation;
+        });
+        reservedBytes.addAndGet(movedReservation.getBytes());
+        reservedRevocableBytes.addAndGet(movedReservation.getRevocableBytes());
+        ListenableFuture<?> result = getBlockedFuture();
+
+        onMemoryReserved(queryId);
+        return result;
+    }
+
+    private ListenableFuture<?> getBlockedFuture()
+    {
+        if (getFreeBytes() > 0) {
+            return NOT_BLOCKED;
         }
-        reservedRevocableBytes -= bytes;
-        if (getFreeBytes() > 0 && future != null) {
-            future.set(null);
-            future = null;
+        synchronized (this) {
+            if (future == null) {
+                future = NonCancellableMemoryFuture.create();
+            }
+            checkState(!future.isDone(), "future is already completed");
+            // memory freed before the future was published did not complete it
+            if (getFreeBytes() > 0) {
+                future.set(null);
+                future = null;
+                return NOT_BLOCKED;
+            }
+            return future;
         }
     }
 
-    // When this method returns the MOVE_QUERY_TAG won't be visible in the tagged memory allocations map.
-    // Because, we remove the tagged allocations from this MemoryPool for queryId, and then we reserve
-    // N bytes with MOVE_QUERY_TAG in the targetMemoryPool, and then immediately overwrite it
-    // with a put() call.
-    synchronized ListenableFuture<?> moveQuery(QueryId queryId, MemoryPool targetMemoryPool)
+    private void onMemoryFreed()
     {
-        long originalReserved = getQueryMemoryReservation(queryId);
-        long originalRevocableReserved = getQueryRevocableMemoryReservation(queryId);
-        // Get the tags before we call free() as that would remove the tags and we will lose the tags.
-        Map<String, Long> taggedAllocations = taggedMemoryAllocations.remove(queryId);
-        ListenableFuture<?> future = targetMemoryPool.reserve(queryId, MOVE_QUERY_TAG, originalReserved);
-        free(queryId, MOVE_QUERY_TAG, originalReserved);
-        targetMemoryPool.reserveRevocable(queryId, originalRevocableReserved);
-        freeRevocable(queryId, originalRevocableReserved);
-        targetMemoryPool.taggedMemoryAllocations.put(queryId, taggedAllocations);
-        return future;
+        if (future == null) {
+            return;
+        }
+        synchronized (this) {
+            if (getFreeBytes() > 0 && future != null) {
+                future.set(null);
+                future = null;
+            }
+        }
     }
 
     /**
      * Returns the number of free bytes. This value may be negative, which indicates that the pool is over-committed.
      */
     @Managed
-    public synchronized long getFreeBytes()
+    public long getFreeBytes()
     {
-        return maxBytes - reservedBytes - reservedRevocableBytes;
+        return maxBytes - reservedBytes.get() - reservedRevocableBytes.get();
     }
 
     @Managed
@@ -294,36 +333,48 @@ public class MemoryPool
     }
 
     @Managed
-    public synchronized long getReservedBytes()
+    public long getReservedBytes()
     {
-        return reservedBytes;
+        return reservedBytes.get();
     }
 
     @Managed
-    public synchronized long getReservedRevocableBytes()
+    public long getReservedRevocableBytes()
     {
-        return reservedRevocableBytes;
+        return reservedRevocableBytes.get();
     }
 
-    public synchronized long getQueryMemoryReservation(QueryId queryId)
+    public long getQueryMemoryReservation(QueryId queryId)
     {
-        return queryMemoryReservations.getOrDefault(queryId, 0L);
+        QueryReservation reservation = queryReservations.get(queryId);
+        if (reservation == null) {
+            return 0;
+        }
+        synchronized (reservation) {
+            return reservation.getBytes();
+        }
     }
 
-    public synchronized long getQueryRevocableMemoryReservation(QueryId queryId)
+    public long getQueryRevocableMemoryReservation(QueryId queryId)
     {
-        return queryMemoryRevocableReservations.getOrDefault(queryId, 0L);
+        QueryReservation reservation = queryReservations.get(queryId);
+        if (reservation == null) {
+            return 0;
+        }
+        synchronized (reservation) {
+            return reservation.getRevocableBytes();
+        }
     }
 
     @Override
-    public synchronized String toString()
+    public String toString()
     {
         return toStringHelper(this)
                 .add("id", id)
                 .add("maxBytes", maxBytes)
                 .add("freeBytes", getFreeBytes())
-                .add("reservedBytes", reservedBytes)
-                .add("reservedRevocableBytes", reservedRevocableBytes)
+                .add("reservedBytes", reservedBytes.get())
+                .add("reservedRevocableBytes", reservedRevocableBytes.get())
                 .add("future", future)
                 .toString();
     }
@@ -349,41 +400,136 @@ public class MemoryPool
         }
     }
 
-    private synchronized void updateTaggedMemoryAllocations(QueryId queryId, String allocationTag, long delta)
+    @VisibleForTesting
+    Map<QueryId, Map<String, Long>> getTaggedMemoryAllocations()
     {
-        if (delta == 0) {
-            return;
-        }
-
-        Map<String, Long> allocations = taggedMemoryAllocations.computeIfAbsent(queryId, ignored -> new HashMap<>());
-        allocations.compute(allocationTag, (ignored, oldValue) -> {
-            if (oldValue == null) {
-                return delta;
+        ImmutableMap.Builder<QueryId, Map<String, Long>> allocations = ImmutableMap.builder();
+        for (QueryId queryId : queryReservations.keySet()) {
+            Map<String, Long> queryAllocations = getTaggedMemoryAllocations(queryId);
+            if (queryAllocations != null) {
+                allocations.put(queryId, queryAllocations);
             }
-            long newValue = oldValue.longValue() + delta;
-            if (newValue == 0) {
-                return null;
-            }
-            return newValue;
-        });
+        }
+        return allocations.build();
     }
 
     @VisibleForTesting
-    synchronized Map<QueryId, Map<String, Long>> getTaggedMemoryAllocations()
+    Map<String, Long> getTaggedMemoryAllocations(QueryId targetQueryId)
     {
-        return taggedMemoryAllocations.keySet().stream()
-                .collect(toImmutableMap(identity(), this::getTaggedMemoryAllocations));
+        QueryReservation reservation = queryReservations.get(targetQueryId);
+        if (reservation == null) {
+            return null;
+        }
+        synchronized (reservation) {
+            if (reservation.getTaggedAllocations() == null) {
+                return null;
+            }
+            return reservation.getTaggedAllocations()
+                    .entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(FORCE_FREE_TAG))
+                    .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+        }
     }
 
-    @VisibleForTesting
-    synchronized Map<String, Long> getTaggedMemoryAllocations(QueryId targetQueryId)
+    private static class QueryReservation
     {
-        if (taggedMemoryAllocations.get(targetQueryId) == null) {
-            return null;
+        @GuardedBy("this")
+        private long bytes;
+        @GuardedBy("this")
+        private long revocableBytes;
+
+        // This map keeps track of all the tagged allocations, e.g., ['TableScanOperator': 10MB, 'LazyOutputBuffer': 5MB, ...]
+        @Nullable
+        @GuardedBy("this")
+        private Map<String, Long> taggedAllocations;
+
+        public synchronized long getBytes()
+        {
+            return bytes;
+        }
+
+        public synchronized long getRevocableBytes()
+        {
+            return revocableBytes;
+        }
+
+        @Nullable
+        public synchronized Map<String, Long> getTaggedAllocations()
+        {
+            return taggedAllocations;
+        }
+
+        public synchronized boolean isEmpty()
+        {
+            return bytes == 0 && revocableBytes == 0;
+        }
+
+        public synchronized void reserve(String allocationTag, long delta)
+        {
+            bytes += delta;
+            updateTaggedAllocations(allocationTag, delta);
+        }
+
+        public synchronized void reserveRevocable(long delta)
+        {
+            revocableBytes += delta;
+        }
+
+        public synchronized void free(String allocationTag, long delta)
+        {
+            checkArgument(bytes - delta >= 0, "tried to free more memory than is reserved by query");
+            bytes -= delta;
+            if (bytes == 0) {
+                taggedAllocations = null;
+            }
+            else {
+                updateTaggedAllocations(allocationTag, -delta);
+            }
+        }
+
+        public synchronized void freeRevocable(long delta)
+        {
+            checkArgument(revocableBytes - delta >= 0, "tried to free more revocable memory than is reserved by query");
+            revocableBytes -= delta;
+        }
+
+        public synchronized QueryReservation copy()
+        {
+            QueryReservation copy = new QueryReservation();
+            copy.add(this);
+            return copy;
+        }
+
+        public synchronized void add(QueryReservation other)
+        {
+            bytes += other.getBytes();
+            revocableBytes += other.getRevocableBytes();
+            Map<String, Long> otherAllocations = other.getTaggedAllocations();
+            if (otherAllocations != null) {
+                otherAllocations.forEach(this::updateTaggedAllocations);
+            }
+        }
+
+        @GuardedBy("this")
+        private void updateTaggedAllocations(String allocationTag, long delta)
+        {
+            if (delta == 0) {
+                return;
+            }
+
+            if (taggedAllocations == null) {
+                taggedAllocations = new HashMap<>();
+            }
+            taggedAllocations.compute(allocationTag, (ignored, oldValue) -> {
+                if (oldValue == null) {
+                    return delta;
+                }
+                long newValue = oldValue.longValue() + delta;
+                if (newValue == 0) {
+                    return null;
+                }
+                return newValue;
+            });
         }
-        return taggedMemoryAllocations.get(targetQueryId)
-                .entrySet().stream()
-                .filter(entry -> !entry.getKey().equals(FORCE_FREE_TAG))
-                .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 }
@@ -33,7 +33,8 @@ public final class ArrayPositionLinks
             implements PositionLinks.FactoryBuilder
     {
         private final int[] positionLinks;
-        private int size;
+        // may be set concurrently by a parallel build of PagesHash, which links distinct left positions
+        private boolean hasLinks;
 
         private FactoryBuilder(int size)
         {
@@ -44,7 +45,7 @@ public final class ArrayPositionLinks
         @Override
         public int link(int left, int right)
         {
-            size++;
+            hasLinks = true;
             positionLinks[left] = right;
             return left;
         }
@@ -71,7 +72,7 @@ public final class ArrayPositionLinks
         @Override
         public boolean isEmpty()
         {
-            return size == 0;
+            return !hasLinks;
         }
     }
 
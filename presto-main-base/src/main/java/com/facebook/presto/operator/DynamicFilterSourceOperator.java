@@ -17,10 +17,12 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.aggregation.TypedSet;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
@@ -45,12 +47,15 @@ import static java.util.stream.Collectors.toSet;
  * This operator acts as a simple "pass-through" pipe, while saving its input pages.
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
  * We record all values for the run-time filter only for small build-side pages (which should be the case when using "broadcast" join).
- * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real).
+ * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real),
+ * and a Bloom filter per channel for integer, date and varchar types, which the probe-side scan can apply per row.
  */
 public class DynamicFilterSourceOperator
         implements Operator
 {
     private static final int EXPECTED_BLOCK_BUILDER_SIZE = 8;
+    // Bloom filters letting through more of the values than this are not worth applying on the probe side
+    private static final double MAX_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY = 0.25;
 
     public static class Channel
     {
@@ -91,6 +96,7 @@ public class DynamicFilterSourceOperator
         private final int maxFilterPositionsCount;
         private final DataSize maxFilterSize;
         private final int minMaxCollectionLimit;
+        private final DataSize bloomFilterSize;
         private final boolean useNewNanDefinition;
 
         private boolean closed;
@@ -103,6 +109,7 @@ public class DynamicFilterSourceOperator
                 int maxFilterPositionsCount,
                 DataSize maxFilterSize,
                 int minMaxCollectionLimit,
+                DataSize bloomFilterSize,
                 boolean useNewNanDefinition)
         {
             this.operatorId = operatorId;
@@ -118,6 +125,7 @@ public class DynamicFilterSourceOperator
             this.maxFilterPositionsCount = maxFilterPositionsCount;
             this.maxFilterSize = maxFilterSize;
             this.minMaxCollectionLimit = minMaxCollectionLimit;
+            this.bloomFilterSize = requireNonNull(bloomFilterSize, "bloomFilterSize is null");
             this.useNewNanDefinition = useNewNanDefinition;
         }
 
@@ -133,6 +141,7 @@ public class DynamicFilterSourceOperator
                     maxFilterPositionsCount,
                     maxFilterSize,
                     minMaxCollectionLimit,
+                    bloomFilterSize,
                     useNewNanDefinition);
         }
 
@@ -151,11 +160,14 @@ public class DynamicFilterSourceOperator
     }
 
     private final OperatorContext context;
+    private final LocalMemoryContext bloomFilterMemoryContext;
     private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
     private final int maxFilterPositionsCount;
     private final long maxFilterSizeInBytes;
     private final List<Channel> channels;
     private final List<Integer> minMaxChannels;
+    private final List<Integer> bloomFilterChannels;
+    private final long bloomFilterSizeInBytes;
     private final boolean useNewNanDefinition;
 
     private boolean finished;
@@ -173,6 +185,10 @@ public class DynamicFilterSourceOperator
     @Nullable
     private Block[] maxValues;
 
+    // Collected once the exact predicate becomes too large.
+    @Nullable
+    private BlockedBloomFilter[] bloomFilters;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
             Consumer<TupleDomain<String>> dynamicPredicateConsumer,
@@ -181,9 +197,11 @@ public class DynamicFilterSourceOperator
             int maxFilterPositionsCount,
             DataSize maxFilterSize,
             int minMaxCollectionLimit,
+            DataSize bloomFilterSize,
             boolean useNewNanDefinition)
     {
         this.context = requireNonNull(context, "context is null");
+        this.bloomFilterMemoryContext = context.localUserMemoryContext();
         this.maxFilterPositionsCount = maxFilterPositionsCount;
         this.maxFilterSizeInBytes = maxFilterSize.toBytes();
 
@@ -192,13 +210,18 @@ public class DynamicFilterSourceOperator
 
         this.blockBuilders = new BlockBuilder[channels.size()];
         this.valueSets = new TypedSet[channels.size()];
+        this.bloomFilterSizeInBytes = bloomFilterSize.toBytes();
         ImmutableList.Builder<Integer> minMaxChannelsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Integer> bloomFilterChannelsBuilder = ImmutableList.builder();
         for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
             Type type = channels.get(channelIndex).getType();
             // Skipping DOUBLE and REAL in collectMinMaxValues to avoid dealing with NaN values
             if (minMaxCollectionLimit > 0 && type.isOrderable() && !type.equals(DOUBLE) && !type.equals(REAL)) {
                 minMaxChannelsBuilder.add(channelIndex);
             }
+            if (bloomFilterSizeInBytes > 0 && BlockedBloomFilter.isSupportedType(type)) {
+                bloomFilterChannelsBuilder.add(channelIndex);
+            }
             this.blockBuilders[channelIndex] = type.createBlockBuilder(null, EXPECTED_BLOCK_BUILDER_SIZE);
             this.valueSets[channelIndex] = new TypedSet(
                     type,
@@ -210,6 +233,7 @@ public class DynamicFilterSourceOperator
         }
         this.minMaxCollectionLimit = minMaxCollectionLimit;
         minMaxChannels = minMaxChannelsBuilder.build();
+        bloomFilterChannels = bloomFilterChannelsBuilder.build();
         if (!minMaxChannels.isEmpty()) {
             minValues = new Block[channels.size()];
             maxValues = new Block[channels.size()];
@@ -236,19 +260,26 @@ public class DynamicFilterSourceOperator
         current = page;
         if (valueSets == null) {
             // the exact predicate became too large.
-            if (minValues == null) {
-                // there are too many rows to collect min/max range
+            if (minValues == null && bloomFilters == null) {
+                // there are too many rows to collect min/max range and there are no Bloom filters to collect
                 return;
             }
             minMaxCollectionLimit -= page.getPositionCount();
-            if (minMaxCollectionLimit < 0) {
+            if (minValues != null && minMaxCollectionLimit < 0) {
                 handleMinMaxCollectionLimitExceeded();
-                return;
             }
-            // the predicate became too large, record only min and max values for each orderable channel
-            for (Integer channelIndex : minMaxChannels) {
-                Block block = page.getBlock(channels.get(channelIndex).index);
-                updateMinMaxValues(block, channelIndex);
+            if (minValues != null) {
+                // the predicate became too large, record only min and max values for each orderable channel
+                for (Integer channelIndex : minMaxChannels) {
+                    Block block = page.getBlock(channels.get(channelIndex).index);
+                    updateMinMaxValues(block, channelIndex);
+                }
+            }
+            if (bloomFilters != null) {
+                for (Integer channelIndex : bloomFilterChannels) {
+                    Block block = page.getBlock(channels.get(channelIndex).index);
+                    updateBloomFilter(block, channelIndex);
+                }
             }
             return;
         }
@@ -275,19 +306,35 @@ public class DynamicFilterSourceOperator
     private void handleTooLargePredicate()
     {
         // The resulting predicate is too large
-        if (minMaxChannels.isEmpty()) {
+        if (minMaxChannels.isEmpty() && bloomFilterChannels.isEmpty()) {
             // allow all probe-side values to be read.
             dynamicPredicateConsumer.accept(TupleDomain.all());
         }
         else {
-            if (minMaxCollectionLimit < 0) {
-                handleMinMaxCollectionLimitExceeded();
+            if (!bloomFilterChannels.isEmpty()) {
+                // convert to Bloom filters per column for supported types
+                // reserve the memory of the filters before allocating them, as each of them can be large
+                bloomFilterMemoryContext.setBytes(bloomFilterChannels.size() * bloomFilterSizeInBytes);
+                bloomFilters = new BlockedBloomFilter[channels.size()];
+                long bloomFiltersSizeInBytes = 0;
+                for (Integer channelIndex : bloomFilterChannels) {
+                    bloomFilters[channelIndex] = BlockedBloomFilter.create(bloomFilterSizeInBytes);
+                    bloomFiltersSizeInBytes += bloomFilters[channelIndex].getRetainedSizeInBytes();
+                    updateBloomFilter(blockBuilders[channelIndex].build(), channelIndex);
+                }
+                // the filter size is rounded down to a power of 2 blocks, so account for what was actually allocated
+                bloomFilterMemoryContext.setBytes(bloomFiltersSizeInBytes);
             }
-            else {
-                // convert to min/max per column for orderable types
-                for (Integer channelIndex : minMaxChannels) {
-                    Block block = blockBuilders[channelIndex].build();
-                    updateMinMaxValues(block, channelIndex);
+            if (minValues != null) {
+                if (minMaxCollectionLimit < 0) {
+                    handleMinMaxCollectionLimitExceeded();
+                }
+                else {
+                    // convert to min/max per column for orderable types
+                    for (Integer channelIndex : minMaxChannels) {
+                        Block block = blockBuilders[channelIndex].build();
+                        updateMinMaxValues(block, channelIndex);
+                    }
                 }
             }
         }
@@ -299,13 +346,27 @@ public class DynamicFilterSourceOperator
 
     private void handleMinMaxCollectionLimitExceeded()
     {
-        // allow all probe-side values to be read.
-        dynamicPredicateConsumer.accept(TupleDomain.all());
+        if (bloomFilters == null) {
+            // allow all probe-side values to be read.
+            dynamicPredicateConsumer.accept(TupleDomain.all());
+        }
         // Drop references to collected values.
         minValues = null;
         maxValues = null;
     }
 
+    private void updateBloomFilter(Block block, int channelIndex)
+    {
+        checkState(bloomFilters != null);
+        Type type = channels.get(channelIndex).type;
+        BlockedBloomFilter bloomFilter = bloomFilters[channelIndex];
+        for (int position = 0; position < block.getPositionCount(); ++position) {
+            if (!block.isNull(position)) {
+                bloomFilter.add(type, block, position);
+            }
+        }
+    }
+
     private void updateMinMaxValues(Block block, int channelIndex)
     {
         checkState(minValues != null && maxValues != null);
@@ -368,29 +429,42 @@ public class DynamicFilterSourceOperator
         finished = true;
         ImmutableMap.Builder<String, Domain> domainsBuilder = ImmutableMap.builder();
         if (valueSets == null) {
-            if (minValues == null) {
+            if (minValues == null && bloomFilters == null) {
                 // there were too many rows to collect min/max range
-                // dynamicPredicateConsumer was notified with 'all' in handleTooLargePredicate if there are no orderable types,
+                // dynamicPredicateConsumer was notified with 'all' in handleTooLargePredicate if there are no orderable or Bloom filter types,
                 // else it was notified with 'all' in handleMinMaxCollectionLimitExceeded
                 return;
             }
-            // valueSets became too large, create TupleDomain from min/max values
-            for (Integer channelIndex : minMaxChannels) {
+            // valueSets became too large, create TupleDomain from min/max values and Bloom filters
+            for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
                 Type type = channels.get(channelIndex).type;
-                if (minValues[channelIndex] == null) {
-                    // all values were null
-                    domainsBuilder.put(channels.get(channelIndex).filterId, Domain.none(type));
+                Optional<BlockedBloomFilter> bloomFilter = Optional.empty();
+                if (bloomFilters != null && bloomFilters[channelIndex] != null &&
+                        bloomFilters[channelIndex].getFalsePositiveProbability() <= MAX_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY) {
+                    bloomFilter = Optional.of(bloomFilters[channelIndex]);
+                }
+                ValueSet values = ValueSet.all(type);
+                if (minValues != null && minMaxChannels.contains(channelIndex)) {
+                    if (minValues[channelIndex] == null) {
+                        // all values were null
+                        domainsBuilder.put(channels.get(channelIndex).filterId, Domain.none(type));
+                        continue;
+                    }
+                    Object min = readNativeValue(type, minValues[channelIndex], 0);
+                    Object max = readNativeValue(type, maxValues[channelIndex], 0);
+                    values = ValueSet.ofRanges(range(type, min, true, max, true));
+                }
+                else if (!bloomFilter.isPresent()) {
+                    // neither min/max values nor a Bloom filter were collected
                     continue;
                 }
-                Object min = readNativeValue(type, minValues[channelIndex], 0);
-                Object max = readNativeValue(type, maxValues[channelIndex], 0);
-                Domain domain = Domain.create(
-                        ValueSet.ofRanges(range(type, min, true, max, true)),
-                        false);
-                domainsBuilder.put(channels.get(channelIndex).filterId, domain);
+                domainsBuilder.put(channels.get(channelIndex).filterId, Domain.create(values, false, bloomFilter));
             }
             minValues = null;
             maxValues = null;
+            bloomFilters = null;
+            // the Bloom filters are owned by the dynamic filter from now on
+            bloomFilterMemoryContext.setBytes(0);
             dynamicPredicateConsumer.accept(TupleDomain.withColumnDomains(domainsBuilder.build()));
             return;
         }
@@ -422,6 +496,13 @@ public class DynamicFilterSourceOperator
         return Domain.create(ValueSet.copyOf(type, values.build()), false);
     }
 
+    @Override
+    public void close()
+    {
+        bloomFilters = null;
+        bloomFilterMemoryContext.setBytes(0);
+    }
+
     @Override
     public boolean isFinished()
     {
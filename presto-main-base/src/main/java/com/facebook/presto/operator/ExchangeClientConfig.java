@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.configuration.DefunctConfig;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.Duration;
@@ -40,6 +41,7 @@ public class ExchangeClientConfig
     private int pageBufferClientMaxCallbackThreads = 25;
     private boolean acknowledgePages = true;
     private double responseSizeExponentialMovingAverageDecayingAlpha = 0.1;
+    private boolean inProcessTransferEnabled;
 
     @NotNull
     public DataSize getMaxBufferSize()
@@ -171,4 +173,17 @@ public class ExchangeClientConfig
     {
         return responseSizeExponentialMovingAverageDecayingAlpha;
     }
+
+    public boolean isInProcessTransferEnabled()
+    {
+        return inProcessTransferEnabled;
+    }
+
+    @Config("exchange.in-process-transfer-enabled")
+    @ConfigDescription("Read results of tasks running on the same node directly from their output buffers instead of over the network")
+    public ExchangeClientConfig setInProcessTransferEnabled(boolean inProcessTransferEnabled)
+    {
+        this.inProcessTransferEnabled = inProcessTransferEnabled;
+        return this;
+    }
 }
@@ -39,6 +39,7 @@ public class FileFragmentResultCacheConfig
     private DataSize maxInFlightSize = new DataSize(1, GIGABYTE);
     private DataSize maxSinglePagesSize = new DataSize(500, MEGABYTE);
     private DataSize maxCacheSize = new DataSize(100, GIGABYTE);
+    private DataSize maxMemoryCacheSize = new DataSize(0, MEGABYTE);
 
     private boolean inputDataStatsEnabled;
 
@@ -151,6 +152,20 @@ public class FileFragmentResultCacheConfig
         return this;
     }
 
+    @MinDataSize("0B")
+    public DataSize getMaxMemoryCacheSize()
+    {
+        return maxMemoryCacheSize;
+    }
+
+    @Config("fragment-result-cache.max-memory-cache-size")
+    @ConfigDescription("Maximum size of the serialized results kept in memory in front of the on-disk cache. The in-memory tier is disabled if set to 0")
+    public FileFragmentResultCacheConfig setMaxMemoryCacheSize(DataSize maxMemoryCacheSize)
+    {
+        this.maxMemoryCacheSize = maxMemoryCacheSize;
+        return this;
+    }
+
     public boolean isInputDataStatsEnabled()
     {
         return inputDataStatsEnabled;
@@ -19,12 +19,17 @@ import com.facebook.presto.common.block.BlockEncodingSerde;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.metadata.Split.SplitIdentifier;
+import com.facebook.presto.operator.MemoryFragmentResultCache.CachedResult;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.SliceOutput;
@@ -49,7 +54,9 @@ import java.util.concurrent.Future;
 
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.readPages;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPages;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writePages;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPages;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static java.nio.file.Files.newInputStream;
 import static java.nio.file.Files.newOutputStream;
@@ -76,6 +83,9 @@ public class FileFragmentResultCacheManager
     private final ExecutorService removalExecutor;
 
     private final Cache<CacheKey, CacheEntry> cache;
+    // In-memory tier in front of the on-disk cache. Only holds results that are also cached on disk, so that
+    // the on-disk cache keeps deciding which results are cached and for how long.
+    private final MemoryFragmentResultCache memoryCache;
     private final boolean inputDataStatsEnabled;
 
     // TODO: Decouple CacheKey by encoding PlanNode and SplitIdentifier separately so we don't have to keep too many objects in memory
@@ -105,6 +115,7 @@ public class FileFragmentResultCacheManager
                 .removalListener(new CacheRemovalListener())
                 .recordStats()
                 .build();
+        this.memoryCache = new MemoryFragmentResultCache(cacheConfig.getMaxMemoryCacheSize().toBytes(), fragmentCacheStats);
         this.inputDataStatsEnabled = cacheConfig.isInputDataStatsEnabled();
 
         File target = new File(baseDirectory.toUri());
@@ -166,11 +177,24 @@ public class FileFragmentResultCacheManager
         try {
             Files.createFile(path);
             try (SliceOutput output = new OutputStreamSliceOutput(newOutputStream(path, APPEND))) {
-                writePages(pagesSerdeFactory.createPagesSerde(), output, pages.iterator());
+                Optional<List<SerializedPage>> serializedPages = Optional.empty();
+                if (memoryCache.isEnabled()) {
+                    PagesSerde pagesSerde = pagesSerdeFactory.createPagesSerde();
+                    serializedPages = Optional.of(pages.stream()
+                            .map(pagesSerde::serialize)
+                            .collect(ImmutableList.toImmutableList()));
+                    writeSerializedPages(output, serializedPages.get());
+                }
+                else {
+                    writePages(pagesSerdeFactory.createPagesSerde(), output, pages.iterator());
+                }
                 long resultPhysicalBytes = output.size();
                 cache.put(key, new CacheEntry(path, resultPhysicalBytes, inputDataSize));
                 fragmentCacheStats.incrementCacheEntries();
                 fragmentCacheStats.addCacheSizeInBytes(resultPhysicalBytes);
+                if (serializedPages.isPresent()) {
+                    putInMemory(key, serializedPages.get(), inputDataSize);
+                }
             }
             catch (UncheckedIOException | IOException e) {
                 log.warn(e, "%s encountered an error while writing to path %s", Thread.currentThread().getName(), path);
@@ -203,16 +227,38 @@ public class FileFragmentResultCacheManager
     public FragmentCacheResult get(String serializedPlan, Split split)
     {
         CacheKey key = new CacheKey(serializedPlan, split.getSplitIdentifier());
+        // Look up the on-disk entry even if the result is in memory, so that it does not expire while the result is being used
         CacheEntry cacheEntry = cache.getIfPresent(key);
         if (cacheEntry == null) {
             fragmentCacheStats.incrementCacheMiss();
             return new FragmentCacheResult(Optional.empty(), 0);
         }
 
+        if (memoryCache.isEnabled()) {
+            Optional<CachedResult> cachedResult = memoryCache.get(key);
+            if (cachedResult.isPresent()) {
+                fragmentCacheStats.incrementCacheHit();
+                return new FragmentCacheResult(Optional.of(deserialize(cachedResult.get().getPages())), cachedResult.get().getInputDataSize());
+            }
+        }
+
         try {
             InputStream inputStream = newInputStream(cacheEntry.getPath());
+            if (memoryCache.isEnabled() && memoryCache.canFit(cacheEntry.getResultBytes())) {
+                // Promote the result to the memory tier, which decides whether it is worth keeping
+                List<SerializedPage> serializedPages;
+                try (InputStreamSliceInput input = new InputStreamSliceInput(inputStream)) {
+                    serializedPages = ImmutableList.copyOf(readSerializedPages(input));
+                }
+                putInMemory(key, serializedPages, cacheEntry.getInputDataSize());
+                fragmentCacheStats.incrementCacheHit();
+                fragmentCacheStats.incrementFileCacheHit();
+                return new FragmentCacheResult(Optional.of(deserialize(serializedPages)), cacheEntry.getInputDataSize());
+            }
+
             Iterator<Page> result = readPages(pagesSerdeFactory.createPagesSerde(), new InputStreamSliceInput(inputStream));
             fragmentCacheStats.incrementCacheHit();
+            fragmentCacheStats.incrementFileCacheHit();
             return new FragmentCacheResult(Optional.of(closeWhenExhausted(result, inputStream)), cacheEntry.getInputDataSize());
         }
         catch (UncheckedIOException | IOException e) {
@@ -223,10 +269,31 @@ public class FileFragmentResultCacheManager
         }
     }
 
+    private void putInMemory(CacheKey key, List<SerializedPage> serializedPages, long inputDataSize)
+    {
+        if (memoryCache.put(key, serializedPages, inputDataSize) && !cache.asMap().containsKey(key)) {
+            // the on-disk entry was removed concurrently, and with it the in-memory entry it was meant to have
+            memoryCache.invalidate(key);
+        }
+    }
+
+    private Iterator<Page> deserialize(List<SerializedPage> serializedPages)
+    {
+        PagesSerde pagesSerde = pagesSerdeFactory.createPagesSerde();
+        return Iterators.transform(serializedPages.iterator(), pagesSerde::deserialize);
+    }
+
     @Managed
     public void invalidateAllCache()
     {
         cache.invalidateAll();
+        memoryCache.invalidateAll();
+    }
+
+    @Managed
+    public void invalidateMemoryCache()
+    {
+        memoryCache.invalidateAll();
     }
 
     private static <T> Iterator<T> closeWhenExhausted(Iterator<T> iterator, Closeable resource)
@@ -331,6 +398,7 @@ public class FileFragmentResultCacheManager
         public void onRemoval(RemovalNotification<CacheKey, CacheEntry> notification)
         {
             CacheEntry cacheEntry = notification.getValue();
+            memoryCache.invalidate(notification.getKey());
             removalExecutor.submit(() -> tryDeleteFile(cacheEntry.getPath()));
             fragmentCacheStats.incrementCacheRemoval();
             fragmentCacheStats.decrementCacheEntries();
@@ -28,6 +28,14 @@ public class FragmentCacheStats
     // Total on-disk size in bytes.
     private final AtomicLong cacheSizeInBytes = new AtomicLong();
 
+    private final AtomicLong fileCacheHit = new AtomicLong();
+    private final AtomicLong memoryCacheHit = new AtomicLong();
+    private final AtomicLong memoryCacheMiss = new AtomicLong();
+    private final AtomicLong memoryCacheEviction = new AtomicLong();
+    private final AtomicLong memoryCacheEntries = new AtomicLong();
+    // Total size in bytes of the serialized pages held in memory.
+    private final AtomicLong memoryCacheSizeInBytes = new AtomicLong();
+
     public void incrementCacheHit()
     {
         hit.getAndIncrement();
@@ -63,6 +71,41 @@ public class FragmentCacheStats
         cacheEntries.getAndDecrement();
     }
 
+    public void incrementFileCacheHit()
+    {
+        fileCacheHit.getAndIncrement();
+    }
+
+    public void incrementMemoryCacheHit()
+    {
+        memoryCacheHit.getAndIncrement();
+    }
+
+    public void incrementMemoryCacheMiss()
+    {
+        memoryCacheMiss.getAndIncrement();
+    }
+
+    public void incrementMemoryCacheEviction()
+    {
+        memoryCacheEviction.getAndIncrement();
+    }
+
+    public void incrementMemoryCacheEntries()
+    {
+        memoryCacheEntries.getAndIncrement();
+    }
+
+    public void decrementMemoryCacheEntries()
+    {
+        memoryCacheEntries.getAndDecrement();
+    }
+
+    public void addMemoryCacheSizeInBytes(long bytes)
+    {
+        memoryCacheSizeInBytes.addAndGet(bytes);
+    }
+
     @Managed
     public long getCacheHit()
     {
@@ -98,4 +141,40 @@ public class FragmentCacheStats
     {
         return cacheSizeInBytes.get();
     }
+
+    @Managed
+    public long getFileCacheHit()
+    {
+        return fileCacheHit.get();
+    }
+
+    @Managed
+    public long getMemoryCacheHit()
+    {
+        return memoryCacheHit.get();
+    }
+
+    @Managed
+    public long getMemoryCacheMiss()
+    {
+        return memoryCacheMiss.get();
+    }
+
+    @Managed
+    public long getMemoryCacheEviction()
+    {
+        return memoryCacheEviction.get();
+    }
+
+    @Managed
+    public long getMemoryCacheEntries()
+    {
+        return memoryCacheEntries.get();
+    }
+
+    @Managed
+    public long getMemoryCacheSizeInBytes()
+    {
+        return memoryCacheSizeInBytes.get();
+    }
 }
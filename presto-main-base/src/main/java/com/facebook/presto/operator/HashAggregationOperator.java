@@ -22,6 +22,7 @@ import com.facebook.presto.common.type.Type;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.builder.HashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import com.facebook.presto.operator.aggregation.builder.RadixPartitionedHashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.SpillableHashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.partial.PartialAggregationController;
 import com.facebook.presto.operator.aggregation.partial.SkipAggregationBuilder;
@@ -44,6 +45,7 @@ import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.SystemSessionProperties.getHashAggregationRadixPartitionCount;
 import static com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder.toTypes;
 import static com.facebook.presto.sql.planner.PlannerUtils.INITIAL_HASH_VALUE;
 import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
@@ -57,6 +59,7 @@ public class HashAggregationOperator
         implements Operator
 {
     private static final double MERGE_WITH_MEMORY_RATIO = 0.9;
+    private static final DataSize RADIX_PARTITION_BUFFER_SIZE = new DataSize(16, MEGABYTE);
     public static final String OPERATOR_TYPE = "HashAggregationOperator";
 
     public static class HashAggregationOperatorFactory
@@ -297,6 +300,7 @@ public class HashAggregationOperator
     private final SpillerFactory spillerFactory;
     private final JoinCompiler joinCompiler;
     private final boolean useSystemMemory;
+    private final int radixPartitionCount;
     private final Optional<PagesHashStrategy> preGroupedHashStrategy;
 
     private final List<Type> types;
@@ -366,6 +370,7 @@ public class HashAggregationOperator
         this.hashCollisionsCounter = new HashCollisionsCounter(operatorContext);
         operatorContext.setInfoSupplier(hashCollisionsCounter);
         this.useSystemMemory = useSystemMemory;
+        this.radixPartitionCount = getHashAggregationRadixPartitionCount(operatorContext.getSession());
 
         checkState(ImmutableSet.copyOf(groupByChannels).containsAll(preGroupedChannels), "groupByChannels must include all channels in preGroupedChannels");
         this.preGroupedHashStrategy = preGroupedChannels.isEmpty()
@@ -611,6 +616,20 @@ public class HashAggregationOperator
                     accumulatorFactories,
                     operatorContext.localUserMemoryContext());
         }
+        else if (!step.isOutputPartial() && !spillEnabled && radixPartitionCount > 1 && !groupByChannels.isEmpty()) {
+            aggregationBuilder = new RadixPartitionedHashAggregationBuilder(
+                    radixPartitionCount,
+                    RADIX_PARTITION_BUFFER_SIZE,
+                    accumulatorFactories,
+                    step,
+                    expectedGroups,
+                    groupByTypes,
+                    groupByChannels,
+                    hashChannel,
+                    operatorContext,
+                    joinCompiler,
+                    useSystemMemory ? ReserveType.SYSTEM : ReserveType.USER);
+        }
         else if (step.isOutputPartial() || !spillEnabled) {
             aggregationBuilder = new InMemoryHashAggregationBuilder(
                     accumulatorFactories,
@@ -264,7 +264,7 @@ public class HashBuilderOperator
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
         this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
 
-        this.index = pagesIndexFactory.newPagesIndex(lookupSourceFactory.getTypes(), expectedPositions);
+        this.index = pagesIndexFactory.newPagesIndex(lookupSourceFactory.getTypes(), expectedPositions, operatorContext.getSession());
         this.lookupSourceFactory = lookupSourceFactory;
         lookupSourceFactoryDestroyed = lookupSourceFactory.isDestroyed();
 
@@ -641,7 +641,14 @@ public class HashBuilderOperator
 
     private LookupSourceSupplier buildLookupSource()
     {
-        LookupSourceSupplier partition = index.createLookupSourceSupplier(operatorContext.getSession(), hashChannels, preComputedHashChannel, filterFunctionFactory, sortChannel, searchFunctionFactories, Optional.of(outputChannels));
+        LocalMemoryContext buildMemoryContext = operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(PagesHash.class.getSimpleName());
+        LookupSourceSupplier partition;
+        try {
+            partition = index.createLookupSourceSupplier(operatorContext.getSession(), hashChannels, preComputedHashChannel, filterFunctionFactory, sortChannel, searchFunctionFactories, Optional.of(outputChannels), Optional.of(buildMemoryContext));
+        }
+        finally {
+            buildMemoryContext.close();
+        }
         hashCollisionsCounter.recordHashCollision(partition.getHashCollisions(), partition.getExpectedHashCollisions());
         operatorContext.recordNullJoinBuildKeyCount(partition.getPositionIsNullCount());
         operatorContext.recordJoinBuildKeyCount(partition.getPositionCount());
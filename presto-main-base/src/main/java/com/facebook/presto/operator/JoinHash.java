@@ -40,6 +40,11 @@ public final class JoinHash
     @Nullable
     private final PositionLinks positionLinks;
 
+    // scratch buffers for getJoinPositions, sized to the largest batch seen so far
+    private long[] batchRawHashes = new long[0];
+    private int[] batchHashPositions = new int[0];
+    private int[] batchAddressIndexes = new int[0];
+
     public JoinHash(PagesHash pagesHash, Optional<JoinFilterFunction> filterFunction, Optional<PositionLinks> positionLinks)
     {
         this.pagesHash = requireNonNull(pagesHash, "pagesHash is null");
@@ -91,6 +96,28 @@ public final class JoinHash
         return startJoinPosition(addressIndex, position, allChannelsPage);
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        if (batchAddressIndexes.length < positionCount) {
+            batchRawHashes = new long[positionCount];
+            batchHashPositions = new int[positionCount];
+            batchAddressIndexes = new int[positionCount];
+        }
+
+        if (rawHashes == null) {
+            rawHashes = batchRawHashes;
+            for (int i = 0; i < positionCount; i++) {
+                rawHashes[i] = pagesHash.hashRow(positions[i], hashChannelsPage);
+            }
+        }
+
+        pagesHash.getAddressIndexes(positions, positionCount, hashChannelsPage, rawHashes, batchHashPositions, batchAddressIndexes);
+        for (int i = 0; i < positionCount; i++) {
+            joinPositions[i] = startJoinPosition(batchAddressIndexes[i], positions[i], allChannelsPage);
+        }
+    }
+
     private long startJoinPosition(int currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
         if (currentJoinPosition == -1) {
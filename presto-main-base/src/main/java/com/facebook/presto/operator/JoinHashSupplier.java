@@ -17,13 +17,16 @@ import com.facebook.presto.Session;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.array.AdaptiveLongBigArray;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.SystemSessionProperties.isFastInequalityJoin;
+import static com.facebook.presto.SystemSessionProperties.isParallelHashBuildEnabled;
 import static com.facebook.presto.operator.JoinUtils.channelsToPages;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -48,7 +51,9 @@ public class JoinHashSupplier
             List<List<Block>> channels,
             Optional<JoinFilterFunctionFactory> filterFunctionFactory,
             Optional<Integer> sortChannel,
-            List<JoinFilterFunctionFactory> searchFunctionFactories)
+            List<JoinFilterFunctionFactory> searchFunctionFactories,
+            Optional<Executor> parallelBuildExecutor,
+            Optional<LocalMemoryContext> buildMemoryContext)
     {
         this.session = requireNonNull(session, "session is null");
         this.addresses = requireNonNull(addresses, "addresses is null");
@@ -58,6 +63,7 @@ public class JoinHashSupplier
         requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
 
         PositionLinks.FactoryBuilder positionLinksFactoryBuilder;
+        Optional<Executor> buildExecutor = Optional.empty();
         if (sortChannel.isPresent() &&
                 isFastInequalityJoin(session)) {
             checkArgument(filterFunctionFactory.isPresent(), "filterFunctionFactory not set while sortChannel set");
@@ -68,10 +74,12 @@ public class JoinHashSupplier
         }
         else {
             positionLinksFactoryBuilder = ArrayPositionLinks.builder(positionCount);
+            // sorted position links cannot be built concurrently
+            buildExecutor = requireNonNull(parallelBuildExecutor, "parallelBuildExecutor is null").filter(executor -> isParallelHashBuildEnabled(session));
         }
 
         this.pages = channelsToPages(channels);
-        this.pagesHash = new PagesHash(addresses, positionCount, pagesHashStrategy, positionLinksFactoryBuilder);
+        this.pagesHash = new PagesHash(addresses, positionCount, pagesHashStrategy, positionLinksFactoryBuilder, buildExecutor, buildMemoryContext);
         this.positionLinks = positionLinksFactoryBuilder.isEmpty() ? Optional.empty() : Optional.of(positionLinksFactoryBuilder.build());
     }
 
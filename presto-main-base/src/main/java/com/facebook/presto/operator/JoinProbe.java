@@ -22,6 +22,8 @@ import java.util.List;
 import java.util.OptionalInt;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.min;
 
 public class JoinProbe
 {
@@ -39,9 +41,44 @@ public class JoinProbe
         }
 
         public JoinProbe createJoinProbe(Page page)
+        {
+            return createJoinProbe(page, null);
+        }
+
+        /**
+         * @param batchBuffers buffers of the batches resolved with a single {@link LookupSource#getJoinPositions} call,
+         * or null to resolve every position separately
+         */
+        public JoinProbe createJoinProbe(Page page, @Nullable BatchBuffers batchBuffers)
         {
             Page probePage = page.getLoadedPage(probeJoinChannels);
-            return new JoinProbe(probeOutputChannels, page, probePage, probeHashChannel >= 0 ? page.getBlock(probeHashChannel).getLoadedBlock() : null);
+            return new JoinProbe(probeOutputChannels, page, probePage, probeHashChannel >= 0 ? page.getBlock(probeHashChannel).getLoadedBlock() : null, batchBuffers);
+        }
+    }
+
+    /**
+     * Scratch arrays of the batched probe mode. They are owned by the operator and reused
+     * by the probes of all its input pages.
+     */
+    public static class BatchBuffers
+    {
+        private final int[] positions;
+        private final long[] rawHashes;
+        private final long[] resolvedJoinPositions;
+        private final long[] joinPositions;
+
+        public BatchBuffers(int batchSize)
+        {
+            checkArgument(batchSize > 0, "batchSize must be positive");
+            this.positions = new int[batchSize];
+            this.rawHashes = new long[batchSize];
+            this.resolvedJoinPositions = new long[batchSize];
+            this.joinPositions = new long[batchSize];
+        }
+
+        public int getBatchSize()
+        {
+            return positions.length;
         }
     }
 
@@ -53,10 +90,19 @@ public class JoinProbe
     private final Block probeHashBlock;
     private final boolean probeMayHaveNull;
 
+    @Nullable
+    private final BatchBuffers batchBuffers;
+    private final int batchSize;
+    // join positions of the probe positions [batchStart, batchEnd) resolved against batchLookupSource
+    @Nullable
+    private LookupSource batchLookupSource;
+    private int batchStart;
+    private int batchEnd;
+
     private int position = -1;
     private int nullRowCount;
 
-    private JoinProbe(int[] probeOutputChannels, Page page, Page probePage, @Nullable Block probeHashBlock)
+    private JoinProbe(int[] probeOutputChannels, Page page, Page probePage, @Nullable Block probeHashBlock, @Nullable BatchBuffers batchBuffers)
     {
         this.probeOutputChannels = probeOutputChannels;
         this.positionCount = page.getPositionCount();
@@ -64,6 +110,8 @@ public class JoinProbe
         this.probePage = probePage;
         this.probeHashBlock = probeHashBlock;
         this.probeMayHaveNull = probeMayHaveNull(probePage);
+        this.batchBuffers = batchBuffers;
+        this.batchSize = batchBuffers == null ? 0 : min(batchBuffers.getBatchSize(), positionCount);
     }
 
     public int[] getOutputChannels()
@@ -82,6 +130,12 @@ public class JoinProbe
             ++nullRowCount;
             return -1;
         }
+        if (batchSize > 0) {
+            if (lookupSource != batchLookupSource || position < batchStart || position >= batchEnd) {
+                resolveBatch(lookupSource);
+            }
+            return batchBuffers.joinPositions[position - batchStart];
+        }
         if (probeHashBlock != null) {
             long rawHash = BIGINT.getLong(probeHashBlock, position);
             return lookupSource.getJoinPosition(position, probePage, page, rawHash);
@@ -89,6 +143,39 @@ public class JoinProbe
         return lookupSource.getJoinPosition(position, probePage, page);
     }
 
+    private void resolveBatch(LookupSource lookupSource)
+    {
+        int[] batchPositions = batchBuffers.positions;
+        long[] batchJoinPositions = batchBuffers.joinPositions;
+        long[] batchResolvedJoinPositions = batchBuffers.resolvedJoinPositions;
+
+        batchLookupSource = lookupSource;
+        batchStart = position;
+        batchEnd = min(position + batchSize, positionCount);
+
+        // rows with a null join key never match, so they are left out of the batch
+        int batchPositionCount = 0;
+        for (int batchPosition = batchStart; batchPosition < batchEnd; batchPosition++) {
+            batchJoinPositions[batchPosition - batchStart] = -1;
+            if (!probeMayHaveNull || !rowContainsNull(batchPosition)) {
+                batchPositions[batchPositionCount++] = batchPosition;
+            }
+        }
+
+        long[] rawHashes = null;
+        if (probeHashBlock != null) {
+            rawHashes = batchBuffers.rawHashes;
+            for (int i = 0; i < batchPositionCount; i++) {
+                rawHashes[i] = BIGINT.getLong(probeHashBlock, batchPositions[i]);
+            }
+        }
+
+        lookupSource.getJoinPositions(batchPositions, batchPositionCount, probePage, page, rawHashes, batchResolvedJoinPositions);
+        for (int i = 0; i < batchPositionCount; i++) {
+            batchJoinPositions[batchPositions[i] - batchStart] = batchResolvedJoinPositions[i];
+        }
+    }
+
     public int getPosition()
     {
         return position;
@@ -100,6 +187,11 @@ public class JoinProbe
     }
 
     private boolean currentRowContainsNull()
+    {
+        return rowContainsNull(position);
+    }
+
+    private boolean rowContainsNull(int position)
     {
         for (int i = 0; i < probePage.getChannelCount(); i++) {
             if (probePage.getBlock(i).isNull(position)) {
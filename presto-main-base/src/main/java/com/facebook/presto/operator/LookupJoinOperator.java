@@ -15,6 +15,7 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.operator.JoinProbe.BatchBuffers;
 import com.facebook.presto.operator.JoinProbe.JoinProbeFactory;
 import com.facebook.presto.operator.LookupJoinOperators.JoinType;
 import com.facebook.presto.operator.LookupSourceProvider.LookupSourceLease;
@@ -40,6 +41,7 @@ import java.util.function.Supplier;
 
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static com.facebook.airlift.concurrent.MoreFutures.getDone;
+import static com.facebook.presto.SystemSessionProperties.getJoinProbeBatchSize;
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.FULL_OUTER;
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
 import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
@@ -95,6 +97,8 @@ public class LookupJoinOperator
     private Optional<ListenableFuture<Supplier<LookupSource>>> unspilledLookupSource = Optional.empty();
     private Iterator<Page> unspilledInputPages = emptyIterator();
     private final boolean optimizeProbeForEmptyBuild;
+    @Nullable
+    private final BatchBuffers probeBatchBuffers;
     private long nullProbeRowCount;
     private long inputProbeRowCount;
 
@@ -131,6 +135,8 @@ public class LookupJoinOperator
 
         this.pageBuilder = new LookupJoinPageBuilder(buildOutputTypes);
         this.optimizeProbeForEmptyBuild = optimizeProbeForEmptyBuild;
+        int probeBatchSize = getJoinProbeBatchSize(operatorContext.getSession());
+        this.probeBatchBuffers = probeBatchSize > 0 ? new BatchBuffers(probeBatchSize) : null;
     }
 
     @Override
@@ -233,7 +239,7 @@ public class LookupJoinOperator
 
         // create probe
         inputPageSpillEpoch = spillInfoSnapshot.getSpillEpoch();
-        probe = joinProbeFactory.createJoinProbe(page);
+        probe = joinProbeFactory.createJoinProbe(page, probeBatchBuffers);
 
         // initialize to invalid join position to force output code to advance the cursors
         joinPosition = -1;
@@ -16,6 +16,7 @@ package com.facebook.presto.operator;
 import com.facebook.airlift.concurrent.NotThreadSafe;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
+import jakarta.annotation.Nullable;
 
 import java.io.Closeable;
 
@@ -35,6 +36,25 @@ public interface LookupSource
 
     long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage);
 
+    /**
+     * Resolves the first join position of the probe rows {@code positions[0..positionCount)} into
+     * {@code joinPositions[0..positionCount)}. Rows without a match are set to -1.
+     * Implementations may hash and probe the whole batch at once to amortize per-row overhead.
+     *
+     * @param rawHashes precomputed raw hashes of the batch rows, or null if they must be computed
+     */
+    default void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            if (rawHashes != null) {
+                joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage, rawHashes[i]);
+            }
+            else {
+                joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage);
+            }
+        }
+    }
+
     long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage);
 
     void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset);
@@ -0,0 +1,255 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.operator.FileFragmentResultCacheManager.CacheKey;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import io.airlift.slice.Slices;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * In-memory tier of the fragment result cache. Holds the results as serialized pages, so that a hit
+ * only pays for deserialization, and evicts with the Greedy-Dual-Size-Frequency policy: an entry's
+ * priority is {@code clock + frequency * cost / size}, where the cost of recomputing a result is
+ * approximated by its input data size, and the clock is raised to the priority of every evicted
+ * entry so that entries that are no longer accessed eventually age out.
+ */
+@ThreadSafe
+class MemoryFragmentResultCache
+{
+    private final long maxSizeInBytes;
+    private final FragmentCacheStats fragmentCacheStats;
+
+    @GuardedBy("this")
+    private final Map<CacheKey, Entry> entries = new HashMap<>();
+    @GuardedBy("this")
+    private final TreeSet<Entry> evictionQueue = new TreeSet<>(Comparator.comparingDouble(Entry::getPriority).thenComparingLong(Entry::getSequence));
+    @GuardedBy("this")
+    private long sizeInBytes;
+    @GuardedBy("this")
+    private double clock;
+    @GuardedBy("this")
+    private long nextSequence;
+
+    public MemoryFragmentResultCache(long maxSizeInBytes, FragmentCacheStats fragmentCacheStats)
+    {
+        checkArgument(maxSizeInBytes >= 0, "maxSizeInBytes is negative");
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.fragmentCacheStats = requireNonNull(fragmentCacheStats, "fragmentCacheStats is null");
+    }
+
+    public boolean isEnabled()
+    {
+        return maxSizeInBytes > 0;
+    }
+
+    public boolean canFit(long sizeInBytes)
+    {
+        return sizeInBytes <= maxSizeInBytes;
+    }
+
+    public synchronized Optional<CachedResult> get(CacheKey key)
+    {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            fragmentCacheStats.incrementMemoryCacheMiss();
+            return Optional.empty();
+        }
+
+        evictionQueue.remove(entry);
+        entry.recordAccess(clock, nextSequence++);
+        evictionQueue.add(entry);
+        fragmentCacheStats.incrementMemoryCacheHit();
+        return Optional.of(new CachedResult(entry.getPages(), entry.getInputDataSize()));
+    }
+
+    /**
+     * Adds the result, evicting entries of lower priority to make room for it. The result is not
+     * added if making room would require evicting an entry of higher priority.
+     */
+    public synchronized boolean put(CacheKey key, List<SerializedPage> pages, long inputDataSize)
+    {
+        if (entries.containsKey(key)) {
+            return false;
+        }
+
+        List<SerializedPage> compactPages = pages.stream()
+                .map(MemoryFragmentResultCache::compact)
+                .collect(ImmutableList.toImmutableList());
+        long entrySize = compactPages.stream()
+                .mapToLong(SerializedPage::getRetainedSizeInBytes)
+                .sum();
+        if (!canFit(entrySize)) {
+            return false;
+        }
+
+        Entry entry = new Entry(key, compactPages, entrySize, inputDataSize);
+        entry.recordAccess(clock, nextSequence++);
+
+        long reclaimableBytes = 0;
+        for (Entry candidate : evictionQueue) {
+            if (sizeInBytes - reclaimableBytes + entrySize <= maxSizeInBytes || candidate.getPriority() > entry.getPriority()) {
+                break;
+            }
+            reclaimableBytes += candidate.getSizeInBytes();
+        }
+        if (sizeInBytes - reclaimableBytes + entrySize > maxSizeInBytes) {
+            return false;
+        }
+
+        while (sizeInBytes + entrySize > maxSizeInBytes) {
+            Entry victim = evictionQueue.pollFirst();
+            entries.remove(victim.getKey());
+            clock = victim.getPriority();
+            removed(victim);
+            fragmentCacheStats.incrementMemoryCacheEviction();
+        }
+
+        entries.put(key, entry);
+        evictionQueue.add(entry);
+        sizeInBytes += entrySize;
+        fragmentCacheStats.incrementMemoryCacheEntries();
+        fragmentCacheStats.addMemoryCacheSizeInBytes(entrySize);
+        return true;
+    }
+
+    public synchronized void invalidate(CacheKey key)
+    {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            evictionQueue.remove(entry);
+            removed(entry);
+        }
+    }
+
+    public synchronized void invalidateAll()
+    {
+        entries.values().forEach(this::removed);
+        entries.clear();
+        evictionQueue.clear();
+    }
+
+    @GuardedBy("this")
+    private void removed(Entry entry)
+    {
+        sizeInBytes -= entry.getSizeInBytes();
+        fragmentCacheStats.decrementMemoryCacheEntries();
+        fragmentCacheStats.addMemoryCacheSizeInBytes(-entry.getSizeInBytes());
+    }
+
+    private static SerializedPage compact(SerializedPage page)
+    {
+        if (page.getSlice().isCompact()) {
+            return page;
+        }
+        return new SerializedPage(
+                Slices.copyOf(page.getSlice()),
+                page.getPageCodecMarkers(),
+                page.getPositionCount(),
+                page.getUncompressedSizeInBytes(),
+                page.getChecksum());
+    }
+
+    public static class CachedResult
+    {
+        private final List<SerializedPage> pages;
+        private final long inputDataSize;
+
+        public CachedResult(List<SerializedPage> pages, long inputDataSize)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+            this.inputDataSize = inputDataSize;
+        }
+
+        public List<SerializedPage> getPages()
+        {
+            return pages;
+        }
+
+        public long getInputDataSize()
+        {
+            return inputDataSize;
+        }
+    }
+
+    private static class Entry
+    {
+        private final CacheKey key;
+        private final List<SerializedPage> pages;
+        private final long sizeInBytes;
+        private final long inputDataSize;
+
+        private long frequency;
+        private double priority;
+        private long sequence;
+
+        public Entry(CacheKey key, List<SerializedPage> pages, long sizeInBytes, long inputDataSize)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.pages = requireNonNull(pages, "pages is null");
+            this.sizeInBytes = sizeInBytes;
+            this.inputDataSize = inputDataSize;
+        }
+
+        public void recordAccess(double clock, long sequence)
+        {
+            frequency++;
+            // input data size is 0 when it is not tracked, in which case all results are equally costly to recompute
+            priority = clock + (double) frequency * Math.max(1, inputDataSize) / Math.max(1, sizeInBytes);
+            this.sequence = sequence;
+        }
+
+        public CacheKey getKey()
+        {
+            return key;
+        }
+
+        public List<SerializedPage> getPages()
+        {
+            return pages;
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+
+        public long getInputDataSize()
+        {
+            return inputDataSize;
+        }
+
+        public double getPriority()
+        {
+            return priority;
+        }
+
+        public long getSequence()
+        {
+            return sequence;
+        }
+    }
+}
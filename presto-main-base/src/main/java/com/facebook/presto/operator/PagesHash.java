@@ -17,16 +17,27 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
 import com.facebook.presto.common.array.AdaptiveLongBigArray;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import it.unimi.dsi.fastutil.HashCommon;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.util.concurrent.Futures.allAsList;
 import static io.airlift.slice.SizeOf.sizeOf;
+import static io.airlift.slice.SizeOf.sizeOfIntArray;
+import static io.airlift.slice.SizeOf.sizeOfLongArray;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -35,6 +46,10 @@ public final class PagesHash
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesHash.class).instanceSize();
     private static final DataSize CACHE_SIZE = new DataSize(128, KILOBYTE);
+    private static final int PARALLEL_BUILD_MIN_POSITIONS = 1 << 18;
+    private static final int PARALLEL_BUILD_CHUNK_SIZE = 1 << 16;
+    private static final int PARALLEL_BUILD_MIN_BUCKET_RANGE_SIZE = 1 << 14;
+    private static final int PARALLEL_BUILD_MAX_BUCKET_RANGES = 1 << 10;
     private final AdaptiveLongBigArray addresses;
     private final int positionCount;
     private final PagesHashStrategy pagesHashStrategy;
@@ -57,11 +72,29 @@ public final class PagesHash
             int positionCount,
             PagesHashStrategy pagesHashStrategy,
             PositionLinks.FactoryBuilder positionLinks)
+    {
+        this(addresses, positionCount, pagesHashStrategy, positionLinks, Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * @param parallelBuildExecutor executor to build large hash tables with, which requires {@code positionLinks} to support
+     * concurrent calls to {@link PositionLinks.FactoryBuilder#link} for different left positions
+     * @param buildMemoryContext memory context to reserve the temporary arrays of a parallel build in
+     */
+    public PagesHash(
+            AdaptiveLongBigArray addresses,
+            int positionCount,
+            PagesHashStrategy pagesHashStrategy,
+            PositionLinks.FactoryBuilder positionLinks,
+            Optional<Executor> parallelBuildExecutor,
+            Optional<LocalMemoryContext> buildMemoryContext)
     {
         this.addresses = requireNonNull(addresses, "addresses is null");
         this.positionCount = positionCount;
         this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
         this.channelCount = pagesHashStrategy.getChannelCount();
+        requireNonNull(parallelBuildExecutor, "parallelBuildExecutor is null");
+        requireNonNull(buildMemoryContext, "buildMemoryContext is null");
 
         // reserve memory for the arrays
         int hashSize = HashCommon.arraySize(positionCount, 0.75f);
@@ -72,63 +105,234 @@ public final class PagesHash
 
         positionToHashes = new byte[positionCount];
 
-        // We will process addresses in batches, to save memory on array of hashes.
-        int positionsInStep = Math.min(positionCount + 1, (int) CACHE_SIZE.toBytes() / Integer.SIZE);
-        long[] positionToFullHashes = new long[positionsInStep];
         long hashCollisionsLocal = 0;
         long positionIsNullCountLocal = 0;
+        if (parallelBuildExecutor.isPresent() && positionCount >= PARALLEL_BUILD_MIN_POSITIONS) {
+            long[] buildCounts = buildInParallel(parallelBuildExecutor.get(), buildMemoryContext, positionLinks);
+            hashCollisionsLocal = buildCounts[0];
+            positionIsNullCountLocal = buildCounts[1];
+        }
+        else {
+            // We will process addresses in batches, to save memory on array of hashes.
+            int positionsInStep = Math.min(positionCount + 1, (int) CACHE_SIZE.toBytes() / Integer.SIZE);
+            long[] positionToFullHashes = new long[positionsInStep];
+
+            for (int step = 0; step * positionsInStep < positionCount; step++) {
+                int stepBeginPosition = step * positionsInStep;
+                int stepEndPosition = Math.min((step + 1) * positionsInStep, positionCount);
+                int stepSize = stepEndPosition - stepBeginPosition;
+
+                // First extract all hashes from blocks to native array.
+                // Somehow having this as a separate loop is much faster compared
+                // to extracting hashes on the fly in the loop below.
+                for (int position = 0; position < stepSize; position++) {
+                    int realPosition = position + stepBeginPosition;
+                    long hash = readHashPosition(realPosition);
+                    positionToFullHashes[position] = hash;
+                    positionToHashes[realPosition] = (byte) hash;
+                }
 
-        for (int step = 0; step * positionsInStep < positionCount; step++) {
-            int stepBeginPosition = step * positionsInStep;
-            int stepEndPosition = Math.min((step + 1) * positionsInStep, positionCount);
-            int stepSize = stepEndPosition - stepBeginPosition;
-
-            // First extract all hashes from blocks to native array.
-            // Somehow having this as a separate loop is much faster compared
-            // to extracting hashes on the fly in the loop below.
-            for (int position = 0; position < stepSize; position++) {
-                int realPosition = position + stepBeginPosition;
-                long hash = readHashPosition(realPosition);
-                positionToFullHashes[position] = hash;
-                positionToHashes[realPosition] = (byte) hash;
+                // index pages
+                for (int position = 0; position < stepSize; position++) {
+                    int realPosition = position + stepBeginPosition;
+                    if (isPositionNull(realPosition)) {
+                        ++positionIsNullCountLocal;
+                        continue;
+                    }
+
+                    long hash = positionToFullHashes[position];
+                    int pos = getHashPosition(hash, mask);
+
+                    // look for an empty slot or a slot containing this key
+                    while (key[pos] != -1) {
+                        int currentKey = key[pos];
+                        if (((byte) hash) == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
+                            // found a slot for this key
+                            // link the new key position to the current key position
+                            realPosition = positionLinks.link(realPosition, currentKey);
+
+                            // key[pos] updated outside of this loop
+                            break;
+                        }
+                        // increment position and mask to handler wrap around
+                        pos = (pos + 1) & mask;
+                        hashCollisionsLocal++;
+                    }
+
+                    key[pos] = realPosition;
+                }
             }
+        }
+
+        size = addresses.getRetainedSizeInBytes() + pagesHashStrategy.getSizeInBytes() +
+                sizeOf(key) + sizeOf(positionToHashes);
+        hashCollisions = hashCollisionsLocal;
+        expectedHashCollisions = estimateNumberOfHashCollisions(positionCount, hashSize);
+        positionIsNullCount = positionIsNullCountLocal;
+    }
 
-            // index pages
-            for (int position = 0; position < stepSize; position++) {
-                int realPosition = position + stepBeginPosition;
-                if (isPositionNull(realPosition)) {
-                    ++positionIsNullCountLocal;
+    /**
+     * Builds the hash table using the given executor. The hash table is split into ranges of buckets
+     * that are each filled by a single task, so that tasks do not need to synchronize, and the result does not
+     * depend on the scheduling of the tasks. The positions of every range are inserted in increasing order,
+     * and positions whose probing runs past the end of their range are inserted once all ranges are filled,
+     * so the hash table links the positions of every key in the same order as the single threaded build.
+     *
+     * @return the number of hash collisions and the number of positions with nulls
+     */
+    private long[] buildInParallel(Executor executor, Optional<LocalMemoryContext> buildMemoryContext, PositionLinks.FactoryBuilder positionLinks)
+    {
+        int hashSize = mask + 1;
+        int rangeCount = Math.max(1, Math.min(PARALLEL_BUILD_MAX_BUCKET_RANGES, hashSize / PARALLEL_BUILD_MIN_BUCKET_RANGE_SIZE));
+        int rangeShift = Integer.numberOfTrailingZeros(hashSize / rangeCount);
+        int chunkCount = (positionCount + PARALLEL_BUILD_CHUNK_SIZE - 1) / PARALLEL_BUILD_CHUNK_SIZE;
+
+        // reserve the temporary arrays before allocating them, as they add two ints per position to the hash table
+        long temporaryArraysSize = 2 * sizeOfIntArray(positionCount) +
+                chunkCount * sizeOfIntArray(rangeCount) +
+                sizeOfIntArray(rangeCount + 1) +
+                sizeOfIntArray(rangeCount) +
+                sizeOfLongArray(rangeCount);
+        buildMemoryContext.ifPresent(memoryContext -> memoryContext.setBytes(temporaryArraysSize));
+        try {
+            return buildInParallel(executor, positionLinks, rangeCount, rangeShift, chunkCount);
+        }
+        finally {
+            buildMemoryContext.ifPresent(memoryContext -> memoryContext.setBytes(0));
+        }
+    }
+
+    private long[] buildInParallel(Executor executor, PositionLinks.FactoryBuilder positionLinks, int rangeCount, int rangeShift, int chunkCount)
+    {
+
+        // Compute the bucket of every position, or -1 if the position has nulls, and count the positions of every chunk in every range
+        int[] positionToHashPositions = new int[positionCount];
+        int[][] chunkRangeOffsets = new int[chunkCount][rangeCount];
+        runInParallel(executor, chunkCount, chunk -> {
+            int[] rangeCounts = chunkRangeOffsets[chunk];
+            int chunkEnd = Math.min((chunk + 1) * PARALLEL_BUILD_CHUNK_SIZE, positionCount);
+            for (int position = chunk * PARALLEL_BUILD_CHUNK_SIZE; position < chunkEnd; position++) {
+                long hash = readHashPosition(position);
+                positionToHashes[position] = (byte) hash;
+                if (isPositionNull(position)) {
+                    positionToHashPositions[position] = -1;
                     continue;
                 }
+                int hashPosition = getHashPosition(hash, mask);
+                positionToHashPositions[position] = hashPosition;
+                rangeCounts[hashPosition >>> rangeShift]++;
+            }
+        });
+
+        // Turn the counts into the offsets of the positions of every chunk in every range
+        int[] rangeOffsets = new int[rangeCount + 1];
+        int offset = 0;
+        for (int range = 0; range < rangeCount; range++) {
+            rangeOffsets[range] = offset;
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                int count = chunkRangeOffsets[chunk][range];
+                chunkRangeOffsets[chunk][range] = offset;
+                offset += count;
+            }
+        }
+        rangeOffsets[rangeCount] = offset;
+        long positionIsNullCount = positionCount - offset;
+
+        // Group the positions by range, keeping them in increasing order within every range
+        int[] rangePositions = new int[offset];
+        runInParallel(executor, chunkCount, chunk -> {
+            int[] offsets = chunkRangeOffsets[chunk];
+            int chunkEnd = Math.min((chunk + 1) * PARALLEL_BUILD_CHUNK_SIZE, positionCount);
+            for (int position = chunk * PARALLEL_BUILD_CHUNK_SIZE; position < chunkEnd; position++) {
+                int hashPosition = positionToHashPositions[position];
+                if (hashPosition != -1) {
+                    rangePositions[offsets[hashPosition >>> rangeShift]++] = position;
+                }
+            }
+        });
+
+        // Fill every range. The positions that could not be inserted within their range are moved to the beginning of the range's positions.
+        long[] rangeHashCollisions = new long[rangeCount];
+        int[] rangeOverflowCounts = new int[rangeCount];
+        runInParallel(executor, rangeCount, range -> {
+            int rangeEnd = (range + 1) << rangeShift;
+            long hashCollisions = 0;
+            int overflowCount = 0;
+            for (int i = rangeOffsets[range]; i < rangeOffsets[range + 1]; i++) {
+                int realPosition = rangePositions[i];
+                byte hash = positionToHashes[realPosition];
+                int pos = positionToHashPositions[realPosition];
+
+                // look for an empty slot or a slot containing this key, without wrapping around
+                while (pos < rangeEnd && key[pos] != -1) {
+                    int currentKey = key[pos];
+                    if (hash == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
+                        realPosition = positionLinks.link(realPosition, currentKey);
+                        break;
+                    }
+                    pos++;
+                    hashCollisions++;
+                }
 
-                long hash = positionToFullHashes[position];
-                int pos = getHashPosition(hash, mask);
+                if (pos == rangeEnd) {
+                    // the slots of the next range belong to another task
+                    rangePositions[rangeOffsets[range] + overflowCount] = realPosition;
+                    overflowCount++;
+                    continue;
+                }
+                key[pos] = realPosition;
+            }
+            rangeHashCollisions[range] = hashCollisions;
+            rangeOverflowCounts[range] = overflowCount;
+        });
+
+        long hashCollisions = 0;
+        for (int range = 0; range < rangeCount; range++) {
+            hashCollisions += rangeHashCollisions[range];
+            for (int i = rangeOffsets[range]; i < rangeOffsets[range] + rangeOverflowCounts[range]; i++) {
+                int realPosition = rangePositions[i];
+                byte hash = positionToHashes[realPosition];
+                int pos = positionToHashPositions[realPosition];
 
-                // look for an empty slot or a slot containing this key
                 while (key[pos] != -1) {
                     int currentKey = key[pos];
-                    if (((byte) hash) == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
-                        // found a slot for this key
-                        // link the new key position to the current key position
+                    if (hash == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
                         realPosition = positionLinks.link(realPosition, currentKey);
-
-                        // key[pos] updated outside of this loop
                         break;
                     }
                     // increment position and mask to handler wrap around
                     pos = (pos + 1) & mask;
-                    hashCollisionsLocal++;
+                    hashCollisions++;
                 }
-
                 key[pos] = realPosition;
             }
         }
 
-        size = addresses.getRetainedSizeInBytes() + pagesHashStrategy.getSizeInBytes() +
-                sizeOf(key) + sizeOf(positionToHashes);
-        hashCollisions = hashCollisionsLocal;
-        expectedHashCollisions = estimateNumberOfHashCollisions(positionCount, hashSize);
-        positionIsNullCount = positionIsNullCountLocal;
+        return new long[] {hashCollisions, positionIsNullCount};
+    }
+
+    /**
+     * Runs the tasks in the calling thread and in helper threads of the executor. The tasks are claimed one by one,
+     * so the calling thread completes all of them by itself if the executor is busy.
+     */
+    private static void runInParallel(Executor executor, int taskCount, IntConsumer task)
+    {
+        AtomicInteger nextTask = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int taskIndex = nextTask.getAndIncrement(); taskIndex < taskCount; taskIndex = nextTask.getAndIncrement()) {
+                task.accept(taskIndex);
+            }
+        };
+
+        int helperCount = Math.min(taskCount, Runtime.getRuntime().availableProcessors()) - 1;
+        ImmutableList.Builder<ListenableFutureTask<?>> helpers = ImmutableList.builder();
+        for (int i = 0; i < helperCount; i++) {
+            ListenableFutureTask<?> helper = ListenableFutureTask.create(worker, null);
+            executor.execute(helper);
+            helpers.add(helper);
+        }
+        worker.run();
+        getFutureValue(allAsList(helpers.build()));
     }
 
     public final int getChannelCount()
@@ -180,6 +384,46 @@ public final class PagesHash
         return -1;
     }
 
+    public long hashRow(int position, Page hashChannelsPage)
+    {
+        return pagesHashStrategy.hashRow(position, hashChannelsPage);
+    }
+
+    /**
+     * Batch version of {@link #getAddressIndex(int, Page, long)} for the rows {@code positions[0..positionCount)}.
+     * The bucket of every row is computed first and the first key of every bucket is then loaded in a
+     * separate loop, so the cache misses of the whole batch are issued independently of each other
+     * instead of one after another.
+     *
+     * @param hashPositions scratch array of at least {@code positionCount} entries
+     */
+    public void getAddressIndexes(int[] positions, int positionCount, Page hashChannelsPage, long[] rawHashes, int[] hashPositions, int[] addressIndexes)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            hashPositions[i] = getHashPosition(rawHashes[i], mask);
+        }
+
+        for (int i = 0; i < positionCount; i++) {
+            addressIndexes[i] = key[hashPositions[i]];
+        }
+
+        for (int i = 0; i < positionCount; i++) {
+            int currentKey = addressIndexes[i];
+            if (currentKey == -1) {
+                continue;
+            }
+            int pos = hashPositions[i];
+            int rightPosition = positions[i];
+            byte rawHash = (byte) rawHashes[i];
+            while (currentKey != -1 && !positionEqualsCurrentRowIgnoreNulls(currentKey, rawHash, rightPosition, hashChannelsPage)) {
+                // increment position and mask to handler wrap around
+                pos = (pos + 1) & mask;
+                currentKey = key[pos];
+            }
+            addressIndexes[i] = currentKey;
+        }
+    }
+
     public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.get(toIntExact(position));
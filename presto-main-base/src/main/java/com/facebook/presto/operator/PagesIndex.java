@@ -34,6 +34,7 @@ import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.gen.JoinCompiler.LookupSourceSupplierFactory;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
 import com.facebook.presto.sql.gen.OrderingCompiler;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slice;
@@ -48,12 +49,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.IntUnaryOperator;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.presto.SystemSessionProperties.isPagesIndexSegmentedStorageEnabled;
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
@@ -61,6 +65,8 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -71,6 +77,12 @@ import static java.util.Objects.requireNonNull;
  * <li>Hash build via the {@link #createLookupSourceSupplier} method</li>
  * <li>Positional output via the {@link #appendTo} method</li>
  * </ul>
+ * <p>
+ * When segmented storage is enabled, rows are copied into large per-channel segments of
+ * {@link #SEGMENT_POSITIONS} positions instead of retaining every input block. This keeps
+ * the number of retained block objects proportional to the row count divided by the segment
+ * size rather than to the number of input pages, which reduces GC pressure and improves
+ * locality for large sort, window and hash build sides.
  */
 public class PagesIndex
         implements Swapper
@@ -78,6 +90,9 @@ public class PagesIndex
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesIndex.class).instanceSize();
     private static final Logger log = Logger.get(PagesIndex.class);
 
+    @VisibleForTesting
+    static final int SEGMENT_POSITIONS = 64 * 1024;
+
     private final OrderingCompiler orderingCompiler;
     private final JoinCompiler joinCompiler;
     private final FunctionAndTypeManager functionAndTypeManager;
@@ -86,6 +101,12 @@ public class PagesIndex
     private final AdaptiveLongBigArray valueAddresses;
     private final ObjectArrayList<Block>[] channels;
     private final boolean eagerCompact;
+    private final boolean segmentedStorage;
+    private final Optional<Executor> parallelHashBuildExecutor;
+
+    // builders of the segment currently being filled, or null when there is no open segment
+    private BlockBuilder[] openSegment;
+    private long openSegmentMemorySize;
 
     private int nextBlockToCompact;
     private int positionCount;
@@ -98,7 +119,9 @@ public class PagesIndex
             FunctionAndTypeManager functionAndTypeManager,
             List<Type> types,
             int expectedPositions,
-            boolean eagerCompact)
+            boolean eagerCompact,
+            boolean segmentedStorage,
+            Optional<Executor> parallelHashBuildExecutor)
     {
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
@@ -107,6 +130,8 @@ public class PagesIndex
         this.valueAddresses = new AdaptiveLongBigArray();
         this.valueAddresses.ensureCapacity(expectedPositions);
         this.eagerCompact = eagerCompact;
+        this.segmentedStorage = segmentedStorage && !types.isEmpty();
+        this.parallelHashBuildExecutor = requireNonNull(parallelHashBuildExecutor, "parallelHashBuildExecutor is null");
 
         //noinspection rawtypes
         channels = (ObjectArrayList<Block>[]) new ObjectArrayList[types.size()];
@@ -120,6 +145,11 @@ public class PagesIndex
     public interface Factory
     {
         PagesIndex newPagesIndex(List<Type> types, int expectedPositions);
+
+        default PagesIndex newPagesIndex(List<Type> types, int expectedPositions, Session session)
+        {
+            return newPagesIndex(types, expectedPositions);
+        }
     }
 
     public static class TestingFactory
@@ -128,16 +158,23 @@ public class PagesIndex
         private static final OrderingCompiler ORDERING_COMPILER = new OrderingCompiler();
         private static final JoinCompiler JOIN_COMPILER = new JoinCompiler(MetadataManager.createTestMetadataManager());
         private final boolean eagerCompact;
+        private final boolean segmentedStorage;
 
         public TestingFactory(boolean eagerCompact)
+        {
+            this(eagerCompact, false);
+        }
+
+        public TestingFactory(boolean eagerCompact, boolean segmentedStorage)
         {
             this.eagerCompact = eagerCompact;
+            this.segmentedStorage = segmentedStorage;
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionAndTypeManager(), types, expectedPositions, eagerCompact);
+            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionAndTypeManager(), types, expectedPositions, eagerCompact, segmentedStorage, Optional.empty());
         }
     }
 
@@ -147,21 +184,31 @@ public class PagesIndex
         private final OrderingCompiler orderingCompiler;
         private final JoinCompiler joinCompiler;
         private final boolean eagerCompact;
+        private final boolean segmentedStorage;
         private final FunctionAndTypeManager functionAndTypeManager;
+        private final ExecutorService hashBuildExecutor;
 
         @Inject
-        public DefaultFactory(OrderingCompiler orderingCompiler, JoinCompiler joinCompiler, FeaturesConfig featuresConfig, Metadata metadata)
+        public DefaultFactory(OrderingCompiler orderingCompiler, JoinCompiler joinCompiler, FeaturesConfig featuresConfig, Metadata metadata, @ForHashBuild ExecutorService hashBuildExecutor)
         {
             this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.eagerCompact = requireNonNull(featuresConfig, "featuresConfig is null").isPagesIndexEagerCompactionEnabled();
+            this.segmentedStorage = featuresConfig.isPagesIndexSegmentedStorageEnabled();
             this.functionAndTypeManager = requireNonNull(metadata, "metadata is null").getFunctionAndTypeManager();
+            this.hashBuildExecutor = requireNonNull(hashBuildExecutor, "hashBuildExecutor is null");
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(orderingCompiler, joinCompiler, functionAndTypeManager, types, expectedPositions, eagerCompact);
+            return new PagesIndex(orderingCompiler, joinCompiler, functionAndTypeManager, types, expectedPositions, eagerCompact, segmentedStorage, Optional.of(hashBuildExecutor));
+        }
+
+        @Override
+        public PagesIndex newPagesIndex(List<Type> types, int expectedPositions, Session session)
+        {
+            return new PagesIndex(orderingCompiler, joinCompiler, functionAndTypeManager, types, expectedPositions, eagerCompact, isPagesIndexSegmentedStorageEnabled(session), Optional.of(hashBuildExecutor));
         }
     }
 
@@ -195,6 +242,8 @@ public class PagesIndex
         positionCount = 0;
         nextBlockToCompact = 0;
         pagesMemorySize = 0;
+        openSegment = null;
+        openSegmentMemorySize = 0;
 
         estimatedSize = calculateEstimatedSize();
     }
@@ -206,6 +255,12 @@ public class PagesIndex
             return;
         }
 
+        if (segmentedStorage) {
+            addPageToSegments(page);
+            estimatedSize = calculateEstimatedSize();
+            return;
+        }
+
         int pageIndex = (channels.length > 0) ? channels[0].size() : 0;
         for (int i = 0; i < channels.length; i++) {
             Block block = page.getBlock(i);
@@ -225,6 +280,70 @@ public class PagesIndex
         estimatedSize = calculateEstimatedSize();
     }
 
+    private void addPageToSegments(Page page)
+    {
+        int position = 0;
+        while (position < page.getPositionCount()) {
+            if (openSegment == null) {
+                openSegment(page.getPositionCount() - position);
+            }
+
+            int segmentIndex = channels[0].size() - 1;
+            int segmentPosition = openSegment[0].getPositionCount();
+            int length = min(SEGMENT_POSITIONS - segmentPosition, page.getPositionCount() - position);
+
+            openSegmentMemorySize = 0;
+            for (int channel = 0; channel < channels.length; channel++) {
+                Block block = page.getBlock(channel);
+                Type type = types.get(channel);
+                BlockBuilder blockBuilder = openSegment[channel];
+                for (int i = position; i < position + length; i++) {
+                    type.appendTo(block, i, blockBuilder);
+                }
+                openSegmentMemorySize += blockBuilder.getRetainedSizeInBytes();
+            }
+
+            valueAddresses.ensureCapacity(positionCount + length);
+            for (int i = 0; i < length; i++) {
+                valueAddresses.set(positionCount, encodeSyntheticAddress(segmentIndex, segmentPosition + i));
+                positionCount++;
+            }
+
+            position += length;
+            if (segmentPosition + length == SEGMENT_POSITIONS) {
+                sealOpenSegment();
+            }
+        }
+    }
+
+    private void openSegment(int expectedPositions)
+    {
+        int expectedEntries = min(SEGMENT_POSITIONS, max(expectedPositions, 1024));
+        openSegment = new BlockBuilder[channels.length];
+        for (int channel = 0; channel < channels.length; channel++) {
+            openSegment[channel] = types.get(channel).createBlockBuilder(null, expectedEntries);
+            // the builder is readable, so positions of the open segment are addressable before it is sealed
+            channels[channel].add(openSegment[channel]);
+        }
+    }
+
+    private void sealOpenSegment()
+    {
+        if (openSegment == null) {
+            return;
+        }
+        int segmentIndex = channels[0].size() - 1;
+        for (int channel = 0; channel < channels.length; channel++) {
+            Block segment = openSegment[channel].build();
+            channels[channel].set(segmentIndex, segment);
+            pagesMemorySize += segment.getRetainedSizeInBytes();
+        }
+        openSegment = null;
+        openSegmentMemorySize = 0;
+        nextBlockToCompact = channels[0].size();
+        estimatedSize = calculateEstimatedSize();
+    }
+
     public DataSize getEstimatedSize()
     {
         return new DataSize(estimatedSize, BYTE);
@@ -232,6 +351,10 @@ public class PagesIndex
 
     public void compact()
     {
+        if (segmentedStorage) {
+            sealOpenSegment();
+            return;
+        }
         if (eagerCompact) {
             return;
         }
@@ -256,7 +379,7 @@ public class PagesIndex
         long elementsSize = (channels.length > 0) ? sizeOf(channels[0].elements()) : 0;
         long channelsArraySize = elementsSize * channels.length;
         long addressesArraySize = valueAddresses.getRetainedSizeInBytes();
-        return INSTANCE_SIZE + pagesMemorySize + channelsArraySize + addressesArraySize;
+        return INSTANCE_SIZE + pagesMemorySize + openSegmentMemorySize + channelsArraySize + addressesArraySize;
     }
 
     public Type getType(int channel)
@@ -480,6 +603,22 @@ public class PagesIndex
             Optional<Integer> sortChannel,
             List<JoinFilterFunctionFactory> searchFunctionFactories,
             Optional<List<Integer>> outputChannels)
+    {
+        return createLookupSourceSupplier(session, joinChannels, hashChannel, filterFunctionFactory, sortChannel, searchFunctionFactories, outputChannels, Optional.empty());
+    }
+
+    /**
+     * @param buildMemoryContext memory context to reserve the temporary memory used while building the hash table in
+     */
+    public LookupSourceSupplier createLookupSourceSupplier(
+            Session session,
+            List<Integer> joinChannels,
+            OptionalInt hashChannel,
+            Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+            Optional<Integer> sortChannel,
+            List<JoinFilterFunctionFactory> searchFunctionFactories,
+            Optional<List<Integer>> outputChannels,
+            Optional<LocalMemoryContext> buildMemoryContext)
     {
         List<List<Block>> channels = ImmutableList.copyOf(this.channels);
         if (!joinChannels.isEmpty()) {
@@ -497,7 +636,9 @@ public class PagesIndex
                         hashChannel,
                         filterFunctionFactory,
                         sortChannel,
-                        searchFunctionFactories);
+                        searchFunctionFactories,
+                        parallelHashBuildExecutor,
+                        buildMemoryContext);
             }
             catch (Exception e) {
                 log.error(e, "Lookup source compile failed for types=%s error=%s", types, e);
@@ -522,7 +663,9 @@ public class PagesIndex
                 channels,
                 filterFunctionFactory,
                 sortChannel,
-                searchFunctionFactories);
+                searchFunctionFactories,
+                parallelHashBuildExecutor,
+                buildMemoryContext);
     }
 
     private List<Integer> rangeList(int endExclusive)
@@ -544,6 +687,7 @@ public class PagesIndex
 
     public Iterator<Page> getPages()
     {
+        sealOpenSegment();
         return new AbstractIterator<Page>()
         {
             private int pageCounter;
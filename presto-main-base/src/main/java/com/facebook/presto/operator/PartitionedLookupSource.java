@@ -83,6 +83,15 @@ public class PartitionedLookupSource
     @Nullable
     private final OuterPositionTracker outerPositionTracker;
 
+    // scratch buffers for getJoinPositions, sized to the largest batch seen so far
+    private final int[] partitionOffsets;
+    private long[] batchRawHashes = new long[0];
+    private int[] batchPartitions = new int[0];
+    private int[] partitionedBatchIndexes = new int[0];
+    private int[] partitionPositions = new int[0];
+    private long[] partitionRawHashes = new long[0];
+    private long[] partitionJoinPositions = new long[0];
+
     private boolean closed;
 
     private PartitionedLookupSource(List<? extends LookupSource> lookupSources, List<Type> hashChannelTypes, Optional<OuterPositionTracker> outerPositionTracker)
@@ -96,6 +105,7 @@ public class PartitionedLookupSource
         this.partitionMask = lookupSources.size() - 1;
         this.shiftSize = numberOfTrailingZeros(lookupSources.size()) + 1;
         this.outerPositionTracker = outerPositionTracker.orElse(null);
+        this.partitionOffsets = new int[lookupSources.size() + 1];
     }
 
     @Override
@@ -142,6 +152,64 @@ public class PartitionedLookupSource
         return encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        ensureBatchCapacity(positionCount);
+        if (rawHashes == null) {
+            rawHashes = batchRawHashes;
+            for (int i = 0; i < positionCount; i++) {
+                rawHashes[i] = partitionGenerator.getRawHash(hashChannelsPage, positions[i]);
+            }
+        }
+
+        // group the batch rows by partition, so every partition is probed with a single batch
+        Arrays.fill(partitionOffsets, 0);
+        for (int i = 0; i < positionCount; i++) {
+            int partition = partitionGenerator.getPartition(rawHashes[i]);
+            batchPartitions[i] = partition;
+            partitionOffsets[partition + 1]++;
+        }
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+        for (int i = 0; i < positionCount; i++) {
+            partitionedBatchIndexes[partitionOffsets[batchPartitions[i]]++] = i;
+        }
+
+        int start = 0;
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            // partitionOffsets[partition] now points at the end of the partition
+            int end = partitionOffsets[partition];
+            int partitionPositionCount = end - start;
+            if (partitionPositionCount > 0) {
+                for (int i = 0; i < partitionPositionCount; i++) {
+                    int batchIndex = partitionedBatchIndexes[start + i];
+                    partitionPositions[i] = positions[batchIndex];
+                    partitionRawHashes[i] = rawHashes[batchIndex];
+                }
+                lookupSources[partition].getJoinPositions(partitionPositions, partitionPositionCount, hashChannelsPage, allChannelsPage, partitionRawHashes, partitionJoinPositions);
+                for (int i = 0; i < partitionPositionCount; i++) {
+                    long joinPosition = partitionJoinPositions[i];
+                    joinPositions[partitionedBatchIndexes[start + i]] = joinPosition < 0 ? joinPosition : encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
+                }
+            }
+            start = end;
+        }
+    }
+
+    private void ensureBatchCapacity(int positionCount)
+    {
+        if (batchPartitions.length < positionCount) {
+            batchRawHashes = new long[positionCount];
+            batchPartitions = new int[positionCount];
+            partitionedBatchIndexes = new int[positionCount];
+            partitionPositions = new int[positionCount];
+            partitionRawHashes = new long[positionCount];
+            partitionJoinPositions = new long[positionCount];
+        }
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
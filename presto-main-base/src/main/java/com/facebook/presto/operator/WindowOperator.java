@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.Session;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
 import com.facebook.presto.common.block.SortOrder;
@@ -21,9 +22,15 @@ import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.WorkProcessor.ProcessState;
 import com.facebook.presto.operator.WorkProcessor.Transformation;
 import com.facebook.presto.operator.WorkProcessor.TransformationState;
+import com.facebook.presto.operator.window.AggregateWindowFunction;
+import com.facebook.presto.operator.window.DenseRankFunction;
 import com.facebook.presto.operator.window.FrameInfo;
 import com.facebook.presto.operator.window.FramedWindowFunction;
+import com.facebook.presto.operator.window.RankFunction;
+import com.facebook.presto.operator.window.RowNumberFunction;
+import com.facebook.presto.operator.window.StreamingWindowIndex;
 import com.facebook.presto.operator.window.WindowPartition;
+import com.facebook.presto.spi.function.WindowFunction;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spiller.Spiller;
 import com.facebook.presto.spiller.SpillerFactory;
@@ -50,9 +57,12 @@ import java.util.stream.Stream;
 import static com.facebook.presto.common.block.SortOrder.ASC_NULLS_LAST;
 import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
 import static com.facebook.presto.operator.WorkProcessor.TransformationState.needsMoreData;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.CURRENT_ROW;
 import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.FOLLOWING;
 import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.PRECEDING;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.UNBOUNDED_PRECEDING;
 import static com.facebook.presto.spi.plan.WindowNode.Frame.WindowType.RANGE;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.WindowType.ROWS;
 import static com.facebook.presto.util.MergeSortedPages.mergeSortedPages;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkPositionIndex;
@@ -87,6 +97,7 @@ public class WindowOperator
         private final boolean spillEnabled;
         private final SpillerFactory spillerFactory;
         private final OrderingCompiler orderingCompiler;
+        private final boolean streamingEnabled;
 
         public WindowOperatorFactory(
                 int operatorId,
@@ -104,6 +115,43 @@ public class WindowOperator
                 boolean spillEnabled,
                 SpillerFactory spillerFactory,
                 OrderingCompiler orderingCompiler)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    windowFunctionDefinitions,
+                    partitionChannels,
+                    preGroupedChannels,
+                    sortChannels,
+                    sortOrder,
+                    preSortedChannelPrefix,
+                    expectedPositions,
+                    pagesIndexFactory,
+                    spillEnabled,
+                    spillerFactory,
+                    orderingCompiler,
+                    false);
+        }
+
+        public WindowOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                List<WindowFunctionDefinition> windowFunctionDefinitions,
+                List<Integer> partitionChannels,
+                List<Integer> preGroupedChannels,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                int preSortedChannelPrefix,
+                int expectedPositions,
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                SpillerFactory spillerFactory,
+                OrderingCompiler orderingCompiler,
+                boolean streamingEnabled)
         {
             requireNonNull(sourceTypes, "sourceTypes is null");
             requireNonNull(planNodeId, "planNodeId is null");
@@ -136,6 +184,7 @@ public class WindowOperator
             this.spillEnabled = spillEnabled;
             this.spillerFactory = spillerFactory;
             this.orderingCompiler = orderingCompiler;
+            this.streamingEnabled = streamingEnabled;
         }
 
         @Override
@@ -158,7 +207,8 @@ public class WindowOperator
                     pagesIndexFactory,
                     spillEnabled,
                     spillerFactory,
-                    orderingCompiler);
+                    orderingCompiler,
+                    streamingEnabled);
         }
 
         @Override
@@ -185,7 +235,8 @@ public class WindowOperator
                     pagesIndexFactory,
                     spillEnabled,
                     spillerFactory,
-                    orderingCompiler);
+                    orderingCompiler,
+                    streamingEnabled);
         }
     }
 
@@ -197,6 +248,7 @@ public class WindowOperator
     private final AtomicReference<WindowInfo> driverWindowInfo = new AtomicReference<>(WindowInfo.emptyInfo());
 
     private final Optional<SpillablePagesToPagesIndexes> spillablePagesToPagesIndexes;
+    private final boolean streaming;
 
     private final WorkProcessor<Page> outputPages;
     @Nullable
@@ -218,6 +270,41 @@ public class WindowOperator
             boolean spillEnabled,
             SpillerFactory spillerFactory,
             OrderingCompiler orderingCompiler)
+    {
+        this(
+                operatorContext,
+                sourceTypes,
+                outputChannels,
+                windowFunctionDefinitions,
+                partitionChannels,
+                preGroupedChannels,
+                sortChannels,
+                sortOrder,
+                preSortedChannelPrefix,
+                expectedPositions,
+                pagesIndexFactory,
+                spillEnabled,
+                spillerFactory,
+                orderingCompiler,
+                false);
+    }
+
+    public WindowOperator(
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            List<Integer> outputChannels,
+            List<WindowFunctionDefinition> windowFunctionDefinitions,
+            List<Integer> partitionChannels,
+            List<Integer> preGroupedChannels,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrder,
+            int preSortedChannelPrefix,
+            int expectedPositions,
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            SpillerFactory spillerFactory,
+            OrderingCompiler orderingCompiler,
+            boolean streamingEnabled)
     {
         requireNonNull(operatorContext, "operatorContext is null");
         requireNonNull(outputChannels, "outputChannels is null");
@@ -271,6 +358,7 @@ public class WindowOperator
 
         PagesIndexWithHashStrategies inMemoryPagesIndexWithHashStrategies = new PagesIndexWithHashStrategies(
                 pagesIndexFactory,
+                operatorContext.getSession(),
                 sourceTypes,
                 expectedPositions,
                 preGroupedChannels,
@@ -280,9 +368,24 @@ public class WindowOperator
                 sortOrder,
                 windowFunctionDefinitions);
 
-        if (spillEnabled) {
+        this.streaming = streamingEnabled &&
+                ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)) &&
+                preSortedChannelPrefix == sortChannels.size() &&
+                windowFunctions.stream().allMatch(WindowOperator::isStreamable);
+
+        if (streaming) {
+            // rows are evaluated as they arrive, so there is nothing to spill
+            this.spillablePagesToPagesIndexes = Optional.empty();
+            this.outputPages = WorkProcessor.create(new PagesSource())
+                    .transform(new StreamingPagesToOutputPages(
+                            inMemoryPagesIndexWithHashStrategies.pagesIndex,
+                            partitionChannels,
+                            sortChannels));
+        }
+        else if (spillEnabled) {
             PagesIndexWithHashStrategies mergedPagesIndexWithHashStrategies = new PagesIndexWithHashStrategies(
                     pagesIndexFactory,
+                    operatorContext.getSession(),
                     sourceTypes,
                     expectedPositions,
                     // merged pages are grouped on all partition channels
@@ -326,6 +429,12 @@ public class WindowOperator
         return operatorContext;
     }
 
+    @VisibleForTesting
+    boolean isStreaming()
+    {
+        return streaming;
+    }
+
     @Override
     public void finish()
     {
@@ -395,6 +504,7 @@ public class WindowOperator
 
         PagesIndexWithHashStrategies(
                 PagesIndex.Factory pagesIndexFactory,
+                Session session,
                 List<Type> sourceTypes,
                 int expectedPositions,
                 List<Integer> preGroupedPartitionChannels,
@@ -404,7 +514,7 @@ public class WindowOperator
                 List<SortOrder> sortOrder,
                 List<WindowFunctionDefinition> windowFunctionDefinitions)
         {
-            this.pagesIndex = pagesIndexFactory.newPagesIndex(sourceTypes, expectedPositions);
+            this.pagesIndex = pagesIndexFactory.newPagesIndex(sourceTypes, expectedPositions, session);
             this.preGroupedPartitionHashStrategy = pagesIndex.createPagesHashStrategy(preGroupedPartitionChannels, OptionalInt.empty());
             this.unGroupedPartitionHashStrategy = pagesIndex.createPagesHashStrategy(unGroupedPartitionChannels, OptionalInt.empty());
             this.preSortedPartitionHashStrategy = pagesIndex.createPagesHashStrategy(preSortedChannels, OptionalInt.empty());
@@ -641,6 +751,169 @@ public class WindowOperator
         }
     }
 
+    /**
+     * Returns true if the function can be evaluated row by row as the rows arrive, i.e. it never reads the rows that
+     * follow the current one, including the rest of its peer group. Functions that read the partition size (e.g. ntile,
+     * percent_rank, cume_dist), rows after the current one (e.g. lead) or the whole peer group (e.g. aggregations over a
+     * RANGE frame) are not streamed, as that would require buffering an unbounded number of rows without spilling.
+     */
+    private static boolean isStreamable(FramedWindowFunction framedFunction)
+    {
+        WindowFunction function = framedFunction.getFunction();
+        if (function instanceof RowNumberFunction || function instanceof RankFunction || function instanceof DenseRankFunction) {
+            // ranking functions only need to know whether the current row starts a new peer group
+            return true;
+        }
+        FrameInfo frame = framedFunction.getFrame();
+        // aggregations only add the current row to the frame of the previous row
+        return function instanceof AggregateWindowFunction &&
+                frame.getType() == ROWS &&
+                frame.getStartType() == UNBOUNDED_PRECEDING &&
+                frame.getEndType() == CURRENT_ROW;
+    }
+
+    /**
+     * Evaluates window functions over input that is grouped on all partition channels and sorted on all sort channels,
+     * producing output while the input is received. Every row is evaluated as soon as it arrives, so only the current
+     * input page is buffered, together with the last row of the previous page to detect partition and peer group starts.
+     */
+    private class StreamingPagesToOutputPages
+            implements Transformation<Page, Page>
+    {
+        final PagesIndex pagesIndex;
+        final PagesHashStrategy partitionHashStrategy;
+        // rows are peers if they belong to the same partition and have the same sort key values
+        final PagesHashStrategy peerGroupHashStrategy;
+        final StreamingWindowIndex windowIndex;
+        final PageBuilder pageBuilder;
+        final LocalMemoryContext memoryContext;
+
+        boolean inputAdded;
+        boolean partitionStarted;
+        int currentPosition;
+        int peerGroupStart;
+
+        StreamingPagesToOutputPages(PagesIndex pagesIndex, List<Integer> partitionChannels, List<Integer> sortChannels)
+        {
+            this.pagesIndex = pagesIndex;
+            this.partitionHashStrategy = pagesIndex.createPagesHashStrategy(partitionChannels, OptionalInt.empty());
+            this.peerGroupHashStrategy = pagesIndex.createPagesHashStrategy(ImmutableList.copyOf(concat(partitionChannels, sortChannels)), OptionalInt.empty());
+            this.windowIndex = new StreamingWindowIndex(pagesIndex);
+            this.pageBuilder = new PageBuilder(outputTypes);
+            this.memoryContext = operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(StreamingPagesToOutputPages.class.getSimpleName());
+        }
+
+        @Override
+        public TransformationState<Page> process(Optional<Page> pendingInputOptional)
+        {
+            boolean finishing = !pendingInputOptional.isPresent();
+            if (!finishing && !inputAdded) {
+                pagesIndex.addPage(pendingInputOptional.get());
+                updateMemoryUsage();
+                inputAdded = true;
+            }
+
+            while (currentPosition < pagesIndex.getPositionCount()) {
+                if (pageBuilder.isFull()) {
+                    // keep the current input until all of its rows are processed
+                    return TransformationState.ofResult(buildPage(), false);
+                }
+                processRow();
+            }
+
+            if (finishing) {
+                if (pageBuilder.isEmpty()) {
+                    pagesIndex.clear();
+                    memoryContext.close();
+                    return TransformationState.finished();
+                }
+                return TransformationState.ofResult(buildPage());
+            }
+
+            inputAdded = false;
+            removeProcessedRows();
+            if (pageBuilder.isFull()) {
+                return TransformationState.ofResult(buildPage());
+            }
+            return needsMoreData();
+        }
+
+        private void processRow()
+        {
+            if (!partitionStarted || !pagesIndex.positionEqualsPosition(partitionHashStrategy, currentPosition - 1, currentPosition)) {
+                windowIndex.setPartitionStart(currentPosition);
+                for (FramedWindowFunction framedFunction : windowFunctions) {
+                    framedFunction.getFunction().reset(windowIndex);
+                }
+                partitionStarted = true;
+                peerGroupStart = currentPosition;
+            }
+            else if (!pagesIndex.positionEqualsPosition(peerGroupHashStrategy, currentPosition - 1, currentPosition)) {
+                peerGroupStart = currentPosition;
+            }
+
+            pageBuilder.declarePosition();
+            int channel = 0;
+            while (channel < outputChannels.length) {
+                pagesIndex.appendTo(outputChannels[channel], currentPosition, pageBuilder.getBlockBuilder(channel));
+                channel++;
+            }
+
+            // the end of the peer group is not known yet, which none of the streamable functions reads,
+            // so the peer group and the frame end at the current row
+            int partitionStart = windowIndex.getPartitionStart();
+            for (FramedWindowFunction framedFunction : windowFunctions) {
+                framedFunction.getFunction().processRow(
+                        pageBuilder.getBlockBuilder(channel),
+                        peerGroupStart - partitionStart,
+                        currentPosition - partitionStart,
+                        0,
+                        currentPosition - partitionStart);
+                channel++;
+            }
+
+            currentPosition++;
+        }
+
+        private void removeProcessedRows()
+        {
+            // keep the last processed row, it is compared with the next row to detect the start of a new partition or peer group
+            int removedPositions = currentPosition - 1;
+            int retainedPositions = pagesIndex.getPositionCount() - removedPositions;
+            if (removedPositions <= 0) {
+                return;
+            }
+
+            PageBuilder retainedRows = new PageBuilder(retainedPositions, pagesIndex.getTypes());
+            for (int position = removedPositions; position < pagesIndex.getPositionCount(); position++) {
+                retainedRows.declarePosition();
+                for (int channel = 0; channel < pagesIndex.getTypes().size(); channel++) {
+                    pagesIndex.appendTo(channel, position, retainedRows.getBlockBuilder(channel));
+                }
+            }
+            pagesIndex.clear();
+            pagesIndex.addPage(retainedRows.build());
+
+            currentPosition -= removedPositions;
+            // the start of the peer group may have been removed, it is only compared with the start of the previous peer group
+            peerGroupStart -= removedPositions;
+            windowIndex.removeFirstPositions(removedPositions);
+            updateMemoryUsage();
+        }
+
+        private Page buildPage()
+        {
+            Page page = pageBuilder.build();
+            pageBuilder.reset();
+            return page;
+        }
+
+        private void updateMemoryUsage()
+        {
+            memoryContext.setBytes(pagesIndex.getEstimatedSize().toBytes());
+        }
+    }
+
     private class SpillablePagesToPagesIndexes
             implements Transformation<Page, WorkProcessor<PagesIndexWithHashStrategies>>
     {
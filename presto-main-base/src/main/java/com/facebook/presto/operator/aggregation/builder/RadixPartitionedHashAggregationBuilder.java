@@ -0,0 +1,326 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.aggregation.builder;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.operator.CompletedWork;
+import com.facebook.presto.operator.HashAggregationOperator.ReserveType;
+import com.facebook.presto.operator.HashCollisionsCounter;
+import com.facebook.presto.operator.HashGenerator;
+import com.facebook.presto.operator.InterpretedHashGenerator;
+import com.facebook.presto.operator.OperatorContext;
+import com.facebook.presto.operator.PrecomputedHashGenerator;
+import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.WorkProcessor;
+import com.facebook.presto.operator.WorkProcessor.TransformationState;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.plan.AggregationNode.Step;
+import com.facebook.presto.sql.gen.JoinCompiler;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Integer.bitCount;
+import static java.lang.Integer.numberOfTrailingZeros;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Final hash aggregation that scatters every input page into radix partitions by the high bits
+ * of the group hash and aggregates each partition into its own {@link InMemoryHashAggregationBuilder}.
+ * <p>
+ * Scattered rows are buffered per partition until {@code maxBufferedSize} is reached. The buffered
+ * rows are then aggregated one partition at a time, so all the lookups of a flush go to a single,
+ * small hash table that stays in cache instead of alternating between the tables of every partition.
+ * The results of the partitions are disjoint and are produced one partition after another.
+ */
+public class RadixPartitionedHashAggregationBuilder
+        implements HashAggregationBuilder
+{
+    private final InMemoryHashAggregationBuilder[] partitions;
+    private final long[] partitionSizes;
+    private final List<ArrayDeque<Page>> bufferedPages;
+    private final long maxBufferedBytes;
+    private final HashGenerator hashGenerator;
+    private final int partitionShift;
+    private final LocalMemoryContext memoryContext;
+
+    private long bufferedBytes;
+    // work of the partition that is being aggregated from the buffer, resumed when it yields for memory
+    private Work<?> bufferedPageWork;
+
+    // scratch buffers for scattering input pages, sized to the largest page seen so far
+    private final int[] partitionOffsets;
+    private int[] positionPartitions = new int[0];
+    private int[] partitionedPositions = new int[0];
+
+    public RadixPartitionedHashAggregationBuilder(
+            int partitionCount,
+            DataSize maxBufferedSize,
+            List<AccumulatorFactory> accumulatorFactories,
+            Step step,
+            int expectedGroups,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            Optional<Integer> hashChannel,
+            OperatorContext operatorContext,
+            JoinCompiler joinCompiler,
+            ReserveType reserveType)
+    {
+        checkArgument(partitionCount > 1 && bitCount(partitionCount) == 1, "partitionCount must be a power of 2 greater than 1");
+        checkArgument(!step.isOutputPartial(), "radix partitioned aggregation is only supported for final aggregations");
+        checkArgument(!groupByChannels.isEmpty(), "radix partitioned aggregation requires group by channels");
+        checkArgument(reserveType == ReserveType.USER || reserveType == ReserveType.SYSTEM, "unsupported reserve type: %s", reserveType);
+
+        requireNonNull(operatorContext, "operatorContext is null");
+        this.maxBufferedBytes = requireNonNull(maxBufferedSize, "maxBufferedSize is null").toBytes();
+        this.memoryContext = reserveType == ReserveType.USER
+                ? operatorContext.localUserMemoryContext()
+                : operatorContext.newLocalSystemMemoryContext(RadixPartitionedHashAggregationBuilder.class.getSimpleName());
+        this.hashGenerator = requireNonNull(hashChannel, "hashChannel is null")
+                .<HashGenerator>map(PrecomputedHashGenerator::new)
+                .orElseGet(() -> new InterpretedHashGenerator(groupByTypes, groupByChannels));
+        this.partitionShift = Long.SIZE - numberOfTrailingZeros(partitionCount);
+        this.partitionOffsets = new int[partitionCount + 1];
+        this.partitionSizes = new long[partitionCount];
+        this.partitions = new InMemoryHashAggregationBuilder[partitionCount];
+        ImmutableList.Builder<ArrayDeque<Page>> bufferedPages = ImmutableList.builder();
+        for (int partition = 0; partition < partitionCount; partition++) {
+            int partitionIndex = partition;
+            partitions[partition] = new InMemoryHashAggregationBuilder(
+                    accumulatorFactories,
+                    step,
+                    max(expectedGroups / partitionCount, 1),
+                    groupByTypes,
+                    groupByChannels,
+                    hashChannel,
+                    operatorContext,
+                    Optional.empty(),
+                    Optional.empty(),
+                    joinCompiler,
+                    true,
+                    reserveType,
+                    Optional.of(memorySize -> updatePartitionMemory(partitionIndex, memorySize)));
+            bufferedPages.add(new ArrayDeque<>());
+        }
+        this.bufferedPages = bufferedPages.build();
+    }
+
+    @Override
+    public Work<?> processPage(Page page)
+    {
+        scatter(page);
+        updateMemoryContext();
+        if (bufferedBytes < maxBufferedBytes) {
+            return new CompletedWork<>();
+        }
+        return new FlushWork();
+    }
+
+    @Override
+    public WorkProcessor<Page> buildResult()
+    {
+        List<Integer> partitionIndexes = IntStream.range(0, partitions.length).boxed().collect(toImmutableList());
+        return WorkProcessor.fromIterable(partitionIndexes)
+                .flatTransform(partition -> {
+                    if (!partition.isPresent()) {
+                        return TransformationState.finished();
+                    }
+                    if (!aggregateBufferedPages(partition.get())) {
+                        // waiting for memory, the partition is resumed on the next call
+                        return TransformationState.yield();
+                    }
+                    return TransformationState.ofResult(partitions[partition.get()].buildResult());
+                });
+    }
+
+    @Override
+    public boolean isFull()
+    {
+        return false;
+    }
+
+    @Override
+    public void updateMemory()
+    {
+        for (InMemoryHashAggregationBuilder partition : partitions) {
+            partition.updateMemory();
+        }
+    }
+
+    @Override
+    public void recordHashCollisions(HashCollisionsCounter hashCollisionsCounter)
+    {
+        for (InMemoryHashAggregationBuilder partition : partitions) {
+            partition.recordHashCollisions(hashCollisionsCounter);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        bufferedPages.forEach(ArrayDeque::clear);
+        bufferedBytes = 0;
+        bufferedPageWork = null;
+        for (InMemoryHashAggregationBuilder partition : partitions) {
+            partition.close();
+        }
+    }
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        throw new UnsupportedOperationException("startMemoryRevoke not supported for RadixPartitionedHashAggregationBuilder");
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        throw new UnsupportedOperationException("finishMemoryRevoke not supported for RadixPartitionedHashAggregationBuilder");
+    }
+
+    @VisibleForTesting
+    public long getGroupCount()
+    {
+        long groupCount = 0;
+        for (InMemoryHashAggregationBuilder partition : partitions) {
+            groupCount += partition.getGroupCount();
+        }
+        return groupCount;
+    }
+
+    @VisibleForTesting
+    int getPartition(int position, Page page)
+    {
+        // the low bits of the hash select the slot within a partition hash table, so the high bits select the partition
+        return (int) (murmurHash3(hashGenerator.hashPosition(position, page)) >>> partitionShift);
+    }
+
+    @VisibleForTesting
+    public long getBufferedBytes()
+    {
+        return bufferedBytes;
+    }
+
+    private void scatter(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        if (positionPartitions.length < positionCount) {
+            positionPartitions = new int[positionCount];
+            partitionedPositions = new int[positionCount];
+        }
+
+        Arrays.fill(partitionOffsets, 0);
+        for (int position = 0; position < positionCount; position++) {
+            int partition = getPartition(position, page);
+            positionPartitions[position] = partition;
+            partitionOffsets[partition + 1]++;
+        }
+        for (int partition = 0; partition < partitions.length; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+        for (int position = 0; position < positionCount; position++) {
+            partitionedPositions[partitionOffsets[positionPartitions[position]]++] = position;
+        }
+
+        int start = 0;
+        for (int partition = 0; partition < partitions.length; partition++) {
+            // partitionOffsets[partition] now points at the end of the partition
+            int end = partitionOffsets[partition];
+            if (end > start) {
+                // copy the rows, so the buffer does not retain the input page and every partition is aggregated from compact blocks
+                Page partitionedPage = page.copyPositions(partitionedPositions, start, end - start);
+                bufferedPages.get(partition).add(partitionedPage);
+                bufferedBytes += partitionedPage.getRetainedSizeInBytes();
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Aggregates the buffered pages of a single partition.
+     *
+     * @return false if the aggregation is waiting for memory and has to be resumed for the same partition
+     */
+    private boolean aggregateBufferedPages(int partition)
+    {
+        ArrayDeque<Page> pages = bufferedPages.get(partition);
+        while (bufferedPageWork != null || !pages.isEmpty()) {
+            if (bufferedPageWork == null) {
+                bufferedPageWork = partitions[partition].processPage(pages.peek());
+            }
+            if (!bufferedPageWork.process()) {
+                return false;
+            }
+            bufferedPageWork = null;
+            bufferedBytes -= pages.poll().getRetainedSizeInBytes();
+            updateMemoryContext();
+        }
+        return true;
+    }
+
+    private void updatePartitionMemory(int partition, long memorySize)
+    {
+        partitionSizes[partition] = memorySize;
+        updateMemoryContext();
+    }
+
+    private void updateMemoryContext()
+    {
+        long totalMemorySize = bufferedBytes;
+        for (long partitionSize : partitionSizes) {
+            totalMemorySize += partitionSize;
+        }
+        memoryContext.setBytes(totalMemorySize);
+    }
+
+    private class FlushWork
+            implements Work<Void>
+    {
+        private int currentPartition;
+
+        @Override
+        public boolean process()
+        {
+            while (currentPartition < partitions.length) {
+                if (!aggregateBufferedPages(currentPartition)) {
+                    // waiting for memory, the partition is resumed on the next call
+                    return false;
+                }
+                currentPartition++;
+            }
+            return true;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            checkState(currentPartition == partitions.length, "process has not finished");
+            return null;
+        }
+    }
+}
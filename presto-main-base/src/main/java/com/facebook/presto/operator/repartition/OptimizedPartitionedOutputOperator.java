@@ -63,6 +63,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -393,6 +394,8 @@ public class OptimizedPartitionedOutputOperator
         private final int nullChannel; // when >= 0, send the position to every partition if this channel is null
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        // only reported in the operator info, rows are always sent to the partition the partition function picks
+        private final AtomicLongArray partitionRowsAdded;
 
         // The ArrayAllocator used by BlockFlattener for decoding blocks.
         // There could be queries that shuffles data with up to 1000 columns so we need to set the maxOutstandingArrays a high number.
@@ -451,9 +454,10 @@ public class OptimizedPartitionedOutputOperator
 
             int partitionBufferCapacity = max(1, min(DEFAULT_MAX_PAGE_SIZE_IN_BYTES, toIntExact(maxMemory.toBytes()) / partitionCount));
 
+            partitionRowsAdded = new AtomicLongArray(partitionCount);
             partitionBuffers = new PartitionBuffer[partitionCount];
             for (int i = 0; i < partitionCount; i++) {
-                partitionBuffers[i] = new PartitionBuffer(i, sourceTypes.size(), partitionBufferCapacity, pagesAdded, rowsAdded, serde, bufferAllocator, operatorContext);
+                partitionBuffers[i] = new PartitionBuffer(i, sourceTypes.size(), partitionBufferCapacity, pagesAdded, rowsAdded, partitionRowsAdded, serde, bufferAllocator, operatorContext);
             }
 
             this.sourceTypes = sourceTypes;
@@ -481,7 +485,7 @@ public class OptimizedPartitionedOutputOperator
         public Supplier<PartitionedOutputInfo> getPartitionedOutputInfoSupplier()
         {
             // Must be a separate static method to avoid embedding references to "this" in the supplier
-            return PartitionedOutputInfo.createPartitionedOutputInfoSupplier(rowsAdded, pagesAdded, outputBuffer);
+            return PartitionedOutputInfo.createPartitionedOutputInfoSupplier(rowsAdded, pagesAdded, partitionRowsAdded, outputBuffer);
         }
 
         public void partitionPage(Page page)
@@ -622,6 +626,7 @@ public class OptimizedPartitionedOutputOperator
         private final int partition;
         private final AtomicLong rowsAdded;
         private final AtomicLong pagesAdded;
+        private final AtomicLongArray partitionRowsAdded;
         private final PagesSerde serde;
         private final Lifespan lifespan;
         private final int capacity;
@@ -636,13 +641,14 @@ public class OptimizedPartitionedOutputOperator
         private boolean bufferFull;
         private OperatorContext operatorContext;
 
-        PartitionBuffer(int partition, int channelCount, int capacity, AtomicLong pagesAdded, AtomicLong rowsAdded, PagesSerde serde, ArrayAllocator bufferAllocator, OperatorContext operatorContext)
+        PartitionBuffer(int partition, int channelCount, int capacity, AtomicLong pagesAdded, AtomicLong rowsAdded, AtomicLongArray partitionRowsAdded, PagesSerde serde, ArrayAllocator bufferAllocator, OperatorContext operatorContext)
         {
             this.partition = partition;
             this.channelCount = channelCount;
             this.capacity = capacity;
             this.pagesAdded = requireNonNull(pagesAdded, "pagesAdded is null");
             this.rowsAdded = requireNonNull(rowsAdded, "rowsAdded is null");
+            this.partitionRowsAdded = requireNonNull(partitionRowsAdded, "partitionRowsAdded is null");
             this.serde = requireNonNull(serde, "serde is null");
             this.bufferAllocator = requireNonNull(bufferAllocator, "bufferAllocator is null");
             this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
@@ -791,6 +797,7 @@ public class OptimizedPartitionedOutputOperator
             outputBuffer.enqueue(lifespan, partition, ImmutableList.of(serializedPage));
             pagesAdded.incrementAndGet();
             rowsAdded.addAndGet(bufferedRowCount);
+            partitionRowsAdded.addAndGet(partition, bufferedRowCount);
             operatorContext.recordOutput(totalSizeInBytes, bufferedRowCount);
 
             bufferedRowCount = 0;
@@ -21,8 +21,11 @@ import com.facebook.presto.operator.OperatorInfo;
 import com.facebook.presto.util.Mergeable;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.annotation.Nullable;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Supplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -35,17 +38,21 @@ public class PartitionedOutputInfo
     private final long rowsAdded;
     private final long pagesAdded;
     private final long outputBufferPeakMemoryUsage;
+    private final long[] partitionRowsAdded;
 
     @JsonCreator
     @ThriftConstructor
     public PartitionedOutputInfo(
             @JsonProperty("rowsAdded") long rowsAdded,
             @JsonProperty("pagesAdded") long pagesAdded,
-            @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage)
+            @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage,
+            // not reported by older workers and native workers
+            @JsonProperty("partitionRowsAdded") @Nullable long[] partitionRowsAdded)
     {
         this.rowsAdded = rowsAdded;
         this.pagesAdded = pagesAdded;
         this.outputBufferPeakMemoryUsage = outputBufferPeakMemoryUsage;
+        this.partitionRowsAdded = partitionRowsAdded == null ? new long[0] : partitionRowsAdded;
     }
 
     @JsonProperty
@@ -69,13 +76,43 @@ public class PartitionedOutputInfo
         return outputBufferPeakMemoryUsage;
     }
 
+    /**
+     * Number of rows added to each partition. Rows replicated to every partition are counted once per partition.
+     * Empty when the worker that produced the output does not report it, which native workers never do.
+     * The counts only show partitioning skew, nothing splits the rows of a hot key based on them.
+     */
+    @JsonProperty
+    @ThriftField(4)
+    public long[] getPartitionRowsAdded()
+    {
+        return partitionRowsAdded;
+    }
+
+    /**
+     * Number of rows added to the partition that received the most rows. Compared to the average
+     * over all partitions, this tells how much a hot partitioning key skews the downstream tasks.
+     */
+    public long getMaxPartitionRowsAdded()
+    {
+        long maxPartitionRowsAdded = 0;
+        for (long rows : partitionRowsAdded) {
+            maxPartitionRowsAdded = Math.max(maxPartitionRowsAdded, rows);
+        }
+        return maxPartitionRowsAdded;
+    }
+
     @Override
     public PartitionedOutputInfo mergeWith(PartitionedOutputInfo other)
     {
+        long[] partitionRowsAdded = Arrays.copyOf(this.partitionRowsAdded, Math.max(this.partitionRowsAdded.length, other.partitionRowsAdded.length));
+        for (int partition = 0; partition < other.partitionRowsAdded.length; partition++) {
+            partitionRowsAdded[partition] += other.partitionRowsAdded[partition];
+        }
         return new PartitionedOutputInfo(
                 rowsAdded + other.rowsAdded,
                 pagesAdded + other.pagesAdded,
-                Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage));
+                Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage),
+                partitionRowsAdded);
     }
 
     @Override
@@ -91,14 +128,25 @@ public class PartitionedOutputInfo
                 .add("rowsAdded", rowsAdded)
                 .add("pagesAdded", pagesAdded)
                 .add("outputBufferPeakMemoryUsage", outputBufferPeakMemoryUsage)
+                .add("maxPartitionRowsAdded", getMaxPartitionRowsAdded())
                 .toString();
     }
 
-    public static Supplier<PartitionedOutputInfo> createPartitionedOutputInfoSupplier(AtomicLong rowsAdded, AtomicLong pagesAdded, OutputBuffer outputBuffer)
+    public static Supplier<PartitionedOutputInfo> createPartitionedOutputInfoSupplier(AtomicLong rowsAdded, AtomicLong pagesAdded, AtomicLongArray partitionRowsAdded, OutputBuffer outputBuffer)
     {
         requireNonNull(rowsAdded, "rowsAdded is null");
         requireNonNull(pagesAdded, "pagesAdded is null");
+        requireNonNull(partitionRowsAdded, "partitionRowsAdded is null");
         requireNonNull(outputBuffer, "outputBuffer is null");
-        return () -> new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage());
+        return () -> new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage(), toArray(partitionRowsAdded));
+    }
+
+    private static long[] toArray(AtomicLongArray values)
+    {
+        long[] result = new long[values.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
     }
 }
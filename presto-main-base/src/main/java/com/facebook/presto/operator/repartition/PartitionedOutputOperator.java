@@ -44,6 +44,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -294,6 +295,7 @@ public class PartitionedOutputOperator
         private final int nullChannel; // when >= 0, send the position to every partition if this channel is null
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        private final AtomicLongArray partitionRowsAdded;
         private boolean hasAnyRowBeenReplicated;
         private final OperatorContext operatorContext;
         private final LocalMemoryContext systemMemoryContext;
@@ -342,6 +344,7 @@ public class PartitionedOutputOperator
             int pageSize = min(DEFAULT_MAX_PAGE_SIZE_IN_BYTES, ((int) maxMemory.toBytes()) / partitionCount);
             pageSize = max(1, pageSize);
 
+            this.partitionRowsAdded = new AtomicLongArray(partitionCount);
             this.pageBuilders = new PageBuilder[partitionCount];
             for (int i = 0; i < partitionCount; i++) {
                 pageBuilders[i] = PageBuilder.withMaxPageSize(pageSize, sourceTypes);
@@ -388,7 +391,7 @@ public class PartitionedOutputOperator
         public Supplier<PartitionedOutputInfo> getPartitionedOutputInfoSupplier()
         {
             // Must be a separate static method to avoid embedding references to "this" in the supplier
-            return PartitionedOutputInfo.createPartitionedOutputInfoSupplier(rowsAdded, pagesAdded, outputBuffer);
+            return PartitionedOutputInfo.createPartitionedOutputInfoSupplier(rowsAdded, pagesAdded, partitionRowsAdded, outputBuffer);
         }
 
         public void partitionPage(Page page)
@@ -484,6 +487,7 @@ public class PartitionedOutputOperator
                     outputBuffer.enqueue(operatorContext.getDriverContext().getLifespan(), partition, splitAndSerializePage(pagePartition));
                     pagesAdded.incrementAndGet();
                     rowsAdded.addAndGet(pagePartition.getPositionCount());
+                    partitionRowsAdded.addAndGet(partition, pagePartition.getPositionCount());
                 }
             }
         }
@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.operator.PagesIndex;
+import com.facebook.presto.spi.function.WindowIndex;
+import io.airlift.slice.Slice;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Window index over a partition that is streamed through a {@link PagesIndex}. Positions
+ * are relative to the start of the partition, but only the rows still buffered in the
+ * pages index can be accessed. Rows at the front of the pages index are dropped once
+ * they have been processed, see {@link #removeFirstPositions}.
+ */
+public class StreamingWindowIndex
+        implements WindowIndex
+{
+    private final PagesIndex pagesIndex;
+    // position in the pages index of the first row of the partition, negative once that row has been dropped
+    private int partitionStart;
+
+    public StreamingWindowIndex(PagesIndex pagesIndex)
+    {
+        this.pagesIndex = requireNonNull(pagesIndex, "pagesIndex is null");
+    }
+
+    public int getPartitionStart()
+    {
+        return partitionStart;
+    }
+
+    public void setPartitionStart(int partitionStart)
+    {
+        this.partitionStart = partitionStart;
+    }
+
+    /**
+     * Must be called after the first {@code count} rows were removed from the pages index.
+     */
+    public void removeFirstPositions(int count)
+    {
+        // partition positions are ints, so a streamed partition cannot exceed Integer.MAX_VALUE rows
+        partitionStart = Math.subtractExact(partitionStart, count);
+    }
+
+    /**
+     * The size of a streamed partition is not known until all of its rows are received, so functions
+     * that read it are never evaluated over a streaming window index, see {@code WindowOperator#isStreamable}.
+     */
+    @Override
+    public int size()
+    {
+        throw new IllegalStateException("size of a streamed partition is not known");
+    }
+
+    @Override
+    public boolean isNull(int channel, int position)
+    {
+        return pagesIndex.isNull(channel, position(position));
+    }
+
+    @Override
+    public boolean getBoolean(int channel, int position)
+    {
+        return pagesIndex.getBoolean(channel, position(position));
+    }
+
+    @Override
+    public long getLong(int channel, int position)
+    {
+        return pagesIndex.getLong(channel, position(position));
+    }
+
+    @Override
+    public double getDouble(int channel, int position)
+    {
+        return pagesIndex.getDouble(channel, position(position));
+    }
+
+    @Override
+    public Slice getSlice(int channel, int position)
+    {
+        return pagesIndex.getSlice(channel, position(position));
+    }
+
+    @Override
+    public Block getSingleValueBlock(int channel, int position)
+    {
+        return pagesIndex.getSingleValueBlock(channel, position(position));
+    }
+
+    @Override
+    public Object getObject(int channel, int position)
+    {
+        return pagesIndex.getObject(channel, position(position));
+    }
+
+    @Override
+    public void appendTo(int channel, int position, BlockBuilder output)
+    {
+        pagesIndex.appendTo(channel, position(position), output);
+    }
+
+    private int position(int position)
+    {
+        int indexPosition = position + partitionStart;
+        checkElementIndex(indexPosition, pagesIndex.getPositionCount(), "position");
+        return indexPosition;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("partitionStart", partitionStart)
+                .toString();
+    }
+}
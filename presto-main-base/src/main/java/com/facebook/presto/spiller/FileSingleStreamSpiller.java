@@ -28,6 +28,7 @@ import com.google.common.io.Closer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.SliceOutput;
@@ -42,6 +43,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static com.facebook.presto.execution.buffer.PageSplitterUtil.splitPage;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_SPILL_FAILURE;
@@ -68,6 +70,7 @@ public class FileSingleStreamSpiller
     private final SpillContext localSpillContext;
     private final LocalMemoryContext memoryContext;
     private final Optional<SpillCipher> spillCipher;
+    private final boolean prefetchEnabled;
 
     private final ListeningExecutorService executor;
 
@@ -75,6 +78,11 @@ public class FileSingleStreamSpiller
     private boolean committed;
     private volatile long spilledPagesInMemorySize;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
+    private volatile ListenableFuture<?> prefetchInProgress = Futures.immediateFuture(null);
+    // held by a prefetch while it reads, so closing waits for the read to finish before the file is closed
+    private final Object prefetchLock = new Object();
+    @GuardedBy("prefetchLock")
+    private boolean prefetchClosed;
 
     public FileSingleStreamSpiller(
             PagesSerde serde,
@@ -83,7 +91,8 @@ public class FileSingleStreamSpiller
             SpillerStats spillerStats,
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
-            Optional<SpillCipher> spillCipher)
+            Optional<SpillCipher> spillCipher,
+            boolean prefetchEnabled)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
@@ -92,6 +101,7 @@ public class FileSingleStreamSpiller
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
         checkState(!spillCipher.isPresent() || !spillCipher.get().isDestroyed(), "spillCipher is already destroyed");
+        this.prefetchEnabled = prefetchEnabled;
         this.spillCipher.ifPresent(cipher -> closer.register(cipher::destroy));
         // HACK!
         // The writePages() method is called in a separate thread pool and it's possible that
@@ -131,13 +141,17 @@ public class FileSingleStreamSpiller
     public Iterator<Page> getSpilledPages()
     {
         checkNoSpillInProgress();
-        return readPages();
+        return readPages(prefetchEnabled);
     }
 
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
-        return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
+        // pages are already read on the executor, so there is nothing to gain from prefetching
+        return executor.submit(() -> {
+            checkNoSpillInProgress();
+            return ImmutableList.copyOf(readPages(false));
+        });
     }
 
     @Override
@@ -170,7 +184,7 @@ public class FileSingleStreamSpiller
         }
     }
 
-    private Iterator<Page> readPages()
+    private Iterator<Page> readPages(boolean prefetch)
     {
         checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks");
         writable = false;
@@ -185,6 +199,14 @@ public class FileSingleStreamSpiller
             Iterator<Page> deserializedPages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
             Iterator<Page> compactPages = transform(deserializedPages, Page::compact);
             spillerStats.addToTotalSpilledBytesRead(getSpilledPagesInMemorySize());
+            if (prefetch) {
+                // Account for the page read ahead in addition to the read buffer. Spilled pages
+                // are split to DEFAULT_MAX_PAGE_SIZE_IN_BYTES before they are written.
+                memoryContext.setBytes(BUFFER_SIZE + DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
+                // registered after the input, so the read ahead is stopped before the input is closed
+                closer.register(this::stopPrefetch);
+                compactPages = prefetch(compactPages);
+            }
             return closeWhenExhausted(compactPages, input);
         }
         catch (IOException e) {
@@ -205,6 +227,51 @@ public class FileSingleStreamSpiller
         }
     }
 
+    /**
+     * Reads and deserializes the next page on the executor while the caller processes the current one.
+     */
+    private Iterator<Page> prefetch(Iterator<Page> pages)
+    {
+        return new AbstractIterator<Page>()
+        {
+            private ListenableFuture<Optional<Page>> nextPage = fetchNext();
+
+            @Override
+            protected Page computeNext()
+            {
+                Optional<Page> page = getFutureValue(nextPage);
+                if (!page.isPresent()) {
+                    return endOfData();
+                }
+                nextPage = fetchNext();
+                return page.get();
+            }
+
+            private ListenableFuture<Optional<Page>> fetchNext()
+            {
+                ListenableFuture<Optional<Page>> future = executor.submit(() -> {
+                    synchronized (prefetchLock) {
+                        if (prefetchClosed) {
+                            return Optional.<Page>empty();
+                        }
+                        return pages.hasNext() ? Optional.of(pages.next()) : Optional.<Page>empty();
+                    }
+                });
+                prefetchInProgress = future;
+                return future;
+            }
+        };
+    }
+
+    private void stopPrefetch()
+    {
+        // a prefetch that has not started yet is skipped, and one that is reading is waited for
+        prefetchInProgress.cancel(false);
+        synchronized (prefetchLock) {
+            prefetchClosed = true;
+        }
+    }
+
     private void checkNoSpillInProgress()
     {
         checkState(spillInProgress.isDone(), "spill in progress");
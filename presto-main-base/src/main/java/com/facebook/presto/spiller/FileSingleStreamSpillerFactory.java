@@ -66,6 +66,7 @@ public class FileSingleStreamSpillerFactory
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
     private final boolean spillEncryptionEnabled;
+    private final boolean spillPrefetchEnabled;
     private int roundRobinIndex;
 
     @Inject
@@ -80,7 +81,8 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillCompressionCodec(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled());
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillPrefetchEnabled());
     }
 
     @VisibleForTesting
@@ -92,6 +94,20 @@ public class FileSingleStreamSpillerFactory
             double maxUsedSpaceThreshold,
             CompressionCodec spillCompressionCodec,
             boolean spillEncryptionEnabled)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, spillCompressionCodec, spillEncryptionEnabled, false);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            CompressionCodec spillCompressionCodec,
+            boolean spillEncryptionEnabled,
+            boolean spillPrefetchEnabled)
     {
         this.serdeFactory = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), spillCompressionCodec);
         this.executor = requireNonNull(executor, "executor is null");
@@ -113,6 +129,7 @@ public class FileSingleStreamSpillerFactory
         });
         this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
         this.spillEncryptionEnabled = spillEncryptionEnabled;
+        this.spillPrefetchEnabled = spillPrefetchEnabled;
         this.roundRobinIndex = 0;
     }
 
@@ -154,7 +171,7 @@ public class FileSingleStreamSpillerFactory
             spillCipher = Optional.of(new AesSpillCipher());
         }
         PagesSerde serde = serdeFactory.createPagesSerdeForSpill(spillCipher);
-        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher);
+        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher, spillPrefetchEnabled);
     }
 
     private synchronized Path getNextSpillPath()
@@ -14,6 +14,7 @@
 package com.facebook.presto.spiller;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.CompressionCodec;
 import jakarta.validation.constraints.NotNull;
@@ -27,6 +28,7 @@ public class NodeSpillConfig
 
     private CompressionCodec spillCompressionCodec = CompressionCodec.NONE;
     private boolean spillEncryptionEnabled;
+    private boolean spillPrefetchEnabled;
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -91,6 +93,19 @@ public class NodeSpillConfig
         return this;
     }
 
+    public boolean isSpillPrefetchEnabled()
+    {
+        return spillPrefetchEnabled;
+    }
+
+    @Config("experimental.spill-prefetch-enabled")
+    @ConfigDescription("Read and deserialize the next spilled page in the background while the operator consumes the current one")
+    public NodeSpillConfig setSpillPrefetchEnabled(boolean spillPrefetchEnabled)
+    {
+        this.spillPrefetchEnabled = spillPrefetchEnabled;
+        return this;
+    }
+
     @NotNull
     public DataSize getTempStorageBufferSize()
     {
@@ -103,6 +103,7 @@ public class FeaturesConfig
     private boolean cteFilterAndProjectionPushdownEnabled = true;
     private int cteHeuristicReplicationThreshold = 4;
     private int maxReorderedJoins = 9;
+    private Duration joinReorderingTimeBudget = new Duration(0, SECONDS);
     private int maxPrefixesCount = 100;
     private boolean useHistoryBasedPlanStatistics;
     private boolean trackHistoryBasedPlanStatistics;
@@ -131,6 +132,11 @@ public class FeaturesConfig
     private boolean optimizeMixedDistinctAggregations;
     private boolean forceSingleNodeOutput = true;
     private boolean pagesIndexEagerCompactionEnabled;
+    private boolean pagesIndexSegmentedStorageEnabled;
+    private int joinProbeBatchSize;
+    private int hashAggregationRadixPartitionCount;
+    private boolean streamingWindowEnabled;
+    private boolean parallelHashBuildEnabled;
     private boolean distributedSort = true;
     private boolean optimizeJoinsWithEmptySources;
     private boolean logFormattedQueryEnabled;
@@ -184,6 +190,7 @@ public class FeaturesConfig
     private int dynamicFilteringMaxPerDriverRowCount = 100;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(10, KILOBYTE);
     private int dynamicFilteringRangeRowLimitPerDriver;
+    private DataSize dynamicFilteringBloomFilterSize = new DataSize(0, MEGABYTE);
 
     private boolean fragmentResultCachingEnabled;
 
@@ -247,6 +254,7 @@ public class FeaturesConfig
 
     private AggregationIfToFilterRewriteStrategy aggregationIfToFilterRewriteStrategy = AggregationIfToFilterRewriteStrategy.DISABLED;
     private String analyzerType = "BUILTIN";
+    private int statementCacheSize;
     private boolean verboseRuntimeStatsEnabled;
     private boolean verboseOptimizerInfoEnabled;
 
@@ -857,6 +865,20 @@ public class FeaturesConfig
         return this;
     }
 
+    @NotNull
+    public Duration getJoinReorderingTimeBudget()
+    {
+        return joinReorderingTimeBudget;
+    }
+
+    @Config("optimizer.join-reordering-time-budget")
+    @ConfigDescription("Time after which cost-based join reordering keeps the best join order found so far for each group of joins, 0 for no limit. With a limit, the chosen join order can vary between runs")
+    public FeaturesConfig setJoinReorderingTimeBudget(Duration joinReorderingTimeBudget)
+    {
+        this.joinReorderingTimeBudget = joinReorderingTimeBudget;
+        return this;
+    }
+
     public boolean isUseHistoryBasedPlanStatistics()
     {
         return useHistoryBasedPlanStatistics;
@@ -1615,6 +1637,20 @@ public class FeaturesConfig
         return this;
     }
 
+    @MaxDataSize("64MB")
+    public DataSize getDynamicFilteringBloomFilterSize()
+    {
+        return dynamicFilteringBloomFilterSize;
+    }
+
+    @Config("dynamic-filtering-bloom-filter-size")
+    @ConfigDescription("Size of the Bloom filter collected per build-side column for dynamic filtering when there are too many rows to collect all values. 0 disables Bloom filters")
+    public FeaturesConfig setDynamicFilteringBloomFilterSize(DataSize dynamicFilteringBloomFilterSize)
+    {
+        this.dynamicFilteringBloomFilterSize = dynamicFilteringBloomFilterSize;
+        return this;
+    }
+
     public boolean isFragmentResultCachingEnabled()
     {
         return fragmentResultCachingEnabled;
@@ -1800,6 +1836,79 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isPagesIndexSegmentedStorageEnabled()
+    {
+        return pagesIndexSegmentedStorageEnabled;
+    }
+
+    @Config("pages-index.segmented-storage-enabled")
+    @ConfigDescription("Copy rows added to a pages index into large per-channel segments instead of retaining the input pages")
+    public FeaturesConfig setPagesIndexSegmentedStorageEnabled(boolean pagesIndexSegmentedStorageEnabled)
+    {
+        this.pagesIndexSegmentedStorageEnabled = pagesIndexSegmentedStorageEnabled;
+        return this;
+    }
+
+    @Min(0)
+    public int getJoinProbeBatchSize()
+    {
+        return joinProbeBatchSize;
+    }
+
+    @Config("join-probe-batch-size")
+    @ConfigDescription("Number of probe rows hashed and looked up together by a lookup join, or 0 to probe one row at a time")
+    public FeaturesConfig setJoinProbeBatchSize(int joinProbeBatchSize)
+    {
+        this.joinProbeBatchSize = joinProbeBatchSize;
+        return this;
+    }
+
+    @Min(0)
+    public int getHashAggregationRadixPartitionCount()
+    {
+        return hashAggregationRadixPartitionCount;
+    }
+
+    @Config("hash-aggregation-radix-partition-count")
+    @ConfigDescription("Number of radix partitions (a power of 2) used by final hash aggregations, or 0 to aggregate into a single hash table")
+    public FeaturesConfig setHashAggregationRadixPartitionCount(int hashAggregationRadixPartitionCount)
+    {
+        this.hashAggregationRadixPartitionCount = hashAggregationRadixPartitionCount;
+        return this;
+    }
+
+    @AssertTrue(message = "hash-aggregation-radix-partition-count must be 0 or a power of 2")
+    public boolean isHashAggregationRadixPartitionCountValid()
+    {
+        return hashAggregationRadixPartitionCount == 0 || Integer.bitCount(hashAggregationRadixPartitionCount) == 1;
+    }
+
+    public boolean isStreamingWindowEnabled()
+    {
+        return streamingWindowEnabled;
+    }
+
+    @Config("streaming-window-enabled")
+    @ConfigDescription("Evaluate running window functions over pre-sorted input row by row instead of buffering whole partitions")
+    public FeaturesConfig setStreamingWindowEnabled(boolean streamingWindowEnabled)
+    {
+        this.streamingWindowEnabled = streamingWindowEnabled;
+        return this;
+    }
+
+    public boolean isParallelHashBuildEnabled()
+    {
+        return parallelHashBuildEnabled;
+    }
+
+    @Config("parallel-hash-build-enabled")
+    @ConfigDescription("Build the hash tables of large join build sides using multiple threads")
+    public FeaturesConfig setParallelHashBuildEnabled(boolean parallelHashBuildEnabled)
+    {
+        this.parallelHashBuildEnabled = parallelHashBuildEnabled;
+        return this;
+    }
+
     @MaxDataSize("1MB")
     public DataSize getFilterAndProjectMinOutputPageSize()
     {
@@ -2473,6 +2582,20 @@ public class FeaturesConfig
         return this;
     }
 
+    @Min(0)
+    public int getStatementCacheSize()
+    {
+        return statementCacheSize;
+    }
+
+    @Config("statement-cache-size")
+    @ConfigDescription("Number of parsed statements the coordinator keeps for repeated queries and prepared statements, 0 to disable")
+    public FeaturesConfig setStatementCacheSize(int statementCacheSize)
+    {
+        this.statementCacheSize = statementCacheSize;
+        return this;
+    }
+
     @Config("pre-process-metadata-calls")
     @ConfigDescription("Pre process metadata calls before analyzer invocation")
     public FeaturesConfig setPreProcessMetadataCalls(boolean preProcessMetadataCalls)
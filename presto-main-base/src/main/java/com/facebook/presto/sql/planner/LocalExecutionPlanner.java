@@ -271,6 +271,7 @@ import java.util.stream.IntStream;
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationRowsReductionRatioThreshold;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringBloomFilterSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringRangeRowLimitPerDriver;
@@ -291,6 +292,7 @@ import static com.facebook.presto.SystemSessionProperties.isOptimizeJoinProbeFor
 import static com.facebook.presto.SystemSessionProperties.isOptimizedRepartitioningEnabled;
 import static com.facebook.presto.SystemSessionProperties.isQuickDistinctLimitEnabled;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
+import static com.facebook.presto.SystemSessionProperties.isStreamingWindowEnabled;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
 import static com.facebook.presto.common.type.TypeUtils.writeNativeValue;
@@ -1217,7 +1219,8 @@ public class LocalExecutionPlanner
                     pagesIndexFactory,
                     isWindowSpillEnabled(session),
                     spillerFactory,
-                    orderingCompiler);
+                    orderingCompiler,
+                    isStreamingWindowEnabled(session));
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), context, source);
         }
@@ -2578,6 +2581,7 @@ public class LocalExecutionPlanner
                     getDynamicFilteringMaxPerDriverRowCount(context.getSession()),
                     getDynamicFilteringMaxPerDriverSize(context.getSession()),
                     getDynamicFilteringRangeRowLimitPerDriver(context.getSession()),
+                    getDynamicFilteringBloomFilterSize(context.getSession()),
                     useNewNanDefinition);
         }
 
@@ -44,6 +44,7 @@ import com.facebook.presto.sql.relational.FunctionResolution;
 import com.facebook.presto.sql.relational.RowExpressionDeterminismEvaluator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
+import com.google.common.base.Ticker;
 import com.google.common.base.VerifyException;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -52,6 +53,7 @@ import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -67,10 +69,12 @@ import java.util.stream.StreamSupport;
 import static com.facebook.presto.SystemSessionProperties.confidenceBasedBroadcastEnabled;
 import static com.facebook.presto.SystemSessionProperties.getJoinDistributionType;
 import static com.facebook.presto.SystemSessionProperties.getJoinReorderingStrategy;
+import static com.facebook.presto.SystemSessionProperties.getJoinReorderingTimeBudget;
 import static com.facebook.presto.SystemSessionProperties.getMaxReorderedJoins;
 import static com.facebook.presto.SystemSessionProperties.shouldHandleComplexEquiJoins;
 import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
 import static com.facebook.presto.expressions.LogicalRowExpressions.and;
+import static com.facebook.presto.expressions.LogicalRowExpressions.extractConjuncts;
 import static com.facebook.presto.expressions.RowExpressionNodeInliner.replaceExpression;
 import static com.facebook.presto.spi.plan.JoinDistributionType.PARTITIONED;
 import static com.facebook.presto.spi.plan.JoinDistributionType.REPLICATED;
@@ -97,7 +101,9 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Sets.powerSet;
+import static java.lang.Long.numberOfTrailingZeros;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.toCollection;
 
 public class ReorderJoins
@@ -163,7 +169,10 @@ public class ReorderJoins
                 context,
                 determinismEvaluator,
                 functionResolution,
-                metadata);
+                metadata,
+                JoinGraph.create(ImmutableList.copyOf(multiJoinNode.getSources()), multiJoinNode.getFilter(), functionResolution),
+                true,
+                Ticker.systemTicker());
 
         JoinEnumerationResult result = joinEnumerator.chooseJoinOrder(multiJoinNode.getSources(), multiJoinNode.getOutputVariables());
 
@@ -200,12 +209,40 @@ public class ReorderJoins
         private final LogicalRowExpressions logicalRowExpressions;
         private final Lookup lookup;
         private final Context context;
+        private final Ticker ticker;
+        private final long startNanos;
+        private final long timeBudgetNanos;
 
         private final Map<Set<PlanNode>, JoinEnumerationResult> memo = new HashMap<>();
         private final FunctionResolution functionResolution;
+        private final Optional<JoinGraph> joinGraph;
+        private final boolean pruneByCost;
 
+        /**
+         * Creates an enumerator that considers every partitioning of the sources.
+         */
         @VisibleForTesting
         JoinEnumerator(CostComparator costComparator, RowExpression filter, Context context, DeterminismEvaluator determinismEvaluator, FunctionResolution functionResolution, Metadata metadata)
+        {
+            this(costComparator, filter, context, determinismEvaluator, functionResolution, metadata, Optional.empty(), false, Ticker.systemTicker());
+        }
+
+        /**
+         * @param joinGraph when present, partitionings that can only be joined with a cross join are skipped
+         * @param pruneByCost whether a partitioning is abandoned once a side of it is not cheaper than the best join found
+         * @param ticker measures the time spent against the join reordering time budget
+         */
+        @VisibleForTesting
+        JoinEnumerator(
+                CostComparator costComparator,
+                RowExpression filter,
+                Context context,
+                DeterminismEvaluator determinismEvaluator,
+                FunctionResolution functionResolution,
+                Metadata metadata,
+                Optional<JoinGraph> joinGraph,
+                boolean pruneByCost,
+                Ticker ticker)
         {
             this.context = requireNonNull(context);
             this.session = requireNonNull(context.getSession(), "session is null");
@@ -219,9 +256,15 @@ public class ReorderJoins
             this.allFilterInference = createEqualityInference(metadata, filter);
             this.logicalRowExpressions = new LogicalRowExpressions(determinismEvaluator, functionResolution, metadata.getFunctionAndTypeManager());
             this.functionResolution = functionResolution;
+            this.joinGraph = requireNonNull(joinGraph, "joinGraph is null");
+            this.pruneByCost = pruneByCost;
+            this.ticker = requireNonNull(ticker, "ticker is null");
+            this.startNanos = ticker.read();
+            this.timeBudgetNanos = getJoinReorderingTimeBudget(session).roundTo(NANOSECONDS);
         }
 
-        private JoinEnumerationResult chooseJoinOrder(LinkedHashSet<PlanNode> sources, List<VariableReferenceExpression> outputVariables)
+        @VisibleForTesting
+        JoinEnumerationResult chooseJoinOrder(LinkedHashSet<PlanNode> sources, List<VariableReferenceExpression> outputVariables)
         {
             context.checkTimeoutNotExhausted();
 
@@ -229,26 +272,28 @@ public class ReorderJoins
             JoinEnumerationResult bestResult = memo.get(multiJoinKey);
             if (bestResult == null) {
                 checkState(sources.size() > 1, "sources size is less than or equal to one");
-                ImmutableList.Builder<JoinEnumerationResult> resultBuilder = ImmutableList.builder();
-                Set<Set<Integer>> partitions = generatePartitions(sources.size());
-                for (Set<Integer> partition : partitions) {
-                    JoinEnumerationResult result = createJoinAccordingToPartitioning(sources, outputVariables, partition);
+                for (Set<Integer> partition : getPartitions(sources)) {
+                    if (bestResult != null && isTimeBudgetExhausted()) {
+                        log.debug("Join reordering time budget exhausted, keeping the best join order found for %s sources", sources.size());
+                        break;
+                    }
+                    Optional<JoinEnumerationResult> costBound = pruneByCost ? Optional.ofNullable(bestResult) : Optional.empty();
+                    JoinEnumerationResult result = createJoinAccordingToPartitioning(sources, outputVariables, partition, costBound);
                     if (result.equals(UNKNOWN_COST_RESULT)) {
                         memo.put(multiJoinKey, result);
                         return result;
                     }
-                    if (!result.equals(INFINITE_COST_RESULT)) {
-                        resultBuilder.add(result);
+                    // keep the first of the cheapest results to keep the rule deterministic
+                    if (!result.equals(INFINITE_COST_RESULT) && (bestResult == null || resultComparator.compare(result, bestResult) < 0)) {
+                        bestResult = result;
                     }
                 }
 
-                List<JoinEnumerationResult> results = resultBuilder.build();
-                if (results.isEmpty()) {
+                if (bestResult == null) {
                     memo.put(multiJoinKey, INFINITE_COST_RESULT);
                     return INFINITE_COST_RESULT;
                 }
 
-                bestResult = resultComparator.min(results);
                 memo.put(multiJoinKey, bestResult);
             }
 
@@ -256,6 +301,42 @@ public class ReorderJoins
             return bestResult;
         }
 
+        /**
+         * Returns the partitionings of the sources in the order of {@link #generatePartitions}, leaving out
+         * the ones that would need a cross join, which are never chosen, when the join graph tells them apart.
+         */
+        private Iterable<Set<Integer>> getPartitions(LinkedHashSet<PlanNode> sources)
+        {
+            Optional<long[]> sourceBits = joinGraph.flatMap(graph -> graph.getSourceBits(sources));
+            if (!sourceBits.isPresent()) {
+                return generatePartitions(sources.size());
+            }
+
+            long allSources = 0;
+            for (long sourceBit : sourceBits.get()) {
+                allSources |= sourceBit;
+            }
+
+            ImmutableList.Builder<Set<Integer>> partitions = ImmutableList.builder();
+            // like generatePartitions, every partition contains the 0th source and the other partition is implied
+            for (long partition = 1; partition < (1L << sources.size()) - 1; partition += 2) {
+                long left = 0;
+                for (long bits = partition; bits != 0; bits &= bits - 1) {
+                    left |= sourceBits.get()[numberOfTrailingZeros(bits)];
+                }
+                long right = allSources & ~left;
+                JoinGraph graph = joinGraph.get();
+                if (graph.areAdjacent(left, right) && graph.isConnected(left) && graph.isConnected(right)) {
+                    ImmutableSet.Builder<Integer> indexes = ImmutableSet.builder();
+                    for (long bits = partition; bits != 0; bits &= bits - 1) {
+                        indexes.add(numberOfTrailingZeros(bits));
+                    }
+                    partitions.add(indexes.build());
+                }
+            }
+            return partitions.build();
+        }
+
         /**
          * This method generates all the ways of dividing totalNodes into two sets
          * each containing at least one node. It will generate one set for each
@@ -280,6 +361,19 @@ public class ReorderJoins
 
         @VisibleForTesting
         JoinEnumerationResult createJoinAccordingToPartitioning(LinkedHashSet<PlanNode> sources, List<VariableReferenceExpression> outputVariables, Set<Integer> partitioning)
+        {
+            return createJoinAccordingToPartitioning(sources, outputVariables, partitioning, Optional.empty());
+        }
+
+        /**
+         * @param bestResult the cheapest join of the sources found so far. Since the cost of a join includes the
+         * cost of its sources, the join is not created if either side alone is not cheaper than the best result.
+         */
+        private JoinEnumerationResult createJoinAccordingToPartitioning(
+                LinkedHashSet<PlanNode> sources,
+                List<VariableReferenceExpression> outputVariables,
+                Set<Integer> partitioning,
+                Optional<JoinEnumerationResult> bestResult)
         {
             List<PlanNode> sourceList = ImmutableList.copyOf(sources);
             LinkedHashSet<PlanNode> leftSources = partitioning.stream()
@@ -288,10 +382,14 @@ public class ReorderJoins
             LinkedHashSet<PlanNode> rightSources = sources.stream()
                     .filter(source -> !leftSources.contains(source))
                     .collect(toCollection(LinkedHashSet::new));
-            return createJoin(leftSources, rightSources, outputVariables);
+            return createJoin(leftSources, rightSources, outputVariables, bestResult);
         }
 
-        private JoinEnumerationResult createJoin(LinkedHashSet<PlanNode> leftSources, LinkedHashSet<PlanNode> rightSources, List<VariableReferenceExpression> outputVariables)
+        private JoinEnumerationResult createJoin(
+                LinkedHashSet<PlanNode> leftSources,
+                LinkedHashSet<PlanNode> rightSources,
+                List<VariableReferenceExpression> outputVariables,
+                Optional<JoinEnumerationResult> bestResult)
         {
             HashSet<VariableReferenceExpression> leftVariables = leftSources.stream()
                     .flatMap(node -> node.getOutputVariables().stream())
@@ -352,6 +450,10 @@ public class ReorderJoins
             if (rightResult.equals(INFINITE_COST_RESULT)) {
                 return INFINITE_COST_RESULT;
             }
+            // pruned only after both sides are known not to have an unknown cost, which makes the rule give up
+            if (!isCheaper(leftResult, bestResult) || !isCheaper(rightResult, bestResult)) {
+                return INFINITE_COST_RESULT;
+            }
 
             PlanNode right = rightResult.planNode.orElseThrow(() -> new VerifyException("Plan node is not present"));
             if (!joinConditions.getNewRightAssignments().isEmpty()) {
@@ -382,6 +484,16 @@ public class ReorderJoins
                     ImmutableMap.of()));
         }
 
+        private boolean isTimeBudgetExhausted()
+        {
+            return timeBudgetNanos > 0 && ticker.read() - startNanos > timeBudgetNanos;
+        }
+
+        private boolean isCheaper(JoinEnumerationResult result, Optional<JoinEnumerationResult> bestResult)
+        {
+            return !bestResult.isPresent() || resultComparator.compare(result, bestResult.get()) < 0;
+        }
+
         private List<RowExpression> getJoinPredicates(Set<VariableReferenceExpression> leftVariables, Set<VariableReferenceExpression> rightVariables)
         {
             ImmutableList.Builder<RowExpression> joinPredicatesBuilder = ImmutableList.builder();
@@ -740,6 +852,136 @@ public class ReorderJoins
         }
     }
 
+    /**
+     * The sources of a multi join, with an edge between every two sources that a join clause could be
+     * inferred for from the join filter. A set of sources that is not connected can only be joined with
+     * a cross join, so the join enumerator does not need to consider it.
+     */
+    @VisibleForTesting
+    static class JoinGraph
+    {
+        private final Map<PlanNode, Integer> sourceIndexes;
+        private final long[] neighbors;
+
+        private JoinGraph(Map<PlanNode, Integer> sourceIndexes, long[] neighbors)
+        {
+            this.sourceIndexes = ImmutableMap.copyOf(requireNonNull(sourceIndexes, "sourceIndexes is null"));
+            this.neighbors = requireNonNull(neighbors, "neighbors is null");
+        }
+
+        /**
+         * Returns empty if the graph of the sources cannot be told from the filter, in which case every
+         * partitioning of the sources has to be considered.
+         */
+        public static Optional<JoinGraph> create(List<PlanNode> sources, RowExpression filter, FunctionResolution functionResolution)
+        {
+            if (sources.size() >= Long.SIZE) {
+                return Optional.empty();
+            }
+
+            Map<PlanNode, Integer> sourceIndexes = new HashMap<>();
+            Map<VariableReferenceExpression, Integer> variableSources = new HashMap<>();
+            for (int source = 0; source < sources.size(); source++) {
+                if (sourceIndexes.put(sources.get(source), source) != null) {
+                    return Optional.empty();
+                }
+                for (VariableReferenceExpression variable : sources.get(source).getOutputVariables()) {
+                    if (variableSources.put(variable, source) != null) {
+                        return Optional.empty();
+                    }
+                }
+            }
+
+            // Equality inference can derive a join clause between any two expressions that are equal through a chain of
+            // conjuncts, so the sources of all variables in conjuncts that share a variable are treated as joinable.
+            // A constant can be equal to expressions of any source, so filters that compare to a constant are not handled.
+            Map<VariableReferenceExpression, VariableReferenceExpression> parents = new HashMap<>();
+            for (RowExpression conjunct : extractConjuncts(filter)) {
+                if (conjunct instanceof CallExpression
+                        && functionResolution.isEqualsFunction(((CallExpression) conjunct).getFunctionHandle())
+                        && ((CallExpression) conjunct).getArguments().stream().anyMatch(argument -> extractUnique(argument).isEmpty())) {
+                    return Optional.empty();
+                }
+                VariableReferenceExpression first = null;
+                for (VariableReferenceExpression variable : extractUnique(conjunct)) {
+                    if (!variableSources.containsKey(variable)) {
+                        return Optional.empty();
+                    }
+                    if (first == null) {
+                        first = variable;
+                    }
+                    parents.put(find(parents, variable), find(parents, first));
+                }
+            }
+
+            Map<VariableReferenceExpression, Long> groupSources = new HashMap<>();
+            for (VariableReferenceExpression variable : parents.keySet()) {
+                groupSources.merge(find(parents, variable), 1L << variableSources.get(variable), (left, right) -> left | right);
+            }
+            long[] neighbors = new long[sources.size()];
+            for (long group : groupSources.values()) {
+                for (long bits = group; bits != 0; bits &= bits - 1) {
+                    neighbors[numberOfTrailingZeros(bits)] |= group;
+                }
+            }
+            return Optional.of(new JoinGraph(sourceIndexes, neighbors));
+        }
+
+        private static VariableReferenceExpression find(Map<VariableReferenceExpression, VariableReferenceExpression> parents, VariableReferenceExpression variable)
+        {
+            VariableReferenceExpression root = variable;
+            VariableReferenceExpression parent = parents.get(root);
+            while (parent != null && !parent.equals(root)) {
+                root = parent;
+                parent = parents.get(root);
+            }
+            parents.put(variable, root);
+            return root;
+        }
+
+        /**
+         * Returns the bit of every source, in the order of the sources, or empty if a source is not in the graph.
+         */
+        public Optional<long[]> getSourceBits(Collection<PlanNode> sources)
+        {
+            long[] sourceBits = new long[sources.size()];
+            int i = 0;
+            for (PlanNode source : sources) {
+                Integer index = sourceIndexes.get(source);
+                if (index == null) {
+                    return Optional.empty();
+                }
+                sourceBits[i++] = 1L << index;
+            }
+            return Optional.of(sourceBits);
+        }
+
+        public boolean isConnected(long sources)
+        {
+            long reached = Long.lowestOneBit(sources);
+            long frontier = reached;
+            while (frontier != 0) {
+                long next = 0;
+                for (long bits = frontier; bits != 0; bits &= bits - 1) {
+                    next |= neighbors[numberOfTrailingZeros(bits)];
+                }
+                frontier = next & sources & ~reached;
+                reached |= frontier;
+            }
+            return reached == sources;
+        }
+
+        public boolean areAdjacent(long left, long right)
+        {
+            for (long bits = left; bits != 0; bits &= bits - 1) {
+                if ((neighbors[numberOfTrailingZeros(bits)] & right) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     @VisibleForTesting
     static class JoinEnumerationResult
     {
@@ -549,6 +549,48 @@ public class TestSpoolingOutputBuffer
         assertTrue(buffer.isFinished());
     }
 
+    @Test
+    public void testSpoolMemoryPagesOnNoMorePages()
+    {
+        SpoolingOutputBuffer buffer = createSpoolingOutputBuffer();
+
+        // add three pages into a file
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            addPage(buffer, createPage(i));
+            pages.add(createPage(i));
+        }
+
+        // add two pages in memory
+        for (int i = 3; i < 5; i++) {
+            addPage(buffer, createPage(i));
+            pages.add(createPage(i));
+        }
+        assertTrue(buffer.getUtilization() > 0);
+
+        // the pages left in memory are spooled once no more pages are added
+        buffer.setNoMorePages();
+        assertEquals(buffer.getUtilization(), 0.0);
+        compareTotalBuffered(buffer, 5);
+
+        assertBufferResultEquals(TYPES, getBufferResult(buffer, BUFFER_ID, 0, sizeOfPages(5), MAX_WAIT), createBufferResult(TASK_INSTANCE_ID, 0, pages));
+        acknowledgeBufferResult(buffer, BUFFER_ID, 5);
+        compareTotalBuffered(buffer, 0);
+    }
+
+    @Test
+    public void testSmallResultStaysInMemory()
+    {
+        SpoolingOutputBuffer buffer = createSpoolingOutputBuffer();
+
+        // results smaller than the threshold are never spooled
+        for (int i = 0; i < 2; i++) {
+            addPage(buffer, createPage(i));
+        }
+        buffer.setNoMorePages();
+        assertTrue(buffer.getUtilization() > 0);
+    }
+
     private SpoolingOutputBuffer createSpoolingOutputBuffer()
     {
         TaskId taskId = new TaskId(queryIdGenerator.createNextQueryId().toString(), 0, 0, 0, 0);
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.execution.executor;
 
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.airlift.stats.TimeStat;
 import com.facebook.airlift.testing.TestingTicker;
 import com.facebook.airlift.units.Duration;
 import com.facebook.presto.execution.SplitRunner;
@@ -21,14 +23,17 @@ import com.facebook.presto.server.ServerConfig;
 import com.facebook.presto.version.EmbedVersion;
 import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.OptionalInt;
+import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +47,7 @@ import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracki
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.LEVEL_CONTRIBUTION_CAP;
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.LEVEL_THRESHOLD_SECONDS;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -377,6 +383,59 @@ public class TestTaskExecutor
         }
     }
 
+    @Test
+    public void testSplitQueueWorkStealing()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 2);
+        TaskHandle handle = new TaskHandle(new TaskId("test", 0, 0, 0, 0), new TaskPriorityTracker(splitQueue), () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+
+        ImmutableList.Builder<PrioritizedSplitRunner> splits = ImmutableList.builder();
+        for (int i = 0; i < 4; i++) {
+            TestingJob job = new TestingJob(ticker, new Phaser(1), new Phaser(), new Phaser(), 1, 0);
+            splits.add(new PrioritizedSplitRunner(handle, job, ticker, new CounterStat(), new CounterStat(), new TimeStat(MICROSECONDS), new TimeStat(MICROSECONDS)));
+        }
+
+        // this thread is not a runner thread, so the splits are spread over both queues
+        splits.build().forEach(splitQueue::offer);
+        assertEquals(splitQueue.size(), 4);
+
+        // the first take assigns a queue to this thread, which steals from the other queue once its own is empty
+        Set<PrioritizedSplitRunner> taken = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            taken.add(splitQueue.take());
+        }
+        assertEquals(taken, ImmutableSet.copyOf(splits.build()));
+        assertEquals(splitQueue.size(), 0);
+        assertEquals(splitQueue.getStolenSplits().getTotalCount(), 2);
+    }
+
+    @Test(invocationCount = 20, timeOut = 30_000)
+    public void testTasksCompleteWithWorkStealing()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(4, 16, 3, 16, TASK_FAIR, new MultilevelSplitQueue(2, 3), ticker);
+        taskExecutor.start();
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0, 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+
+            ImmutableList.Builder<TestingJob> jobs = ImmutableList.builder();
+            for (int i = 0; i < 32; i++) {
+                jobs.add(new TestingJob(ticker, new Phaser(1), new Phaser(), new Phaser(), 10, 0));
+            }
+            Futures.allAsList(taskExecutor.enqueueSplits(taskHandle, false, jobs.build())).get();
+
+            for (TestingJob job : jobs.build()) {
+                assertEquals(job.getCompletedPhases(), 10);
+            }
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     @Test(timeOut = 30_000)
     public void testMinMaxDriversPerTask()
     {
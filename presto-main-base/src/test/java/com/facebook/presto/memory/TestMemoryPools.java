@@ -44,9 +44,12 @@ import com.google.common.util.concurrent.ListenableFuture;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -60,6 +63,8 @@ import static com.facebook.presto.testing.LocalQueryRunner.queryRunnerWithInitia
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
@@ -291,6 +296,65 @@ public class TestMemoryPools
         assertEquals(pool2.getFreeBytes(), 1000);
     }
 
+    @Test
+    public void testMoveQueryReservesInTargetFirst()
+    {
+        QueryId testQuery = new QueryId("test_query");
+        MemoryPool pool1 = new MemoryPool(new MemoryPoolId("test"), new DataSize(1000, BYTE));
+        MemoryPool pool2 = new MemoryPool(new MemoryPoolId("test"), new DataSize(1000, BYTE));
+        pool1.reserve(testQuery, "test_tag", 10);
+        pool1.reserveRevocable(testQuery, 5);
+
+        // when the target pool reports the reservation, the source pool must still hold it
+        AtomicLong sourceFreeBytes = new AtomicLong();
+        pool2.addListener((pool, queryId, reservation) -> sourceFreeBytes.set(pool1.getFreeBytes()));
+        pool1.moveQuery(testQuery, pool2);
+
+        assertEquals(sourceFreeBytes.get(), 985);
+        assertEquals(pool1.getFreeBytes(), 1000);
+        assertEquals(pool2.getFreeBytes(), 985);
+        assertEquals(pool2.getQueryMemoryReservation(testQuery), 10);
+        assertEquals(pool2.getQueryRevocableMemoryReservation(testQuery), 5);
+    }
+
+    @Test
+    public void testConcurrentReservations()
+            throws Exception
+    {
+        MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(500, BYTE));
+        ExecutorService executor = newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                // two threads share every query
+                QueryId queryId = new QueryId("test_query_" + (thread / 2));
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        ListenableFuture<?> blocked = pool.reserve(queryId, "test_tag", 100);
+                        pool.free(queryId, "test_tag", 100);
+                        // the pool is exhausted while other threads hold memory, but it is never left blocked once they free it
+                        blocked.get(10, SECONDS);
+                        if (pool.tryReserve(queryId, "test_tag", 10)) {
+                            pool.free(queryId, "test_tag", 10);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(pool.getReservedBytes(), 0);
+        assertEquals(pool.getFreeBytes(), 500);
+        assertEquals(pool.getTaggedMemoryAllocations(), ImmutableMap.of());
+        assertTrue(pool.getInfo().getQueryMemoryReservations().isEmpty());
+    }
+
     private long runDriversUntilBlocked(Predicate<OperatorContext> reason)
     {
         long iterationsCount = 0;
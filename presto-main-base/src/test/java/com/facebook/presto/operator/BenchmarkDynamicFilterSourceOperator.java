@@ -47,6 +47,7 @@ import java.util.concurrent.TimeUnit;
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringBloomFilterSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringRangeRowLimitPerDriver;
@@ -91,6 +92,7 @@ public class BenchmarkDynamicFilterSourceOperator
                     getDynamicFilteringMaxPerDriverRowCount(TEST_SESSION),
                     getDynamicFilteringMaxPerDriverSize(TEST_SESSION),
                     getDynamicFilteringRangeRowLimitPerDriver(TEST_SESSION),
+                    getDynamicFilteringBloomFilterSize(TEST_SESSION),
                     true);
         }
 
@@ -15,6 +15,7 @@ package com.facebook.presto.operator;
 
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.Session;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.metadata.FunctionAndTypeManager;
@@ -55,6 +56,7 @@ import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.airlift.units.DataSize.succinctBytes;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.HASH_AGGREGATION_RADIX_PARTITION_COUNT;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
@@ -62,6 +64,7 @@ import static com.facebook.presto.operator.BenchmarkHashAndStreamingAggregationO
 import static com.facebook.presto.operator.BenchmarkHashAndStreamingAggregationOperators.Context.TOTAL_PAGES;
 import static com.facebook.presto.operator.aggregation.GenericAccumulatorFactory.generateAccumulatorFactory;
 import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static java.lang.String.format;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
@@ -96,10 +99,12 @@ public class BenchmarkHashAndStreamingAggregationOperators
         @Param({"1", "10", "1000"})
         public int rowsPerGroup;
 
-        @Param({"streaming", "hash"})
+        // hash_radix runs the final hash aggregation with radix partitioning
+        @Param({"streaming", "hash", "hash_radix"})
         public String operatorType;
 
         private ExecutorService executor;
+        private Session session;
         private ScheduledExecutorService scheduledExecutor;
         private OperatorFactory operatorFactory;
         private List<Page> pages;
@@ -112,7 +117,13 @@ public class BenchmarkHashAndStreamingAggregationOperators
 
             int groupsPerPage = ROWS_PER_PAGE / rowsPerGroup;
 
-            boolean hashAggregation = operatorType.equalsIgnoreCase("hash");
+            boolean hashAggregation = operatorType.startsWith("hash");
+            session = TEST_SESSION;
+            if (operatorType.equalsIgnoreCase("hash_radix")) {
+                session = testSessionBuilder()
+                        .setSystemProperty(HASH_AGGREGATION_RADIX_PARTITION_COUNT, "16")
+                        .build();
+            }
 
             RowPagesBuilder pagesBuilder = RowPagesBuilder.rowPagesBuilder(hashAggregation, ImmutableList.of(0), VARCHAR, BIGINT);
             for (int i = 0; i < TOTAL_PAGES; i++) {
@@ -186,7 +197,7 @@ public class BenchmarkHashAndStreamingAggregationOperators
 
         public TaskContext createTaskContext()
         {
-            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, new DataSize(2, GIGABYTE));
+            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, session, new DataSize(2, GIGABYTE));
         }
 
         public OperatorFactory getOperatorFactory()
@@ -247,6 +258,14 @@ public class BenchmarkHashAndStreamingAggregationOperators
         verify(1000, "hash");
     }
 
+    @Test
+    public void verifyHashRadix()
+    {
+        verify(1, "hash_radix");
+        verify(10, "hash_radix");
+        verify(1000, "hash_radix");
+    }
+
     private void verify(int rowsPerGroup, String operatorType)
     {
         Context context = new Context();
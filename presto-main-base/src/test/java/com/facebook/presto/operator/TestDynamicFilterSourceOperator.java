@@ -25,6 +25,7 @@ import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -35,8 +36,10 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.block.BlockAssertions.createBlockOfReals;
@@ -71,6 +74,8 @@ import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.Float.floatToRawIntBits;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -115,18 +120,19 @@ public class TestDynamicFilterSourceOperator
 
     private OperatorFactory createOperatorFactory(DynamicFilterSourceOperator.Channel... buildChannels)
     {
-        return createOperatorFactory(100, new DataSize(10, KILOBYTE), 1_000_000, Arrays.asList(buildChannels), true);
+        return createOperatorFactory(100, new DataSize(10, KILOBYTE), 1_000_000, new DataSize(0, KILOBYTE), Arrays.asList(buildChannels), true);
     }
 
     private OperatorFactory createOperatorFactoryWithOldNanDefinition(DynamicFilterSourceOperator.Channel... buildChannels)
     {
-        return createOperatorFactory(100, new DataSize(10, KILOBYTE), 1_000_000, Arrays.asList(buildChannels), false);
+        return createOperatorFactory(100, new DataSize(10, KILOBYTE), 1_000_000, new DataSize(0, KILOBYTE), Arrays.asList(buildChannels), false);
     }
 
     private OperatorFactory createOperatorFactory(
             int maxFilterPositionsCount,
             DataSize maxFilterSize,
             int minMaxCollectionLimit,
+            DataSize bloomFilterSize,
             Iterable<DynamicFilterSourceOperator.Channel> buildChannels,
             boolean useNewNanDefinition)
     {
@@ -138,6 +144,7 @@ public class TestDynamicFilterSourceOperator
                 maxFilterPositionsCount,
                 maxFilterSize,
                 minMaxCollectionLimit,
+                bloomFilterSize,
                 useNewNanDefinition);
     }
 
@@ -172,7 +179,7 @@ public class TestDynamicFilterSourceOperator
         List<DynamicFilterSourceOperator.Channel> buildChannels = IntStream.range(0, types.size())
                 .mapToObj(i -> channel(i, types.get(i)))
                 .collect(toImmutableList());
-        OperatorFactory operatorFactory = createOperatorFactory(maxFilterPositionsCount, maxFilterSize, minMaxCollectionLimit, buildChannels, true);
+        OperatorFactory operatorFactory = createOperatorFactory(maxFilterPositionsCount, maxFilterSize, minMaxCollectionLimit, new DataSize(0, KILOBYTE), buildChannels, true);
         verifyPassthrough(createOperator(operatorFactory), types, pages);
         operatorFactory.noMoreOperators();
         assertEquals(partitions.build(), expectedTupleDomains);
@@ -582,4 +589,95 @@ public class TestDynamicFilterSourceOperator
                         new Page(createLongSequenceBlock(0, maxPositionsCount + 1))),
                 ImmutableList.of(TupleDomain.all()));
     }
+
+    @Test
+    public void testCollectBloomFilterWhenTooManyPositions()
+    {
+        int maxPositionsCount = 100;
+        OperatorFactory operatorFactory = createOperatorFactory(
+                maxPositionsCount,
+                new DataSize(10, KILOBYTE),
+                1_000_000,
+                new DataSize(64, KILOBYTE),
+                ImmutableList.of(channel(0, BIGINT), channel(1, VARCHAR)),
+                true);
+        Page largePage = new Page(
+                createLongsBlock(LongStream.range(0, maxPositionsCount).map(i -> 2 * i).boxed().collect(toImmutableList())),
+                createStringsBlock(IntStream.range(0, maxPositionsCount).mapToObj(i -> "value" + i).collect(toImmutableList())));
+        verifyPassthrough(createOperator(operatorFactory), ImmutableList.of(BIGINT, VARCHAR), largePage);
+        operatorFactory.noMoreOperators();
+
+        List<TupleDomain<String>> predicates = partitions.build();
+        assertEquals(predicates.size(), 1);
+        Domain bigintDomain = predicates.get(0).getDomains().get().get("0");
+        assertEquals(bigintDomain.getValues(), ValueSet.ofRanges(range(BIGINT, 0L, true, 2L * (maxPositionsCount - 1), true)));
+        assertTrue(bigintDomain.getBloomFilter().isPresent());
+        for (long value = 0; value < 2 * maxPositionsCount; value += 2) {
+            assertTrue(bigintDomain.includesNullableValue(value));
+        }
+        assertFalse(bigintDomain.includesNullableValue(-1L));
+        assertFalse(bigintDomain.includesNullableValue(null));
+
+        Domain varcharDomain = predicates.get(0).getDomains().get().get("1");
+        assertTrue(varcharDomain.getBloomFilter().isPresent());
+        for (int i = 0; i < maxPositionsCount; i++) {
+            assertTrue(varcharDomain.includesNullableValue(utf8Slice("value" + i)));
+        }
+    }
+
+    @Test
+    public void testBloomFilterMemoryIsAccounted()
+    {
+        int maxPositionsCount = 100;
+        OperatorFactory operatorFactory = createOperatorFactory(
+                maxPositionsCount,
+                new DataSize(10, KILOBYTE),
+                1_000_000,
+                new DataSize(64, KILOBYTE),
+                ImmutableList.of(channel(0, BIGINT), channel(1, VARCHAR)),
+                true);
+        Operator operator = createOperator(operatorFactory);
+        operator.addInput(new Page(
+                createLongSequenceBlock(0, maxPositionsCount + 1),
+                createStringsBlock(IntStream.range(0, maxPositionsCount + 1).mapToObj(i -> "value" + i).collect(toImmutableList()))));
+
+        // a 64kB Bloom filter is collected for each of the two channels
+        assertGreaterThanOrEqual(operator.getOperatorContext().getOperatorMemoryContext().getUserMemory(), 2 * new DataSize(64, KILOBYTE).toBytes());
+
+        operator.getOutput();
+        operator.finish();
+        assertEquals(operator.getOperatorContext().getOperatorMemoryContext().getUserMemory(), 0L);
+        operatorFactory.noMoreOperators();
+        assertEquals(partitions.build().size(), 1);
+    }
+
+    @Test
+    public void testCollectBloomFilterWhenMinMaxLimitExceeded()
+    {
+        int maxPositionsCount = 100;
+        OperatorFactory operatorFactory = createOperatorFactory(
+                maxPositionsCount,
+                new DataSize(10, KILOBYTE),
+                maxPositionsCount,
+                new DataSize(64, KILOBYTE),
+                ImmutableList.of(channel(0, BIGINT), channel(1, DOUBLE)),
+                true);
+        verifyPassthrough(
+                createOperator(operatorFactory),
+                ImmutableList.of(BIGINT, DOUBLE),
+                new Page(createLongSequenceBlock(0, maxPositionsCount + 1), createDoubleSequenceBlock(0, maxPositionsCount + 1)),
+                new Page(createLongSequenceBlock(1000, 1000 + maxPositionsCount), createDoubleSequenceBlock(0, maxPositionsCount)));
+        operatorFactory.noMoreOperators();
+
+        // the DOUBLE channel supports neither min/max nor Bloom filter collection
+        List<TupleDomain<String>> predicates = partitions.build();
+        assertEquals(predicates.size(), 1);
+        assertEquals(predicates.get(0).getDomains().get().keySet(), ImmutableSet.of("0"));
+        Domain domain = predicates.get(0).getDomains().get().get("0");
+        assertTrue(domain.getValues().isAll());
+        assertFalse(domain.isNullAllowed());
+        assertTrue(domain.includesNullableValue(0L));
+        assertTrue(domain.includesNullableValue(1050L));
+        assertFalse(domain.includesNullableValue(500L));
+    }
 }
@@ -215,6 +215,86 @@ public class TestFileFragmentResultCacheManager
         cleanupCacheDirectory(cacheDirectory);
     }
 
+    @Test(timeOut = 30_000)
+    public void testMemoryCache()
+            throws Exception
+    {
+        List<Page> pages = ImmutableList.of(new Page(createStringsBlock("plan-1-split-1")));
+
+        URI cacheDirectory = getNewCacheDirectory("testMemoryCache");
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheConfig config = new FileFragmentResultCacheConfig();
+        config.setMaxMemoryCacheSize(new DataSize(1, DataSize.Unit.MEGABYTE));
+        FileFragmentResultCacheManager cacheManager = fileFragmentResultCacheManager(stats, config, cacheDirectory);
+
+        // The result is cached in both tiers and served from memory
+        cacheManager.put(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1, pages, INPUT_DATA_SIZE_1).get();
+        assertEquals(stats.getCacheEntries(), 1);
+        assertEquals(stats.getCacheSizeInBytes(), getCachePhysicalSize(cacheDirectory));
+        assertEquals(stats.getMemoryCacheEntries(), 1);
+        assertTrue(stats.getMemoryCacheSizeInBytes() > 0);
+
+        FragmentCacheResult fragmentCacheResult = cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1);
+        Optional<Iterator<Page>> result = fragmentCacheResult.getPages();
+        assertTrue(result.isPresent());
+        assertPagesEqual(result.get(), pages.iterator());
+        assertEquals(fragmentCacheResult.getInputDataSize(), INPUT_DATA_SIZE_1);
+        assertEquals(stats.getCacheHit(), 1);
+        assertEquals(stats.getMemoryCacheHit(), 1);
+        assertEquals(stats.getFileCacheHit(), 0);
+
+        // Misses in the on-disk tier are not looked up in memory
+        assertFalse(cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_2).getPages().isPresent());
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getMemoryCacheMiss(), 0);
+
+        // Removing the on-disk entry removes the in-memory one
+        cacheManager.invalidateAllCache();
+        assertEquals(stats.getCacheEntries(), 0);
+        assertEquals(stats.getMemoryCacheEntries(), 0);
+        assertEquals(stats.getMemoryCacheSizeInBytes(), 0);
+        assertFalse(cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1).getPages().isPresent());
+
+        cleanupCacheDirectory(cacheDirectory);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testMemoryCachePromotion()
+            throws Exception
+    {
+        List<Page> pages = ImmutableList.of(new Page(createStringsBlock("plan-1-split-1")));
+
+        URI cacheDirectory = getNewCacheDirectory("testMemoryCachePromotion");
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheConfig config = new FileFragmentResultCacheConfig();
+        config.setMaxMemoryCacheSize(new DataSize(1, DataSize.Unit.MEGABYTE));
+        FileFragmentResultCacheManager cacheManager = fileFragmentResultCacheManager(stats, config, cacheDirectory);
+
+        // Drop the in-memory copy of the result to simulate its eviction
+        cacheManager.put(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1, pages, INPUT_DATA_SIZE_1).get();
+        cacheManager.invalidateMemoryCache();
+        assertEquals(stats.getCacheEntries(), 1);
+        assertEquals(stats.getMemoryCacheEntries(), 0);
+
+        // The first hit is served from disk and promotes the result
+        FragmentCacheResult fragmentCacheResult = cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1);
+        assertPagesEqual(fragmentCacheResult.getPages().get(), pages.iterator());
+        assertEquals(stats.getFileCacheHit(), 1);
+        assertEquals(stats.getMemoryCacheMiss(), 1);
+        assertEquals(stats.getMemoryCacheEntries(), 1);
+
+        // The next one is served from memory
+        fragmentCacheResult = cacheManager.get(SERIALIZED_PLAN_FRAGMENT_1, SPLIT_1);
+        assertPagesEqual(fragmentCacheResult.getPages().get(), pages.iterator());
+        assertEquals(fragmentCacheResult.getInputDataSize(), INPUT_DATA_SIZE_1);
+        assertEquals(stats.getFileCacheHit(), 1);
+        assertEquals(stats.getMemoryCacheHit(), 1);
+        assertEquals(stats.getCacheHit(), 2);
+
+        cacheManager.invalidateAllCache();
+        cleanupCacheDirectory(cacheDirectory);
+    }
+
     private static void assertPagesEqual(Iterator<Page> pages1, Iterator<Page> pages2)
     {
         while (pages1.hasNext() && pages2.hasNext()) {
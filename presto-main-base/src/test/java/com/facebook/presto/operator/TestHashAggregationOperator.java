@@ -17,6 +17,7 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.DataSize.Unit;
 import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.Session;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
@@ -28,8 +29,10 @@ import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.metadata.FunctionAndTypeManager;
 import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.operator.HashAggregationOperator.HashAggregationOperatorFactory;
+import com.facebook.presto.operator.HashAggregationOperator.ReserveType;
 import com.facebook.presto.operator.aggregation.builder.HashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import com.facebook.presto.operator.aggregation.builder.RadixPartitionedHashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.partial.PartialAggregationController;
 import com.facebook.presto.spi.function.JavaAggregationFunctionImplementation;
 import com.facebook.presto.spi.plan.AggregationNode.Step;
@@ -65,6 +68,7 @@ import static com.facebook.airlift.units.DataSize.succinctBytes;
 import static com.facebook.airlift.units.DataSize.succinctDataSize;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.HASH_AGGREGATION_RADIX_PARTITION_COUNT;
 import static com.facebook.presto.block.BlockAssertions.createLongRepeatBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -83,6 +87,7 @@ import static com.facebook.presto.operator.aggregation.GenericAccumulatorFactory
 import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static com.google.common.base.Strings.nullToEmpty;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.getOnlyElement;
@@ -217,6 +222,102 @@ public class TestHashAggregationOperator
         assertTrue(spillEnabled == (spillerFactory.getSpillsCount() > 0), format("Spill state mismatch. Expected spill: %s, spill count: %s", spillEnabled, spillerFactory.getSpillsCount()));
     }
 
+    @Test(dataProvider = "hashEnabled")
+    public void testRadixPartitionedHashAggregation(boolean hashEnabled)
+    {
+        int numberOfRows = 20_000;
+        List<Integer> hashChannels = Ints.asList(1);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, VARCHAR, VARCHAR, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(numberOfRows, 100, 0, 0)
+                .addSequencePage(numberOfRows, 100, 0, 100)
+                .build();
+
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(VARCHAR),
+                hashChannels,
+                ImmutableList.of(),
+                ImmutableList.of(),
+                Step.SINGLE,
+                ImmutableList.of(generateAccumulatorFactory(COUNT, ImmutableList.of(0), Optional.empty()),
+                        generateAccumulatorFactory(LONG_SUM, ImmutableList.of(2), Optional.empty())),
+                rowPagesBuilder.getHashChannel(),
+                Optional.empty(),
+                100_000,
+                Optional.of(new DataSize(16, MEGABYTE)),
+                joinCompiler,
+                false);
+
+        Session session = testSessionBuilder()
+                .setSystemProperty(HASH_AGGREGATION_RADIX_PARTITION_COUNT, "8")
+                .build();
+        DriverContext driverContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, session)
+                .addPipelineContext(0, true, true, false)
+                .addDriverContext();
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+        operator.addInput(input.get(0));
+        assertTrue(((HashAggregationOperator) operator).getAggregationBuilder() instanceof RadixPartitionedHashAggregationBuilder);
+        List<Page> pages = toPages(operator, input.subList(1, input.size()).iterator());
+
+        MaterializedResult.Builder expectedBuilder = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT);
+        for (int i = 0; i < numberOfRows; ++i) {
+            expectedBuilder.row(Integer.toString(i), 2L, 2L * i + 100);
+        }
+        assertPagesEqualIgnoreOrder(driverContext, pages, expectedBuilder.build(), hashEnabled, Optional.of(hashChannels.size()));
+        assertEquals(driverContext.getMemoryUsage(), 0);
+    }
+
+    @Test
+    public void testRadixPartitionedHashAggregationBuffersPartitions()
+    {
+        List<Page> input = rowPagesBuilder(BIGINT, BIGINT)
+                .addSequencePage(10, 0, 0)
+                .addSequencePage(10_000, 0, 100)
+                .build();
+
+        DriverContext driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true, false)
+                .addDriverContext();
+        OperatorContext operatorContext = driverContext.addOperatorContext(0, new PlanNodeId("test"), "test");
+        RadixPartitionedHashAggregationBuilder aggregationBuilder = new RadixPartitionedHashAggregationBuilder(
+                4,
+                new DataSize(16, KILOBYTE),
+                ImmutableList.of(generateAccumulatorFactory(LONG_SUM, ImmutableList.of(1), Optional.empty())),
+                Step.SINGLE,
+                100,
+                ImmutableList.of(BIGINT),
+                ImmutableList.of(0),
+                Optional.empty(),
+                operatorContext,
+                joinCompiler,
+                ReserveType.USER);
+
+        // the first page fits in the buffer, so nothing is aggregated yet
+        assertTrue(aggregationBuilder.processPage(input.get(0)).process());
+        assertGreaterThan(aggregationBuilder.getBufferedBytes(), 0L);
+        assertEquals(aggregationBuilder.getGroupCount(), 0);
+        assertEquals(operatorContext.getOperatorMemoryContext().getUserMemory(), aggregationBuilder.getBufferedBytes());
+
+        // the second page exceeds the buffer and every buffered partition is aggregated
+        Work<?> work = aggregationBuilder.processPage(input.get(1));
+        assertTrue(work.process());
+        assertEquals(aggregationBuilder.getBufferedBytes(), 0);
+        assertEquals(aggregationBuilder.getGroupCount(), 10_000);
+
+        List<Page> pages = ImmutableList.copyOf(aggregationBuilder.buildResult().iterator());
+        MaterializedResult.Builder expectedBuilder = resultBuilder(driverContext.getSession(), BIGINT, BIGINT);
+        for (int i = 0; i < 10_000; i++) {
+            expectedBuilder.row((long) i, i < 10 ? 2L * i + 100 : i + 100L);
+        }
+        assertPagesEqualIgnoreOrder(driverContext, pages, expectedBuilder.build(), false, Optional.empty());
+
+        aggregationBuilder.close();
+        assertEquals(driverContext.getMemoryUsage(), 0);
+    }
+
     @Test(dataProvider = "hashEnabledAndMemoryLimitForMergeValues")
     public void testHashAggregationWithGlobals(boolean hashEnabled, boolean spillEnabled, boolean revokeMemoryWhenAddingPages, long memoryLimitForMerge, long memoryLimitForMergeWithMemory)
     {
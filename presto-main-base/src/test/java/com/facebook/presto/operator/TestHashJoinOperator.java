@@ -77,6 +77,7 @@ import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.JOIN_PROBE_BATCH_SIZE;
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_MEMORY_PER_NODE;
 import static com.facebook.presto.SystemSessionProperties.getQueryMaxMemoryPerNode;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -206,6 +207,46 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
     }
 
+    @Test(dataProvider = "hashJoinTestValues")
+    public void testInnerJoinWithBatchedProbe(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
+    {
+        Session session = testSessionBuilder().setSystemProperty(JOIN_PROBE_BATCH_SIZE, "16").build();
+        TaskContext taskContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, session);
+
+        // build factory with two matching rows for every key
+        RowPagesBuilder buildPages = rowPagesBuilder(buildHashEnabled, Ints.asList(0), ImmutableList.of(VARCHAR, BIGINT))
+                .addSequencePage(10, 20, 30)
+                .addSequencePage(10, 20, 40);
+        BuildSideSetup buildSideSetup = setupBuildSide(parallelBuild, taskContext, Ints.asList(0), buildPages, Optional.empty(), false, SINGLE_STREAM_SPILLER_FACTORY);
+        JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactory = buildSideSetup.getLookupSourceFactoryManager();
+
+        // probe factory with nulls spread over several batches, and several pages sharing the batch buffers
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), ImmutableList.of(VARCHAR, BIGINT));
+        for (int i = 0; i < 50; i++) {
+            if (i == 25) {
+                probePages.pageBreak();
+            }
+            probePages.row(i % 3 == 0 ? null : String.valueOf(i), (long) i);
+        }
+        List<Page> probeInput = probePages.build();
+        OperatorFactory joinOperatorFactory = innerJoinOperatorFactory(lookupSourceFactory, probePages, PARTITIONING_SPILLER_FACTORY);
+
+        // build drivers and operators
+        instantiateBuildDrivers(buildSideSetup, taskContext);
+        buildLookupSource(buildSideSetup);
+
+        // expected
+        MaterializedResult.Builder expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probePages.getTypesWithoutHash(), buildPages.getTypesWithoutHash()));
+        for (int i = 20; i < 30; i++) {
+            if (i % 3 != 0) {
+                expected.row(String.valueOf(i), (long) i, String.valueOf(i), i + 10L);
+                expected.row(String.valueOf(i), (long) i, String.valueOf(i), i + 20L);
+            }
+        }
+
+        assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected.build(), true, getHashChannels(probePages, buildPages));
+    }
+
     @Test
     public void testYield()
     {
@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.metadata.Split.SplitIdentifier;
+import com.facebook.presto.operator.FileFragmentResultCacheManager.CacheKey;
+import com.facebook.presto.spi.ConnectorId;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slices;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestMemoryFragmentResultCache
+{
+    private static final List<SerializedPage> PAGES = ImmutableList.of(new SerializedPage(Slices.allocate(1000), (byte) 0, 1, 1000, 0));
+    private static final long ENTRY_SIZE = PAGES.get(0).getRetainedSizeInBytes();
+
+    private static final CacheKey KEY_1 = cacheKey(1);
+    private static final CacheKey KEY_2 = cacheKey(2);
+    private static final CacheKey KEY_3 = cacheKey(3);
+
+    @Test
+    public void testBasic()
+    {
+        FragmentCacheStats stats = new FragmentCacheStats();
+        MemoryFragmentResultCache cache = new MemoryFragmentResultCache(2 * ENTRY_SIZE, stats);
+
+        assertFalse(cache.get(KEY_1).isPresent());
+        assertTrue(cache.put(KEY_1, PAGES, 100));
+        assertFalse(cache.put(KEY_1, PAGES, 100));
+        assertEquals(cache.get(KEY_1).get().getPages(), PAGES);
+        assertEquals(cache.get(KEY_1).get().getInputDataSize(), 100);
+        assertEquals(stats.getMemoryCacheHit(), 2);
+        assertEquals(stats.getMemoryCacheMiss(), 1);
+        assertEquals(stats.getMemoryCacheEntries(), 1);
+        assertEquals(stats.getMemoryCacheSizeInBytes(), ENTRY_SIZE);
+
+        cache.invalidate(KEY_1);
+        assertFalse(cache.get(KEY_1).isPresent());
+        assertEquals(stats.getMemoryCacheEntries(), 0);
+        assertEquals(stats.getMemoryCacheSizeInBytes(), 0);
+        assertEquals(stats.getMemoryCacheEviction(), 0);
+
+        // results larger than the cache are never admitted
+        MemoryFragmentResultCache smallCache = new MemoryFragmentResultCache(ENTRY_SIZE - 1, stats);
+        assertFalse(smallCache.put(KEY_1, PAGES, 100));
+    }
+
+    @Test
+    public void testEvictLeastFrequentlyUsed()
+    {
+        FragmentCacheStats stats = new FragmentCacheStats();
+        MemoryFragmentResultCache cache = new MemoryFragmentResultCache(2 * ENTRY_SIZE, stats);
+
+        assertTrue(cache.put(KEY_1, PAGES, 0));
+        assertTrue(cache.put(KEY_2, PAGES, 0));
+        assertTrue(cache.get(KEY_1).isPresent());
+
+        assertTrue(cache.put(KEY_3, PAGES, 0));
+        assertEquals(stats.getMemoryCacheEviction(), 1);
+        assertEquals(stats.getMemoryCacheEntries(), 2);
+        assertEquals(stats.getMemoryCacheSizeInBytes(), 2 * ENTRY_SIZE);
+        assertTrue(cache.get(KEY_1).isPresent());
+        assertFalse(cache.get(KEY_2).isPresent());
+        assertTrue(cache.get(KEY_3).isPresent());
+    }
+
+    @Test
+    public void testEvictCheapestToRecompute()
+    {
+        FragmentCacheStats stats = new FragmentCacheStats();
+        MemoryFragmentResultCache cache = new MemoryFragmentResultCache(2 * ENTRY_SIZE, stats);
+
+        assertTrue(cache.put(KEY_1, PAGES, 1_000_000));
+        assertTrue(cache.put(KEY_2, PAGES, 10));
+
+        assertTrue(cache.put(KEY_3, PAGES, 1_000));
+        assertEquals(stats.getMemoryCacheEviction(), 1);
+        assertTrue(cache.get(KEY_1).isPresent());
+        assertFalse(cache.get(KEY_2).isPresent());
+        assertTrue(cache.get(KEY_3).isPresent());
+    }
+
+    @Test
+    public void testRejectLessValuableResult()
+    {
+        FragmentCacheStats stats = new FragmentCacheStats();
+        MemoryFragmentResultCache cache = new MemoryFragmentResultCache(2 * ENTRY_SIZE, stats);
+
+        assertTrue(cache.put(KEY_1, PAGES, 1_000_000));
+        assertTrue(cache.put(KEY_2, PAGES, 1_000_000));
+
+        assertFalse(cache.put(KEY_3, PAGES, 10));
+        assertEquals(stats.getMemoryCacheEviction(), 0);
+        assertEquals(stats.getMemoryCacheEntries(), 2);
+        assertTrue(cache.get(KEY_1).isPresent());
+        assertTrue(cache.get(KEY_2).isPresent());
+        assertFalse(cache.get(KEY_3).isPresent());
+
+        cache.invalidateAll();
+        assertEquals(stats.getMemoryCacheEntries(), 0);
+        assertEquals(stats.getMemoryCacheSizeInBytes(), 0);
+    }
+
+    private static CacheKey cacheKey(int split)
+    {
+        return new CacheKey("test plan fragment", new SplitIdentifier(new ConnectorId("test"), split));
+    }
+}
@@ -37,7 +37,7 @@ import static org.testng.Assert.assertNull;
 public class TestOperatorStats
 {
     private static final SplitOperatorInfo NON_MERGEABLE_INFO = new SplitOperatorInfo("some_info");
-    private static final PartitionedOutputInfo MERGEABLE_INFO = new PartitionedOutputInfo(1, 2, 1024);
+    private static final PartitionedOutputInfo MERGEABLE_INFO = new PartitionedOutputInfo(1, 2, 1024, new long[] {1, 0});
     private static final String TEST_METRIC_NAME = "test_metric";
     private static final RuntimeMetric TEST_RUNTIME_METRIC_1 = new RuntimeMetric(TEST_METRIC_NAME, NONE, 10, 2, 9, 1);
     private static final RuntimeMetric TEST_RUNTIME_METRIC_2 = new RuntimeMetric(TEST_METRIC_NAME, NONE, 5, 2, 3, 2);
@@ -173,6 +173,19 @@ public class TestOperatorStats
         assertExpectedOperatorStats(actual);
     }
 
+    @Test
+    public void testPartitionedOutputInfoJsonWithoutPartitionRowsAdded()
+    {
+        JsonCodec<PartitionedOutputInfo> codec = JsonCodec.jsonCodec(PartitionedOutputInfo.class);
+
+        PartitionedOutputInfo actual = codec.fromJson("{\"rowsAdded\":1,\"pagesAdded\":2,\"outputBufferPeakMemoryUsage\":1024}");
+
+        assertEquals(actual.getRowsAdded(), 1);
+        assertEquals(actual.getPartitionRowsAdded(), new long[0]);
+        assertEquals(actual.getMaxPartitionRowsAdded(), 0);
+        assertEquals(actual.mergeWith(MERGEABLE_INFO).getPartitionRowsAdded(), MERGEABLE_INFO.getPartitionRowsAdded());
+    }
+
     private static void assertRuntimeMetricEquals(RuntimeMetric m1, RuntimeMetric m2)
     {
         assertEquals(m1.getName(), m2.getName());
@@ -484,6 +497,7 @@ public class TestOperatorStats
         assertEquals(actual.getSpilledDataSizeInBytes(), 3 * 25);
         assertEquals(actual.getInfo().getClass(), PartitionedOutputInfo.class);
         assertEquals(((PartitionedOutputInfo) actual.getInfo()).getPagesAdded(), 3 * MERGEABLE_INFO.getPagesAdded());
+        assertEquals(((PartitionedOutputInfo) actual.getInfo()).getPartitionRowsAdded(), new long[] {3, 0});
         RuntimeMetric expectedMetric = RuntimeMetric.merge(TEST_RUNTIME_METRIC_2, TEST_RUNTIME_METRIC_2);
         expectedMetric.mergeWith(TEST_RUNTIME_METRIC_2);
         assertRuntimeMetricEquals(actual.getRuntimeStats().getMetric(TEST_METRIC_NAME), expectedMetric);
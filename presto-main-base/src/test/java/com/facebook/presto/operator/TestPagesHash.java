@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.array.AdaptiveLongBigArray;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.slice.SizeOf.sizeOfIntArray;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestPagesHash
+{
+    private static final int POSITION_COUNT = 500_000;
+    private static final int DISTINCT_KEY_COUNT = 150_000;
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+    private ExecutorService hashBuildExecutor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newFixedThreadPool(2, daemonThreadsNamed("test-executor-%s"));
+        scheduledExecutor = newScheduledThreadPool(1, daemonThreadsNamed("test-scheduledExecutor-%s"));
+        hashBuildExecutor = newFixedThreadPool(4, daemonThreadsNamed("test-hash-build-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+        hashBuildExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testParallelBuild()
+    {
+        Page page = createPage();
+        AdaptiveLongBigArray addresses = addresses(page);
+
+        PositionLinks.FactoryBuilder sequentialLinks = ArrayPositionLinks.builder(POSITION_COUNT);
+        PagesHash sequential = new PagesHash(addresses, POSITION_COUNT, pagesHashStrategy(page), sequentialLinks);
+
+        OperatorContext operatorContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true, false)
+                .addDriverContext()
+                .addOperatorContext(0, new PlanNodeId("test"), "test");
+        LocalMemoryContext buildMemoryContext = operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(PagesHash.class.getSimpleName());
+        PositionLinks.FactoryBuilder parallelLinks = ArrayPositionLinks.builder(POSITION_COUNT);
+        PagesHash parallel = new PagesHash(addresses, POSITION_COUNT, pagesHashStrategy(page), parallelLinks, Optional.of(hashBuildExecutor), Optional.of(buildMemoryContext));
+
+        // the temporary arrays of the parallel build are reserved while it runs, and released once it is done
+        assertTrue(operatorContext.getOperatorStats().getPeakUserMemoryReservationInBytes() >= 2 * sizeOfIntArray(POSITION_COUNT));
+        assertEquals(buildMemoryContext.getBytes(), 0);
+
+        assertEquals(parallel.getPositionIsNullCount(), sequential.getPositionIsNullCount());
+        assertTrue(parallel.getPositionIsNullCount() > 0);
+        assertEquals(parallel.getInMemorySizeInBytes(), sequential.getInMemorySizeInBytes());
+
+        // the positions of every key are linked in the same order
+        assertEquals(parallelLinks.isEmpty(), sequentialLinks.isEmpty());
+        assertEquals(parallelLinks.build().checksum(), sequentialLinks.build().checksum());
+        for (int position = 0; position < POSITION_COUNT; position++) {
+            assertEquals(parallel.getAddressIndex(position, page), sequential.getAddressIndex(position, page));
+        }
+    }
+
+    private static Page createPage()
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, POSITION_COUNT);
+        for (int position = 0; position < POSITION_COUNT; position++) {
+            if (position % 1000 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                // spread the duplicates of every key over the whole page
+                BIGINT.writeLong(blockBuilder, (position * 7919L) % DISTINCT_KEY_COUNT);
+            }
+        }
+        return new Page(blockBuilder.build());
+    }
+
+    private static PagesHashStrategy pagesHashStrategy(Page page)
+    {
+        return new SimplePagesHashStrategy(
+                ImmutableList.of(BIGINT),
+                ImmutableList.of(),
+                ImmutableList.of(ImmutableList.of(page.getBlock(0))),
+                ImmutableList.of(0),
+                OptionalInt.empty(),
+                Optional.empty(),
+                MetadataManager.createTestMetadataManager().getFunctionAndTypeManager());
+    }
+
+    private static AdaptiveLongBigArray addresses(Page page)
+    {
+        AdaptiveLongBigArray addresses = new AdaptiveLongBigArray();
+        addresses.ensureCapacity(page.getPositionCount());
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            addresses.set(position, encodeSyntheticAddress(0, position));
+        }
+        return addresses;
+    }
+}
@@ -19,9 +19,11 @@ import com.google.common.collect.ImmutableList;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.common.block.SortOrder.DESC_NULLS_LAST;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static java.lang.String.format;
@@ -82,6 +84,49 @@ public class TestPagesIndex
         assertEquals(lazyCompactPagesIndex.getEstimatedSize(), eagerCompactPagesIndex.getEstimatedSize());
     }
 
+    @Test
+    public void testSegmentedStorage()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false, true).newPagesIndex(types, 100);
+        int pageCount = 0;
+        int positionCount = 0;
+        while (positionCount <= PagesIndex.SEGMENT_POSITIONS) {
+            Page page = createSequencePage(types, 1000, positionCount, positionCount);
+            pagesIndex.addPage(page);
+            pageCount++;
+            positionCount += page.getPositionCount();
+        }
+
+        assertEquals(pagesIndex.getPositionCount(), positionCount);
+        // rows of all input pages are copied into two segments
+        assertTrue(pageCount > 2);
+        assertEquals(pagesIndex.getChannel(0).size(), 2);
+        assertEquals(pagesIndex.getChannel(1).size(), 2);
+
+        pagesIndex.sort(ImmutableList.of(0), ImmutableList.of(DESC_NULLS_LAST));
+        for (int position = 0; position < positionCount; position++) {
+            assertEquals(pagesIndex.getLong(0, position), positionCount - 1 - position);
+            assertEquals(pagesIndex.getSlice(1, position).toStringUtf8(), String.valueOf(positionCount - 1 - position));
+        }
+
+        long estimatedSizeBeforeCompact = pagesIndex.getEstimatedSize().toBytes();
+        pagesIndex.compact();
+        assertTrue(pagesIndex.getEstimatedSize().toBytes() <= estimatedSizeBeforeCompact);
+
+        int pagePositions = 0;
+        Iterator<Page> pages = pagesIndex.getPages();
+        while (pages.hasNext()) {
+            pagePositions += pages.next().getPositionCount();
+        }
+        assertEquals(pagePositions, positionCount);
+
+        pagesIndex.clear();
+        assertEquals(pagesIndex.getPositionCount(), 0);
+        assertEquals(pagesIndex.getChannel(0).size(), 0);
+    }
+
     private static PagesIndex newPagesIndex(List<Type> types, int expectedPositions, boolean eagerCompact)
     {
         return new PagesIndex.TestingFactory(eagerCompact).newPagesIndex(types, expectedPositions);
@@ -17,15 +17,21 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.DataSize.Unit;
 import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.block.SortOrder;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.metadata.FunctionAndTypeManager;
 import com.facebook.presto.operator.WindowOperator.WindowOperatorFactory;
+import com.facebook.presto.operator.window.CumulativeDistributionFunction;
+import com.facebook.presto.operator.window.DenseRankFunction;
 import com.facebook.presto.operator.window.FirstValueFunction;
 import com.facebook.presto.operator.window.FrameInfo;
 import com.facebook.presto.operator.window.LagFunction;
 import com.facebook.presto.operator.window.LastValueFunction;
 import com.facebook.presto.operator.window.LeadFunction;
 import com.facebook.presto.operator.window.NthValueFunction;
+import com.facebook.presto.operator.window.RankFunction;
 import com.facebook.presto.operator.window.ReflectionWindowFunctionSupplier;
 import com.facebook.presto.operator.window.RowNumberFunction;
 import com.facebook.presto.spi.plan.PlanNodeId;
@@ -47,6 +53,7 @@ import java.util.concurrent.ScheduledExecutorService;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
+import static com.facebook.airlift.testing.Assertions.assertLessThan;
 import static com.facebook.airlift.units.DataSize.succinctBytes;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
@@ -54,30 +61,44 @@ import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.metadata.FunctionAndTypeManager.createTestFunctionAndTypeManager;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
 import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.operator.OperatorAssertion.toPages;
 import static com.facebook.presto.operator.WindowFunctionDefinition.window;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.CURRENT_ROW;
 import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.UNBOUNDED_FOLLOWING;
 import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.UNBOUNDED_PRECEDING;
 import static com.facebook.presto.spi.plan.WindowNode.Frame.WindowType.RANGE;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.WindowType.ROWS;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static java.lang.String.format;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestWindowOperator
 {
+    private static final FunctionAndTypeManager FUNCTION_AND_TYPE_MANAGER = createTestFunctionAndTypeManager();
+
     private static final FrameInfo UNBOUNDED_FRAME = new FrameInfo(RANGE, UNBOUNDED_PRECEDING, Optional.empty(), Optional.empty(), UNBOUNDED_FOLLOWING, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+    private static final FrameInfo RANGE_RUNNING_FRAME = new FrameInfo(RANGE, UNBOUNDED_PRECEDING, Optional.empty(), Optional.empty(), CURRENT_ROW, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+    private static final FrameInfo ROWS_RUNNING_FRAME = new FrameInfo(ROWS, UNBOUNDED_PRECEDING, Optional.empty(), Optional.empty(), CURRENT_ROW, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
 
     public static final List<WindowFunctionDefinition> ROW_NUMBER = ImmutableList.of(
             window(new ReflectionWindowFunctionSupplier<>("row_number", BIGINT, ImmutableList.of(), RowNumberFunction.class), BIGINT, UNBOUNDED_FRAME));
 
+    private static final List<WindowFunctionDefinition> ROW_NUMBER_RANK_DENSE_RANK = ImmutableList.of(
+            window(new ReflectionWindowFunctionSupplier<>("row_number", BIGINT, ImmutableList.of(), RowNumberFunction.class), BIGINT, UNBOUNDED_FRAME),
+            window(new ReflectionWindowFunctionSupplier<>("rank", BIGINT, ImmutableList.of(), RankFunction.class), BIGINT, UNBOUNDED_FRAME),
+            window(new ReflectionWindowFunctionSupplier<>("dense_rank", BIGINT, ImmutableList.of(), DenseRankFunction.class), BIGINT, UNBOUNDED_FRAME));
+
     private static final List<WindowFunctionDefinition> FIRST_VALUE = ImmutableList.of(
             window(new ReflectionWindowFunctionSupplier<>("first_value", VARCHAR, ImmutableList.<Type>of(VARCHAR), FirstValueFunction.class), VARCHAR, UNBOUNDED_FRAME, 1));
 
@@ -93,6 +114,12 @@ public class TestWindowOperator
     private static final List<WindowFunctionDefinition> LEAD = ImmutableList.of(
             window(new ReflectionWindowFunctionSupplier<>("lead", VARCHAR, ImmutableList.of(VARCHAR, BIGINT, VARCHAR), LeadFunction.class), VARCHAR, UNBOUNDED_FRAME, 1, 3, 4));
 
+    private static final List<WindowFunctionDefinition> RUNNING_SUM_ROWS = ImmutableList.of(
+            window(FUNCTION_AND_TYPE_MANAGER.getWindowFunctionImplementation(FUNCTION_AND_TYPE_MANAGER.lookupFunction("sum", fromTypes(BIGINT))), BIGINT, ROWS_RUNNING_FRAME, 1));
+
+    private static final List<WindowFunctionDefinition> RUNNING_SUM_RANGE = ImmutableList.of(
+            window(FUNCTION_AND_TYPE_MANAGER.getWindowFunctionImplementation(FUNCTION_AND_TYPE_MANAGER.lookupFunction("sum", fromTypes(BIGINT))), BIGINT, RANGE_RUNNING_FRAME, 1));
+
     private ExecutorService executor;
     private ScheduledExecutorService scheduledExecutor;
     private DummySpillerFactory spillerFactory;
@@ -191,6 +218,283 @@ public class TestWindowOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected, revokeMemoryWhenAddingPages);
     }
 
+    @Test
+    public void testStreamingRanking()
+    {
+        // peer groups and partitions span page boundaries
+        List<Page> input = rowPagesBuilder(VARCHAR, BIGINT)
+                .row("a", 1L)
+                .row("a", 1L)
+                .row("a", 2L)
+                .pageBreak()
+                .row("a", 2L)
+                .row("a", 3L)
+                .row("b", 1L)
+                .pageBreak()
+                .row("b", 1L)
+                .row("b", 1L)
+                .pageBreak()
+                .row("c", 5L)
+                .build();
+
+        DriverContext driverContext = createDriverContext();
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT, BIGINT, BIGINT)
+                .row("a", 1L, 1L, 1L, 1L)
+                .row("a", 1L, 2L, 1L, 1L)
+                .row("a", 2L, 3L, 3L, 2L)
+                .row("a", 2L, 4L, 3L, 2L)
+                .row("a", 3L, 5L, 5L, 3L)
+                .row("b", 1L, 1L, 1L, 1L)
+                .row("b", 1L, 2L, 1L, 1L)
+                .row("b", 1L, 3L, 1L, 1L)
+                .row("c", 5L, 1L, 1L, 1L)
+                .build();
+
+        for (boolean streamingEnabled : new boolean[] {false, true}) {
+            WindowOperatorFactory operatorFactory = createFactory(
+                    ImmutableList.of(VARCHAR, BIGINT),
+                    Ints.asList(0, 1),
+                    ROW_NUMBER_RANK_DENSE_RANK,
+                    Ints.asList(0),
+                    Ints.asList(0),
+                    Ints.asList(1),
+                    ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                    1,
+                    streamingEnabled);
+            assertOperatorEquals(operatorFactory, createDriverContext(), input, expected);
+        }
+    }
+
+    @Test
+    public void testStreamingMultipleOutputPages()
+    {
+        int pageCount = 80;
+        // odd number of rows per page, so that peer groups continue in the next page
+        int rowsPerPage = 999;
+        ImmutableList.Builder<Page> input = ImmutableList.builder();
+        for (int i = 0; i < pageCount; i++) {
+            input.add(new Page(createPairedKeysBlock(i * rowsPerPage, rowsPerPage)));
+        }
+
+        WindowOperatorFactory operatorFactory = createFactory(
+                ImmutableList.of(BIGINT),
+                Ints.asList(0),
+                ROW_NUMBER_RANK_DENSE_RANK,
+                Ints.asList(),
+                Ints.asList(),
+                Ints.asList(0),
+                ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                1,
+                true);
+
+        DriverContext driverContext = createDriverContext();
+        MaterializedResult.Builder expectedBuilder = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT, BIGINT);
+        for (long row = 0; row < pageCount * rowsPerPage; row++) {
+            expectedBuilder.row(row / 2, row + 1, row / 2 * 2 + 1, row / 2 + 1);
+        }
+        MaterializedResult expected = expectedBuilder.build();
+
+        List<Page> pages = toPages(operatorFactory, driverContext, input.build());
+        assertGreaterThan(pages.size(), 1, "Expected more than one output page");
+
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), pages);
+        assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    private static Block createPairedKeysBlock(long firstRow, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, (firstRow + position) / 2);
+        }
+        return blockBuilder.build();
+    }
+
+    @Test
+    public void testStreamingRunningSum()
+    {
+        // peer groups and partitions span page boundaries
+        List<Page> input = rowPagesBuilder(VARCHAR, BIGINT)
+                .row("a", 1L)
+                .row("a", 1L)
+                .row("a", 2L)
+                .pageBreak()
+                .row("a", 2L)
+                .row("a", 3L)
+                .row("b", 1L)
+                .pageBreak()
+                .row("b", 1L)
+                .row("b", 1L)
+                .pageBreak()
+                .row("c", 5L)
+                .build();
+
+        DriverContext driverContext = createDriverContext();
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT)
+                .row("a", 1L, 1L)
+                .row("a", 1L, 2L)
+                .row("a", 2L, 4L)
+                .row("a", 2L, 6L)
+                .row("a", 3L, 9L)
+                .row("b", 1L, 1L)
+                .row("b", 1L, 2L)
+                .row("b", 1L, 3L)
+                .row("c", 5L, 5L)
+                .build();
+
+        for (boolean streamingEnabled : new boolean[] {false, true}) {
+            WindowOperatorFactory operatorFactory = createFactory(
+                    ImmutableList.of(VARCHAR, BIGINT),
+                    Ints.asList(0, 1),
+                    RUNNING_SUM_ROWS,
+                    Ints.asList(0),
+                    Ints.asList(0),
+                    Ints.asList(1),
+                    ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                    1,
+                    streamingEnabled);
+            driverContext = createDriverContext();
+            WindowOperator operator = (WindowOperator) operatorFactory.createOperator(driverContext);
+            assertEquals(operator.isStreaming(), streamingEnabled);
+
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), toPages(operator, input.iterator()));
+            assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+        }
+    }
+
+    @Test
+    public void testStreamingDisabledForRangeFrames()
+    {
+        // peer groups span page boundaries, and a RANGE frame ends at the last row of the peer group
+        List<Page> input = rowPagesBuilder(VARCHAR, BIGINT)
+                .row("a", 1L)
+                .row("a", 1L)
+                .row("a", 2L)
+                .pageBreak()
+                .row("a", 2L)
+                .row("a", 3L)
+                .row("b", 1L)
+                .build();
+
+        WindowOperatorFactory operatorFactory = createFactory(
+                ImmutableList.of(VARCHAR, BIGINT),
+                Ints.asList(0, 1),
+                RUNNING_SUM_RANGE,
+                Ints.asList(0),
+                Ints.asList(0),
+                Ints.asList(1),
+                ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                1,
+                true);
+
+        DriverContext driverContext = createDriverContext();
+        WindowOperator operator = (WindowOperator) operatorFactory.createOperator(driverContext);
+        assertFalse(operator.isStreaming());
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT)
+                .row("a", 1L, 2L)
+                .row("a", 1L, 2L)
+                .row("a", 2L, 6L)
+                .row("a", 2L, 6L)
+                .row("a", 3L, 9L)
+                .row("b", 1L, 1L)
+                .build();
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), toPages(operator, input.iterator()));
+        assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test
+    public void testStreamingRunningSumRetainsOnlyCurrentPage()
+    {
+        int pageCount = 80;
+        // odd number of rows per page, so that peer groups continue in the next page
+        int rowsPerPage = 999;
+        ImmutableList.Builder<Page> inputBuilder = ImmutableList.builder();
+        for (int i = 0; i < pageCount; i++) {
+            inputBuilder.add(new Page(createPairedKeysBlock(i * rowsPerPage, rowsPerPage)));
+        }
+        List<Page> input = inputBuilder.build();
+
+        MaterializedResult.Builder expectedBuilder = resultBuilder(TEST_SESSION, BIGINT, BIGINT);
+        long rowsSum = 0;
+        for (long row = 0; row < pageCount * rowsPerPage; row++) {
+            rowsSum += row / 2;
+            expectedBuilder.row(row / 2, rowsSum);
+        }
+        MaterializedResult expected = expectedBuilder.build();
+
+        long[] peakMemory = new long[2];
+        for (boolean streamingEnabled : new boolean[] {false, true}) {
+            WindowOperatorFactory operatorFactory = createFactory(
+                    ImmutableList.of(BIGINT),
+                    Ints.asList(0),
+                    RUNNING_SUM_ROWS,
+                    Ints.asList(),
+                    Ints.asList(),
+                    Ints.asList(0),
+                    ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                    1,
+                    streamingEnabled);
+            DriverContext driverContext = createDriverContext();
+            WindowOperator operator = (WindowOperator) operatorFactory.createOperator(driverContext);
+            assertEquals(operator.isStreaming(), streamingEnabled);
+
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), toPages(operator, input.iterator()));
+            assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+            peakMemory[streamingEnabled ? 1 : 0] = operator.getOperatorContext().getOperatorStats().getPeakUserMemoryReservationInBytes();
+        }
+
+        // the whole input is a single partition, which is buffered entirely unless it is streamed
+        assertGreaterThan(peakMemory[0], 0L);
+        assertGreaterThan(peakMemory[1], 0L);
+        assertLessThan(peakMemory[1] * 10, peakMemory[0], "Streaming should only retain the current input page");
+    }
+
+    @Test
+    public void testStreamingDisabledForPartitionSizeFunctions()
+    {
+        // grouped on the partition channel and sorted on the sort channel, so the input could be streamed
+        List<Page> input = rowPagesBuilder(VARCHAR, VARCHAR, BIGINT, BIGINT, VARCHAR, BOOLEAN, VARCHAR)
+                .row("a", "A2", 1L, 2L, "D", false, "")
+                .row("a", "B1", 2L, 2L, "D", true, "")
+                .pageBreak()
+                .row("a", "C2", 3L, 2L, "D", true, "")
+                .row("b", "A1", 1L, 1L, "D", true, "")
+                .row("b", "C1", 2L, 1L, "D", false, "")
+                .row("c", "A3", 1L, 1L, "D", true, "")
+                .build();
+
+        // lead reads rows after the current one, cume_dist reads the partition size
+        WindowOperatorFactory operatorFactory = createFactory(
+                ImmutableList.of(VARCHAR, VARCHAR, BIGINT, BIGINT, VARCHAR, BOOLEAN, VARCHAR),
+                Ints.asList(0, 1, 2, 5),
+                ImmutableList.<WindowFunctionDefinition>builder()
+                        .addAll(LEAD)
+                        .add(window(new ReflectionWindowFunctionSupplier<>("cume_dist", DOUBLE, ImmutableList.of(), CumulativeDistributionFunction.class), DOUBLE, UNBOUNDED_FRAME))
+                        .build(),
+                Ints.asList(0),
+                Ints.asList(0),
+                Ints.asList(2),
+                ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                1,
+                true);
+
+        DriverContext driverContext = createDriverContext();
+        WindowOperator operator = (WindowOperator) operatorFactory.createOperator(driverContext);
+        assertFalse(operator.isStreaming());
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, VARCHAR, BIGINT, BOOLEAN, VARCHAR, DOUBLE)
+                .row("a", "A2", 1L, false, "C2", 1.0 / 3)
+                .row("a", "B1", 2L, true, "D", 2.0 / 3)
+                .row("a", "C2", 3L, true, "D", 1.0)
+                .row("b", "A1", 1L, true, "C1", 0.5)
+                .row("b", "C1", 2L, false, "D", 1.0)
+                .row("c", "A3", 1L, true, "D", 1.0)
+                .build();
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), toPages(operator, input.iterator()));
+        assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
     @Test(dataProvider = "spillEnabled")
     public void testRowNumberPartition(boolean spillEnabled, boolean revokeMemoryWhenAddingPages, long memoryLimit)
     {
@@ -782,6 +1086,36 @@ public class TestWindowOperator
                 new OrderingCompiler());
     }
 
+    private WindowOperatorFactory createFactory(
+            List<? extends Type> sourceTypes,
+            List<Integer> outputChannels,
+            List<WindowFunctionDefinition> functions,
+            List<Integer> partitionChannels,
+            List<Integer> preGroupedChannels,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrder,
+            int preSortedChannelPrefix,
+            boolean streamingEnabled)
+    {
+        return new WindowOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                sourceTypes,
+                outputChannels,
+                functions,
+                partitionChannels,
+                preGroupedChannels,
+                sortChannels,
+                sortOrder,
+                preSortedChannelPrefix,
+                10,
+                new PagesIndex.TestingFactory(false),
+                false,
+                spillerFactory,
+                new OrderingCompiler(),
+                streamingEnabled);
+    }
+
     public static WindowOperatorFactory createFactoryUnbounded(
             List<? extends Type> sourceTypes,
             List<Integer> outputChannels,
@@ -0,0 +1,244 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.repartition;
+
+import com.facebook.presto.block.BlockAssertions.Encoding;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.block.BlockFlattener;
+import com.facebook.presto.common.type.ArrayType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.operator.UncheckedStackArrayAllocator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.block.BlockAssertions.Encoding.DICTIONARY;
+import static com.facebook.presto.block.BlockAssertions.Encoding.RUN_LENGTH;
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.block.BlockAssertions.createMapType;
+import static com.facebook.presto.common.block.BlockSerdeUtil.readBlock;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DecimalType.createDecimalType;
+import static com.facebook.presto.common.type.Decimals.MAX_SHORT_PRECISION;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RowType.withDefaultFieldNames;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.operator.PageAssertions.createPageWithRandomData;
+import static com.facebook.presto.operator.repartition.AbstractBlockEncodingBuffer.createBlockEncodingBuffers;
+import static com.facebook.presto.operator.repartition.OptimizedPartitionedOutputOperator.decodeBlock;
+import static java.lang.Math.toIntExact;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures the {@link BlockEncodingBuffer} path of {@link OptimizedPartitionedOutputOperator} in isolation:
+ * decoding a block, copying a subset of its positions and serializing them. Run {@link #main} to also
+ * report the allocation rate.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkBlockEncodingBuffers
+{
+    @Benchmark
+    public Slice copyAndSerialize(BenchmarkData data)
+    {
+        Closer blockLeaseCloser = Closer.create();
+        DynamicSliceOutput output = new DynamicSliceOutput(toIntExact(data.page.getSizeInBytes()));
+        for (int channel = 0; channel < data.page.getChannelCount(); channel++) {
+            DecodedBlockNode decodedBlock = decodeBlock(data.flattener, blockLeaseCloser, data.page.getBlock(channel));
+            BlockEncodingBuffer buffer = data.buffers[channel];
+            if (buffer == null) {
+                buffer = createBlockEncodingBuffers(decodedBlock, data.bufferAllocator, false);
+                data.buffers[channel] = buffer;
+            }
+
+            buffer.setupDecodedBlocksAndPositions(
+                    decodedBlock,
+                    data.positions,
+                    data.positions.length,
+                    toIntExact(decodedBlock.getRetainedSizeInBytes()),
+                    decodedBlock.getEstimatedSerializedSizeInBytes());
+            buffer.setNextBatch(0, data.positions.length);
+            buffer.appendDataInBatch();
+            buffer.noMoreBatches();
+
+            buffer.serializeTo(output);
+            buffer.resetBuffers();
+        }
+
+        try {
+            blockLeaseCloser.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.slice();
+    }
+
+    @Test
+    public void verifyCopyAndSerialize()
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        BenchmarkBlockEncodingBuffers benchmark = new BenchmarkBlockEncodingBuffers();
+
+        // run twice so that the second run reuses the buffers
+        for (int i = 0; i < 2; i++) {
+            SliceInput input = benchmark.copyAndSerialize(data).getInput();
+            for (int channel = 0; channel < data.page.getChannelCount(); channel++) {
+                assertBlockEquals(
+                        data.types.get(channel),
+                        readBlock(new BlockEncodingManager(), input),
+                        data.page.getBlock(channel).copyPositions(data.positions, 0, data.positions.length));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        private static final int POSITION_COUNT = 8192;
+
+        @Param({
+                "BIGINT",
+                "LONG_DECIMAL",
+                "INTEGER",
+                "SMALLINT",
+                "BOOLEAN",
+                "VARCHAR",
+                "ARRAY(BIGINT)",
+                "ARRAY(ARRAY(BIGINT))",
+                "MAP(BIGINT,VARCHAR)",
+                "ROW(BIGINT,VARCHAR)",
+                "ROW(ARRAY(BIGINT),MAP(BIGINT,BIGINT))"
+        })
+        private String type = "ROW(ARRAY(BIGINT),MAP(BIGINT,BIGINT))";
+
+        @Param({"FLAT", "DICTIONARY", "RLE"})
+        private String encoding = "DICTIONARY";
+
+        @Param({"0.0", "0.2", "0.8"})
+        private float nullRate = 0.2f;
+
+        // The fraction of the positions copied, as a partition of a repartitioned page would be
+        @Param({"0.01", "0.5", "1.0"})
+        private float selectivity = 0.5f;
+
+        private final BlockFlattener flattener = new BlockFlattener(new UncheckedStackArrayAllocator());
+        private final UncheckedStackArrayAllocator bufferAllocator = new UncheckedStackArrayAllocator(1000);
+
+        private List<Type> types;
+        private Page page;
+        private int[] positions;
+        private BlockEncodingBuffer[] buffers;
+
+        @Setup
+        public void setup()
+        {
+            types = ImmutableList.of(getType(type));
+            page = createPageWithRandomData(types, POSITION_COUNT, false, false, nullRate, nullRate, false, getWrappings(encoding));
+
+            int step = Math.max(1, Math.round(1 / selectivity));
+            positions = IntStream.range(0, POSITION_COUNT).filter(position -> position % step == 0).toArray();
+            buffers = new BlockEncodingBuffer[page.getChannelCount()];
+        }
+
+        private static Type getType(String type)
+        {
+            switch (type) {
+                case "BIGINT":
+                    return BIGINT;
+                case "LONG_DECIMAL":
+                    return createDecimalType(MAX_SHORT_PRECISION + 1);
+                case "INTEGER":
+                    return INTEGER;
+                case "SMALLINT":
+                    return SMALLINT;
+                case "BOOLEAN":
+                    return BOOLEAN;
+                case "VARCHAR":
+                    return VARCHAR;
+                case "ARRAY(BIGINT)":
+                    return new ArrayType(BIGINT);
+                case "ARRAY(ARRAY(BIGINT))":
+                    return new ArrayType(new ArrayType(BIGINT));
+                case "MAP(BIGINT,VARCHAR)":
+                    return createMapType(BIGINT, VARCHAR);
+                case "ROW(BIGINT,VARCHAR)":
+                    return withDefaultFieldNames(ImmutableList.of(BIGINT, VARCHAR));
+                case "ROW(ARRAY(BIGINT),MAP(BIGINT,BIGINT))":
+                    return withDefaultFieldNames(ImmutableList.of(new ArrayType(BIGINT), createMapType(BIGINT, BIGINT)));
+                default:
+                    throw new UnsupportedOperationException("Unsupported type: " + type);
+            }
+        }
+
+        private static List<Encoding> getWrappings(String encoding)
+        {
+            switch (encoding) {
+                case "FLAT":
+                    return ImmutableList.of();
+                case "DICTIONARY":
+                    return ImmutableList.of(DICTIONARY);
+                case "RLE":
+                    return ImmutableList.of(RUN_LENGTH);
+                default:
+                    throw new UnsupportedOperationException("Unsupported encoding: " + encoding);
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkBlockEncodingBuffers.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -52,6 +52,7 @@ import io.airlift.slice.Slice;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -102,6 +103,7 @@ import static com.facebook.presto.tpch.TpchMetadata.TINY_SCHEMA_NAME;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestOptimizedPartitionedOutputOperator
 {
@@ -824,6 +826,26 @@ public class TestOptimizedPartitionedOutputOperator
         verifyOutputSizes(operator, PARTITION_COUNT * PAGE_COUNT * TESTING_PAGE_WITH_RLE_BLOCK.getLogicalSizeInBytes(), PARTITION_COUNT * PAGE_COUNT * TESTING_PAGE_WITH_NULL_AND_RLE_BLOCK.getPositionCount());
     }
 
+    @Test
+    public void testPartitionRowsAdded()
+    {
+        OptimizedPartitionedOutputOperator operator = createOptimizedPartitionedOutputOperator(ImmutableList.of(BIGINT), false);
+        processPages(operator, TESTING_PAGE);
+
+        PartitionedOutputInfo info = (PartitionedOutputInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+        assertEquals(info.getPartitionRowsAdded().length, PARTITION_COUNT);
+        assertEquals(Arrays.stream(info.getPartitionRowsAdded()).sum(), PAGE_COUNT * POSITION_COUNT);
+        assertTrue(info.getMaxPartitionRowsAdded() < PAGE_COUNT * POSITION_COUNT);
+
+        // every row of a run length encoded page has the same key, so all rows go to a single partition
+        operator = createOptimizedPartitionedOutputOperator(ImmutableList.of(BIGINT), false);
+        processPages(operator, TESTING_PAGE_WITH_RLE_BLOCK);
+
+        info = (PartitionedOutputInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+        assertEquals(info.getMaxPartitionRowsAdded(), PAGE_COUNT * POSITION_COUNT);
+        assertEquals(info.getRowsAdded(), PAGE_COUNT * POSITION_COUNT);
+    }
+
     private static void processPages(OptimizedPartitionedOutputOperator operator, Page testingPageWithRleBlock)
     {
         for (int i = 0; i < PAGE_COUNT; i++) {
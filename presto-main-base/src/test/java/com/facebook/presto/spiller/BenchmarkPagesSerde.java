@@ -0,0 +1,289 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.CompressionCodec;
+import com.facebook.presto.block.BlockAssertions.Encoding;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.block.BlockEncodingSerde;
+import com.facebook.presto.common.type.ArrayType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.execution.buffer.PagesSerdeFactory;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.facebook.presto.spi.spiller.SpillCipher;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.block.BlockAssertions.Encoding.DICTIONARY;
+import static com.facebook.presto.block.BlockAssertions.Encoding.RUN_LENGTH;
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.block.BlockAssertions.createMapType;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DecimalType.createDecimalType;
+import static com.facebook.presto.common.type.Decimals.MAX_SHORT_PRECISION;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RowType.withDefaultFieldNames;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.operator.PageAssertions.createPageWithRandomData;
+import static java.lang.Math.toIntExact;
+import static java.util.Collections.nCopies;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures {@link BlockEncodingSerde} and {@link PagesSerde}, with and without compression and
+ * encryption, on pages of every block encoding. Run {@link #main} to also report the allocation rate.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkPagesSerde
+{
+    @Benchmark
+    public List<Slice> writeBlocks(BenchmarkData data)
+    {
+        ImmutableList.Builder<Slice> slices = ImmutableList.builderWithExpectedSize(data.pages.size());
+        for (Page page : data.pages) {
+            DynamicSliceOutput output = new DynamicSliceOutput(toIntExact(page.getSizeInBytes()));
+            for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                data.blockEncodingSerde.writeBlock(output, page.getBlock(channel));
+            }
+            slices.add(output.slice());
+        }
+        return slices.build();
+    }
+
+    @Benchmark
+    public List<Block> readBlocks(BenchmarkData data)
+    {
+        ImmutableList.Builder<Block> blocks = ImmutableList.builder();
+        for (Slice slice : data.serializedBlocks) {
+            SliceInput input = slice.getInput();
+            while (input.isReadable()) {
+                blocks.add(data.blockEncodingSerde.readBlock(input));
+            }
+        }
+        return blocks.build();
+    }
+
+    @Benchmark
+    public List<SerializedPage> serialize(BenchmarkData data)
+    {
+        ImmutableList.Builder<SerializedPage> serializedPages = ImmutableList.builderWithExpectedSize(data.pages.size());
+        for (Page page : data.pages) {
+            serializedPages.add(data.pagesSerde.serialize(page));
+        }
+        return serializedPages.build();
+    }
+
+    @Benchmark
+    public List<Page> deserialize(BenchmarkData data)
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builderWithExpectedSize(data.serializedPages.size());
+        for (SerializedPage serializedPage : data.serializedPages) {
+            pages.add(data.pagesSerde.deserialize(serializedPage));
+        }
+        return pages.build();
+    }
+
+    @Test
+    public void verifySerde()
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        try {
+            BenchmarkPagesSerde benchmark = new BenchmarkPagesSerde();
+            List<Page> pages = benchmark.deserialize(data);
+            for (int i = 0; i < pages.size(); i++) {
+                assertPageEquals(data.types, pages.get(i), data.pages.get(i));
+            }
+            List<Block> blocks = benchmark.readBlocks(data);
+            for (int i = 0; i < blocks.size(); i++) {
+                Page page = data.pages.get(i / data.types.size());
+                assertBlockEquals(data.types.get(i % data.types.size()), blocks.get(i), page.getBlock(i % data.types.size()));
+            }
+            benchmark.writeBlocks(data);
+            benchmark.serialize(data);
+        }
+        finally {
+            data.tearDown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        private static final int PAGE_COUNT = 16;
+        private static final int POSITION_COUNT = 8192;
+
+        @Param({"NONE", "LZ4", "SNAPPY", "ZSTD"})
+        private String codec = "LZ4";
+
+        @Param({"false", "true"})
+        private boolean encrypted = true;
+
+        @Param({
+                "BIGINT",
+                "LONG_DECIMAL",
+                "INTEGER",
+                "SMALLINT",
+                "BOOLEAN",
+                "VARCHAR",
+                "ARRAY(BIGINT)",
+                "ARRAY(ARRAY(BIGINT))",
+                "MAP(BIGINT,VARCHAR)",
+                "ROW(BIGINT,VARCHAR)",
+                "ROW(ARRAY(BIGINT),MAP(BIGINT,BIGINT))"
+        })
+        private String type = "ROW(ARRAY(BIGINT),MAP(BIGINT,BIGINT))";
+
+        @Param({"FLAT", "DICTIONARY", "RLE"})
+        private String encoding = "DICTIONARY";
+
+        @Param({"0.0", "0.2", "0.8"})
+        private float nullRate = 0.2f;
+
+        private final BlockEncodingSerde blockEncodingSerde = new BlockEncodingManager();
+
+        private List<Type> types;
+        private List<Page> pages;
+        private List<Slice> serializedBlocks;
+        private List<SerializedPage> serializedPages;
+        private Optional<SpillCipher> spillCipher;
+        private PagesSerde pagesSerde;
+
+        @Setup
+        public void setup()
+        {
+            types = nCopies(2, getType(type));
+            List<Encoding> wrappings = getWrappings(encoding);
+
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            for (int i = 0; i < PAGE_COUNT; i++) {
+                pages.add(createPageWithRandomData(types, POSITION_COUNT, false, false, nullRate, nullRate, false, wrappings));
+            }
+            this.pages = pages.build();
+
+            spillCipher = encrypted ? Optional.of(new AesSpillCipher()) : Optional.empty();
+            pagesSerde = new PagesSerdeFactory(blockEncodingSerde, CompressionCodec.valueOf(codec)).createPagesSerdeForSpill(spillCipher);
+
+            ImmutableList.Builder<Slice> serializedBlocks = ImmutableList.builder();
+            ImmutableList.Builder<SerializedPage> serializedPages = ImmutableList.builder();
+            for (Page page : this.pages) {
+                DynamicSliceOutput output = new DynamicSliceOutput(toIntExact(page.getSizeInBytes()));
+                for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                    blockEncodingSerde.writeBlock(output, page.getBlock(channel));
+                }
+                serializedBlocks.add(output.slice());
+                serializedPages.add(pagesSerde.serialize(page));
+            }
+            this.serializedBlocks = serializedBlocks.build();
+            this.serializedPages = serializedPages.build();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            spillCipher.ifPresent(SpillCipher::destroy);
+        }
+
+        private static Type getType(String type)
+        {
+            switch (type) {
+                case "BIGINT":
+                    return BIGINT;
+                case "LONG_DECIMAL":
+                    return createDecimalType(MAX_SHORT_PRECISION + 1);
+                case "INTEGER":
+                    return INTEGER;
+                case "SMALLINT":
+                    return SMALLINT;
+                case "BOOLEAN":
+                    return BOOLEAN;
+                case "VARCHAR":
+                    return VARCHAR;
+                case "ARRAY(BIGINT)":
+                    return new ArrayType(BIGINT);
+                case "ARRAY(ARRAY(BIGINT))":
+                    return new ArrayType(new ArrayType(BIGINT));
+                case "MAP(BIGINT,VARCHAR)":
+                    return createMapType(BIGINT, VARCHAR);
+                case "ROW(BIGINT,VARCHAR)":
+                    return withDefaultFieldNames(ImmutableList.of(BIGINT, VARCHAR));
+                case "ROW(ARRAY(BIGINT),MAP(BIGINT,BIGINT))":
+                    return withDefaultFieldNames(ImmutableList.of(new ArrayType(BIGINT), createMapType(BIGINT, BIGINT)));
+                default:
+                    throw new UnsupportedOperationException("Unsupported type: " + type);
+            }
+        }
+
+        private static List<Encoding> getWrappings(String encoding)
+        {
+            switch (encoding) {
+                case "FLAT":
+                    return ImmutableList.of();
+                case "DICTIONARY":
+                    return ImmutableList.of(DICTIONARY);
+                case "RLE":
+                    return ImmutableList.of(RUN_LENGTH);
+                default:
+                    throw new UnsupportedOperationException("Unsupported encoding: " + encoding);
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesSerde.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -37,7 +37,12 @@ import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
@@ -46,9 +51,11 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
 import static java.lang.Double.doubleToLongBits;
 import static java.nio.file.Files.newInputStream;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -95,18 +102,95 @@ public class TestFileSingleStreamSpiller
         assertSpill(codec, true);
     }
 
+    @Test(dataProvider = "testCompressionCodec")
+    public void testSpillPrefetch(CompressionCodec codec)
+            throws Exception
+    {
+        assertSpill(codec, false, true);
+    }
+
+    @Test
+    public void testCloseWithPrefetchInProgress()
+            throws Exception
+    {
+        File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
+        FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(spillPath, CompressionCodec.NONE, false, true);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
+
+        Page page = buildPage();
+        spiller.spill(Iterators.forArray(page, page, page)).get();
+
+        Iterator<Page> spilledPages = spiller.getSpilledPages();
+        PageAssertions.assertPageEquals(TYPES, page, spilledPages.next());
+
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testCloseWithPrefetchPending()
+            throws Exception
+    {
+        CountDownLatch prefetchPending = new CountDownLatch(1);
+        CountDownLatch releasePrefetch = new CountDownLatch(1);
+        AtomicInteger startedTasks = new AtomicInteger();
+        // the spill and the first read ahead run right away, the second read ahead waits until it is released
+        ThreadPoolExecutor gatedExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, SECONDS, new SynchronousQueue<>())
+        {
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task)
+            {
+                if (startedTasks.incrementAndGet() == 3) {
+                    prefetchPending.countDown();
+                    awaitUninterruptibly(releasePrefetch);
+                }
+            }
+        };
+        try {
+            File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
+            FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                    listeningDecorator(gatedExecutor),
+                    new BlockEncodingManager(),
+                    new SpillerStats(),
+                    ImmutableList.of(spillPath.toPath()),
+                    1.0,
+                    CompressionCodec.NONE,
+                    false,
+                    true);
+            LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+            SingleStreamSpiller spiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
+
+            Page page = buildPage();
+            spiller.spill(Iterators.forArray(page, page, page)).get();
+
+            Iterator<Page> spilledPages = spiller.getSpilledPages();
+            PageAssertions.assertPageEquals(TYPES, page, spilledPages.next());
+            assertTrue(prefetchPending.await(10, SECONDS));
+
+            spiller.close();
+            assertEquals(listFiles(spillPath.toPath()).size(), 0);
+            assertEquals(memoryContext.getBytes(), 0);
+        }
+        finally {
+            releasePrefetch.countDown();
+            gatedExecutor.shutdown();
+            assertTrue(gatedExecutor.awaitTermination(10, SECONDS));
+        }
+    }
+
     private void assertSpill(CompressionCodec compressionCodec, boolean encryption)
             throws Exception
+    {
+        assertSpill(compressionCodec, encryption, false);
+    }
+
+    private void assertSpill(CompressionCodec compressionCodec, boolean encryption, boolean prefetch)
+            throws Exception
     {
         File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
-        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
-                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
-                new BlockEncodingManager(),
-                new SpillerStats(),
-                ImmutableList.of(spillPath.toPath()),
-                1.0,
-                compressionCodec,
-                encryption);
+        FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(spillPath, compressionCodec, encryption, prefetch);
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
@@ -134,7 +218,7 @@ public class TestFileSingleStreamSpiller
         // assertEquals(memoryContext.getBytes(), 0);
 
         Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
-        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE + (prefetch ? DEFAULT_MAX_PAGE_SIZE_IN_BYTES : 0));
         ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
@@ -150,6 +234,19 @@ public class TestFileSingleStreamSpiller
         assertEquals(memoryContext.getBytes(), 0);
     }
 
+    private FileSingleStreamSpillerFactory createSpillerFactory(File spillPath, CompressionCodec compressionCodec, boolean encryption, boolean prefetch)
+    {
+        return new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                new BlockEncodingManager(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                compressionCodec,
+                encryption,
+                prefetch);
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
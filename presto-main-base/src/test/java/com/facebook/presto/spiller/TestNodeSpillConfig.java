@@ -38,6 +38,7 @@ public class TestNodeSpillConfig
                 .setQueryMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setSpillCompressionCodec(CompressionCodec.NONE)
                 .setSpillEncryptionEnabled(false)
+                .setSpillPrefetchEnabled(false)
                 .setTempStorageBufferSize(new DataSize(4, KILOBYTE)));
     }
 
@@ -50,6 +51,7 @@ public class TestNodeSpillConfig
                 .put("experimental.query-max-spill-per-node", "15 MB")
                 .put("experimental.spill-compression-codec", "LZ4")
                 .put("experimental.spill-encryption-enabled", "true")
+                .put("experimental.spill-prefetch-enabled", "true")
                 .put("experimental.temp-storage-buffer-size", "24MB")
                 .build();
 
@@ -59,6 +61,7 @@ public class TestNodeSpillConfig
                 .setQueryMaxSpillPerNode(new DataSize(15, MEGABYTE))
                 .setSpillCompressionCodec(CompressionCodec.LZ4)
                 .setSpillEncryptionEnabled(true)
+                .setSpillPrefetchEnabled(true)
                 .setTempStorageBufferSize(new DataSize(24, MEGABYTE));
 
         assertFullMapping(properties, expected);
@@ -79,6 +79,7 @@ public class TestFeaturesConfig
                 .setJoinReorderingStrategy(JoinReorderingStrategy.AUTOMATIC)
                 .setPartialMergePushdownStrategy(FeaturesConfig.PartialMergePushdownStrategy.NONE)
                 .setMaxReorderedJoins(9)
+                .setJoinReorderingTimeBudget(new Duration(0, SECONDS))
                 .setUseHistoryBasedPlanStatistics(false)
                 .setTrackHistoryBasedPlanStatistics(false)
                 .setTrackHistoryStatsFromFailedQuery(true)
@@ -126,6 +127,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverRowCount(100)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(10, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(0)
+                .setDynamicFilteringBloomFilterSize(new DataSize(0, MEGABYTE))
                 .setFragmentResultCachingEnabled(false)
                 .setEnableStatsCalculator(true)
                 .setEnableStatsCollectionForTemporaryTable(false)
@@ -145,6 +147,11 @@ public class TestFeaturesConfig
                 .setPushProjectionThroughCrossJoin(false)
                 .setForceSingleNodeOutput(true)
                 .setPagesIndexEagerCompactionEnabled(false)
+                .setPagesIndexSegmentedStorageEnabled(false)
+                .setJoinProbeBatchSize(0)
+                .setHashAggregationRadixPartitionCount(0)
+                .setStreamingWindowEnabled(false)
+                .setParallelHashBuildEnabled(false)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(500, KILOBYTE))
                 .setFilterAndProjectMinOutputPageRowCount(256)
                 .setUseMarkDistinct(true)
@@ -208,6 +215,7 @@ public class TestFeaturesConfig
                 .setVerboseRuntimeStatsEnabled(false)
                 .setAggregationIfToFilterRewriteStrategy(AggregationIfToFilterRewriteStrategy.DISABLED)
                 .setAnalyzerType("BUILTIN")
+                .setStatementCacheSize(0)
                 .setPreProcessMetadataCalls(false)
                 .setStreamingForPartialAggregationEnabled(false)
                 .setMaxStageCountForEagerScheduling(25)
@@ -321,6 +329,7 @@ public class TestFeaturesConfig
                 .put("dynamic-filtering-max-per-driver-row-count", "256")
                 .put("dynamic-filtering-max-per-driver-size", "64kB")
                 .put("dynamic-filtering-range-row-limit-per-driver", "1000")
+                .put("dynamic-filtering-bloom-filter-size", "4MB")
                 .put("fragment-result-cache.enabled", "true")
                 .put("experimental.enable-stats-calculator", "false")
                 .put("experimental.enable-stats-collection-for-temporary-table", "true")
@@ -341,6 +350,7 @@ public class TestFeaturesConfig
                 .put("optimizer.join-reordering-strategy", "NONE")
                 .put("experimental.optimizer.partial-merge-pushdown-strategy", PUSH_THROUGH_LOW_MEMORY_OPERATORS.name())
                 .put("optimizer.max-reordered-joins", "5")
+                .put("optimizer.join-reordering-time-budget", "5s")
                 .put("optimizer.use-history-based-plan-statistics", "true")
                 .put("optimizer.track-history-based-plan-statistics", "true")
                 .put("optimizer.track-history-stats-from-failed-queries", "false")
@@ -395,6 +405,11 @@ public class TestFeaturesConfig
                 .put("optimizer.enable-intermediate-aggregations", "true")
                 .put("optimizer.force-single-node-output", "false")
                 .put("pages-index.eager-compaction-enabled", "true")
+                .put("pages-index.segmented-storage-enabled", "true")
+                .put("join-probe-batch-size", "1024")
+                .put("hash-aggregation-radix-partition-count", "16")
+                .put("streaming-window-enabled", "true")
+                .put("parallel-hash-build-enabled", "true")
                 .put("experimental.filter-and-project-min-output-page-size", "1MB")
                 .put("experimental.filter-and-project-min-output-page-row-count", "2048")
                 .put("optimizer.use-mark-distinct", "false")
@@ -455,6 +470,7 @@ public class TestFeaturesConfig
                 .put("materialized-view-allow-full-refresh-enabled", "true")
                 .put("materialized-view-stale-read-behavior", "FAIL")
                 .put("analyzer-type", "CRUX")
+                .put("statement-cache-size", "1000")
                 .put("pre-process-metadata-calls", "true")
                 .put("verbose-runtime-stats-enabled", "true")
                 .put("optimizer.aggregation-if-to-filter-rewrite-strategy", "filter_with_if")
@@ -566,6 +582,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverRowCount(256)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(64, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(1000)
+                .setDynamicFilteringBloomFilterSize(new DataSize(4, MEGABYTE))
                 .setFragmentResultCachingEnabled(true)
                 .setEnableStatsCalculator(false)
                 .setEnableStatsCollectionForTemporaryTable(true)
@@ -585,6 +602,7 @@ public class TestFeaturesConfig
                 .setJoinReorderingStrategy(NONE)
                 .setPartialMergePushdownStrategy(PUSH_THROUGH_LOW_MEMORY_OPERATORS)
                 .setMaxReorderedJoins(5)
+                .setJoinReorderingTimeBudget(new Duration(5, SECONDS))
                 .setUseHistoryBasedPlanStatistics(true)
                 .setTrackHistoryBasedPlanStatistics(true)
                 .setTrackHistoryStatsFromFailedQuery(false)
@@ -637,6 +655,11 @@ public class TestFeaturesConfig
                 .setEnableIntermediateAggregations(true)
                 .setForceSingleNodeOutput(false)
                 .setPagesIndexEagerCompactionEnabled(true)
+                .setPagesIndexSegmentedStorageEnabled(true)
+                .setJoinProbeBatchSize(1024)
+                .setHashAggregationRadixPartitionCount(16)
+                .setStreamingWindowEnabled(true)
+                .setParallelHashBuildEnabled(true)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(1, MEGABYTE))
                 .setFilterAndProjectMinOutputPageRowCount(2048)
                 .setUseMarkDistinct(false)
@@ -702,6 +725,7 @@ public class TestFeaturesConfig
                 .setVerboseRuntimeStatsEnabled(true)
                 .setAggregationIfToFilterRewriteStrategy(AggregationIfToFilterRewriteStrategy.FILTER_WITH_IF)
                 .setAnalyzerType("CRUX")
+                .setStatementCacheSize(1000)
                 .setPreProcessMetadataCalls(true)
                 .setStreamingForPartialAggregationEnabled(true)
                 .setMaxStageCountForEagerScheduling(123)
@@ -808,4 +832,11 @@ public class TestFeaturesConfig
         new ConfigurationFactory(ImmutableMap.of(SPILL_ENABLED, "true"))
                 .build(FeaturesConfig.class);
     }
+
+    @Test(expectedExceptions = RuntimeException.class, expectedExceptionsMessageRegExp = ".*\\Qhash-aggregation-radix-partition-count must be 0 or a power of 2\\E.*")
+    public void testValidateHashAggregationRadixPartitionCount()
+    {
+        new ConfigurationFactory(ImmutableMap.of("hash-aggregation-radix-partition-count", "3"))
+                .build(FeaturesConfig.class);
+    }
 }
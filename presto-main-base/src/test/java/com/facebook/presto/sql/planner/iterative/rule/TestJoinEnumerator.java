@@ -27,8 +27,11 @@ import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.spi.VariableAllocator;
 import com.facebook.presto.spi.WarningCollector;
 import com.facebook.presto.spi.plan.Assignments;
+import com.facebook.presto.spi.plan.JoinNode;
 import com.facebook.presto.spi.plan.LogicalPropertiesProvider;
+import com.facebook.presto.spi.plan.PlanNode;
 import com.facebook.presto.spi.plan.PlanNodeIdAllocator;
+import com.facebook.presto.spi.plan.ValuesNode;
 import com.facebook.presto.spi.relation.DeterminismEvaluator;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
@@ -41,12 +44,14 @@ import com.facebook.presto.sql.planner.iterative.Rule;
 import com.facebook.presto.sql.planner.iterative.rule.ReorderJoins.JoinEnumerationResult;
 import com.facebook.presto.sql.planner.iterative.rule.ReorderJoins.JoinEnumerator;
 import com.facebook.presto.sql.planner.iterative.rule.ReorderJoins.JoinEnumerator.JoinCondition;
+import com.facebook.presto.sql.planner.iterative.rule.ReorderJoins.JoinGraph;
 import com.facebook.presto.sql.planner.iterative.rule.test.PlanBuilder;
 import com.facebook.presto.sql.planner.plan.MultiJoinNode;
 import com.facebook.presto.sql.relational.FunctionResolution;
 import com.facebook.presto.sql.relational.RowExpressionDeterminismEvaluator;
 import com.facebook.presto.sql.tree.SymbolReference;
 import com.facebook.presto.testing.LocalQueryRunner;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -61,9 +66,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static com.facebook.airlift.testing.Closeables.closeAllRuntimeException;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.JOIN_REORDERING_TIME_BUDGET;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
 import static com.facebook.presto.expressions.RowExpressionNodeInliner.replaceExpression;
@@ -71,8 +78,13 @@ import static com.facebook.presto.sql.planner.iterative.Lookup.noLookup;
 import static com.facebook.presto.sql.planner.iterative.rule.ReorderJoins.JoinEnumerator.generatePartitions;
 import static com.facebook.presto.sql.planner.iterative.rule.test.PlanBuilder.expression;
 import static com.facebook.presto.sql.planner.optimizations.JoinNodeUtils.toRowExpression;
+import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.facebook.presto.sql.relational.Expressions.variable;
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
@@ -154,6 +166,109 @@ public class TestJoinEnumerator
         assertEquals(actual.getCost(), PlanCostEstimate.infinite());
     }
 
+    @Test
+    public void testJoinGraph()
+    {
+        PlanBuilder p = new PlanBuilder(TEST_SESSION, new PlanNodeIdAllocator(), queryRunner.getMetadata());
+        VariableReferenceExpression a1 = p.variable("a1");
+        VariableReferenceExpression b1 = p.variable("b1");
+        VariableReferenceExpression b2 = p.variable("b2");
+        VariableReferenceExpression c1 = p.variable("c1");
+        VariableReferenceExpression d1 = p.variable("d1");
+        List<PlanNode> sources = ImmutableList.of(p.values(a1), p.values(b1, b2), p.values(c1), p.values(d1));
+        Map<String, Type> variableTypes = ImmutableMap.of("a1", BIGINT, "b1", BIGINT, "b2", BIGINT, "c1", BIGINT, "d1", BIGINT);
+        long a = 1;
+        long b = 2;
+        long c = 4;
+        long d = 8;
+
+        // a chain of joins, where equality inference also joins A with C and D
+        JoinGraph joinGraph = JoinGraph.create(sources, rowExpressionTranslator.translate("a1 = b1 and b1 = c1 and c1 = d1", variableTypes), functionResolution).get();
+        assertTrue(joinGraph.areAdjacent(a, c));
+        assertTrue(joinGraph.isConnected(a | d));
+
+        // A can only be joined through B, while C and D are also joined through the inferred c1 + 1 = d1
+        joinGraph = JoinGraph.create(sources, rowExpressionTranslator.translate("a1 = b1 and b2 = c1 and b2 + 1 = d1", variableTypes), functionResolution).get();
+        assertTrue(joinGraph.areAdjacent(a, b | c));
+        assertFalse(joinGraph.areAdjacent(a, c | d));
+        assertTrue(joinGraph.isConnected(a | b | d));
+        assertFalse(joinGraph.isConnected(a | c));
+        assertEquals(joinGraph.getSourceBits(ImmutableList.of(sources.get(2), sources.get(0))).get(), new long[] {c, a});
+        assertFalse(joinGraph.getSourceBits(ImmutableList.of(p.values(p.variable("e1")))).isPresent());
+
+        // a conjunct on more than two sources connects all of them
+        joinGraph = JoinGraph.create(sources, rowExpressionTranslator.translate("a1 = b1 + c1 and c1 = d1", variableTypes), functionResolution).get();
+        assertTrue(joinGraph.areAdjacent(a, c));
+        assertTrue(joinGraph.areAdjacent(b, d));
+
+        // a constant can be equal to a variable of any source
+        assertFalse(JoinGraph.create(sources, rowExpressionTranslator.translate("a1 = b1 and c1 = 1", variableTypes), functionResolution).isPresent());
+    }
+
+    @Test
+    public void testPrunedEnumerationMatchesExhaustiveEnumeration()
+    {
+        MultiJoinNode multiJoinNode = createChainJoin();
+
+        JoinEnumerationResult exhaustive = createEnumerator(multiJoinNode, createContext(), false, Optional.empty(), Ticker.systemTicker())
+                .chooseJoinOrder(multiJoinNode.getSources(), multiJoinNode.getOutputVariables());
+        assertTrue(exhaustive.getPlanNode().isPresent());
+
+        JoinGraph joinGraph = JoinGraph.create(ImmutableList.copyOf(multiJoinNode.getSources()), multiJoinNode.getFilter(), functionResolution).get();
+        JoinEnumerationResult pruned = createEnumerator(multiJoinNode, createContext(), true, Optional.of(joinGraph), Ticker.systemTicker())
+                .chooseJoinOrder(multiJoinNode.getSources(), multiJoinNode.getOutputVariables());
+
+        assertEquals(pruned.getCost(), exhaustive.getCost());
+        assertEquals(joinOrder(pruned.getPlanNode().get()), joinOrder(exhaustive.getPlanNode().get()));
+    }
+
+    @Test
+    public void testTimeBudgetKeepsBestJoinOrderFound()
+    {
+        MultiJoinNode multiJoinNode = createChainJoin();
+        Session session = Session.builder(queryRunner.getDefaultSession())
+                .setSystemProperty(JOIN_REORDERING_TIME_BUDGET, "1ms")
+                .build();
+        JoinGraph joinGraph = JoinGraph.create(ImmutableList.copyOf(multiJoinNode.getSources()), multiJoinNode.getFilter(), functionResolution).get();
+
+        JoinEnumerationResult exhaustive = createEnumerator(multiJoinNode, createContext(), false, Optional.empty(), Ticker.systemTicker())
+                .chooseJoinOrder(multiJoinNode.getSources(), multiJoinNode.getOutputVariables());
+
+        // the budget is never exhausted when no time passes
+        Ticker stoppedTicker = new Ticker()
+        {
+            @Override
+            public long read()
+            {
+                return 0;
+            }
+        };
+        JoinEnumerationResult withinBudget = createEnumerator(multiJoinNode, createContext(session), true, Optional.of(joinGraph), stoppedTicker)
+                .chooseJoinOrder(multiJoinNode.getSources(), multiJoinNode.getOutputVariables());
+        assertEquals(withinBudget.getCost(), exhaustive.getCost());
+        assertEquals(joinOrder(withinBudget.getPlanNode().get()), joinOrder(exhaustive.getPlanNode().get()));
+
+        // the budget is exhausted as soon as the first join order of every group of sources is found
+        Ticker advancingTicker = new Ticker()
+        {
+            private long nanos;
+
+            @Override
+            public long read()
+            {
+                nanos += SECONDS.toNanos(1);
+                return nanos;
+            }
+        };
+        JoinEnumerationResult overBudget = createEnumerator(multiJoinNode, createContext(session), true, Optional.of(joinGraph), advancingTicker)
+                .chooseJoinOrder(multiJoinNode.getSources(), multiJoinNode.getOutputVariables());
+        assertTrue(overBudget.getPlanNode().isPresent());
+        assertTrue(new CostComparator(1, 1, 1).compare(session, overBudget.getCost(), exhaustive.getCost()) >= 0);
+        // the first partitioning splits off the first source
+        JoinNode topJoin = (JoinNode) overBudget.getPlanNode().get();
+        assertTrue(sourceNames(topJoin.getLeft()).equals(ImmutableSet.of("a")) || sourceNames(topJoin.getRight()).equals(ImmutableSet.of("a")));
+    }
+
     @Test
     public void testJoinClauseAndFilterInference()
     {
@@ -242,7 +357,77 @@ public class TestJoinEnumerator
         }
     }
 
+    private MultiJoinNode createChainJoin()
+    {
+        VariableReferenceExpression a = planBuilder.variable("a");
+        VariableReferenceExpression b = planBuilder.variable("b");
+        VariableReferenceExpression c = planBuilder.variable("c");
+        VariableReferenceExpression d = planBuilder.variable("d");
+        VariableReferenceExpression e = planBuilder.variable("e");
+        Map<String, Type> variableTypes = ImmutableMap.of("a", BIGINT, "b", BIGINT, "c", BIGINT, "d", BIGINT, "e", BIGINT);
+        return new MultiJoinNode(
+                new LinkedHashSet<>(ImmutableList.of(values(a, 500), values(b, 20), values(c, 1000), values(d, 5), values(e, 200))),
+                rowExpressionTranslator.translate("a = b and b = c and c = d and d = e", variableTypes),
+                ImmutableList.of(a, b, c, d, e),
+                Assignments.of(),
+                false,
+                Optional.empty());
+    }
+
+    private ValuesNode values(VariableReferenceExpression variable, int rows)
+    {
+        return planBuilder.values(
+                ImmutableList.of(variable),
+                LongStream.range(0, rows)
+                        .mapToObj(value -> ImmutableList.<RowExpression>of(constant(value, BIGINT)))
+                        .collect(toImmutableList()));
+    }
+
+    private JoinEnumerator createEnumerator(MultiJoinNode multiJoinNode, Rule.Context context, boolean pruneByCost, Optional<JoinGraph> joinGraph, Ticker ticker)
+    {
+        return new JoinEnumerator(
+                new CostComparator(1, 1, 1),
+                multiJoinNode.getFilter(),
+                context,
+                determinismEvaluator,
+                functionResolution,
+                metadata,
+                joinGraph,
+                pruneByCost,
+                ticker);
+    }
+
+    /**
+     * Describes the shape of a join tree by the variable of each values source, e.g. "((a b) c)"
+     */
+    private static String joinOrder(PlanNode node)
+    {
+        if (node instanceof JoinNode) {
+            JoinNode join = (JoinNode) node;
+            return "(" + joinOrder(join.getLeft()) + " " + joinOrder(join.getRight()) + ")";
+        }
+        if (node instanceof ValuesNode) {
+            return getOnlyElement(node.getOutputVariables()).getName();
+        }
+        return joinOrder(getOnlyElement(node.getSources()));
+    }
+
+    private static Set<String> sourceNames(PlanNode node)
+    {
+        if (node instanceof ValuesNode) {
+            return ImmutableSet.of(getOnlyElement(node.getOutputVariables()).getName());
+        }
+        return node.getSources().stream()
+                .flatMap(source -> sourceNames(source).stream())
+                .collect(toImmutableSet());
+    }
+
     private Rule.Context createContext()
+    {
+        return createContext(queryRunner.getDefaultSession());
+    }
+
+    private Rule.Context createContext(Session session)
     {
         PlanNodeIdAllocator planNodeIdAllocator = new PlanNodeIdAllocator();
         VariableAllocator variableAllocator = new VariableAllocator();
@@ -250,13 +435,13 @@ public class TestJoinEnumerator
                 queryRunner.getStatsCalculator(),
                 Optional.empty(),
                 noLookup(),
-                queryRunner.getDefaultSession(),
+                session,
                 TypeProvider.viewOf(variableAllocator.getVariables()));
         CachingCostProvider costProvider = new CachingCostProvider(
                 queryRunner.getCostCalculator(),
                 statsProvider,
                 Optional.empty(),
-                queryRunner.getDefaultSession());
+                session);
 
         return new Rule.Context()
         {
@@ -281,7 +466,7 @@ public class TestJoinEnumerator
             @Override
             public Session getSession()
             {
-                return queryRunner.getDefaultSession();
+                return session;
             }
 
             @Override
@@ -13,32 +13,55 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.execution.TaskManager;
+import com.facebook.presto.metadata.InternalNode;
+import com.facebook.presto.metadata.InternalNodeManager;
+import com.facebook.presto.server.ForAsyncRpc;
 import com.facebook.presto.spi.PrestoException;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 
 import java.net.URI;
 import java.util.Locale;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.util.Objects.requireNonNull;
 
 public class HttpAndThriftRpcShuffleClientProvider
         implements RpcShuffleClientProvider
 {
     private final HttpShuffleClientProvider httpShuffleClientProvider;
     private final ThriftShuffleClientProvider thriftShuffleClientProvider;
+    private final InternalNodeManager nodeManager;
+    // the task manager depends on the exchange client through the local execution planner
+    private final Provider<TaskManager> taskManagerProvider;
+    private final ScheduledExecutorService timeoutExecutor;
+    private final boolean inProcessTransferEnabled;
 
     @Inject
     public HttpAndThriftRpcShuffleClientProvider(
             @ForExchange HttpShuffleClientProvider httpShuffleClientProvider,
-            @ForExchange ThriftShuffleClientProvider thriftShuffleClientProvider)
+            @ForExchange ThriftShuffleClientProvider thriftShuffleClientProvider,
+            InternalNodeManager nodeManager,
+            Provider<TaskManager> taskManagerProvider,
+            @ForAsyncRpc ScheduledExecutorService timeoutExecutor,
+            ExchangeClientConfig exchangeClientConfig)
     {
         this.httpShuffleClientProvider = httpShuffleClientProvider;
         this.thriftShuffleClientProvider = thriftShuffleClientProvider;
+        this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
+        this.taskManagerProvider = requireNonNull(taskManagerProvider, "taskManagerProvider is null");
+        this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
+        this.inProcessTransferEnabled = requireNonNull(exchangeClientConfig, "exchangeClientConfig is null").isInProcessTransferEnabled();
     }
 
     @Override
     public RpcShuffleClient get(URI location)
     {
+        if (inProcessTransferEnabled && isCurrentNode(location)) {
+            return new LocalRpcShuffleClient(taskManagerProvider.get(), timeoutExecutor, location);
+        }
         switch (location.getScheme().toLowerCase(Locale.getDefault())) {
             case "https":
             case "http":
@@ -49,4 +72,22 @@ public class HttpAndThriftRpcShuffleClientProvider
                 throw new PrestoException(GENERIC_INTERNAL_ERROR, "unsupported task result client scheme " + location.getScheme());
         }
     }
+
+    private boolean isCurrentNode(URI location)
+    {
+        InternalNode currentNode = nodeManager.getCurrentNode();
+        URI internalUri = currentNode.getInternalUri();
+        if (!internalUri.getHost().equalsIgnoreCase(location.getHost())) {
+            return false;
+        }
+        switch (location.getScheme().toLowerCase(Locale.getDefault())) {
+            case "https":
+            case "http":
+                return internalUri.getPort() == location.getPort();
+            case "thrift":
+                return currentNode.getThriftPort().isPresent() && currentNode.getThriftPort().getAsInt() == location.getPort();
+            default:
+                return false;
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.execution.TaskManager;
+import com.facebook.presto.execution.buffer.BufferInfo;
+import com.facebook.presto.execution.buffer.BufferResult;
+import com.facebook.presto.execution.buffer.OutputBuffers.OutputBufferId;
+import com.facebook.presto.execution.buffer.PageBufferInfo;
+import com.facebook.presto.operator.PageBufferClient.PagesResponse;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.errorprone.annotations.ThreadSafe;
+
+import java.net.URI;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.airlift.concurrent.MoreFutures.addTimeout;
+import static com.facebook.presto.operator.PageBufferClient.PagesResponse.createPagesResponse;
+import static com.facebook.presto.util.TaskUtils.DEFAULT_MAX_WAIT_TIME;
+import static com.facebook.presto.util.TaskUtils.randomizeWaitTime;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads results of a task running on the same node directly from its output buffer.
+ * The serialized pages are handed over by reference, without going through the
+ * HTTP or Thrift transport, while tokens and acknowledgements keep the semantics
+ * of the remote endpoints.
+ */
+@ThreadSafe
+public final class LocalRpcShuffleClient
+        implements RpcShuffleClient
+{
+    private final TaskManager taskManager;
+    private final ScheduledExecutorService timeoutExecutor;
+    private final TaskId taskId;
+    private final OutputBufferId outputBufferId;
+
+    public LocalRpcShuffleClient(TaskManager taskManager, ScheduledExecutorService timeoutExecutor, URI location)
+    {
+        requireNonNull(location, "location is null");
+
+        this.taskManager = requireNonNull(taskManager, "taskManager is null");
+        this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
+
+        // location format: {scheme}://{host}:{port}/v1/task/{taskId}/results/{bufferId}
+        String[] paths = location.getPath().split("/");
+        this.taskId = TaskId.valueOf(paths[3]);
+        this.outputBufferId = OutputBufferId.fromString(paths[5]);
+    }
+
+    @Override
+    public ListenableFuture<PagesResponse> getResults(long token, DataSize maxResponseSize)
+    {
+        ListenableFuture<BufferResult> bufferResultFuture = taskManager.getTaskResults(taskId, outputBufferId, token, maxResponseSize.toBytes());
+        // same long polling behavior as the remote endpoints
+        bufferResultFuture = addTimeout(
+                bufferResultFuture,
+                () -> BufferResult.emptyResults(
+                        taskManager.getTaskInstanceId(taskId),
+                        token,
+                        taskManager.getOutputBufferInfo(taskId).getBuffers().stream()
+                                .filter(info -> info.getBufferId().equals(outputBufferId))
+                                .map(BufferInfo::getPageBufferInfo)
+                                .map(PageBufferInfo::getBufferedBytes)
+                                .findFirst()
+                                .orElse(0L),
+                        false),
+                randomizeWaitTime(DEFAULT_MAX_WAIT_TIME),
+                timeoutExecutor);
+
+        return Futures.transform(
+                bufferResultFuture,
+                result -> createPagesResponse(
+                        result.getTaskInstanceId(),
+                        result.getToken(),
+                        result.getNextToken(),
+                        result.getSerializedPages(),
+                        result.isBufferComplete()),
+                directExecutor());
+    }
+
+    @Override
+    public void acknowledgeResultsAsync(long nextToken)
+    {
+        taskManager.acknowledgeTaskResults(taskId, outputBufferId, nextToken);
+    }
+
+    @Override
+    public ListenableFuture<?> abortResults()
+    {
+        taskManager.abortTaskResults(taskId, outputBufferId);
+        return Futures.immediateFuture(null);
+    }
+
+    @Override
+    public Throwable rewriteException(Throwable throwable)
+    {
+        return throwable;
+    }
+}
@@ -131,6 +131,7 @@ import com.facebook.presto.operator.ExchangeClientSupplier;
 import com.facebook.presto.operator.FileFragmentResultCacheConfig;
 import com.facebook.presto.operator.FileFragmentResultCacheManager;
 import com.facebook.presto.operator.ForExchange;
+import com.facebook.presto.operator.ForHashBuild;
 import com.facebook.presto.operator.FragmentCacheStats;
 import com.facebook.presto.operator.FragmentResultCacheManager;
 import com.facebook.presto.operator.HttpAndThriftRpcShuffleClientProvider;
@@ -369,7 +370,6 @@ public class ServerMainModule
         newExporter(binder).export(MetadataExtractorMBean.class).as(generatedNameOf(MetadataExtractor.class));
 
         // analyzer
-        binder.bind(BuiltInQueryPreparer.class).in(Scopes.SINGLETON);
         binder.bind(BuiltInQueryPreparerProvider.class).in(Scopes.SINGLETON);
         binder.bind(QueryPreparerProviderManager.class).in(Scopes.SINGLETON);
         newOptionalBinder(binder, QueryExplainer.class);
@@ -478,6 +478,7 @@ public class ServerMainModule
         binder.bind(SqlTaskManager.class).in(Scopes.SINGLETON);
         binder.bind(TaskManager.class).to(Key.get(SqlTaskManager.class));
         binder.bind(SpoolingOutputBufferFactory.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(SpoolingOutputBufferFactory.class).withGeneratedName();
 
         binder.bind(RandomResourceManagerAddressSelector.class).in(Scopes.SINGLETON);
         driftClientBinder(binder)
@@ -905,6 +906,13 @@ public class ServerMainModule
         binder.bind(NodeManager.class).to(PluginNodeManager.class).in(Scopes.SINGLETON);
     }
 
+    @Provides
+    @Singleton
+    public static BuiltInQueryPreparer createBuiltInQueryPreparer(SqlParser sqlParser, ProcedureRegistry procedureRegistry, FeaturesConfig featuresConfig)
+    {
+        return new BuiltInQueryPreparer(sqlParser, procedureRegistry, featuresConfig.getStatementCacheSize());
+    }
+
     @Provides
     @Singleton
     @ForExchange
@@ -913,6 +921,15 @@ public class ServerMainModule
         return newScheduledThreadPool(config.getClientThreads(), daemonThreadsNamed("exchange-client-%s"));
     }
 
+    @Provides
+    @Singleton
+    @ForHashBuild
+    public static ExecutorService createHashBuildExecutor()
+    {
+        // helper threads of parallel hash builds, the driver thread of each build takes part in it as well
+        return newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemonThreadsNamed("hash-build-%s"));
+    }
+
     @Provides
     @Singleton
     @ForAsyncRpc
@@ -995,12 +1012,14 @@ public class ServerMainModule
         public ExecutorCleanup(
                 @ForExchange ScheduledExecutorService exchangeExecutor,
                 @ForAsyncRpc ExecutorService httpResponseExecutor,
-                @ForAsyncRpc ScheduledExecutorService httpTimeoutExecutor)
+                @ForAsyncRpc ScheduledExecutorService httpTimeoutExecutor,
+                @ForHashBuild ExecutorService hashBuildExecutor)
         {
             executors = ImmutableList.of(
                     exchangeExecutor,
                     httpResponseExecutor,
-                    httpTimeoutExecutor);
+                    httpTimeoutExecutor,
+                    hashBuildExecutor);
         }
 
         @PreDestroy
@@ -48,6 +48,7 @@ public interface ExecutingQueryResponseProvider
      * @param compressionEnabled enable compression
      * @param nestedDataSerializationEnabled enable nested data serialization
      * @param binaryResults generate results in binary format, rather than JSON
+     * @param acceptBinaryResults generate results the client can decode in binary format, and all other results in JSON
      * @param retryUrl optional retry URL for cross-cluster retry
      * @param retryExpirationEpochTime optional retry expiration time
      * @param isRetryQuery true if this query is already a retry query
@@ -65,6 +66,7 @@ public interface ExecutingQueryResponseProvider
             boolean compressionEnabled,
             boolean nestedDataSerializationEnabled,
             boolean binaryResults,
+            boolean acceptBinaryResults,
             long durationUntilExpirationMs,
             Optional<URI> retryUrl,
             OptionalLong retryExpirationEpochTime,
@@ -45,6 +45,7 @@ import org.weakref.jmx.Nested;
 
 import static com.facebook.airlift.http.server.AsyncResponseHandler.bindAsyncResponse;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_ACCEPT_BINARY_RESULTS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREFIX_URL;
 import static com.facebook.presto.server.protocol.QueryResourceUtil.abortIfPrefixUrlInvalid;
 import static com.facebook.presto.server.protocol.QueryResourceUtil.toResponse;
@@ -106,6 +107,7 @@ public class ExecutingStatementResource
             @QueryParam("maxWait") Duration maxWait,
             @QueryParam("targetResultSize") DataSize targetResultSize,
             @DefaultValue("false") @QueryParam("binaryResults") boolean binaryResults,
+            @DefaultValue("false") @HeaderParam(PRESTO_ACCEPT_BINARY_RESULTS) boolean acceptBinaryResults,
             @HeaderParam(X_FORWARDED_PROTO) String proto,
             @HeaderParam(PRESTO_PREFIX_URL) String xPrestoPrefixUrl,
             @Context UriInfo uriInfo,
@@ -132,7 +134,7 @@ public class ExecutingStatementResource
                 acquirePermitAsync,
                 acquirePermitTimeSeconds -> {
                     queryRateLimiter.addRateLimiterBlockTime(new Duration(acquirePermitTimeSeconds, SECONDS));
-                    return query.waitForResults(token, uriInfo, effectiveFinalProto, wait, effectiveFinalTargetResultSize, binaryResults);
+                    return query.waitForResults(token, uriInfo, effectiveFinalProto, wait, effectiveFinalTargetResultSize, binaryResults, acceptBinaryResults);
                 },
                 responseExecutor);
         long durationUntilExpirationMs = queryManager.getDurationUntilExpirationInMillis(queryId);
@@ -56,6 +56,7 @@ public class LocalExecutingQueryResponseProvider
             boolean compressionEnabled,
             boolean nestedDataSerializationEnabled,
             boolean binaryResults,
+            boolean acceptBinaryResults,
             long durationUntilExpirationMs,
             Optional<URI> retryUrl,
             OptionalLong retryExpirationEpochTime,
@@ -69,7 +70,7 @@ public class LocalExecutingQueryResponseProvider
             return Optional.empty();
         }
         return Optional.of(transform(
-                query.waitForResults(0, uriInfo, scheme, maxWait, targetResultSize, binaryResults),
+                query.waitForResults(0, uriInfo, scheme, maxWait, targetResultSize, binaryResults, acceptBinaryResults),
                 results -> toResponse(query, results, xPrestoPrefixUrl, compressionEnabled, nestedDataSerializationEnabled, durationUntilExpirationMs),
                 directExecutor()));
     }
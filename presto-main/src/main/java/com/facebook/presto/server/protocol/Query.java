@@ -16,7 +16,9 @@ package com.facebook.presto.server.protocol;
 import com.facebook.airlift.log.Logger;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.Duration;
+import com.facebook.presto.CompressionCodec;
 import com.facebook.presto.Session;
+import com.facebook.presto.client.BinaryResultsDecoder;
 import com.facebook.presto.client.Column;
 import com.facebook.presto.client.FailureInfo;
 import com.facebook.presto.client.QueryError;
@@ -24,6 +26,7 @@ import com.facebook.presto.client.QueryResults;
 import com.facebook.presto.client.StatementStats;
 import com.facebook.presto.common.ErrorCode;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockEncodingSerde;
 import com.facebook.presto.common.transaction.TransactionId;
 import com.facebook.presto.common.type.BooleanType;
@@ -84,9 +87,11 @@ import static com.facebook.presto.SystemSessionProperties.isExchangeChecksumEnab
 import static com.facebook.presto.SystemSessionProperties.retryQueryWithHistoryBasedOptimizationEnabled;
 import static com.facebook.presto.SystemSessionProperties.trackHistoryBasedPlanStatisticsEnabled;
 import static com.facebook.presto.SystemSessionProperties.useHistoryBasedPlanStatisticsEnabled;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.execution.QueryState.FAILED;
 import static com.facebook.presto.execution.QueryState.WAITING_FOR_PREREQUISITES;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.facebook.presto.spi.page.PageCodecMarker.COMPRESSED;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.util.Failures.toFailure;
 import static com.facebook.presto.util.QueryInfoUtils.toStatementStats;
@@ -124,6 +129,8 @@ class Query
     private final ScheduledExecutorService timeoutExecutor;
 
     private final PagesSerde serde;
+    // serializes results for clients that accept binary results, which cannot decompress pages
+    private final PagesSerde decodableResultsSerde;
     private final RetryCircuitBreaker retryCircuitBreaker;
     private final RetryConfig retryConfig;
 
@@ -265,6 +272,7 @@ class Query
         this.timeoutExecutor = timeoutExecutor;
 
         this.serde = new PagesSerdeFactory(blockEncodingSerde, getExchangeCompressionCodec(session), isExchangeChecksumEnabled(session)).createPagesSerde();
+        this.decodableResultsSerde = new PagesSerdeFactory(blockEncodingSerde, CompressionCodec.NONE, isExchangeChecksumEnabled(session)).createPagesSerde();
         this.retryCircuitBreaker = retryCircuitBreaker;
         this.retryConfig = retryConfig;
     }
@@ -352,7 +360,12 @@ class Query
         return removedSessionFunctions;
     }
 
-    public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize, boolean binaryResults)
+    /**
+     * @param binaryResults send all results as serialized pages, rather than JSON
+     * @param acceptBinaryResults the client can decode serialized pages, see {@link BinaryResultsDecoder}; results of
+     * types it can decode are sent as uncompressed serialized pages, all other results are sent as JSON
+     */
+    public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize, boolean binaryResults, boolean acceptBinaryResults)
     {
         // before waiting, check if this request has already been processed and cached
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -368,7 +381,7 @@ class Query
                 timeoutExecutor);
 
         // when state changes, fetch the next result
-        return Futures.transform(futureStateChange, ignored -> getNextResultWithRetry(token, uriInfo, scheme, targetResultSize, binaryResults), resultsProcessorExecutor);
+        return Futures.transform(futureStateChange, ignored -> getNextResultWithRetry(token, uriInfo, scheme, targetResultSize, binaryResults, acceptBinaryResults), resultsProcessorExecutor);
     }
 
     private synchronized ListenableFuture<?> getFutureStateChange()
@@ -421,9 +434,9 @@ class Query
         return Optional.empty();
     }
 
-    private synchronized QueryResults getNextResultWithRetry(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults)
+    private synchronized QueryResults getNextResultWithRetry(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults, boolean acceptBinaryResults)
     {
-        QueryResults queryResults = getNextResult(token, uriInfo, scheme, targetResultSize, binaryResults);
+        QueryResults queryResults = getNextResult(token, uriInfo, scheme, targetResultSize, binaryResults, acceptBinaryResults);
 
         if (queryResults.getError() == null) {
             return queryResults;
@@ -481,7 +494,7 @@ class Query
                 queryResults.getUpdateCount());
     }
 
-    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults)
+    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults, boolean acceptBinaryResults)
     {
         // check if the result for the token have already been created
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -504,17 +517,29 @@ class Query
         // the pages will be lost.
         Iterable<List<Object>> data = null;
         List<String> binaryData = null;
+        SerializedPage firstDecodablePage = null;
         try {
             long rows = 0;
             long bytes = 0;
             long targetResultBytes = targetResultSize.toBytes();
-            if (binaryResults) {
+            // clients can only decode pages of types with a fixed block layout, so fall back to JSON for everything else
+            boolean decodableBinaryResults = !binaryResults && acceptBinaryResults && columns != null && BinaryResultsDecoder.isSupported(columns);
+            if (binaryResults || decodableBinaryResults) {
                 ImmutableList.Builder<String> pages = ImmutableList.builder();
                 while (bytes < targetResultBytes) {
                     SerializedPage serializedPage = exchangeClient.pollPage();
                     if (serializedPage == null) {
                         break;
                     }
+                    if (decodableBinaryResults) {
+                        if (COMPRESSED.isSet(serializedPage.getPageCodecMarkers())) {
+                            // clients do not ship the exchange compression codecs
+                            serializedPage = decodableResultsSerde.serialize(serde.deserialize(serializedPage));
+                        }
+                        if (firstDecodablePage == null) {
+                            firstDecodablePage = serializedPage;
+                        }
+                    }
 
                     rows += serializedPage.getPositionCount();
                     bytes += serializedPage.getSizeInBytes();
@@ -563,13 +588,21 @@ class Query
 
         // TODO: figure out a better way to do this
         // grab the update count for non-queries
-        if ((data != null) && (queryInfo.getUpdateInfo() != null) && (updateCount == null) &&
+        if ((data != null || firstDecodablePage != null) && (queryInfo.getUpdateInfo() != null) && (updateCount == null) &&
                 (columns.size() == 1) && (columns.get(0).getType().equals(StandardTypes.BIGINT))) {
-            Iterator<List<Object>> iterator = data.iterator();
-            if (iterator.hasNext()) {
-                Number number = (Number) iterator.next().get(0);
-                if (number != null) {
-                    updateCount = number.longValue();
+            if (data != null) {
+                Iterator<List<Object>> iterator = data.iterator();
+                if (iterator.hasNext()) {
+                    Number number = (Number) iterator.next().get(0);
+                    if (number != null) {
+                        updateCount = number.longValue();
+                    }
+                }
+            }
+            else {
+                Block block = decodableResultsSerde.deserialize(firstDecodablePage).getBlock(0);
+                if (block.getPositionCount() > 0 && !block.isNull(0)) {
+                    updateCount = BIGINT.getLong(block, 0);
                 }
             }
         }
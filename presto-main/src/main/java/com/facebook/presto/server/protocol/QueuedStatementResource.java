@@ -78,6 +78,7 @@ import static com.facebook.airlift.concurrent.MoreFutures.addTimeout;
 import static com.facebook.airlift.concurrent.Threads.threadsNamed;
 import static com.facebook.airlift.http.server.AsyncResponseHandler.bindAsyncResponse;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_ACCEPT_BINARY_RESULTS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREFIX_URL;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_RETRY_QUERY;
 import static com.facebook.presto.server.protocol.QueryResourceUtil.NO_DURATION;
@@ -420,6 +421,7 @@ public class QueuedStatementResource
             @QueryParam("slug") String slug,
             @QueryParam("maxWait") Duration maxWait,
             @DefaultValue("false") @QueryParam("binaryResults") boolean binaryResults,
+            @DefaultValue("false") @HeaderParam(PRESTO_ACCEPT_BINARY_RESULTS) boolean acceptBinaryResults,
             @HeaderParam(X_FORWARDED_PROTO) String xForwardedProto,
             @HeaderParam(PRESTO_PREFIX_URL) String xPrestoPrefixUrl,
             @Context UriInfo uriInfo,
@@ -453,7 +455,7 @@ public class QueuedStatementResource
         // when state changes, fetch the next result
         ListenableFuture<Response> queryResultsFuture = transformAsync(
                 futureStateChange,
-                ignored -> query.toResponse(token, uriInfo, xForwardedProto, xPrestoPrefixUrl, WAIT_ORDERING.min(MAX_WAIT_TIME, maxWait), compressionEnabled, nestedDataSerializationEnabled, binaryResults),
+                ignored -> query.toResponse(token, uriInfo, xForwardedProto, xPrestoPrefixUrl, WAIT_ORDERING.min(MAX_WAIT_TIME, maxWait), compressionEnabled, nestedDataSerializationEnabled, binaryResults, acceptBinaryResults),
                 responseExecutor);
         bindAsyncResponse(asyncResponse, queryResultsFuture, responseExecutor);
     }
@@ -701,7 +703,8 @@ public class QueuedStatementResource
                 Duration maxWait,
                 boolean compressionEnabled,
                 boolean nestedDataSerializationEnabled,
-                boolean binaryResults)
+                boolean binaryResults,
+                boolean acceptBinaryResults)
         {
             long lastToken = this.lastToken.get();
             // token should be the last token or the next token
@@ -750,6 +753,7 @@ public class QueuedStatementResource
                         compressionEnabled,
                         nestedDataSerializationEnabled,
                         binaryResults,
+                        acceptBinaryResults,
                         durationUntilExpirationMs,
                         retryUrl,
                         retryExpirationEpochTime,
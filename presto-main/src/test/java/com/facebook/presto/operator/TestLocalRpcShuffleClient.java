@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.airlift.http.client.HttpClient;
+import com.facebook.airlift.http.client.testing.TestingHttpClient;
+import com.facebook.airlift.units.DataSize;
+import com.facebook.drift.client.DriftClient;
+import com.facebook.presto.execution.SqlTaskManager;
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.execution.TaskInfo;
+import com.facebook.presto.execution.TaskManagerConfig;
+import com.facebook.presto.execution.TaskSource;
+import com.facebook.presto.execution.TaskState;
+import com.facebook.presto.execution.TestSqlTaskManager;
+import com.facebook.presto.execution.buffer.BufferInfo;
+import com.facebook.presto.execution.buffer.BufferResult;
+import com.facebook.presto.execution.buffer.OutputBuffers.OutputBufferId;
+import com.facebook.presto.execution.scheduler.TableWriteInfo;
+import com.facebook.presto.metadata.InMemoryNodeManager;
+import com.facebook.presto.operator.PageBufferClient.PagesResponse;
+import com.facebook.presto.server.thrift.ThriftTaskClient;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.execution.TaskTestUtils.PLAN_FRAGMENT;
+import static com.facebook.presto.execution.TaskTestUtils.SPLIT;
+import static com.facebook.presto.execution.TaskTestUtils.TABLE_SCAN_NODE_ID;
+import static com.facebook.presto.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
+import static com.facebook.presto.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static com.facebook.presto.util.TaskUtils.DEFAULT_MAX_WAIT_TIME;
+import static java.lang.String.format;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestLocalRpcShuffleClient
+{
+    private static final URI CURRENT_NODE_URI = URI.create("http://127.0.0.1:8080");
+    private static final OutputBufferId OUT = new OutputBufferId(0);
+    private static final DataSize MAX_RESPONSE_SIZE = new DataSize(1, MEGABYTE);
+    // thrift clients are created eagerly but never called
+    private static final DriftClient<ThriftTaskClient> THRIFT_CLIENT = (addressSelectionContext, headers) -> null;
+
+    private TestSqlTaskManager testSqlTaskManager;
+    private SqlTaskManager sqlTaskManager;
+    private ScheduledExecutorService timeoutExecutor;
+    private HttpClient httpClient;
+    private int nextTaskId;
+
+    @BeforeClass
+    public void setUp()
+    {
+        testSqlTaskManager = new TestSqlTaskManager();
+        sqlTaskManager = testSqlTaskManager.createSqlTaskManager(new TaskManagerConfig());
+        timeoutExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-timeout-%s"));
+        httpClient = new TestingHttpClient(request -> {
+            throw new UnsupportedOperationException("same-node results are not expected to go through HTTP");
+        });
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        sqlTaskManager.close();
+        sqlTaskManager = null;
+        testSqlTaskManager.tearDown();
+        testSqlTaskManager = null;
+        timeoutExecutor.shutdownNow();
+        timeoutExecutor = null;
+        httpClient.close();
+        httpClient = null;
+    }
+
+    @Test
+    public void testClientSelection()
+    {
+        RpcShuffleClientProvider provider = createProvider(true);
+        TaskId taskId = new TaskId("query", 0, 0, 1, 0);
+
+        assertTrue(provider.get(resultsLocation("http://127.0.0.1:8080", taskId)) instanceof LocalRpcShuffleClient);
+        assertTrue(provider.get(resultsLocation("HTTP://127.0.0.1:8080", taskId)) instanceof LocalRpcShuffleClient);
+        assertTrue(provider.get(resultsLocation("http://127.0.0.1:8081", taskId)) instanceof HttpRpcShuffleClient);
+        assertTrue(provider.get(resultsLocation("http://127.0.0.2:8080", taskId)) instanceof HttpRpcShuffleClient);
+        // the current node has no thrift port, so thrift locations are always remote
+        assertTrue(provider.get(resultsLocation("thrift://127.0.0.1:8080", taskId)) instanceof ThriftRpcShuffleClient);
+
+        RpcShuffleClientProvider disabledProvider = createProvider(false);
+        assertTrue(disabledProvider.get(resultsLocation("http://127.0.0.1:8080", taskId)) instanceof HttpRpcShuffleClient);
+    }
+
+    @Test
+    public void testResults()
+            throws Exception
+    {
+        TaskId taskId = createTask(true);
+        RpcShuffleClient client = new LocalRpcShuffleClient(sqlTaskManager, timeoutExecutor, resultsLocation(CURRENT_NODE_URI.toString(), taskId));
+
+        // the response carries the same tokens and page instances that the results endpoints serialize
+        PagesResponse response = client.getResults(0, MAX_RESPONSE_SIZE).get(10, SECONDS);
+        BufferResult expected = sqlTaskManager.getTaskResults(taskId, OUT, 0, MAX_RESPONSE_SIZE.toBytes()).get(10, SECONDS);
+        assertEquals(response.getTaskInstanceId(), expected.getTaskInstanceId());
+        assertEquals(response.getToken(), 0);
+        assertEquals(response.getNextToken(), expected.getNextToken());
+        assertEquals(response.getPages().size(), 1);
+        assertEquals(response.getPages().size(), expected.getSerializedPages().size());
+        assertSame(response.getPages().get(0), expected.getSerializedPages().get(0));
+        assertFalse(response.isClientComplete());
+        assertTrue(getBufferedBytes(taskId) > 0);
+
+        client.acknowledgeResultsAsync(response.getNextToken());
+        assertEquals(getBufferedBytes(taskId), 0);
+
+        while (!response.isClientComplete()) {
+            response = client.getResults(response.getNextToken(), MAX_RESPONSE_SIZE).get(10, SECONDS);
+        }
+        assertEquals(response.getPages().size(), 0);
+        assertEquals(response.getNextToken(), response.getToken());
+
+        TaskInfo taskInfo = sqlTaskManager.getTaskInfo(taskId);
+        client.abortResults().get(10, SECONDS);
+        taskInfo = sqlTaskManager.getTaskInfo(taskId, taskInfo.getTaskStatus().getState()).get(1, SECONDS);
+        assertEquals(taskInfo.getTaskStatus().getState(), TaskState.FINISHED);
+    }
+
+    @Test
+    public void testLongPollTimeout()
+            throws Exception
+    {
+        // without splits the task never produces output, so the request has to time out
+        TaskId taskId = createTask(false);
+        RpcShuffleClient client = new LocalRpcShuffleClient(sqlTaskManager, timeoutExecutor, resultsLocation(CURRENT_NODE_URI.toString(), taskId));
+
+        long start = System.nanoTime();
+        PagesResponse response = client.getResults(0, MAX_RESPONSE_SIZE).get(10, SECONDS);
+        long elapsedMillis = MILLISECONDS.convert(System.nanoTime() - start, NANOSECONDS);
+
+        assertTrue(elapsedMillis >= DEFAULT_MAX_WAIT_TIME.toMillis() / 2, "results returned before the long poll timeout: " + elapsedMillis + "ms");
+        assertEquals(response.getTaskInstanceId(), sqlTaskManager.getTaskInstanceId(taskId));
+        assertEquals(response.getToken(), 0);
+        assertEquals(response.getNextToken(), 0);
+        assertEquals(response.getPages().size(), 0);
+        assertFalse(response.isClientComplete());
+
+        sqlTaskManager.cancelTask(taskId);
+    }
+
+    private RpcShuffleClientProvider createProvider(boolean inProcessTransferEnabled)
+    {
+        return new HttpAndThriftRpcShuffleClientProvider(
+                new HttpShuffleClientProvider(httpClient),
+                new ThriftShuffleClientProvider(THRIFT_CLIENT),
+                new InMemoryNodeManager(CURRENT_NODE_URI),
+                () -> sqlTaskManager,
+                timeoutExecutor,
+                new ExchangeClientConfig().setInProcessTransferEnabled(inProcessTransferEnabled));
+    }
+
+    private TaskId createTask(boolean withSplit)
+    {
+        TaskId taskId = new TaskId("query", 0, 0, nextTaskId++, 0);
+        TaskSource source = new TaskSource(TABLE_SCAN_NODE_ID, withSplit ? ImmutableSet.of(SPLIT) : ImmutableSet.of(), withSplit);
+        TaskInfo taskInfo = sqlTaskManager.updateTask(
+                TEST_SESSION,
+                taskId,
+                Optional.of(PLAN_FRAGMENT),
+                ImmutableList.of(source),
+                createInitialEmptyOutputBuffers(PARTITIONED).withBuffer(OUT, 0).withNoMoreBufferIds(),
+                Optional.of(new TableWriteInfo(Optional.empty(), Optional.empty())));
+        assertEquals(taskInfo.getTaskStatus().getState(), TaskState.RUNNING);
+        return taskId;
+    }
+
+    private long getBufferedBytes(TaskId taskId)
+    {
+        List<BufferInfo> buffers = sqlTaskManager.getOutputBufferInfo(taskId).getBuffers();
+        return buffers.stream()
+                .filter(info -> info.getBufferId().equals(OUT))
+                .findFirst()
+                .orElseThrow(AssertionError::new)
+                .getPageBufferInfo()
+                .getBufferedBytes();
+    }
+
+    private static URI resultsLocation(String baseUri, TaskId taskId)
+    {
+        return URI.create(format("%s/v1/task/%s/results/%s", baseUri, taskId, OUT));
+    }
+}
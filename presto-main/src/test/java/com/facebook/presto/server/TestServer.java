@@ -62,6 +62,7 @@ import static com.facebook.airlift.json.JsonCodec.jsonCodec;
 import static com.facebook.presto.SystemSessionProperties.HASH_PARTITION_COUNT;
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_MEMORY;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_ACCEPT_BINARY_RESULTS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CATALOG;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_INFO;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREPARED_STATEMENT;
@@ -212,6 +213,53 @@ public class TestServer
         assertEquals(slice.toStringUtf8(), "system");
     }
 
+    @Test
+    public void testAcceptBinaryResults()
+    {
+        // types the client can decode are sent as uncompressed pages
+        List<QueryResults> results = executeQuery("SELECT BIGINT '1', DOUBLE '2.5', ARRAY[DATE '2020-01-01'], MAP(ARRAY['a'], ARRAY[DECIMAL '1.23'])", false, true);
+        assertTrue(results.stream().anyMatch(queryResults -> queryResults.getBinaryData() != null));
+        assertTrue(results.stream().allMatch(queryResults -> queryResults.getData() == null));
+
+        // other types fall back to JSON
+        results = executeQuery("SELECT BIGINT '1', TIMESTAMP '2020-01-01 00:00:00'", false, true);
+        assertTrue(results.stream().anyMatch(queryResults -> queryResults.getData() != null));
+        assertTrue(results.stream().allMatch(queryResults -> queryResults.getBinaryData() == null));
+
+        // the binaryResults parameter still sends all types as pages
+        results = executeQuery("SELECT BIGINT '1', TIMESTAMP '2020-01-01 00:00:00'", true, true);
+        assertTrue(results.stream().anyMatch(queryResults -> queryResults.getBinaryData() != null));
+        assertTrue(results.stream().allMatch(queryResults -> queryResults.getData() == null));
+    }
+
+    private List<QueryResults> executeQuery(String query, boolean binaryResults, boolean acceptBinaryResults)
+    {
+        Request request = preparePost()
+                .setUri(buildStatementUri(binaryResults))
+                .setBodyGenerator(createStaticBodyGenerator(query, UTF_8))
+                .setHeader(PRESTO_USER, "user")
+                .setHeader(PRESTO_SOURCE, "source")
+                .setHeader(PRESTO_ACCEPT_BINARY_RESULTS, String.valueOf(acceptBinaryResults))
+                .build();
+
+        ImmutableList.Builder<QueryResults> results = ImmutableList.builder();
+        QueryResults queryResults = client.execute(request, createJsonResponseHandler(QUERY_RESULTS_CODEC));
+        results.add(queryResults);
+        while (queryResults.getNextUri() != null) {
+            Request nextRequest = prepareGet()
+                    .setUri(queryResults.getNextUri())
+                    .setHeader(PRESTO_ACCEPT_BINARY_RESULTS, String.valueOf(acceptBinaryResults))
+                    .build();
+            queryResults = client.execute(nextRequest, createJsonResponseHandler(QUERY_RESULTS_CODEC));
+            results.add(queryResults);
+        }
+
+        if (queryResults.getError() != null) {
+            fail(queryResults.getError().toString());
+        }
+        return results.build();
+    }
+
     @Test
     public void testQuery()
     {
@@ -212,6 +212,7 @@ struct PartitionedOutputInfo {
   1: i64 rowsAdded;
   2: i64 pagesAdded;
   3: i64 outputBufferPeakMemoryUsage;
+  4: list<i64> partitionRowsAdded;
 }
 struct WindowInfo {
   1: list<DriverWindowInfo> windowInfos;
@@ -19,6 +19,7 @@ import com.facebook.presto.orc.StripeReader.StripeStreamId;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.StripeFooter;
 import com.facebook.presto.orc.metadata.Stream.StreamKind;
 import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
 import com.facebook.presto.orc.stream.OrcInputStream;
@@ -50,13 +51,25 @@ public class CachingStripeMetadataSource
     private final Cache<StripeId, CacheableSlice> footerSliceCache;
     private final Cache<StripeStreamId, CacheableSlice> stripeStreamCache;
     private final Optional<Cache<StripeStreamId, CacheableRowGroupIndices>> rowGroupIndexCache;
+    private final Optional<Cache<StripeId, CacheableStripeFooter>> stripeFooterCache;
 
     public CachingStripeMetadataSource(StripeMetadataSource delegate, Cache<StripeId, CacheableSlice> footerSliceCache, Cache<StripeStreamId, CacheableSlice> stripeStreamCache, Optional<Cache<StripeStreamId, CacheableRowGroupIndices>> rowGroupIndexCache)
+    {
+        this(delegate, footerSliceCache, stripeStreamCache, rowGroupIndexCache, Optional.empty());
+    }
+
+    public CachingStripeMetadataSource(
+            StripeMetadataSource delegate,
+            Cache<StripeId, CacheableSlice> footerSliceCache,
+            Cache<StripeStreamId, CacheableSlice> stripeStreamCache,
+            Optional<Cache<StripeStreamId, CacheableRowGroupIndices>> rowGroupIndexCache,
+            Optional<Cache<StripeId, CacheableStripeFooter>> stripeFooterCache)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
         this.footerSliceCache = requireNonNull(footerSliceCache, "footerSliceCache is null");
         this.stripeStreamCache = requireNonNull(stripeStreamCache, "rowIndexSliceCache is null");
         this.rowGroupIndexCache = requireNonNull(rowGroupIndexCache, "rowGroupIndexCache is null");
+        this.stripeFooterCache = requireNonNull(stripeFooterCache, "stripeFooterCache is null");
     }
 
     @Override
@@ -86,6 +99,28 @@ public class CachingStripeMetadataSource
         }
     }
 
+    @Override
+    public StripeFooter getStripeFooter(StripeId stripeId, boolean cacheable, long fileModificationTime, StripeFooterLoader footerLoader)
+            throws IOException
+    {
+        if (!cacheable || !stripeFooterCache.isPresent()) {
+            return delegate.getStripeFooter(stripeId, cacheable, fileModificationTime, footerLoader);
+        }
+        Cache<StripeId, CacheableStripeFooter> cache = stripeFooterCache.get();
+        CacheableStripeFooter cacheableStripeFooter = cache.getIfPresent(stripeId);
+        if (cacheableStripeFooter != null) {
+            if (cacheableStripeFooter.getFileModificationTime() == fileModificationTime) {
+                return cacheableStripeFooter.getStripeFooter();
+            }
+            cache.invalidate(stripeId);
+            // This get call is to increment the miss count for invalidated entries so the stats are recorded correctly.
+            cache.getIfPresent(stripeId);
+        }
+        StripeFooter stripeFooter = delegate.getStripeFooter(stripeId, cacheable, fileModificationTime, footerLoader);
+        cache.put(stripeId, new CacheableStripeFooter(stripeFooter, fileModificationTime));
+        return stripeFooter;
+    }
+
     @Override
     public Map<StreamId, OrcDataSourceInput> getInputs(OrcDataSource orcDataSource, StripeId stripeId, Map<StreamId, DiskRange> diskRanges, boolean cacheable, long fileModificationTime)
             throws IOException
@@ -19,6 +19,7 @@ import com.facebook.presto.orc.metadata.DwrfStripeCache;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.StripeFooter;
 import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
 import com.facebook.presto.orc.stream.OrcInputStream;
 import com.google.common.collect.ImmutableMap;
@@ -62,6 +63,14 @@ public class DwrfAwareStripeMetadataSource
         return delegate.getStripeFooterSlice(orcDataSource, stripeId, footerOffset, footerLength, cacheable, fileModificationTime);
     }
 
+    @Override
+    public StripeFooter getStripeFooter(StripeId stripeId, boolean cacheable, long fileModificationTime, StripeFooterLoader footerLoader)
+            throws IOException
+    {
+        // the loader reads the footer slice through this source, so it still uses the DwrfStripeCache
+        return delegate.getStripeFooter(stripeId, cacheable, fileModificationTime, footerLoader);
+    }
+
     @Override
     public Map<StreamId, OrcDataSourceInput> getInputs(OrcDataSource orcDataSource, StripeId stripeId, Map<StreamId, DiskRange> diskRanges, boolean cacheable, long fileModificationTime)
             throws IOException
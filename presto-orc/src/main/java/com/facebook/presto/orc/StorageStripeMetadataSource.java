@@ -18,6 +18,7 @@ import com.facebook.presto.orc.StripeReader.StripeId;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.StripeFooter;
 import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
 import com.facebook.presto.orc.stream.OrcInputStream;
 import com.google.common.collect.ImmutableMap;
@@ -40,6 +41,13 @@ public class StorageStripeMetadataSource
         return Slices.wrappedBuffer(tailBuffer);
     }
 
+    @Override
+    public StripeFooter getStripeFooter(StripeId stripeId, boolean cacheable, long fileModificationTime, StripeFooterLoader footerLoader)
+            throws IOException
+    {
+        return footerLoader.load();
+    }
+
     @Override
     public Map<StreamId, OrcDataSourceInput> getInputs(OrcDataSource orcDataSource, StripeId stripeId, Map<StreamId, DiskRange> diskRanges, boolean cacheable, long fileModificationTime)
             throws IOException
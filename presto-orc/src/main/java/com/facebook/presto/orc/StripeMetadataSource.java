@@ -18,6 +18,7 @@ import com.facebook.presto.orc.StripeReader.StripeId;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.StripeFooter;
 import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
 import com.facebook.presto.orc.stream.OrcInputStream;
 import io.airlift.slice.Slice;
@@ -33,6 +34,13 @@ public interface StripeMetadataSource
     Slice getStripeFooterSlice(OrcDataSource orcDataSource, StripeId stripeId, long footerOffset, int footerLength, boolean cacheable, long fileModificationTime)
             throws IOException;
 
+    /**
+     * Returns the decoded footer of the stripe, using {@code footerLoader} to read and decode it
+     * when it is not cached.
+     */
+    StripeFooter getStripeFooter(StripeId stripeId, boolean cacheable, long fileModificationTime, StripeFooterLoader footerLoader)
+            throws IOException;
+
     Map<StreamId, OrcDataSourceInput> getInputs(
             OrcDataSource orcDataSource,
             StripeId stripeId,
@@ -52,6 +60,12 @@ public interface StripeMetadataSource
             long fileModificationTime)
             throws IOException;
 
+    interface StripeFooterLoader
+    {
+        StripeFooter load()
+                throws IOException;
+    }
+
     class CacheableSlice
     {
         private final Slice slice;
@@ -74,6 +88,28 @@ public interface StripeMetadataSource
         }
     }
 
+    class CacheableStripeFooter
+    {
+        private final StripeFooter stripeFooter;
+        private final long fileModificationTime;
+
+        public CacheableStripeFooter(StripeFooter stripeFooter, long fileModificationTime)
+        {
+            this.stripeFooter = requireNonNull(stripeFooter, "stripeFooter is null");
+            this.fileModificationTime = fileModificationTime;
+        }
+
+        public StripeFooter getStripeFooter()
+        {
+            return stripeFooter;
+        }
+
+        public long getFileModificationTime()
+        {
+            return fileModificationTime;
+        }
+    }
+
     class CacheableRowGroupIndices
     {
         private final List<RowGroupIndex> rowGroupIndices;
@@ -482,6 +482,12 @@ public class StripeReader
 
     public StripeFooter readStripeFooter(StripeId stripeId, StripeInformation stripe, OrcAggregatedMemoryContext systemMemoryUsage)
             throws IOException
+    {
+        return stripeMetadataSource.getStripeFooter(stripeId, cacheable, fileModificationTime, () -> decodeStripeFooter(stripeId, stripe, systemMemoryUsage));
+    }
+
+    private StripeFooter decodeStripeFooter(StripeId stripeId, StripeInformation stripe, OrcAggregatedMemoryContext systemMemoryUsage)
+            throws IOException
     {
         long footerOffset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
         int footerLength = toIntExact(stripe.getFooterLength());
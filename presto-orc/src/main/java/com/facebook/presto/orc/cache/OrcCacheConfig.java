@@ -41,6 +41,10 @@ public class OrcCacheConfig
     private DataSize rowGroupIndexCacheSize = new DataSize(0, BYTE);
     private Duration rowGroupIndexCacheTtlSinceLastAccess = new Duration(0, SECONDS);
 
+    private boolean decodedStripeFooterCacheEnabled;
+    private DataSize decodedStripeFooterCacheSize = new DataSize(0, BYTE);
+    private Duration decodedStripeFooterCacheTtlSinceLastAccess = new Duration(0, SECONDS);
+
     private boolean dwrfStripeCacheEnabled = true;
     private DataSize expectedFileTailSize = new DataSize(EXPECTED_FOOTER_SIZE_IN_BYTES, BYTE);
 
@@ -194,6 +198,47 @@ public class OrcCacheConfig
         return this;
     }
 
+    public boolean isDecodedStripeFooterCacheEnabled()
+    {
+        return decodedStripeFooterCacheEnabled;
+    }
+
+    @Config("orc.decoded-stripe-footer-cache-enabled")
+    @ConfigDescription("Enable cache for decoded stripe footers, which saves parsing the footers again on every read")
+    public OrcCacheConfig setDecodedStripeFooterCacheEnabled(boolean decodedStripeFooterCacheEnabled)
+    {
+        this.decodedStripeFooterCacheEnabled = decodedStripeFooterCacheEnabled;
+        return this;
+    }
+
+    @MinDataSize("0B")
+    public DataSize getDecodedStripeFooterCacheSize()
+    {
+        return decodedStripeFooterCacheSize;
+    }
+
+    @Config("orc.decoded-stripe-footer-cache-size")
+    @ConfigDescription("Size of the decoded stripe footer cache")
+    public OrcCacheConfig setDecodedStripeFooterCacheSize(DataSize decodedStripeFooterCacheSize)
+    {
+        this.decodedStripeFooterCacheSize = decodedStripeFooterCacheSize;
+        return this;
+    }
+
+    @MinDuration("0s")
+    public Duration getDecodedStripeFooterCacheTtlSinceLastAccess()
+    {
+        return decodedStripeFooterCacheTtlSinceLastAccess;
+    }
+
+    @Config("orc.decoded-stripe-footer-cache-ttl-since-last-access")
+    @ConfigDescription("Time-to-live for decoded stripe footer cache entry after last access")
+    public OrcCacheConfig setDecodedStripeFooterCacheTtlSinceLastAccess(Duration decodedStripeFooterCacheTtlSinceLastAccess)
+    {
+        this.decodedStripeFooterCacheTtlSinceLastAccess = decodedStripeFooterCacheTtlSinceLastAccess;
+        return this;
+    }
+
     public boolean isDwrfStripeCacheEnabled()
     {
         return dwrfStripeCacheEnabled;
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.orc.metadata;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import java.util.Optional;
 import java.util.SortedMap;
 
@@ -34,6 +36,8 @@ public class ColumnEncoding
 
     public static final int DEFAULT_SEQUENCE_ID = 0;
 
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(ColumnEncoding.class).instanceSize();
+
     private final ColumnEncodingKind columnEncodingKind;
     private final int dictionarySize;
 
@@ -73,6 +77,17 @@ public class ColumnEncoding
         return additionalSequenceEncodings;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        long retainedSize = INSTANCE_SIZE;
+        if (additionalSequenceEncodings.isPresent()) {
+            for (DwrfSequenceEncoding sequenceEncoding : additionalSequenceEncodings.get().values()) {
+                retainedSize += sequenceEncoding.getRetainedSizeInBytes();
+            }
+        }
+        return retainedSize;
+    }
+
     public ColumnEncoding getColumnEncoding(int sequence)
     {
         if (sequence == 0) {
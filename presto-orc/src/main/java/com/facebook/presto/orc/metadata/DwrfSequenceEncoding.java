@@ -14,12 +14,15 @@
 package com.facebook.presto.orc.metadata;
 
 import com.facebook.presto.orc.proto.DwrfProto;
+import org.openjdk.jol.info.ClassLayout;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
 
 public class DwrfSequenceEncoding
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DwrfSequenceEncoding.class).instanceSize();
+
     private final DwrfProto.KeyInfo key;
     private final ColumnEncoding valueEncoding;
 
@@ -39,6 +42,12 @@ public class DwrfSequenceEncoding
         return valueEncoding;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        // the key is approximated by its serialized size
+        return INSTANCE_SIZE + key.getSerializedSize() + valueEncoding.getRetainedSizeInBytes();
+    }
+
     @Override
     public String toString()
     {
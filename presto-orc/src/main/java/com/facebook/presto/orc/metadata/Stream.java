@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.orc.metadata;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import java.util.Objects;
 import java.util.Optional;
 
@@ -21,6 +23,9 @@ import static java.util.Objects.requireNonNull;
 
 public class Stream
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(Stream.class).instanceSize();
+    private static final int OFFSET_SIZE = ClassLayout.parseClass(Optional.class).instanceSize() + ClassLayout.parseClass(Long.class).instanceSize();
+
     public enum StreamArea
     {
         INDEX,
@@ -109,6 +114,11 @@ public class Stream
         return offset;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + (offset.isPresent() ? OFFSET_SIZE : 0);
+    }
+
     @Override
     public String toString()
     {
@@ -16,14 +16,18 @@ package com.facebook.presto.orc.metadata;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
 
 import java.util.List;
 import java.util.Map;
 
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
 import static java.util.Objects.requireNonNull;
 
 public class StripeFooter
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(StripeFooter.class).instanceSize();
+
     private final List<Stream> streams;
     private final Map<Integer, ColumnEncoding> columnEncodings;
 
@@ -51,4 +55,19 @@ public class StripeFooter
     {
         return stripeEncryptionGroups;
     }
+
+    public long getRetainedSizeInBytes()
+    {
+        long retainedSize = INSTANCE_SIZE + sizeOfObjectArray(streams.size()) + sizeOfObjectArray(2 * columnEncodings.size()) + sizeOfObjectArray(stripeEncryptionGroups.size());
+        for (Stream stream : streams) {
+            retainedSize += stream.getRetainedSizeInBytes();
+        }
+        for (ColumnEncoding columnEncoding : columnEncodings.values()) {
+            retainedSize += columnEncoding.getRetainedSizeInBytes();
+        }
+        for (Slice stripeEncryptionGroup : stripeEncryptionGroups) {
+            retainedSize += stripeEncryptionGroup.getRetainedSize();
+        }
+        return retainedSize;
+    }
 }
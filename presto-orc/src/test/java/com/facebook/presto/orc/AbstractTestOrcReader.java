@@ -81,6 +81,7 @@ import static com.facebook.presto.orc.OrcTester.createOrcRecordWriter;
 import static com.facebook.presto.orc.OrcTester.createSettableStructObjectInspector;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableRowGroupIndices;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableSlice;
+import static com.facebook.presto.orc.StripeMetadataSource.CacheableStripeFooter;
 import static com.facebook.presto.testing.DateTimeTestingUtils.sqlTimestampOf;
 import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
 import static com.google.common.collect.Iterables.concat;
@@ -268,6 +269,52 @@ public abstract class AbstractTestOrcReader
         }
     }
 
+    @Test
+    public void testDecodedStripeFooterCaching()
+            throws Exception
+    {
+        Cache<StripeId, CacheableSlice> stripeFooterSliceCache = CacheBuilder.newBuilder()
+                .maximumWeight(new DataSize(1, MEGABYTE).toBytes())
+                .weigher((id, footer) -> ((CacheableSlice) footer).getSlice().length())
+                .recordStats()
+                .build();
+        Cache<StripeStreamId, CacheableSlice> stripeStreamCache = CacheBuilder.newBuilder()
+                .maximumWeight(new DataSize(1, MEGABYTE).toBytes())
+                .weigher((id, stream) -> ((CacheableSlice) stream).getSlice().length())
+                .recordStats()
+                .build();
+        Cache<StripeId, CacheableStripeFooter> stripeFooterCache = CacheBuilder.newBuilder()
+                .maximumWeight(new DataSize(1, MEGABYTE).toBytes())
+                .weigher((id, footer) -> toIntExact(((CacheableStripeFooter) footer).getStripeFooter().getRetainedSizeInBytes()))
+                .recordStats()
+                .build();
+        StripeMetadataSource stripeMetadataSource = new CachingStripeMetadataSource(new StorageStripeMetadataSource(), stripeFooterSliceCache, stripeStreamCache, Optional.empty(), Optional.of(stripeFooterCache));
+
+        try (TempFile tempFile = createTempFile(10001)) {
+            OrcBatchRecordReader storageReader = createCustomOrcRecordReader(tempFile, ORC, OrcPredicate.TRUE, ImmutableList.of(BIGINT), INITIAL_BATCH_SIZE, new StorageOrcFileTailSource(), stripeMetadataSource, true, ImmutableMap.of(), false, tempFile.getFile().lastModified());
+            storageReader.nextBatch();
+            assertEquals(stripeFooterCache.stats().missCount(), 1);
+            assertEquals(stripeFooterCache.stats().hitCount(), 0);
+            assertEquals(stripeFooterSliceCache.stats().missCount(), 1);
+
+            // the decoded footer is used without reading the footer again
+            OrcBatchRecordReader cacheReader = createCustomOrcRecordReader(tempFile, ORC, OrcPredicate.TRUE, ImmutableList.of(BIGINT), INITIAL_BATCH_SIZE, new StorageOrcFileTailSource(), stripeMetadataSource, true, ImmutableMap.of(), false, tempFile.getFile().lastModified());
+            cacheReader.nextBatch();
+            assertEquals(stripeFooterCache.stats().missCount(), 1);
+            assertEquals(stripeFooterCache.stats().hitCount(), 1);
+            assertEquals(stripeFooterSliceCache.stats().requestCount(), 1);
+            assertEquals(storageReader.readBlock(0).getInt(0), cacheReader.readBlock(0).getInt(0));
+
+            // the footer is decoded again when the file was modified
+            cacheReader = createCustomOrcRecordReader(tempFile, ORC, OrcPredicate.TRUE, ImmutableList.of(BIGINT), INITIAL_BATCH_SIZE, new StorageOrcFileTailSource(), stripeMetadataSource, true, ImmutableMap.of(), false, System.currentTimeMillis());
+            cacheReader.nextBatch();
+            assertEquals(stripeFooterCache.stats().missCount(), 2);
+            assertEquals(stripeFooterCache.stats().hitCount(), 2);
+            assertEquals(stripeFooterSliceCache.stats().missCount(), 2);
+            assertEquals(storageReader.readBlock(0).getInt(0), cacheReader.readBlock(0).getInt(0));
+        }
+    }
+
     private static TempFile createTempFile(int nRecords)
             throws IOException, SerDeException
     {
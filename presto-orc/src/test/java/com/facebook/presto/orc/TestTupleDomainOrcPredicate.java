@@ -13,8 +13,12 @@
  */
 package com.facebook.presto.orc;
 
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.orc.metadata.statistics.BinaryColumnStatistics;
@@ -32,10 +36,13 @@ import com.facebook.presto.orc.metadata.statistics.IntegerColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.IntegerStatistics;
 import com.facebook.presto.orc.metadata.statistics.StringColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.StringStatistics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 
 import static com.facebook.presto.common.predicate.Domain.create;
 import static com.facebook.presto.common.predicate.Domain.notNull;
@@ -59,6 +66,8 @@ import static com.facebook.presto.orc.metadata.statistics.ShortDecimalStatistics
 import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.Float.floatToRawIntBits;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestTupleDomainOrcPredicate
 {
@@ -122,6 +131,31 @@ public class TestTupleDomainOrcPredicate
         assertEquals(getDomain(BIGINT, 10, integerColumnStats(5L, 0L, null)), create(ValueSet.ofRanges(greaterThanOrEqual(BIGINT, 0L)), true));
     }
 
+    @Test
+    public void testBloomFilterDomain()
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 2);
+        BIGINT.writeLong(blockBuilder, 10L);
+        BIGINT.writeLong(blockBuilder, 20L);
+        Block block = blockBuilder.build();
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(1024);
+        bloomFilter.add(BIGINT, block, 0);
+        bloomFilter.add(BIGINT, block, 1);
+
+        TupleDomainOrcPredicate<String> predicate = new TupleDomainOrcPredicate<>(
+                TupleDomain.withColumnDomains(ImmutableMap.of("c", create(ValueSet.ofRanges(range(BIGINT, 10L, true, 20L, true)), false, Optional.of(bloomFilter)))),
+                ImmutableList.of(new TupleDomainOrcPredicate.ColumnReference<>("c", 0, BIGINT)),
+                false,
+                Optional.empty());
+
+        assertTrue(predicate.matches(10, ImmutableMap.of(0, integerColumnStats(10L, 0L, 100L))));
+        assertTrue(predicate.matches(10, ImmutableMap.of(0, integerColumnStats(10L, 10L, 10L))));
+        // row groups outside of the min/max range are pruned
+        assertFalse(predicate.matches(10, ImmutableMap.of(0, integerColumnStats(10L, 30L, 100L))));
+        // single valued row groups are pruned by the Bloom filter
+        assertFalse(predicate.matches(10, ImmutableMap.of(0, integerColumnStats(10L, 15L, 15L))));
+    }
+
     private static IntegerColumnStatistics integerColumnStats(Long numberOfValues, Long minimum, Long maximum)
     {
         return new IntegerColumnStatistics(numberOfValues, null, null, null, new IntegerStatistics(minimum, maximum, null));
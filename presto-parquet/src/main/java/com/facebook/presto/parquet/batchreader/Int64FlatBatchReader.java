@@ -27,6 +27,7 @@ import com.facebook.presto.parquet.batchreader.decoders.ValuesDecoder.Int64Value
 import com.facebook.presto.parquet.batchreader.dictionary.Dictionaries;
 import com.facebook.presto.parquet.dictionary.Dictionary;
 import com.facebook.presto.parquet.reader.ColumnChunk;
+import com.facebook.presto.parquet.reader.FilteredRowRanges;
 import com.facebook.presto.parquet.reader.PageReader;
 import com.facebook.presto.spi.PrestoException;
 import org.apache.parquet.internal.filter2.columnindex.RowRanges;
@@ -39,6 +40,7 @@ import java.util.Optional;
 import static com.facebook.presto.parquet.ParquetErrorCode.PARQUET_IO_READ_ERROR;
 import static com.facebook.presto.parquet.batchreader.decoders.Decoders.readFlatPage;
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
@@ -58,6 +60,7 @@ public class Int64FlatBatchReader
     private Dictionary dictionary;
     private int readOffset;
     private PageReader pageReader;
+    private FilteredRowRanges filteredRowRanges;
 
     public Int64FlatBatchReader(RichColumnDescriptor columnDescriptor)
     {
@@ -77,6 +80,7 @@ public class Int64FlatBatchReader
         this.pageReader = requireNonNull(pageReader, "pageReader is null");
         checkArgument(pageReader.getValueCountInColumnChunk() > 0, "page is empty");
         this.field = requireNonNull(field, "field is null");
+        this.filteredRowRanges = rowRanges == null ? null : new FilteredRowRanges(rowRanges);
 
         DictionaryPage dictionaryPage = pageReader.readDictionaryPage();
         if (dictionaryPage != null) {
@@ -228,14 +232,30 @@ public class Int64FlatBatchReader
     private void seek()
             throws IOException
     {
-        if (readOffset == 0) {
+        int skipCount = readOffset;
+        if (filteredRowRanges != null) {
+            // the unselected rows up to the next batch are skipped as well
+            skipCount = toIntExact(filteredRowRanges.skipRows(readOffset));
+            filteredRowRanges.readRows(nextBatchSize);
+        }
+        if (skipCount == 0) {
             return;
         }
 
-        int remainingInBatch = readOffset;
+        int remainingInBatch = skipCount;
         int startOffset = 0;
         while (remainingInBatch > 0) {
             if (remainingCountInPage == 0) {
+                // the rows of pages pruned using the column index are not in the page stream, and
+                // pages that only hold skipped rows are dropped without being decompressed
+                int skippedCount = pageReader.skipPrunedRows(remainingInBatch);
+                if (skippedCount == 0) {
+                    skippedCount = pageReader.skipPage(remainingInBatch);
+                }
+                if (skippedCount > 0) {
+                    remainingInBatch -= skippedCount;
+                    continue;
+                }
                 if (!readNextPage()) {
                     break;
                 }
@@ -244,7 +264,7 @@ public class Int64FlatBatchReader
             int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
             int skipSize = chunkSize;
             if (!columnDescriptor.isRequired()) {
-                boolean[] isNull = new boolean[readOffset];
+                boolean[] isNull = new boolean[skipCount];
                 int nonNullCount = definitionLevelDecoder.readNext(isNull, startOffset, chunkSize);
                 skipSize = nonNullCount;
                 startOffset += chunkSize;
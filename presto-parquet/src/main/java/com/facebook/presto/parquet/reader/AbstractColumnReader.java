@@ -174,7 +174,8 @@ public abstract class AbstractColumnReader
 
     private void skipValues(int valuesToRead)
     {
-        processValues(valuesToRead, ignored -> skipValue(), false);
+        // the batches count the selected rows only, so skipped batches must not count the rows outside of the row ranges
+        processValues(valuesToRead, ignored -> skipValue(), indexIterator != null);
     }
 
     /**
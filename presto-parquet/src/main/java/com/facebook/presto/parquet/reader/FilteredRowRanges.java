@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+
+import java.util.PrimitiveIterator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cursor over the rows of a row group that were selected using the column indexes. The column
+ * readers only return the selected rows, so the {@link ParquetReader} and the column readers use
+ * it to translate counts of selected rows to positions in the row group.
+ */
+public class FilteredRowRanges
+{
+    private final long[] rangeStarts;
+    // exclusive
+    private final long[] rangeEnds;
+
+    private int rangeIndex;
+    private long position;
+
+    public FilteredRowRanges(RowRanges rowRanges)
+    {
+        requireNonNull(rowRanges, "rowRanges is null");
+        LongArrayList starts = new LongArrayList();
+        LongArrayList ends = new LongArrayList();
+        PrimitiveIterator.OfLong rows = rowRanges.iterator();
+        while (rows.hasNext()) {
+            long row = rows.nextLong();
+            if (!ends.isEmpty() && ends.getLong(ends.size() - 1) == row) {
+                ends.set(ends.size() - 1, row + 1);
+            }
+            else {
+                starts.add(row);
+                ends.add(row + 1);
+            }
+        }
+        this.rangeStarts = starts.toLongArray();
+        this.rangeEnds = ends.toLongArray();
+    }
+
+    /**
+     * Returns the index in the row group of the next row.
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * Skips the given number of selected rows, and then the rows up to the next selected row.
+     *
+     * @return the number of rows of the row group skipped
+     */
+    public long skipRows(int selectedRowCount)
+    {
+        long start = position;
+        int remaining = selectedRowCount;
+        while (true) {
+            while (rangeIndex < rangeStarts.length && rangeEnds[rangeIndex] <= position) {
+                rangeIndex++;
+            }
+            if (rangeIndex == rangeStarts.length) {
+                break;
+            }
+            position = max(position, rangeStarts[rangeIndex]);
+            if (remaining == 0) {
+                break;
+            }
+            int count = toIntExact(min(remaining, rangeEnds[rangeIndex] - position));
+            position += count;
+            remaining -= count;
+        }
+        checkArgument(remaining == 0, "Cannot skip %s rows, only %s selected rows are left", selectedRowCount, selectedRowCount - remaining);
+        return position - start;
+    }
+
+    /**
+     * Returns the number of consecutive selected rows starting at the current position.
+     */
+    public int getReadableRowCount()
+    {
+        if (rangeIndex == rangeStarts.length || position < rangeStarts[rangeIndex]) {
+            return 0;
+        }
+        return toIntExact(min(Integer.MAX_VALUE, rangeEnds[rangeIndex] - position));
+    }
+
+    /**
+     * Moves past the given number of rows, which have to be consecutive selected rows starting at
+     * the current position.
+     */
+    public void readRows(int rowCount)
+    {
+        checkArgument(rowCount <= getReadableRowCount(), "Rows to read are not consecutive selected rows");
+        position += rowCount;
+    }
+}
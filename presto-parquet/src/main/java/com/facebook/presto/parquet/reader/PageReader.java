@@ -17,6 +17,7 @@ import com.facebook.presto.parquet.DataPage;
 import com.facebook.presto.parquet.DataPageV1;
 import com.facebook.presto.parquet.DataPageV2;
 import com.facebook.presto.parquet.DictionaryPage;
+import com.google.common.collect.PeekingIterator;
 import io.airlift.slice.Slice;
 import org.apache.parquet.crypto.AesCipher;
 import org.apache.parquet.crypto.ModuleCipherFactory;
@@ -30,8 +31,10 @@ import java.util.Iterator;
 import java.util.Optional;
 
 import static com.facebook.presto.parquet.ParquetCompressionUtils.decompress;
+import static com.google.common.collect.Iterators.peekingIterator;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 
 public class PageReader
@@ -39,13 +42,16 @@ public class PageReader
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PageReader.class).instanceSize();
 
     private final long valueCountInColumnChunk;
-    private final Iterator<DataPage> dataPageIterator;
+    private final PeekingIterator<DataPage> dataPageIterator;
     private final CompressionCodecName codec;
     private final DictionaryPage compressedDictionaryPage;
     private final OffsetIndex offsetIndex;
     private final Optional<BlockCipher.Decryptor> blockDecryptor;
 
     private int pageIndex;
+    private int skippedPageCount;
+    // index in the row group of the row following the last page read or skipped, tracked when there is an offset index
+    private long nextRowIndex;
     private byte[] dataPageAdditionalAuthenticationData;
     private byte[] dictionaryPageAdditionalAuthenticationData;
 
@@ -60,7 +66,7 @@ public class PageReader
             int columnOrdinal)
     {
         this.codec = codec;
-        this.dataPageIterator = dataPageIterator;
+        this.dataPageIterator = peekingIterator(dataPageIterator);
         this.valueCountInColumnChunk = valueCountInColumnChunk;
         this.compressedDictionaryPage = compressedDictionaryPage;
         this.offsetIndex = offsetIndex;
@@ -95,7 +101,7 @@ public class PageReader
         try {
             Slice slice = decryptSliceIfNeeded(compressedPage.getSlice(), dataPageAdditionalAuthenticationData);
             long firstRowIndex = getFirstRowIndex(pageIndex, offsetIndex);
-            pageIndex = pageIndex + 1;
+            advancePage();
             if (compressedPage instanceof DataPageV1) {
                 DataPageV1 dataPageV1 = (DataPageV1) compressedPage;
                 slice = decompress(codec, slice, dataPageV1.getUncompressedSize());
@@ -137,6 +143,53 @@ public class PageReader
         }
     }
 
+    /**
+     * Skips the next data page without decrypting or decompressing it, provided the page holds
+     * at most {@code maxValueCount} values.
+     *
+     * @return the number of values skipped, or 0 if the page was not skipped
+     */
+    public int skipPage(int maxValueCount)
+    {
+        if (!dataPageIterator.hasNext()) {
+            return 0;
+        }
+        int valueCount = dataPageIterator.peek().getValueCount();
+        if (valueCount > maxValueCount) {
+            return 0;
+        }
+        dataPageIterator.next();
+        advancePage();
+        skippedPageCount++;
+        return valueCount;
+    }
+
+    /**
+     * Skips the rows between the last page read or skipped and the next page. These rows belong to
+     * pages pruned using the column index, which are not in the page stream at all.
+     *
+     * @return the number of rows skipped, at most {@code maxRowCount}
+     */
+    public int skipPrunedRows(int maxRowCount)
+    {
+        if (offsetIndex == null || !dataPageIterator.hasNext()) {
+            return 0;
+        }
+        int prunedRowCount = toIntExact(min(maxRowCount, offsetIndex.getFirstRowIndex(pageIndex) - nextRowIndex));
+        nextRowIndex += prunedRowCount;
+        return prunedRowCount;
+    }
+
+    public int getReadPageCount()
+    {
+        return pageIndex - skippedPageCount;
+    }
+
+    public int getSkippedPageCount()
+    {
+        return skippedPageCount;
+    }
+
     public DictionaryPage readDictionaryPage()
     {
         if (compressedDictionaryPage == null) {
@@ -162,6 +215,14 @@ public class PageReader
                 sizeOf(dictionaryPageAdditionalAuthenticationData);
     }
 
+    private void advancePage()
+    {
+        if (offsetIndex != null) {
+            nextRowIndex = offsetIndex.getLastRowIndex(pageIndex, Long.MAX_VALUE) + 1;
+        }
+        pageIndex = pageIndex + 1;
+    }
+
     // additional authenticated data for AES cipher
     private Slice decryptSliceIfNeeded(Slice slice, byte[] additionalAuthenticationData)
             throws IOException
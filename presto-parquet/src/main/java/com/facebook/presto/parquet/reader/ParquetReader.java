@@ -124,7 +124,9 @@ public class ParquetReader
      */
     private Optional<Long> firstRowIndexInGroup = Optional.empty();
     private RowRanges currentGroupRowRanges;
+    private FilteredRowRanges currentGroupFilteredRowRanges;
     private long nextRowInGroup;
+    private long batchStartRowInGroup;
     private int batchSize;
     private int nextBatchSize = INITIAL_BATCH_SIZE;
     private final long[] maxBytesPerCell;
@@ -133,6 +135,9 @@ public class ParquetReader
     private int currentBlock;
     private long currentPosition;
     private long currentGroupRowCount;
+    private final List<PageReader> currentGroupPageReaders = new ArrayList<>();
+    private long readPageCount;
+    private long skippedPageCount;
 
     public ParquetReader(
             MessageColumnIO messageColumnIO,
@@ -205,7 +210,24 @@ public class ParquetReader
     public long lastBatchStartRow()
     {
         long baseIndex = firstRowIndexInGroup.orElseThrow(() -> new IllegalStateException("row index unavailable"));
-        return baseIndex + nextRowInGroup - batchSize;
+        return baseIndex + batchStartRowInGroup;
+    }
+
+    /**
+     * Returns the number of data pages that were decompressed and decoded.
+     */
+    public long getReadPageCount()
+    {
+        return readPageCount + currentGroupPageReaders.stream().mapToLong(PageReader::getReadPageCount).sum();
+    }
+
+    /**
+     * Returns the number of data pages that were skipped without being decompressed, either because
+     * they were pruned using the column index or because they only held skipped rows.
+     */
+    public long getSkippedPageCount()
+    {
+        return skippedPageCount + currentGroupPageReaders.stream().mapToLong(PageReader::getSkippedPageCount).sum();
     }
 
     public int nextBatch()
@@ -217,6 +239,16 @@ public class ParquetReader
         batchSize = toIntExact(min(nextBatchSize, maxBatchSize));
         nextBatchSize = min(batchSize * BATCH_SIZE_GROWTH_FACTOR, MAX_VECTOR_LENGTH);
         batchSize = toIntExact(min(batchSize, currentGroupRowCount - nextRowInGroup));
+        if (currentGroupFilteredRowRanges != null) {
+            // a batch does not span the rows pruned using the column index, so its rows are consecutive in the row group
+            currentGroupFilteredRowRanges.skipRows(0);
+            batchStartRowInGroup = currentGroupFilteredRowRanges.getPosition();
+            batchSize = min(batchSize, currentGroupFilteredRowRanges.getReadableRowCount());
+            currentGroupFilteredRowRanges.readRows(batchSize);
+        }
+        else {
+            batchStartRowInGroup = nextRowInGroup;
+        }
 
         nextRowInGroup += batchSize;
         currentPosition += batchSize;
@@ -243,26 +275,34 @@ public class ParquetReader
 
     private boolean advanceToNextRowGroup()
     {
-        currentBlock++;
-        if (currentBlock == blocks.size()) {
-            return false;
+        for (PageReader pageReader : currentGroupPageReaders) {
+            readPageCount += pageReader.getReadPageCount();
+            skippedPageCount += pageReader.getSkippedPageCount();
         }
-        currentBlockMetadata = blocks.get(currentBlock);
-        firstRowIndexInGroup = firstRowsOfBlocks.map(firstRows -> firstRows.get(currentBlock));
+        currentGroupPageReaders.clear();
 
-        if (filter != null && columnIndexFilterEnabled) {
-            ColumnIndexStore columnIndexStore = blockIndexStores.get(currentBlock);
-            if (columnIndexStore != null) {
+        do {
+            currentBlock++;
+            if (currentBlock == blocks.size()) {
+                return false;
+            }
+            currentBlockMetadata = blocks.get(currentBlock);
+            currentGroupRowRanges = null;
+            if (filter != null && columnIndexFilterEnabled && blockIndexStores.get(currentBlock) != null) {
                 currentGroupRowRanges = getRowRanges(currentBlock);
-                long rowCount = currentGroupRowRanges.rowCount();
-                if (rowCount == 0) {
-                    return false;
-                }
             }
         }
+        while (currentGroupRowRanges != null && currentGroupRowRanges.rowCount() == 0);
+        firstRowIndexInGroup = firstRowsOfBlocks.map(firstRows -> firstRows.get(currentBlock));
 
         nextRowInGroup = 0L;
         currentGroupRowCount = currentBlockMetadata.getRowCount();
+        currentGroupFilteredRowRanges = null;
+        if (currentGroupRowRanges != null && currentGroupRowRanges.rowCount() < currentGroupRowCount) {
+            // the column readers only return the selected rows
+            currentGroupFilteredRowRanges = new FilteredRowRanges(currentGroupRowRanges);
+            currentGroupRowCount = currentGroupRowRanges.rowCount();
+        }
         initializeColumnReaders();
         return true;
     }
@@ -340,6 +380,7 @@ public class ParquetReader
             if (shouldUseColumnIndex(columnChunkMetaData.getPath())) {
                 OffsetIndex offsetIndex = blockIndexStores.get(currentBlock).getOffsetIndex(columnChunkMetaData.getPath());
                 OffsetIndex filteredOffsetIndex = ColumnIndexFilterUtils.filterOffsetIndex(offsetIndex, currentGroupRowRanges, blocks.get(currentBlock).getRowCount());
+                skippedPageCount += offsetIndex.getPageCount() - filteredOffsetIndex.getPageCount();
                 List<OffsetRange> offsetRanges = ColumnIndexFilterUtils.calculateOffsetRanges(filteredOffsetIndex, columnChunkMetaData, offsetIndex.getOffset(0), startingPosition);
                 List<OffsetRange> consecutiveRanges = concatRanges(offsetRanges);
                 int consecutiveRangesSize = consecutiveRanges.stream().mapToInt(range -> (int) range.getLength()).sum();
@@ -350,6 +391,7 @@ public class ParquetReader
                         columnDescriptor,
                         Optional.of(filteredOffsetIndex),
                         pageReaderMemoryContext);
+                currentGroupPageReaders.add(pageReader);
 
                 columnReader.init(pageReader, field, currentGroupRowRanges);
 
@@ -373,6 +415,7 @@ public class ParquetReader
                         columnDescriptor,
                         Optional.empty(),
                         pageReaderMemoryContext);
+                currentGroupPageReaders.add(pageReader);
                 columnReader.init(pageReader, field, null);
 
                 if (enableVerification) {
@@ -462,12 +505,8 @@ public class ParquetReader
 
     private boolean shouldUseColumnIndex(ColumnPath path)
     {
-        return filter != null &&
-                columnIndexFilterEnabled &&
-                currentGroupRowRanges != null &&
-                currentGroupRowRanges.rowCount() < currentGroupRowCount &&
-                blockIndexStores.get(currentBlock) != null &&
-                blockIndexStores.get(currentBlock).getColumnIndex(path) != null;
+        return currentGroupFilteredRowRanges != null &&
+                blockIndexStores.get(currentBlock).getOffsetIndex(path) != null;
     }
 
     private PageReader createPageReader(
@@ -522,7 +561,9 @@ public class ParquetReader
     {
         for (PrimitiveColumnIO columnIO : columns) {
             RichColumnDescriptor column = new RichColumnDescriptor(columnIO.getColumnDescriptor(), columnIO.getType().asPrimitiveType());
-            columnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, batchReadEnabled);
+            // the nested batch readers cannot skip the rows pruned using the column index
+            boolean nested = column.getPath().length > 1;
+            columnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, batchReadEnabled && !(nested && currentGroupFilteredRowRanges != null));
 
             if (enableVerification) {
                 verificationColumnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, false);
@@ -0,0 +1,247 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.parquet.ColumnReader;
+import com.facebook.presto.parquet.ColumnReaderFactory;
+import com.facebook.presto.parquet.DataPage;
+import com.facebook.presto.parquet.DataPageV1;
+import com.facebook.presto.parquet.PrimitiveField;
+import com.facebook.presto.parquet.RichColumnDescriptor;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.apache.parquet.bytes.BytesUtils;
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.values.plain.PlainValuesWriter;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.ColumnIndexBuilder;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndexBuilder;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.parquet.ParquetEncoding.PLAIN;
+import static com.facebook.presto.parquet.ParquetEncoding.RLE;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Math.toIntExact;
+import static org.apache.parquet.filter2.predicate.FilterApi.and;
+import static org.apache.parquet.filter2.predicate.FilterApi.eq;
+import static org.apache.parquet.filter2.predicate.FilterApi.gtEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.lt;
+import static org.apache.parquet.filter2.predicate.FilterApi.or;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.apache.parquet.internal.column.columnindex.BoundaryOrder.ASCENDING;
+import static org.apache.parquet.internal.filter2.columnindex.ColumnIndexFilter.calculateRowRanges;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+public class TestPageSkipping
+{
+    private static final int PAGE_COUNT = 10;
+    private static final int VALUES_PER_PAGE = 100;
+
+    private static final PrimitiveType PARQUET_TYPE = Types.required(INT64).named("test");
+    private static final PrimitiveField FIELD = new PrimitiveField(
+            BIGINT,
+            -1,
+            -1,
+            true,
+            new RichColumnDescriptor(new ColumnDescriptor(new String[] {"test"}, PARQUET_TYPE, 0, 0), PARQUET_TYPE),
+            0);
+
+    @Test
+    public void testSkipPage()
+            throws IOException
+    {
+        PageReader pageReader = createPageReader();
+
+        assertEquals(pageReader.skipPage(VALUES_PER_PAGE - 1), 0);
+        assertEquals(pageReader.skipPage(VALUES_PER_PAGE), VALUES_PER_PAGE);
+        assertEquals(pageReader.readPage().getValueCount(), VALUES_PER_PAGE);
+        for (int page = 2; page < PAGE_COUNT; page++) {
+            assertEquals(pageReader.skipPage(Integer.MAX_VALUE), VALUES_PER_PAGE);
+        }
+        assertEquals(pageReader.skipPage(Integer.MAX_VALUE), 0);
+        assertEquals(pageReader.readPage(), null);
+    }
+
+    @Test
+    public void testFlatBatchReaderSkipsPages()
+            throws IOException
+    {
+        ColumnReader columnReader = ColumnReaderFactory.createReader(FIELD.getDescriptor(), true);
+        columnReader.init(createPageReader(), FIELD, null);
+
+        // batches that are never read are skipped on the next read, spanning whole pages
+        int position = 0;
+        for (int batchSize : ImmutableList.of(150, 120, 10, 330, 5, 385)) {
+            columnReader.prepareNextRead(batchSize);
+            if (batchSize < 100) {
+                Block block = columnReader.readNext().getBlock();
+                assertEquals(block.getPositionCount(), batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    assertEquals(BIGINT.getLong(block, i), value(position + i));
+                }
+            }
+            position += batchSize;
+        }
+        assertEquals(position, PAGE_COUNT * VALUES_PER_PAGE);
+    }
+
+    @Test
+    public void testFilteredRowRanges()
+    {
+        FilteredRowRanges filteredRowRanges = new FilteredRowRanges(rowRanges());
+
+        assertEquals(filteredRowRanges.skipRows(0), 200);
+        assertEquals(filteredRowRanges.getReadableRowCount(), 200);
+        filteredRowRanges.readRows(120);
+        assertEquals(filteredRowRanges.getPosition(), 320);
+        assertEquals(filteredRowRanges.skipRows(80), 380);
+        assertEquals(filteredRowRanges.getPosition(), 700);
+        assertEquals(filteredRowRanges.getReadableRowCount(), 100);
+        assertThrows(IllegalArgumentException.class, () -> filteredRowRanges.readRows(101));
+        assertThrows(IllegalArgumentException.class, () -> filteredRowRanges.skipRows(101));
+    }
+
+    @Test
+    public void testFlatBatchReaderSkipsPrunedPages()
+            throws IOException
+    {
+        RowRanges rowRanges = rowRanges();
+        OffsetIndex offsetIndex = ColumnIndexFilterUtils.filterOffsetIndex(offsetIndex(), rowRanges, PAGE_COUNT * VALUES_PER_PAGE);
+        assertEquals(offsetIndex.getPageCount(), 3);
+
+        PageReader pageReader = createPageReader(ImmutableList.of(2, 3, 7), offsetIndex);
+        ColumnReader columnReader = ColumnReaderFactory.createReader(FIELD.getDescriptor(), true);
+        columnReader.init(pageReader, FIELD, rowRanges);
+
+        // the batches hold the selected rows only, and are consecutive in the row group
+        FilteredRowRanges filteredRowRanges = new FilteredRowRanges(rowRanges);
+        List<Integer> batchSizes = ImmutableList.of(150, 50, 60, 40);
+        for (int batch = 0; batch < batchSizes.size(); batch++) {
+            int batchSize = batchSizes.get(batch);
+            filteredRowRanges.skipRows(0);
+            long position = filteredRowRanges.getPosition();
+            filteredRowRanges.readRows(batchSize);
+
+            columnReader.prepareNextRead(batchSize);
+            if (batch % 2 == 1) {
+                Block block = columnReader.readNext().getBlock();
+                assertEquals(block.getPositionCount(), batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    assertEquals(BIGINT.getLong(block, i), value(toIntExact(position + i)));
+                }
+            }
+        }
+        assertEquals(pageReader.getReadPageCount(), 2);
+        assertEquals(pageReader.getSkippedPageCount(), 1);
+    }
+
+    /**
+     * The column is sorted, so a range predicate only selects the rows of the pages 2, 3 and 7.
+     */
+    private static RowRanges rowRanges()
+    {
+        List<Boolean> nullPages = new ArrayList<>();
+        List<Long> nullCounts = new ArrayList<>();
+        List<ByteBuffer> minValues = new ArrayList<>();
+        List<ByteBuffer> maxValues = new ArrayList<>();
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            nullPages.add(false);
+            nullCounts.add(0L);
+            minValues.add(ByteBuffer.wrap(BytesUtils.longToBytes(value(page * VALUES_PER_PAGE))));
+            maxValues.add(ByteBuffer.wrap(BytesUtils.longToBytes(value(page * VALUES_PER_PAGE + VALUES_PER_PAGE - 1))));
+        }
+        ColumnIndex columnIndex = ColumnIndexBuilder.build(PARQUET_TYPE, ASCENDING, nullPages, nullCounts, minValues, maxValues);
+        OffsetIndex offsetIndex = offsetIndex();
+        ColumnIndexStore columnIndexStore = new ColumnIndexStore()
+        {
+            @Override
+            public ColumnIndex getColumnIndex(ColumnPath column)
+            {
+                return columnIndex;
+            }
+
+            @Override
+            public OffsetIndex getOffsetIndex(ColumnPath column)
+            {
+                return offsetIndex;
+            }
+        };
+
+        Operators.LongColumn column = longColumn("test");
+        return calculateRowRanges(
+                FilterCompat.get(or(and(gtEq(column, value(250)), lt(column, value(350))), eq(column, value(720)))),
+                columnIndexStore,
+                ImmutableSet.of(ColumnPath.get("test")),
+                PAGE_COUNT * VALUES_PER_PAGE);
+    }
+
+    private static OffsetIndex offsetIndex()
+    {
+        OffsetIndexBuilder builder = OffsetIndexBuilder.getBuilder();
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            builder.add(VALUES_PER_PAGE * Long.BYTES, VALUES_PER_PAGE);
+        }
+        return builder.build();
+    }
+
+    private static PageReader createPageReader()
+            throws IOException
+    {
+        return createPageReader(IntStream.range(0, PAGE_COUNT).boxed().collect(toImmutableList()), null);
+    }
+
+    private static PageReader createPageReader(List<Integer> pageNumbers, OffsetIndex offsetIndex)
+            throws IOException
+    {
+        ImmutableList.Builder<DataPage> pages = ImmutableList.builder();
+        for (int page : pageNumbers) {
+            PlainValuesWriter writer = new PlainValuesWriter(VALUES_PER_PAGE * Long.BYTES, VALUES_PER_PAGE * Long.BYTES, HeapByteBufferAllocator.getInstance());
+            for (int i = 0; i < VALUES_PER_PAGE; i++) {
+                writer.writeLong(value(page * VALUES_PER_PAGE + i));
+            }
+            Slice data = Slices.wrappedBuffer(writer.getBytes().toByteArray());
+            pages.add(new DataPageV1(data, VALUES_PER_PAGE, data.length(), -1, null, RLE, RLE, PLAIN));
+        }
+        List<DataPage> dataPages = pages.build();
+        return new PageReader(UNCOMPRESSED, dataPages.iterator(), pageNumbers.size() * VALUES_PER_PAGE, null, offsetIndex, Optional.empty(), null, -1, -1);
+    }
+
+    private static long value(int position)
+    {
+        return position * 3L;
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.parser;
+
+import com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment;
+import com.facebook.presto.sql.tree.DecimalLiteral;
+import com.facebook.presto.sql.tree.DoubleLiteral;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.LongLiteral;
+import com.facebook.presto.sql.tree.NodeLocation;
+import com.facebook.presto.sql.tree.StringLiteral;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment.REJECT;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The text of a query with its literal values replaced with parameters, so that queries that only
+ * differ in the values of their literals have the same normalized text, whatever the length of the
+ * literals. Nodes parsed from the normalized text are at their location in the normalized text, which
+ * differs from their location in the query after the first replaced literal of a line.
+ * <p>
+ * Literals that the grammar does not accept as an expression, like the value of a LIMIT or the string
+ * of a typed literal such as {@code DATE '2020-01-01'}, are kept in the normalized text where they can
+ * be told apart from the tokens alone. So are the ordinals of GROUP BY and ORDER BY, which the analyzer
+ * treats differently from other expressions. The normalized text of a query is not guaranteed to parse,
+ * nor to mean the same as the query once its parameters are bound to the literals, so users have
+ * to check both.
+ */
+public final class NormalizedQuery
+{
+    private static final BaseErrorListener LEXER_ERROR_LISTENER = new BaseErrorListener()
+    {
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String message, RecognitionException e)
+        {
+            throw new ParsingException(message, e, line, charPositionInLine);
+        }
+    };
+
+    // keywords after which a string is an expression rather than part of a typed literal or a clause
+    private static final Set<Integer> VALUE_KEYWORDS = ImmutableSet.of(
+            SqlBaseLexer.SELECT,
+            SqlBaseLexer.DISTINCT,
+            SqlBaseLexer.ALL,
+            SqlBaseLexer.FROM,
+            SqlBaseLexer.WHERE,
+            SqlBaseLexer.HAVING,
+            SqlBaseLexer.ON,
+            SqlBaseLexer.WHEN,
+            SqlBaseLexer.THEN,
+            SqlBaseLexer.ELSE,
+            SqlBaseLexer.AND,
+            SqlBaseLexer.OR,
+            SqlBaseLexer.NOT,
+            SqlBaseLexer.LIKE,
+            SqlBaseLexer.BETWEEN,
+            SqlBaseLexer.ESCAPE);
+
+    // keywords after which an integer is part of the clause rather than an expression
+    private static final Set<Integer> COUNT_KEYWORDS = ImmutableSet.of(
+            SqlBaseLexer.LIMIT,
+            SqlBaseLexer.OFFSET,
+            SqlBaseLexer.FIRST);
+
+    // clauses that end the list of a GROUP BY or an ORDER BY
+    private static final Set<Integer> CLAUSE_KEYWORDS = ImmutableSet.of(
+            SqlBaseLexer.SELECT,
+            SqlBaseLexer.FROM,
+            SqlBaseLexer.WHERE,
+            SqlBaseLexer.HAVING,
+            SqlBaseLexer.ORDER,
+            SqlBaseLexer.LIMIT,
+            SqlBaseLexer.OFFSET,
+            SqlBaseLexer.FETCH,
+            SqlBaseLexer.UNION,
+            SqlBaseLexer.EXCEPT,
+            SqlBaseLexer.INTERSECT);
+
+    // tokens that can follow an ordinal in the list of a GROUP BY or an ORDER BY
+    private static final Set<Integer> ORDINAL_FOLLOWERS = ImmutableSet.<Integer>builder()
+            .addAll(CLAUSE_KEYWORDS)
+            .add(SqlBaseLexer.ASC)
+            .add(SqlBaseLexer.DESC)
+            .add(SqlBaseLexer.NULLS)
+            .add(Token.EOF)
+            .build();
+
+    private final String sql;
+    private final Map<Long, Expression> literals;
+
+    private NormalizedQuery(String sql, Map<Long, Expression> literals)
+    {
+        this.sql = requireNonNull(sql, "sql is null");
+        this.literals = ImmutableMap.copyOf(requireNonNull(literals, "literals is null"));
+    }
+
+    /**
+     * Returns the normalized query, or empty if the query has no literals to replace, already has
+     * parameters or cannot be tokenized.
+     */
+    public static Optional<NormalizedQuery> normalizeLiterals(String sql, DecimalLiteralTreatment decimalLiteralTreatment)
+    {
+        requireNonNull(sql, "sql is null");
+        requireNonNull(decimalLiteralTreatment, "decimalLiteralTreatment is null");
+        // the lexer counts code points, which then no longer match the indexes of the characters of the query
+        if (sql.codePointCount(0, sql.length()) != sql.length()) {
+            return Optional.empty();
+        }
+
+        List<Token> tokens;
+        try {
+            tokens = tokenize(sql);
+        }
+        catch (ParsingException e) {
+            return Optional.empty();
+        }
+
+        StringBuilder normalizedSql = new StringBuilder(sql.length());
+        int copiedIndex = 0;
+        int line = 1;
+        int lineStartIndex = 0;
+        ImmutableMap.Builder<Long, Expression> literals = ImmutableMap.builder();
+        int depth = 0;
+        int typeParametersDepth = -1;
+        int ordinalListDepth = -1;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            Token previous = i > 0 ? tokens.get(i - 1) : null;
+            String text = token.getText();
+            if (text.equals("?")) {
+                return Optional.empty();
+            }
+            if (text.equals("(")) {
+                // the parameters of a type, as in CAST(x AS varchar(10)), are not expressions
+                if (typeParametersDepth < 0 && i >= 2 && isWord(previous) && tokens.get(i - 2).getType() == SqlBaseLexer.AS) {
+                    typeParametersDepth = depth;
+                }
+                depth++;
+                continue;
+            }
+            if (text.equals(")")) {
+                depth--;
+                if (depth == typeParametersDepth) {
+                    typeParametersDepth = -1;
+                }
+                if (depth < ordinalListDepth) {
+                    ordinalListDepth = -1;
+                }
+                continue;
+            }
+            if (depth == ordinalListDepth && CLAUSE_KEYWORDS.contains(token.getType())) {
+                ordinalListDepth = -1;
+            }
+            if (token.getType() == SqlBaseLexer.BY && previous != null && (previous.getType() == SqlBaseLexer.GROUP || previous.getType() == SqlBaseLexer.ORDER)) {
+                ordinalListDepth = depth;
+                continue;
+            }
+            if (typeParametersDepth >= 0 || !isReplaceable(token, previous, tokens.get(Math.min(i + 1, tokens.size() - 1)), depth == ordinalListDepth, decimalLiteralTreatment)) {
+                continue;
+            }
+
+            Expression literal;
+            try {
+                literal = createLiteral(token, new NodeLocation(token.getLine(), token.getCharPositionInLine()), decimalLiteralTreatment);
+            }
+            catch (ParsingException e) {
+                // the literal is invalid, which parsing the query reports
+                return Optional.empty();
+            }
+            for (int index = copiedIndex; index < token.getStartIndex(); index++) {
+                char character = sql.charAt(index);
+                normalizedSql.append(character);
+                if (character == '\n') {
+                    line++;
+                    lineStartIndex = normalizedSql.length();
+                }
+            }
+            // the literal is keyed on the location of the parameter that replaces it in the normalized text
+            literals.put(locationKey(new NodeLocation(line, normalizedSql.length() - lineStartIndex)), literal);
+            normalizedSql.append('?');
+            copiedIndex = token.getStopIndex() + 1;
+        }
+
+        Map<Long, Expression> replacedLiterals = literals.build();
+        if (replacedLiterals.isEmpty()) {
+            return Optional.empty();
+        }
+        normalizedSql.append(sql, copiedIndex, sql.length());
+        return Optional.of(new NormalizedQuery(normalizedSql.toString(), replacedLiterals));
+    }
+
+    public String getSql()
+    {
+        return sql;
+    }
+
+    public int getLiteralCount()
+    {
+        return literals.size();
+    }
+
+    /**
+     * Returns the literal that the parameter at the location in the normalized text replaces.
+     * The literal itself is at its location in the query.
+     */
+    public Optional<Expression> getLiteral(NodeLocation location)
+    {
+        return Optional.ofNullable(literals.get(locationKey(location)));
+    }
+
+    private static List<Token> tokenize(String sql)
+    {
+        SqlBaseLexer lexer = new SqlBaseLexer(new CaseInsensitiveStream(CharStreams.fromString(sql)));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(LEXER_ERROR_LISTENER);
+
+        ImmutableList.Builder<Token> tokens = ImmutableList.builder();
+        while (true) {
+            Token token = lexer.nextToken();
+            if (token.getChannel() == Token.DEFAULT_CHANNEL) {
+                tokens.add(token);
+            }
+            if (token.getType() == Token.EOF) {
+                return tokens.build();
+            }
+        }
+    }
+
+    private static boolean isReplaceable(Token token, Token previous, Token next, boolean inOrdinalList, DecimalLiteralTreatment decimalLiteralTreatment)
+    {
+        switch (token.getType()) {
+            case SqlBaseLexer.STRING:
+                return previous == null || (previous.getType() != SqlBaseLexer.DOUBLE_PRECISION && (!isWord(previous) || VALUE_KEYWORDS.contains(previous.getType())));
+            case SqlBaseLexer.INTEGER_VALUE:
+                if (previous == null) {
+                    return true;
+                }
+                if (COUNT_KEYWORDS.contains(previous.getType()) || previous.getText().equals("[")) {
+                    return false;
+                }
+                boolean ordinal = inOrdinalList &&
+                        (previous.getType() == SqlBaseLexer.BY || previous.getText().equals(",")) &&
+                        (ORDINAL_FOLLOWERS.contains(next.getType()) || next.getText().equals(",") || next.getText().equals(")"));
+                return !ordinal;
+            case SqlBaseLexer.DECIMAL_VALUE:
+                return decimalLiteralTreatment != REJECT;
+            case SqlBaseLexer.DOUBLE_VALUE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isWord(Token token)
+    {
+        switch (token.getType()) {
+            case SqlBaseLexer.IDENTIFIER:
+            case SqlBaseLexer.QUOTED_IDENTIFIER:
+            case SqlBaseLexer.BACKQUOTED_IDENTIFIER:
+            case SqlBaseLexer.DIGIT_IDENTIFIER:
+                return true;
+        }
+        // keywords are named after their text, which is quoted
+        String literalName = SqlBaseLexer.VOCABULARY.getLiteralName(token.getType());
+        return literalName != null && literalName.length() > 2 && Character.isLetter(literalName.charAt(1));
+    }
+
+    private static Expression createLiteral(Token token, NodeLocation location, DecimalLiteralTreatment decimalLiteralTreatment)
+    {
+        String text = token.getText();
+        switch (token.getType()) {
+            case SqlBaseLexer.STRING:
+                return new StringLiteral(location, text.substring(1, text.length() - 1).replace("''", "'"));
+            case SqlBaseLexer.INTEGER_VALUE:
+                return new LongLiteral(location, text);
+            case SqlBaseLexer.DECIMAL_VALUE:
+                switch (decimalLiteralTreatment) {
+                    case AS_DOUBLE:
+                        return new DoubleLiteral(location, text);
+                    case AS_DECIMAL:
+                        return new DecimalLiteral(location, text);
+                }
+                break;
+            case SqlBaseLexer.DOUBLE_VALUE:
+                return new DoubleLiteral(location, text);
+        }
+        throw new IllegalArgumentException("Not a literal: " + text);
+    }
+
+    private static long locationKey(NodeLocation location)
+    {
+        return ((long) location.getLineNumber() << 32) | (location.getColumnNumber() - 1);
+    }
+}
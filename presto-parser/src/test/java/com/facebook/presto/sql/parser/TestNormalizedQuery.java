@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.parser;
+
+import com.facebook.presto.sql.tree.DecimalLiteral;
+import com.facebook.presto.sql.tree.DoubleLiteral;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.LongLiteral;
+import com.facebook.presto.sql.tree.NodeLocation;
+import com.facebook.presto.sql.tree.StringLiteral;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.sql.parser.NormalizedQuery.normalizeLiterals;
+import static com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DOUBLE;
+import static com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment.REJECT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestNormalizedQuery
+{
+    @Test
+    public void testNormalizeLiterals()
+    {
+        String sql = "SELECT * FROM t WHERE a = 'it''s' AND b > 10";
+        NormalizedQuery normalizedQuery = normalizeLiterals(sql, AS_DECIMAL).get();
+        assertEquals(normalizedQuery.getSql(), "SELECT * FROM t WHERE a = ? AND b > ?");
+        assertEquals(normalizedQuery.getLiteralCount(), 2);
+        assertEquals(normalizedQuery.getLiteral(new NodeLocation(1, 26)), Optional.of(new StringLiteral("it's")));
+        assertEquals(normalizedQuery.getLiteral(new NodeLocation(1, 36)), Optional.of(new LongLiteral("10")));
+        assertFalse(normalizedQuery.getLiteral(new NodeLocation(1, sql.indexOf("10"))).isPresent());
+
+        // queries that only differ in the values of their literals are normalized to the same text
+        assertEquals(normalizeLiterals("SELECT * FROM t WHERE a = 'x' AND b > 100000", AS_DECIMAL).get().getSql(), normalizedQuery.getSql());
+        assertEquals(normalizeLiterals("SELECT * FROM t WHERE id = 10", AS_DECIMAL).get().getSql(), normalizeLiterals("SELECT * FROM t WHERE id = 100", AS_DECIMAL).get().getSql());
+
+        assertEquals(normalizeLiterals("SELECT a IN (1, 2) FROM t", AS_DECIMAL).get().getSql(), "SELECT a IN (?, ?) FROM t");
+        assertEquals(normalizeLiterals("SELECT x[1] + 2 FROM t", AS_DECIMAL).get().getSql(), "SELECT x[1] + ? FROM t");
+    }
+
+    @Test
+    public void testLocations()
+    {
+        String sql = "SELECT 'a\nbc', 10\nFROM t WHERE a = 'x'";
+        NormalizedQuery normalizedQuery = normalizeLiterals(sql, AS_DECIMAL).get();
+        assertEquals(normalizedQuery.getSql(), "SELECT ?, ?\nFROM t WHERE a = ?");
+        // the literals are keyed on the locations of the parameters, and keep their location in the query
+        assertLiteral(normalizedQuery.getLiteral(new NodeLocation(1, 7)).get(), new StringLiteral("a\nbc"), new NodeLocation(1, 7));
+        assertLiteral(normalizedQuery.getLiteral(new NodeLocation(1, 10)).get(), new LongLiteral("10"), new NodeLocation(2, 5));
+        assertLiteral(normalizedQuery.getLiteral(new NodeLocation(2, 17)).get(), new StringLiteral("x"), new NodeLocation(3, 17));
+    }
+
+    @Test
+    public void testLiteralsThatAreNotExpressions()
+    {
+        // ordinals, counts, type parameters and typed literals are kept
+        assertFalse(normalizeLiterals("SELECT a, b FROM t GROUP BY 1, 2 ORDER BY 2 DESC, 1 LIMIT 5", AS_DECIMAL).isPresent());
+        assertFalse(normalizeLiterals("SELECT CAST(a AS decimal(10, 2)), DATE '2020-01-01', a AT TIME ZONE 'UTC' FROM t", AS_DECIMAL).isPresent());
+        assertFalse(normalizeLiterals("SELECT rank() OVER (ORDER BY 1) FROM t OFFSET 2 ROWS FETCH FIRST 3 ROWS ONLY", AS_DECIMAL).isPresent());
+
+        // but not the expressions of the same clauses
+        assertEquals(
+                normalizeLiterals("SELECT a FROM t GROUP BY a + 1 HAVING count(*) > 1 ORDER BY 1", AS_DECIMAL).get().getSql(),
+                "SELECT a FROM t GROUP BY a + ? HAVING count(*) > ? ORDER BY 1");
+    }
+
+    @Test
+    public void testDecimalLiterals()
+    {
+        String sql = "SELECT 1.5, 2E1";
+        assertEquals(normalizeLiterals(sql, AS_DECIMAL).get().getLiteral(new NodeLocation(1, 7)), Optional.of(new DecimalLiteral("1.5")));
+        assertEquals(normalizeLiterals(sql, AS_DOUBLE).get().getLiteral(new NodeLocation(1, 7)), Optional.of(new DoubleLiteral("1.5")));
+        assertEquals(normalizeLiterals(sql, AS_DOUBLE).get().getLiteral(new NodeLocation(1, 12)), Optional.of(new DoubleLiteral("2E1")));
+        // decimal literals that the parser rejects are kept
+        assertEquals(normalizeLiterals(sql, REJECT).get().getSql(), "SELECT 1.5, ?");
+    }
+
+    @Test
+    public void testNotNormalized()
+    {
+        assertFalse(normalizeLiterals("SELECT a FROM t", AS_DECIMAL).isPresent());
+        assertFalse(normalizeLiterals("SELECT a FROM t WHERE a = ? AND b = 1", AS_DECIMAL).isPresent());
+        assertFalse(normalizeLiterals("SELECT 99999999999999999999", AS_DECIMAL).isPresent());
+    }
+
+    private static void assertLiteral(Expression actual, Expression expected, NodeLocation expectedLocation)
+    {
+        assertEquals(actual, expected);
+        NodeLocation location = actual.getLocation().get();
+        assertEquals(location.getLineNumber(), expectedLocation.getLineNumber());
+        assertEquals(location.getColumnNumber(), expectedLocation.getColumnNumber());
+    }
+}
@@ -91,6 +91,7 @@ import com.facebook.presto.metadata.TablePropertyManager;
 import com.facebook.presto.nodeManager.PluginNodeManager;
 import com.facebook.presto.operator.FileFragmentResultCacheConfig;
 import com.facebook.presto.operator.FileFragmentResultCacheManager;
+import com.facebook.presto.operator.ForHashBuild;
 import com.facebook.presto.operator.FragmentCacheStats;
 import com.facebook.presto.operator.FragmentResultCacheManager;
 import com.facebook.presto.operator.LookupJoinOperators;
@@ -470,7 +471,6 @@ public class PrestoSparkModule
         binder.bind(SqlParserOptions.class).toInstance(sqlParserOptions);
 
         // analyzer
-        binder.bind(BuiltInQueryPreparer.class).in(Scopes.SINGLETON);
         binder.bind(BuiltInQueryPreparerProvider.class).in(Scopes.SINGLETON);
         binder.bind(QueryPreparerProviderManager.class).in(Scopes.SINGLETON);
         newOptionalBinder(binder, QueryExplainer.class);
@@ -602,6 +602,21 @@ public class PrestoSparkModule
         return InMemoryTransactionManager.create(config, scheduledExecutor, catalogManager, executor);
     }
 
+    @Provides
+    @Singleton
+    public static BuiltInQueryPreparer createBuiltInQueryPreparer(SqlParser sqlParser, ProcedureRegistry procedureRegistry, FeaturesConfig featuresConfig)
+    {
+        return new BuiltInQueryPreparer(sqlParser, procedureRegistry, featuresConfig.getStatementCacheSize());
+    }
+
+    @Provides
+    @Singleton
+    @ForHashBuild
+    public static ExecutorService createHashBuildExecutor()
+    {
+        return newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemonThreadsNamed("hash-build-%s"));
+    }
+
     @Provides
     @Singleton
     public static FragmentResultCacheManager createFragmentResultCacheManager(FileFragmentResultCacheConfig config, BlockEncodingSerde blockEncodingSerde, FragmentCacheStats fragmentCacheStats)
@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.tests;
+
+import com.facebook.presto.testing.QueryRunner;
+import com.facebook.presto.tests.tpch.TpchQueryRunnerBuilder;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+public class TestStatementCacheQueries
+        extends AbstractTestQueryFramework
+{
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        return TpchQueryRunnerBuilder.builder()
+                .setExtraProperties(ImmutableMap.of("statement-cache-size", "100"))
+                .build();
+    }
+
+    @Test
+    public void testQueriesThatDifferInLiterals()
+    {
+        // each query runs twice, so that the second run uses the cached statement
+        for (int i = 0; i < 2; i++) {
+            assertQuery("SELECT count(*) FROM orders WHERE orderkey < 10");
+            assertQuery("SELECT count(*) FROM orders WHERE orderkey < 100000");
+            assertQuery("SELECT orderstatus, count(*) FROM orders WHERE orderstatus = 'F' GROUP BY orderstatus");
+            assertQuery("SELECT orderstatus, count(*) FROM orders WHERE orderstatus = 'O' GROUP BY orderstatus");
+            assertQuery("SELECT custkey, count(*) FROM orders WHERE totalprice > 1000.5 GROUP BY 1 ORDER BY 2 DESC, 1 LIMIT 10");
+        }
+    }
+
+    @Test
+    public void testExpressionsWithLiteralsInGroupByAndOrderBy()
+    {
+        for (int i = 0; i < 2; i++) {
+            assertQuery("SELECT custkey % 10, count(*) FROM orders GROUP BY custkey % 10");
+            assertQuery("SELECT custkey % 100, count(*) FROM orders GROUP BY custkey % 100");
+            assertQuery("SELECT custkey % 10, count(*) FROM orders GROUP BY custkey % 10 HAVING count(*) > 10");
+            assertQueryWithSameQueryRunner(
+                    "SELECT date_trunc('month', orderdate), count(*) FROM orders GROUP BY date_trunc('month', orderdate)",
+                    "SELECT date_trunc('month', orderdate), count(*) FROM orders GROUP BY 1");
+            assertQueryOrdered(
+                    "SELECT DISTINCT custkey + 1 FROM orders ORDER BY custkey + 1",
+                    "SELECT DISTINCT custkey + 1 FROM orders ORDER BY custkey + 1");
+            assertQueryOrdered(
+                    "SELECT orderkey, totalprice * 2 FROM orders ORDER BY totalprice * 2 DESC, orderkey LIMIT 10",
+                    "SELECT orderkey, totalprice * 2 FROM orders ORDER BY totalprice * 2 DESC, orderkey LIMIT 10");
+        }
+    }
+}